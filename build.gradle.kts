@@ -2,6 +2,7 @@ plugins {
     java
     alias(libs.plugins.spring.boot)
     alias(libs.plugins.spring.dependency.management)
+    alias(libs.plugins.jmh)
     id("jacoco")
 }
 
@@ -23,19 +24,38 @@ dependencyManagement {
 
 dependencies {
     implementation(libs.spring.boot.starter.web)
+    // reactive 프로필에서 사용한다. 기본 프로필은 servlet(web) 으로 뜬다.
+    implementation(libs.spring.boot.starter.webflux)
+    implementation(libs.spring.boot.starter.actuator)
+    runtimeOnly(libs.micrometer.registry.prometheus)
     compileOnly(libs.lombok)
     annotationProcessor(libs.lombok)
     annotationProcessor(libs.spring.boot.configuration.processor)
     testImplementation(libs.spring.boot.starter.test)
+    testImplementation(libs.reactor.test)
 }
 
 // about source and compilation
 java {
-    sourceCompatibility = JavaVersion.VERSION_17
+    toolchain {
+        languageVersion = JavaLanguageVersion.of(21)
+    }
 }
 
 with(extensions.getByType(JacocoPluginExtension::class.java)) {
-    toolVersion = "0.8.7"
+    toolVersion = "0.8.11"
+}
+
+// benchmark
+// ./gradlew jmh -Pjmh.includes=PointServiceBenchmark -Pjmh.profilers=gc
+jmh {
+    jmhVersion = libs.versions.jmh.get()
+    // throttle 없는 테이블 대역(src/test 의 pointTest.support)을 벤치마크에서 같이 사용한다.
+    includeTests = true
+    findProperty("jmh.includes")?.let { includes = listOf(it.toString()) }
+    findProperty("jmh.profilers")?.let { profilers = it.toString().split(",") }
+    findProperty("jmh.threads")?.let { threads = it.toString().toInt() }
+    resultFormat = "JSON"
 }
 
 // bundling tasks
@@ -49,4 +69,6 @@ tasks.getByName("jar") {
 tasks.test {
     ignoreFailures = true
     useJUnitPlatform()
+    // ./gradlew test -DloadTest=true 로 부하 테스트(PointLoadTest)와 실제 시간을 비교하는 테스트를 함께 실행한다.
+    systemProperty("loadTest", System.getProperty("loadTest") ?: "false")
 }
@@ -0,0 +1,75 @@
+package io.hhplus.tdd.benchmark;
+
+import io.hhplus.tdd.exception.PointServiceException;
+import io.hhplus.tdd.journal.PointJournal;
+import io.hhplus.tdd.point.PointService;
+import io.hhplus.tdd.point.UserPoint;
+import io.hhplus.tdd.pointTest.support.InMemoryPointHistoryTable;
+import io.hhplus.tdd.pointTest.support.InMemoryUserPointTable;
+import io.hhplus.tdd.pointTest.support.PointFixture;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 충전/사용 경로의 요청당 할당량 벤치마크. gc profiler 의 gc.alloc.rate.norm (B/op) 을 본다.
+ * ./gradlew jmh -Pjmh.includes=PointAllocationBenchmark -Pjmh.profilers=gc
+ * - 유저 락 모드, 저널/구독자 없음, throttle 없는 테이블 대역. 유저 id 는 Long 캐시 범위(1~100)라서 대역 테이블의 Map 도 키를 만들지 않는다.
+ * - rejectUse : 잔액 부족 거절. 미리 만든 예외를 던지므로 0 B/op 이어야 한다.
+ * - chargeAndUse : 충전 + 사용 한 쌍. 남는 할당은 돌려주는 UserPoint, 테이블(대역)이 만드는 행 객체,
+ *   writer 스레드가 테이블에 넣는 PointHistory, 인덱스 배열이 두 배로 늘어날 때의 분할 상환 비용뿐이다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+public class PointAllocationBenchmark {
+
+    private static final int USER_COUNT = 100;
+    private static final long INITIAL_POINT = 1_000_000L;
+
+    private PointFixture fixture;
+    private PointService pointService;
+    private long next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new PointFixture(new InMemoryUserPointTable(0), new InMemoryPointHistoryTable(0), USER_COUNT * 2,
+                new PointJournal(false, "", 0, 0));
+        pointService = fixture.pointService;
+        for (long id = 1; id <= USER_COUNT; id++) {
+            pointService.chargeUserPoint(id, INITIAL_POINT);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public long chargeAndUse() {
+        long id = nextUserId();
+        UserPoint charged = pointService.chargeUserPoint(id, 10L);
+        UserPoint used = pointService.useUserPoint(id, 10L);
+        return charged.point() + used.point();
+    }
+
+    @Benchmark
+    public int rejectUse() {
+        try {
+            pointService.useUserPoint(nextUserId(), Long.MAX_VALUE);
+            return 0;
+        } catch (PointServiceException e) {
+            return e.getErrorCode().ordinal();
+        }
+    }
+
+    private long nextUserId() {
+        next = next == USER_COUNT ? 1 : next + 1;
+        return next;
+    }
+}
@@ -0,0 +1,55 @@
+package io.hhplus.tdd.benchmark;
+
+import io.hhplus.tdd.index.PointHistoryIndex;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 유저별 내역 인덱스 조회 vs PointHistoryTable 방식(전체 선형 탐색) 비교
+ * - 전체 내역 수(rows)를 늘려도 인덱스 조회 시간은 유저당 내역 수에만 비례해야 한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PointHistoryIndexBenchmark {
+
+    private static final int USER_COUNT = 100_000;
+
+    @Param({"1000000", "5000000"})
+    public int rows;
+
+    private PointHistoryIndex pointHistoryIndex;
+    private List<PointHistory> table;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pointHistoryIndex = new PointHistoryIndex();
+        table = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            PointHistory pointHistory = new PointHistory(i + 1, i % USER_COUNT, 100L, TransactionType.CHARGE, i);
+            table.add(pointHistory);
+            pointHistoryIndex.append(pointHistory);
+        }
+    }
+
+    @Benchmark
+    public List<PointHistory> index() {
+        return pointHistoryIndex.findAllByUserId(random.nextInt(USER_COUNT));
+    }
+
+    @Benchmark
+    public List<PointHistory> fullScan() {
+        long userId = random.nextInt(USER_COUNT);
+        return table.stream().filter(pointHistory -> pointHistory.userId() == userId).toList();
+    }
+}
@@ -0,0 +1,74 @@
+package io.hhplus.tdd.benchmark;
+
+import io.hhplus.tdd.journal.JournalReplayHandler;
+import io.hhplus.tdd.journal.PointJournal;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+import io.hhplus.tdd.point.UserPoint;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 저널 재생 시간 벤치마크. 재시작할 때 여러 세그먼트에 걸친 records 건을 처음부터 읽는 시간을 잰다.
+ * ./gradlew jmh -Pjmh.includes=PointJournalReplayBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PointJournalReplayBenchmark {
+
+    @Param({"1000000"})
+    public int records;
+
+    private Path journalDir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        journalDir = Files.createTempDirectory("point-journal-bench");
+        PointJournal writer = new PointJournal(true, journalDir.toString(), 8 << 20, 2);
+        writer.open();
+        for (int i = 1; i <= records; i++) {
+            if (i % 2 == 0) {
+                writer.appendBalance(new UserPoint(i % 1000, i, i));
+            } else {
+                writer.appendHistory(new PointHistory(i, i % 1000, i, TransactionType.USE, i));
+            }
+        }
+        writer.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(journalDir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public long replay(Blackhole blackhole) {
+        PointJournal reader = new PointJournal(true, journalDir.toString(), 8 << 20, 2);
+        return reader.replay(new JournalReplayHandler() {
+            @Override
+            public void onBalance(long userId, long point, long updateMillis) {
+                blackhole.consume(point);
+            }
+
+            @Override
+            public void onHistory(long id, long userId, long amount, TransactionType type, long updateMillis) {
+                blackhole.consume(amount);
+            }
+        });
+    }
+}
@@ -0,0 +1,114 @@
+package io.hhplus.tdd.benchmark;
+
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.journal.PointJournal;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointService;
+import io.hhplus.tdd.point.PointTransferResult;
+import io.hhplus.tdd.point.TransactionType;
+import io.hhplus.tdd.point.UserPoint;
+import io.hhplus.tdd.pointTest.support.InMemoryPointHistoryTable;
+import io.hhplus.tdd.pointTest.support.InMemoryUserPointTable;
+import io.hhplus.tdd.pointTest.support.PointFixture;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * PointService 주요 경로 벤치마크
+ * - tables=stub : throttle 없는 테이블 대역을 사용해서 서비스/레포지토리 자체 오버헤드만 측정한다.
+ * - tables=throttled : 실제 UserPointTable/PointHistoryTable (랜덤 sleep 포함)
+ * - distribution : 요청이 유저에게 분산되는 방식 (SINGLE / UNIFORM / ZIPF)
+ * - engine : 같은 유저의 변경을 유저 락(lock)으로 직렬화할지, shard 스레드(sharded, CPU 수만큼)로 직렬화할지
+ *   스레드 수에 따른 확장성은 -Pjmh.threads=1, 2, 4, ... 로 바꿔가며 UNIFORM 에서 비교한다.
+ * - transfer : 짝이 되는 유저(1↔2, 3↔4, ...)에게 이체한다. SINGLE 이면 모든 스레드가 같은 유저 쌍을, UNIFORM 이면 대부분 겹치지 않는 쌍을 쓴다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class PointServiceBenchmark {
+
+    private static final int USER_COUNT = 10_000;
+    private static final long INITIAL_POINT = Long.MAX_VALUE / 4;
+    private static final int HISTORIES_PER_USER = 20;
+
+    @Param({"stub", "throttled"})
+    public String tables;
+
+    @Param({"SINGLE", "UNIFORM", "ZIPF"})
+    public UserIdDistribution distribution;
+
+    @Param({"lock", "sharded"})
+    public String engine;
+
+    private PointFixture fixture;
+    private PointService pointService;
+    private final AtomicLong seeds = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boolean stub = "stub".equals(tables);
+        UserPointTable userPointTable = stub ? new InMemoryUserPointTable(0) : new UserPointTable();
+        PointHistoryTable pointHistoryTable = stub ? new InMemoryPointHistoryTable(0) : new PointHistoryTable();
+        int shards = "sharded".equals(engine) ? Runtime.getRuntime().availableProcessors() : 0;
+        fixture = new PointFixture(userPointTable, pointHistoryTable, USER_COUNT, new PointJournal(false, "", 0, 0), false, shards);
+        pointService = fixture.pointService;
+
+        // 조회/사용 벤치마크용 잔액과 내역을 미리 채운다. 테이블 throttle 을 피하려고 캐시와 인덱스에 직접 넣는다.
+        for (long id = 1; id <= USER_COUNT; id++) {
+            fixture.userPointCache.put(new UserPoint(id, INITIAL_POINT, 0L));
+            for (int i = 0; i < HISTORIES_PER_USER; i++) {
+                fixture.pointHistoryIndex.append(new PointHistory(0L, id, 1L, TransactionType.CHARGE, i));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @State(Scope.Thread)
+    public static class UserPicker {
+        UserIdDistribution.Sampler sampler;
+
+        @Setup(Level.Trial)
+        public void setUp(PointServiceBenchmark benchmark) {
+            sampler = benchmark.distribution.sampler(USER_COUNT, benchmark.seeds.incrementAndGet());
+        }
+    }
+
+    @Benchmark
+    public UserPoint getUserPoint(UserPicker picker) {
+        return pointService.getUserPoint(picker.sampler.next());
+    }
+
+    @Benchmark
+    public UserPoint chargeUserPoint(UserPicker picker) {
+        return pointService.chargeUserPoint(picker.sampler.next(), 1L);
+    }
+
+    @Benchmark
+    public UserPoint useUserPoint(UserPicker picker) {
+        return pointService.useUserPoint(picker.sampler.next(), 1L);
+    }
+
+    @Benchmark
+    public PointTransferResult transfer(UserPicker picker) {
+        long from = picker.sampler.next();
+        long to = from % 2 == 0 ? from - 1 : from + 1;
+        return pointService.transfer(from, to, 1L);
+    }
+
+    @Benchmark
+    public List<PointHistory> getPointHistory(UserPicker picker) {
+        return pointService.getPointHistory(picker.sampler.next());
+    }
+}
@@ -0,0 +1,63 @@
+package io.hhplus.tdd.benchmark;
+
+import java.util.SplittableRandom;
+
+/**
+ * 벤치마크 요청이 어떤 유저에게 몰리는지 정하는 분포
+ * - SINGLE : 모든 요청이 한 유저에게 몰림 (같은 유저 락 경합)
+ * - UNIFORM : 모든 유저에게 고르게 분산
+ * - ZIPF : 소수의 인기 유저에게 요청이 몰림 (s = 1.0)
+ */
+public enum UserIdDistribution {
+    SINGLE, UNIFORM, ZIPF;
+
+    /**
+     * 유저 id(1 ~ userCount)를 뽑는 sampler 를 만든다. sampler 는 스레드마다 따로 만들어 쓴다.
+     * @param userCount
+     * @param seed
+     * @return
+     */
+    public Sampler sampler(int userCount, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        return switch (this) {
+            case SINGLE -> () -> 1L;
+            case UNIFORM -> () -> 1L + random.nextInt(userCount);
+            case ZIPF -> {
+                double[] cumulative = zipfCumulative(userCount);
+                yield () -> 1L + lowerBound(cumulative, random.nextDouble());
+            }
+        };
+    }
+
+    private static double[] zipfCumulative(int userCount) {
+        double[] cumulative = new double[userCount];
+        double sum = 0;
+        for (int rank = 1; rank <= userCount; rank++) {
+            sum += 1.0 / rank;
+            cumulative[rank - 1] = sum;
+        }
+        for (int i = 0; i < userCount; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+
+    private static int lowerBound(double[] cumulative, double value) {
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    @FunctionalInterface
+    public interface Sampler {
+        long next();
+    }
+}
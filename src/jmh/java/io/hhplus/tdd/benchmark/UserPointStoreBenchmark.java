@@ -0,0 +1,95 @@
+package io.hhplus.tdd.benchmark;
+
+import io.hhplus.tdd.point.UserPoint;
+import io.hhplus.tdd.pointTest.support.InMemoryUserPointTable;
+import io.hhplus.tdd.store.OffHeapUserPointStore;
+import io.hhplus.tdd.store.TableUserPointStore;
+import io.hhplus.tdd.store.UserPointStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 잔액 저장소 메모리/GC 비교
+ * - store=table : Map<Long, UserPoint> 에 저장하는 테이블 방식 (throttle 없는 대역)
+ * - store=off-heap : OffHeapUserPointStore
+ * - 유저를 users 명 채운 뒤 힙/direct 버퍼 사용량을 출력하고, 임의 유저 조회/갱신을 측정한다.
+ *   할당량과 GC 횟수는 -Pjmh.profilers=gc 로 본다.
+ * ./gradlew jmh -Pjmh.includes=UserPointStoreBenchmark -Pjmh.profilers=gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx16g", "-XX:MaxDirectMemorySize=8g"})
+@Threads(4)
+public class UserPointStoreBenchmark {
+
+    @Param({"1000000", "10000000", "50000000"})
+    public int users;
+
+    @Param({"table", "off-heap"})
+    public String store;
+
+    private UserPointStore userPointStore;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        long heapBefore = usedHeap();
+        userPointStore = "table".equals(store)
+                ? new TableUserPointStore(new InMemoryUserPointTable(0))
+                : new OffHeapUserPointStore(users, 64);
+        for (long id = 1; id <= users; id++) {
+            userPointStore.insertOrUpdate(id, id);
+        }
+        // table 은 맵과 테이블에 모두 잔액을 두므로, 테이블 쓰기까지 끝난 뒤 heap 을 잰다.
+        if (userPointStore instanceof TableUserPointStore tableUserPointStore) {
+            tableUserPointStore.awaitWritten(600_000);
+        }
+        System.out.printf("%n[%s, %d users] heap +%d MB, direct %d MB%n",
+                store, users, (usedHeap() - heapBefore) >> 20, usedDirect() >> 20);
+    }
+
+    @State(Scope.Thread)
+    public static class UserPicker {
+        private final SplittableRandom random = new SplittableRandom();
+        private int users;
+
+        @Setup(Level.Trial)
+        public void setUp(UserPointStoreBenchmark benchmark) {
+            users = benchmark.users;
+        }
+
+        long next() {
+            return random.nextInt(users) + 1L;
+        }
+    }
+
+    @Benchmark
+    public UserPoint select(UserPicker picker) {
+        return userPointStore.selectById(picker.next());
+    }
+
+    @Benchmark
+    public UserPoint update(UserPicker picker) {
+        long id = picker.next();
+        return userPointStore.insertOrUpdate(id, id);
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long usedDirect() {
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> "direct".equals(pool.getName()))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+    }
+}
@@ -1,20 +1,37 @@
 package io.hhplus.tdd;
 
+import io.hhplus.tdd.exception.AdmissionRejectedException;
+import io.hhplus.tdd.exception.ForbiddenException;
 import io.hhplus.tdd.exception.ServiceException;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+/**
+ * servlet 용 오류 응답. reactive 프로필에서는 ReactiveApiControllerAdvice 가 같은 응답을 만든다.
+ */
 @RestControllerAdvice
+@Profile("!reactive")
 class ApiControllerAdvice extends ResponseEntityExceptionHandler {
     @ExceptionHandler(value = Exception.class)
     public ResponseEntity<ErrorResponse> handleException(Exception e) {
-        return ResponseEntity.status(500).body(new ErrorResponse("500", "에러가 발생했습니다."));
+        return ApiErrorResponses.internalError();
     }
 
     @ExceptionHandler(ServiceException.class)
     public ResponseEntity<ErrorResponse> handleServiceException(ServiceException e) {
-        return ResponseEntity.status(400).body(new ErrorResponse("400", e.getMessage()));
+        return ApiErrorResponses.badRequest(e);
+    }
+
+    @ExceptionHandler(ForbiddenException.class)
+    public ResponseEntity<ErrorResponse> handleForbiddenException(ForbiddenException e) {
+        return ApiErrorResponses.forbidden(e);
+    }
+
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<ErrorResponse> handleAdmissionRejectedException(AdmissionRejectedException e) {
+        return ApiErrorResponses.rejected(e);
     }
 }
@@ -0,0 +1,43 @@
+package io.hhplus.tdd;
+
+import io.hhplus.tdd.exception.AdmissionRejectedException;
+import io.hhplus.tdd.exception.ForbiddenException;
+import io.hhplus.tdd.exception.PointServiceException;
+import io.hhplus.tdd.exception.ServiceException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * 예외를 오류 응답으로 바꾼다. servlet 과 reactive 의 ControllerAdvice 가 같은 응답을 만들도록 함께 쓴다.
+ * - code 는 거절 사유 이름(PointErrorCode)이다. 일괄 처리 결과의 errorCode 와 같은 값을 쓴다.
+ * - 거절 사유가 없는 요청 오류는 INVALID_REQUEST, 처리 중 오류는 INTERNAL_ERROR 로 응답한다.
+ */
+final class ApiErrorResponses {
+
+    static final String INVALID_REQUEST = "INVALID_REQUEST";
+    static final String INTERNAL_ERROR = "INTERNAL_ERROR";
+
+    private ApiErrorResponses() {
+    }
+
+    static ResponseEntity<ErrorResponse> internalError() {
+        return ResponseEntity.status(500).body(new ErrorResponse(INTERNAL_ERROR, "에러가 발생했습니다."));
+    }
+
+    static ResponseEntity<ErrorResponse> badRequest(ServiceException e) {
+        String code = e instanceof PointServiceException rejected && rejected.getErrorCode() != null
+                ? rejected.getErrorCode().name()
+                : INVALID_REQUEST;
+        return ResponseEntity.status(400).body(new ErrorResponse(code, e.getMessage()));
+    }
+
+    static ResponseEntity<ErrorResponse> forbidden(ForbiddenException e) {
+        return ResponseEntity.status(403).body(new ErrorResponse(e.getErrorCode().name(), e.getMessage()));
+    }
+
+    static ResponseEntity<ErrorResponse> rejected(AdmissionRejectedException e) {
+        return ResponseEntity.status(e.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new ErrorResponse(e.getErrorCode().name(), e.getMessage()));
+    }
+}
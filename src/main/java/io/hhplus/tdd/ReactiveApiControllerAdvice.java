@@ -0,0 +1,38 @@
+package io.hhplus.tdd;
+
+import io.hhplus.tdd.exception.AdmissionRejectedException;
+import io.hhplus.tdd.exception.ForbiddenException;
+import io.hhplus.tdd.exception.ServiceException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.reactive.result.method.annotation.ResponseEntityExceptionHandler;
+
+/**
+ * WebFlux 용 오류 응답. (reactive 프로필)
+ * servlet 의 ResponseEntityExceptionHandler 는 WebRequest 를 받으므로 WebFlux 에서는 WebFlux 용을 상속한다.
+ */
+@RestControllerAdvice
+@Profile("reactive")
+class ReactiveApiControllerAdvice extends ResponseEntityExceptionHandler {
+    @ExceptionHandler(value = Exception.class)
+    public ResponseEntity<ErrorResponse> handleException(Exception e) {
+        return ApiErrorResponses.internalError();
+    }
+
+    @ExceptionHandler(ServiceException.class)
+    public ResponseEntity<ErrorResponse> handleServiceException(ServiceException e) {
+        return ApiErrorResponses.badRequest(e);
+    }
+
+    @ExceptionHandler(ForbiddenException.class)
+    public ResponseEntity<ErrorResponse> handleForbiddenException(ForbiddenException e) {
+        return ApiErrorResponses.forbidden(e);
+    }
+
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<ErrorResponse> handleAdmissionRejectedException(AdmissionRejectedException e) {
+        return ApiErrorResponses.rejected(e);
+    }
+}
@@ -0,0 +1,136 @@
+package io.hhplus.tdd.admission;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 지연 시간을 보고 동시 처리 한도를 조절하는 limiter (gradient 방식)
+ * - 처리 중인 요청이 한도에 닿으면 기다리게 하지 않고 바로 거절한다. 그래서 과부하에서도 받은 요청의 지연이 늘어나지 않는다.
+ * - window 마다 그 동안의 평균 지연을 평소 지연(baseline)과 비교한다.
+ *   평균이 baseline * tolerance 를 넘으면 대기가 생기기 시작한 것으로 보고 비율만큼 한도를 줄이고(multiplicative decrease),
+ *   넘지 않으면 sqrt(한도)만큼 늘린다(additive increase).
+ * - 한도를 절반도 쓰지 않은 window 에서는 한도를 늘리지 않는다. 요청이 적을 때 한도만 끝없이 커지는 것을 막는다.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    /**
+     * 새 한도를 반영하는 비율. 한 window 의 지연만 보고 한도가 크게 흔들리지 않게 한다.
+     */
+    private static final double SMOOTHING = 0.2;
+    /**
+     * 평소 지연(baseline)이 window 마다 그 window 의 평균 쪽으로 따라가는 비율.
+     * baseline 은 가장 낮았던 window 평균에서 천천히만 올라가므로, 대기가 길어진 지연을 평소 지연으로 착각하지 않는다.
+     */
+    private static final double BASELINE_DRIFT = 0.001;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final long windowNanos;
+    private final int minWindowSamples;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    /**
+     * 아래 값은 this 를 잠그고 접근한다.
+     */
+    private double estimatedLimit;
+    private double baselineNanos;
+    private long windowStartNanos = System.nanoTime();
+    private long windowSumNanos;
+    private int windowSamples;
+    private int windowMaxInFlight;
+
+    /**
+     * @param minLimit 과부하에서도 유지하는 최소 한도
+     * @param initialLimit
+     * @param maxLimit
+     * @param tolerance 평소 지연의 몇 배까지를 정상으로 볼지
+     * @param windowMillis 한도를 다시 계산하는 주기
+     * @param minWindowSamples window 가 지나도 이만큼 모이기 전에는 계산하지 않는다.
+     */
+    public AdaptiveConcurrencyLimiter(int minLimit, int initialLimit, int maxLimit, double tolerance, long windowMillis,
+                                      int minWindowSamples) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.minWindowSamples = minWindowSamples;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+    }
+
+    /**
+     * 한도 안이면 처리 중인 요청 수를 늘리고 true 를 돌려준다. true 를 받았으면 반드시 release 를 호출한다.
+     * @return 한도에 닿았으면 false
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 처리를 마치고 걸린 시간을 한도 계산에 반영한다.
+     * @param latencyNanos
+     */
+    public void release(long latencyNanos) {
+        int inFlightBeforeRelease = inFlight.getAndDecrement();
+        synchronized (this) {
+            windowSumNanos += latencyNanos;
+            windowSamples++;
+            windowMaxInFlight = Math.max(windowMaxInFlight, inFlightBeforeRelease);
+            long now = System.nanoTime();
+            if (windowSamples < minWindowSamples || now - windowStartNanos < windowNanos) {
+                return;
+            }
+            updateLimit((double) windowSumNanos / windowSamples);
+            windowStartNanos = now;
+            windowSumNanos = 0;
+            windowSamples = 0;
+            windowMaxInFlight = 0;
+        }
+    }
+
+    /**
+     * 지연을 반영하지 않고 반납한다. (비동기로 넘어가서 처리 시간을 알 수 없는 요청)
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * this 를 잠근 상태에서 호출한다.
+     */
+    private void updateLimit(double rttNanos) {
+        if (baselineNanos == 0 || rttNanos < baselineNanos) {
+            baselineNanos = rttNanos;
+        } else {
+            // 테이블이 실제로 느려진 경우에도 결국 따라가도록 천천히 올린다.
+            baselineNanos += (rttNanos - baselineNanos) * BASELINE_DRIFT;
+        }
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * baselineNanos / rttNanos));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        if (newLimit > estimatedLimit && windowMaxInFlight < estimatedLimit / 2) {
+            return;
+        }
+        newLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,155 @@
+package io.hhplus.tdd.admission;
+
+import io.hhplus.tdd.exception.AdmissionRejectedException;
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.hhplus.tdd.metrics.PointMetrics;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 포인트 API 앞에서 요청을 받을지 정한다. (admission control)
+ * - 조회(GET)와 변경(그 외)은 limiter 를 따로 둔다. 변경 요청이 몰려도 조회는 계속 받는다.
+ * - 한도를 넘은 요청은 컨트롤러에 들어가기 전에 503 으로 바로 거절한다. 테이블 throttle 앞에 요청이 쌓이지 않는다.
+ * - user-rate.enabled 면 경로에 {id} 가 있는 요청을 유저별 token bucket 으로 제한하고, 넘으면 429 로 거절한다.
+ */
+@Component
+public class AdmissionInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String LIMITER_ATTRIBUTE = AdmissionInterceptor.class.getName() + ".limiter";
+    private static final String START_ATTRIBUTE = AdmissionInterceptor.class.getName() + ".start";
+    private static final String USER_ID_VARIABLE = "id";
+    private static final long OVERLOADED_RETRY_AFTER_SECONDS = 1;
+
+    private final boolean enabled;
+    private final AdaptiveConcurrencyLimiter readLimiter;
+    private final AdaptiveConcurrencyLimiter writeLimiter;
+    private final UserRateLimiter userRateLimiter;
+    private final PointMetrics pointMetrics;
+
+    @Autowired
+    public AdmissionInterceptor(
+            PointMetrics pointMetrics,
+            @Value("${point.admission.enabled:false}") boolean enabled,
+            @Value("${point.admission.read.initial-limit:64}") int readInitialLimit,
+            @Value("${point.admission.read.max-limit:1000}") int readMaxLimit,
+            @Value("${point.admission.write.initial-limit:32}") int writeInitialLimit,
+            @Value("${point.admission.write.max-limit:500}") int writeMaxLimit,
+            @Value("${point.admission.min-limit:4}") int minLimit,
+            @Value("${point.admission.tolerance:2.0}") double tolerance,
+            @Value("${point.admission.window-ms:100}") long windowMillis,
+            @Value("${point.admission.user-rate.enabled:false}") boolean userRateEnabled,
+            @Value("${point.admission.user-rate.permits-per-second:50}") double permitsPerSecond,
+            @Value("${point.admission.user-rate.burst:100}") int burst,
+            @Value("${point.admission.user-rate.max-users:100000}") int maxUsers
+    ) {
+        this(pointMetrics, enabled,
+                new AdaptiveConcurrencyLimiter(minLimit, readInitialLimit, readMaxLimit, tolerance, windowMillis, minLimit),
+                new AdaptiveConcurrencyLimiter(minLimit, writeInitialLimit, writeMaxLimit, tolerance, windowMillis, minLimit),
+                userRateEnabled ? new UserRateLimiter(permitsPerSecond, burst, maxUsers, System::nanoTime) : null);
+    }
+
+    /**
+     * @param userRateLimiter 유저별 제한을 하지 않으면 null
+     */
+    public AdmissionInterceptor(PointMetrics pointMetrics, boolean enabled, AdaptiveConcurrencyLimiter readLimiter,
+                                AdaptiveConcurrencyLimiter writeLimiter, UserRateLimiter userRateLimiter) {
+        this.pointMetrics = pointMetrics;
+        this.enabled = enabled;
+        this.readLimiter = readLimiter;
+        this.writeLimiter = writeLimiter;
+        this.userRateLimiter = userRateLimiter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // 비동기 처리 후 다시 들어온 dispatch 는 처음 요청에서 이미 받았다.
+        if (!enabled || request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        if (userRateLimiter != null) {
+            Long userId = userIdOf(request);
+            if (userId != null) {
+                long waitNanos = userRateLimiter.tryAcquire(userId);
+                if (waitNanos > 0) {
+                    // 다음 토큰이 차는 시점을 초 단위로 올림해서 알려준다.
+                    throw reject(PointErrorCode.RATE_LIMITED, HttpStatus.TOO_MANY_REQUESTS,
+                            TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+                }
+            }
+        }
+        AdaptiveConcurrencyLimiter limiter = isRead(request) ? readLimiter : writeLimiter;
+        if (!limiter.tryAcquire()) {
+            throw reject(PointErrorCode.OVERLOADED, HttpStatus.SERVICE_UNAVAILABLE, OVERLOADED_RETRY_AFTER_SECONDS);
+        }
+        request.setAttribute(LIMITER_ATTRIBUTE, limiter);
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        AdaptiveConcurrencyLimiter limiter = (AdaptiveConcurrencyLimiter) request.getAttribute(LIMITER_ATTRIBUTE);
+        if (limiter == null) {
+            return;
+        }
+        request.removeAttribute(LIMITER_ATTRIBUTE);
+        limiter.release(System.nanoTime() - (long) request.getAttribute(START_ATTRIBUTE));
+    }
+
+    /**
+     * 비동기로 넘어간 요청은 처리 시간이 응답 시간과 달라서 지연을 반영하지 않고 바로 반납한다.
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        AdaptiveConcurrencyLimiter limiter = (AdaptiveConcurrencyLimiter) request.getAttribute(LIMITER_ATTRIBUTE);
+        if (limiter == null) {
+            return;
+        }
+        request.removeAttribute(LIMITER_ATTRIBUTE);
+        limiter.release();
+    }
+
+    public AdaptiveConcurrencyLimiter readLimiter() {
+        return readLimiter;
+    }
+
+    public AdaptiveConcurrencyLimiter writeLimiter() {
+        return writeLimiter;
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        String method = request.getMethod();
+        return "GET".equals(method) || "HEAD".equals(method);
+    }
+
+    /**
+     * @return 경로에 {id} 가 없거나 숫자가 아니면 null (숫자가 아니면 컨트롤러가 400 으로 응답한다)
+     */
+    @SuppressWarnings("unchecked")
+    private static Long userIdOf(HttpServletRequest request) {
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variables == null || variables.get(USER_ID_VARIABLE) == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(variables.get(USER_ID_VARIABLE));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private AdmissionRejectedException reject(PointErrorCode errorCode, HttpStatus status, long retryAfterSeconds) {
+        pointMetrics.recordRejection(errorCode);
+        return new AdmissionRejectedException(errorCode, status.value(), retryAfterSeconds);
+    }
+}
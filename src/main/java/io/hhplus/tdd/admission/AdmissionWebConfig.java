@@ -0,0 +1,25 @@
+package io.hhplus.tdd.admission;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * 포인트 API 에 admission control 을 건다.
+ * - 잔액 변경 스트림은 연결을 오래 잡고 있으므로 제외한다.
+ * - 일괄 처리는 point.batch.parallelism 으로 따로 동시 처리 수를 제한하고, 요청 하나가 오래 걸려 지연 측정을 흐리므로 제외한다.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class AdmissionWebConfig implements WebMvcConfigurer {
+
+    private final AdmissionInterceptor admissionInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(admissionInterceptor)
+                .addPathPatterns("/point/**")
+                .excludePathPatterns("/point/*/stream", "/point/batch");
+    }
+}
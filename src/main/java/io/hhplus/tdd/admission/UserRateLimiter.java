@@ -0,0 +1,123 @@
+package io.hhplus.tdd.admission;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 유저별 token bucket
+ * - 초당 permits-per-second 개씩 토큰이 차고, 최대 burst 개까지 모인다. 요청마다 토큰 하나를 쓴다.
+ * - 토큰은 요청이 올 때 지난 시간만큼 한 번에 채우므로 토큰을 채우는 스레드가 따로 없다.
+ * - 버킷은 stripe 별 LRU 에 두고, stripe 가 차면 그 stripe 에서 가장 오래 요청이 없던 유저의 버킷을 지운다.
+ *   새 유저마다 전체 버킷을 훑지 않고, 버킷 수는 max-users 를 넘지 않는다.
+ *   지운 유저는 다시 오면 가득 찬 버킷으로 시작한다. 가장 오래 요청이 없던 유저라 보통은 이미 가득 차 있다.
+ * - stripe 는 버킷을 찾고 넣는 동안만 잠근다. 토큰 계산은 버킷마다 잠근다.
+ */
+public class UserRateLimiter {
+
+    private static final int MAX_STRIPES = 64;
+
+    private final Stripe[] stripes;
+    private final double permitsPerNanos;
+    private final double burst;
+    private final LongSupplier nanoClock;
+
+    /**
+     * @param permitsPerSecond
+     * @param burst
+     * @param maxUsers
+     * @param nanoClock System::nanoTime
+     */
+    public UserRateLimiter(double permitsPerSecond, int burst, int maxUsers, LongSupplier nanoClock) {
+        this.permitsPerNanos = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.nanoClock = nanoClock;
+        // stripe 마다 한 개 이상 담도록 stripe 수는 max-users 이하의 2의 거듭제곱이고, 용량의 합은 max-users 다.
+        int stripeCount = Integer.highestOneBit(Math.max(1, Math.min(MAX_STRIPES, maxUsers)));
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(Math.max(1, maxUsers / stripeCount + (i < maxUsers % stripeCount ? 1 : 0)));
+        }
+    }
+
+    /**
+     * 유저의 토큰을 하나 쓴다.
+     * @param userId
+     * @return 0 이면 허용, 아니면 다음 토큰이 찰 때까지 기다려야 하는 시간(nanos)
+     */
+    public long tryAcquire(long userId) {
+        long now = nanoClock.getAsLong();
+        Stripe stripe = stripes[(int) hash(userId) & (stripes.length - 1)];
+        Bucket bucket;
+        synchronized (stripe) {
+            bucket = stripe.get(userId);
+            if (bucket == null) {
+                bucket = new Bucket(now);
+                stripe.put(userId, bucket);
+            }
+        }
+        return bucket.tryConsume(now);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    private static long hash(long userId) {
+        // 연속된 id 가 한 stripe 에 몰리지 않도록 비트를 섞는다.
+        long hash = userId * 0x9e3779b97f4a7c15L;
+        return hash ^ (hash >>> 29);
+    }
+
+    /**
+     * 접근 순서를 유지하는 LinkedHashMap. 용량을 넘으면 가장 오래 접근하지 않은 버킷을 지운다.
+     */
+    private static final class Stripe extends LinkedHashMap<Long, Bucket> {
+
+        private final int capacity;
+
+        private Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Bucket> eldest) {
+            return size() > capacity;
+        }
+    }
+
+    private final class Bucket {
+
+        private double tokens = burst;
+        private long refilledNanos;
+
+        private Bucket(long now) {
+            this.refilledNanos = now;
+        }
+
+        private synchronized long tryConsume(long now) {
+            refill(now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / permitsPerNanos);
+        }
+
+        private void refill(long now) {
+            // 다른 스레드가 더 늦은 시각으로 이미 채웠으면 그대로 둔다.
+            if (now > refilledNanos) {
+                tokens = Math.min(burst, tokens + (now - refilledNanos) * permitsPerNanos);
+                refilledNanos = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package io.hhplus.tdd.cache;
+
+import io.hhplus.tdd.point.UserPoint;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 유저 포인트 LRU 캐시
+ * - 이 프로세스가 잔액 저장소(UserPointStore)의 유일한 writer 이므로 갱신 시점에 캐시를 같이 써두면 조회는 저장소를 거치지 않는다.
+ * - capacity 를 넘으면 가장 오래 조회되지 않은 유저부터 제거한다.
+ * - capacity 만큼의 배열을 처음에 만들어두고, 유저 id 를 long 그대로 키로 쓰는 open addressing 해시와 배열 index 로 연결한 LRU 목록으로 관리한다.
+ *   조회/갱신할 때 Long 키나 map 엔트리를 만들지 않는다.
+ * - 조회도 LRU 순서를 바꾸므로 락이 필요하다. 유저 id 로 나눈 segment 마다 따로 잠가서, 서로 다른 유저의 조회가 한 락에 줄 서지 않게 한다.
+ *   LRU 순서는 segment 안에서만 지키므로 가장 오래된 유저가 아니라 그 segment 에서 가장 오래된 유저가 제거된다.
+ *   segment 가 너무 작으면 이 차이가 커지므로, capacity 가 작으면 segment 수를 줄인다. (MIN_SEGMENT_CAPACITY 미만이면 하나)
+ * - 갱신(put)과 이관 삭제(evict)는 유저 id 로 나눈 쓰기 표시(write stamp)를 올린다. 저장소에서 읽어 온 값은 읽기 전에 받아둔 표시가
+ *   그대로일 때만 채우므로, 읽는 사이에 갱신된 값이 용량 초과로 이미 밀려났어도 갱신 전 값이 캐시에 남지 않는다.
+ */
+@Component
+public class UserPointCache {
+
+    private static final int NONE = -1;
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_SEGMENT_CAPACITY = 128;
+    /**
+     * segment 마다 둘 쓰기 표시 수. 같은 표시를 쓰는 다른 유저가 갱신되면 채우기를 한 번 건너뛸 뿐이다.
+     */
+    private static final int STAMPS_PER_SEGMENT = 64;
+
+    private final int capacity;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final Segment[] segments;
+    private final int segmentMask;
+
+    public UserPointCache(@Value("${point.cache.capacity:10000}") int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("point.cache.capacity 는 1 이상이어야 합니다.");
+        }
+        this.capacity = capacity;
+        int segmentCount = Integer.highestOneBit(Math.max(1, Math.min(MAX_SEGMENTS, capacity / MIN_SEGMENT_CAPACITY)));
+        this.segments = new Segment[segmentCount];
+        this.segmentMask = segmentCount - 1;
+        // segment 별 capacity 의 합이 capacity 가 되도록 나머지를 앞 segment 에 하나씩 더 준다.
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(capacity / segmentCount + (i < capacity % segmentCount ? 1 : 0), evictions);
+        }
+    }
+
+    /**
+     * 캐시된 포인트 조회. 없으면 null
+     * @param id
+     * @return
+     */
+    public UserPoint get(long id) {
+        long hash = hash(id);
+        Segment segment = segmentOf(hash);
+        UserPoint userPoint = null;
+        synchronized (segment) {
+            int entry = segment.find(id, hash);
+            if (entry != NONE) {
+                userPoint = segment.values[entry];
+                segment.touch(entry);
+            }
+        }
+        if (userPoint == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return userPoint;
+    }
+
+    /**
+     * 갱신된 포인트를 캐시에 반영한다. (write-through)
+     * @param userPoint
+     */
+    public void put(UserPoint userPoint) {
+        long hash = hash(userPoint.id());
+        Segment segment = segmentOf(hash);
+        synchronized (segment) {
+            segment.writeStamps[stampOf(hash)]++;
+            int entry = segment.find(userPoint.id(), hash);
+            if (entry == NONE) {
+                segment.insert(userPoint, hash);
+                return;
+            }
+            segment.values[entry] = userPoint;
+            segment.touch(entry);
+        }
+    }
+
+    /**
+     * id 의 쓰기 표시. 저장소를 읽기 전에 받아두고 putIfNotWrittenSince 에 넘긴다.
+     * @param id
+     * @return
+     */
+    public long writeStamp(long id) {
+        long hash = hash(id);
+        Segment segment = segmentOf(hash);
+        synchronized (segment) {
+            return segment.writeStamps[stampOf(hash)];
+        }
+    }
+
+    /**
+     * 저장소에서 읽어온 값을 캐시에 채운다.
+     * 이미 캐시된 값이 있으면 그 값을 유지하고 반환한다.
+     * stamp 를 받은 뒤 같은 표시의 갱신이나 삭제가 있었으면 읽은 값이 갱신 전 값일 수 있으므로 채우지 않고 그대로 반환한다.
+     * @param userPoint
+     * @param stamp 저장소를 읽기 전에 받은 writeStamp
+     * @return 캐시에 남아있는 값. 채우지 않았으면 userPoint
+     */
+    public UserPoint putIfNotWrittenSince(UserPoint userPoint, long stamp) {
+        long hash = hash(userPoint.id());
+        Segment segment = segmentOf(hash);
+        synchronized (segment) {
+            int entry = segment.find(userPoint.id(), hash);
+            if (entry != NONE) {
+                segment.touch(entry);
+                return segment.values[entry];
+            }
+            if (segment.writeStamps[stampOf(hash)] == stamp) {
+                segment.insert(userPoint, hash);
+            }
+            return userPoint;
+        }
+    }
+
+    /**
+     * 테이블에서 읽어온 값을 캐시에 채운다.
+     * 테이블을 읽는 사이에 갱신된 값이 이미 있으면 그 값을 유지하고 반환한다.
+     * @param userPoint
+     * @return 캐시에 남아있는 값
+     */
+    public UserPoint putIfAbsent(UserPoint userPoint) {
+        long hash = hash(userPoint.id());
+        Segment segment = segmentOf(hash);
+        synchronized (segment) {
+            int entry = segment.find(userPoint.id(), hash);
+            if (entry != NONE) {
+                segment.touch(entry);
+                return segment.values[entry];
+            }
+            segment.insert(userPoint, hash);
+            return userPoint;
+        }
+    }
+
+    public void evict(long id) {
+        long hash = hash(id);
+        Segment segment = segmentOf(hash);
+        synchronized (segment) {
+            segment.writeStamps[stampOf(hash)]++;
+            int entry = segment.find(id, hash);
+            if (entry != NONE) {
+                segment.remove(entry);
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    private Segment segmentOf(long hash) {
+        // 슬롯은 아래 비트로 고르므로 segment 는 위 비트로 고른다.
+        return segments[(int) (hash >>> 48) & segmentMask];
+    }
+
+    private static int stampOf(long hash) {
+        // 슬롯(아래 비트)과 segment(48 번째 비트부터)에 쓰지 않는 비트로 고른다.
+        return (int) (hash >>> 32) & (STAMPS_PER_SEGMENT - 1);
+    }
+
+    private static long hash(long id) {
+        // 연속된 id 가 이웃한 슬롯에 몰리지 않도록 비트를 섞는다.
+        long hash = id * 0x9e3779b97f4a7c15L;
+        return hash ^ (hash >>> 32);
+    }
+
+    /**
+     * 배열로 만든 LRU 하나. 이 segment 를 잠근 상태에서만 호출한다.
+     */
+    private static final class Segment {
+
+        private final int capacity;
+        private final LongAdder evictions;
+
+        /**
+         * 엔트리 번호별 값과 LRU 목록의 앞/뒤 엔트리 번호
+         */
+        private final long[] ids;
+        private final UserPoint[] values;
+        private final int[] newer;
+        private final int[] older;
+        /**
+         * 해시 슬롯별 엔트리 번호. 빈 슬롯은 NONE
+         */
+        private final int[] slots;
+        private final int slotMask;
+        /**
+         * 표시별 갱신/삭제 횟수
+         */
+        private final long[] writeStamps = new long[STAMPS_PER_SEGMENT];
+        private int size;
+        private int newest = NONE;
+        private int oldest = NONE;
+
+        private Segment(int capacity, LongAdder evictions) {
+            this.capacity = capacity;
+            this.evictions = evictions;
+            this.ids = new long[capacity];
+            this.values = new UserPoint[capacity];
+            this.newer = new int[capacity];
+            this.older = new int[capacity];
+            // 슬롯의 절반 이하만 차도록 잡는다.
+            int slotCount = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) << 1;
+            this.slots = new int[slotCount];
+            this.slotMask = slotCount - 1;
+            Arrays.fill(slots, NONE);
+        }
+
+        /**
+         * 새 엔트리를 가장 최근 위치에 넣는다. 가득 찼으면 가장 오래된 엔트리를 지우고 그 번호를 다시 쓴다.
+         */
+        private void insert(UserPoint userPoint, long hash) {
+            if (size == capacity) {
+                remove(oldest);
+                evictions.increment();
+            }
+            // 지운 엔트리는 항상 마지막 번호로 옮겨두므로 [0, size) 가 사용 중인 번호다.
+            int entry = size++;
+            ids[entry] = userPoint.id();
+            values[entry] = userPoint;
+            linkNewest(entry);
+            int slot = (int) hash & slotMask;
+            while (slots[slot] != NONE) {
+                slot = (slot + 1) & slotMask;
+            }
+            slots[slot] = entry;
+        }
+
+        private void remove(int entry) {
+            deleteSlot(slotWith(entry));
+            unlink(entry);
+            int last = --size;
+            if (entry != last) {
+                moveEntry(last, entry);
+            }
+            values[last] = null;
+        }
+
+        /**
+         * 마지막 번호의 엔트리를 비어 있는 번호로 옮긴다.
+         */
+        private void moveEntry(int from, int to) {
+            slots[slotWith(from)] = to;
+            ids[to] = ids[from];
+            values[to] = values[from];
+            newer[to] = newer[from];
+            older[to] = older[from];
+            if (newer[to] == NONE) {
+                newest = to;
+            } else {
+                older[newer[to]] = to;
+            }
+            if (older[to] == NONE) {
+                oldest = to;
+            } else {
+                newer[older[to]] = to;
+            }
+        }
+
+        private void touch(int entry) {
+            if (entry == newest) {
+                return;
+            }
+            unlink(entry);
+            linkNewest(entry);
+        }
+
+        private void linkNewest(int entry) {
+            newer[entry] = NONE;
+            older[entry] = newest;
+            if (newest != NONE) {
+                newer[newest] = entry;
+            }
+            newest = entry;
+            if (oldest == NONE) {
+                oldest = entry;
+            }
+        }
+
+        private void unlink(int entry) {
+            if (newer[entry] == NONE) {
+                newest = older[entry];
+            } else {
+                older[newer[entry]] = older[entry];
+            }
+            if (older[entry] == NONE) {
+                oldest = newer[entry];
+            } else {
+                newer[older[entry]] = newer[entry];
+            }
+        }
+
+        private int find(long id, long hash) {
+            int slot = (int) hash & slotMask;
+            while (slots[slot] != NONE) {
+                if (ids[slots[slot]] == id) {
+                    return slots[slot];
+                }
+                slot = (slot + 1) & slotMask;
+            }
+            return NONE;
+        }
+
+        private int slotWith(int entry) {
+            int slot = slotOf(ids[entry]);
+            while (slots[slot] != entry) {
+                slot = (slot + 1) & slotMask;
+            }
+            return slot;
+        }
+
+        /**
+         * 슬롯을 비우고, 뒤따르는 슬롯 중 비운 자리로 와야 할 엔트리를 당겨서 탐색이 끊기지 않게 한다. (backward shift deletion)
+         */
+        private void deleteSlot(int slot) {
+            int hole = slot;
+            int next = (hole + 1) & slotMask;
+            while (slots[next] != NONE) {
+                int home = slotOf(ids[slots[next]]);
+                // home 이 (hole, next] 구간 밖이면 hole 로 당길 수 있다.
+                if (((next - home) & slotMask) >= ((next - hole) & slotMask)) {
+                    slots[hole] = slots[next];
+                    hole = next;
+                }
+                next = (next + 1) & slotMask;
+            }
+            slots[hole] = NONE;
+        }
+
+        private int slotOf(long id) {
+            return (int) hash(id) & slotMask;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package io.hhplus.tdd.cluster;
+
+import io.hhplus.tdd.exception.ForbiddenException;
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.hhplus.tdd.metrics.PointMetrics;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * 클러스터 구성을 바꾸는 API(/cluster/** 중 GET 이 아닌 요청)는 같은 secret 을 가진 노드나 운영자만 호출하게 한다.
+ * - 노드 목록 조회(GET /cluster/nodes)는 클라이언트가 담당 노드를 찾을 때 쓰므로 막지 않는다.
+ */
+@Component
+@RequiredArgsConstructor
+public class ClusterAuthInterceptor implements HandlerInterceptor {
+
+    private final PointClusterRouter pointClusterRouter;
+    private final PointMetrics pointMetrics;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if ("GET".equals(request.getMethod())) {
+            return true;
+        }
+        if (!pointClusterRouter.isTrustedNode(request.getHeader(PointClusterRouter.SECRET_HEADER))) {
+            pointMetrics.recordRejection(PointErrorCode.UNTRUSTED_NODE);
+            throw new ForbiddenException(PointErrorCode.UNTRUSTED_NODE);
+        }
+        return true;
+    }
+}
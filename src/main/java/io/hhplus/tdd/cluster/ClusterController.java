@@ -0,0 +1,69 @@
+package io.hhplus.tdd.cluster;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 클러스터 구성 API (servlet)
+ * - PUT /cluster/nodes 로 노드 구성을 바꾼다. 나머지는 노드끼리 재배치를 진행할 때 쓴다.
+ * - /point/** 가 아니므로 admission control 과 라우팅을 받지 않는다.
+ * - 클러스터 모드일 때만 등록한다. 조회를 뺀 API 는 ClusterAuthInterceptor 가 X-Point-Cluster-Secret 을 확인한다.
+ */
+@RestController
+@RequestMapping("/cluster")
+@Profile("!reactive")
+@ConditionalOnProperty(name = "point.cluster.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ClusterController {
+
+    private final PointClusterRouter pointClusterRouter;
+
+    @GetMapping("nodes")
+    public ClusterMembership nodes() {
+        return pointClusterRouter.membership();
+    }
+
+    /**
+     * 노드 목록을 바꾸고, 담당이 바뀐 유저의 잔액과 내역을 새 담당 노드로 옮긴다.
+     * 들어오는 노드는 먼저 띄워두고, 나가는 노드는 끝난 뒤 내린다.
+     */
+    @PutMapping("nodes")
+    public RebalanceReport changeNodes(
+            @RequestBody List<String> nodes
+    ) {
+        return pointClusterRouter.rebalance(nodes);
+    }
+
+    @PostMapping("rebalance/prepare")
+    public void prepare(
+            @RequestBody List<String> nodes
+    ) {
+        pointClusterRouter.prepare(nodes);
+    }
+
+    @PostMapping("rebalance/handoff")
+    public long handOff() {
+        return pointClusterRouter.handOff();
+    }
+
+    @PostMapping("rebalance/commit")
+    public void commit() {
+        pointClusterRouter.commit();
+    }
+
+    @PostMapping("handoff")
+    public void accept(
+            @RequestBody List<PointHandoff> handoffs
+    ) {
+        pointClusterRouter.accept(handoffs);
+    }
+}
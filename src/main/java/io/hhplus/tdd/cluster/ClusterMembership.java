@@ -0,0 +1,16 @@
+package io.hhplus.tdd.cluster;
+
+import java.util.List;
+
+/**
+ * 노드가 보고 있는 클러스터 구성
+ * @param self 이 노드의 주소
+ * @param nodes 지금 유저를 나누는 노드 목록
+ * @param nextNodes 재배치 중이면 바뀔 노드 목록, 아니면 null
+ */
+public record ClusterMembership(
+        String self,
+        List<String> nodes,
+        List<String> nextNodes
+) {
+}
@@ -0,0 +1,37 @@
+package io.hhplus.tdd.cluster;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * 포인트 API 를 유저의 담당 노드로 보낸다.
+ * - admission control 보다 먼저 실행해서, 다른 노드로 보낼 요청이 이 노드의 한도를 쓰지 않게 한다.
+ * - 잔액 변경 스트림은 연결을 오래 잡고 있어서 전달하지 않는다. 클라이언트가 담당 노드(GET /cluster/nodes)에 직접 구독한다.
+ * - 일괄 처리는 여러 유저가 섞여 있어서 전달하지 않는다. PointBatchService 가 유저마다 guard 를 잡고, 담당하지 않는 유저는 NOT_OWNER 결과로 남긴다.
+ * - 이체는 PointController 에서 두 유저의 guard 를 함께 잡는다.
+ * - 클러스터 구성 API 는 ClusterAuthInterceptor 로 secret 을 확인한다. 클러스터 모드가 아니면 API 가 등록되지 않으므로 걸지 않는다.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class ClusterWebConfig implements WebMvcConfigurer {
+
+    private final PointRoutingInterceptor pointRoutingInterceptor;
+    private final ClusterAuthInterceptor clusterAuthInterceptor;
+    private final PointClusterRouter pointClusterRouter;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(pointRoutingInterceptor)
+                .addPathPatterns("/point/**")
+                .excludePathPatterns("/point/*/stream", "/point/batch", "/point/transfer")
+                .order(Ordered.HIGHEST_PRECEDENCE);
+        if (pointClusterRouter.isEnabled()) {
+            registry.addInterceptor(clusterAuthInterceptor)
+                    .addPathPatterns("/cluster/**")
+                    .order(Ordered.HIGHEST_PRECEDENCE);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package io.hhplus.tdd.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * 유저 id 를 담당 노드에 배정하는 consistent hash ring
+ * - 노드마다 virtualNodes 개의 점을 ring 에 찍고, 유저 id 의 hash 에서 시계 방향으로 처음 만나는 점의 노드가 담당한다.
+ * - 노드가 하나 들어오거나 나가면 그 노드의 점 주변 유저만 담당이 바뀐다. (전체의 약 1/노드 수)
+ * - 만든 뒤에는 바뀌지 않는다. 노드 구성이 바뀌면 새 ring 을 만든다.
+ */
+public final class ConsistentHashRing {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final List<String> nodes;
+    private final long[] points;
+    private final String[] owners;
+
+    /**
+     * @param nodes 노드 주소 (예: http://10.0.0.1:8080). 순서와 중복은 결과에 영향이 없다.
+     * @param virtualNodes 노드마다 ring 에 찍는 점의 수. 많을수록 유저가 고르게 나뉜다.
+     */
+    public ConsistentHashRing(Collection<String> nodes, int virtualNodes) {
+        TreeSet<String> distinct = new TreeSet<>(nodes);
+        TreeMap<Long, String> ring = new TreeMap<>();
+        for (String node : distinct) {
+            for (int i = 0; i < virtualNodes; i++) {
+                // 점이 겹치면 어느 노드에서 만들어도 같은 결과가 나오도록 이름이 앞선 노드가 가져간다.
+                ring.merge(hash(node + "#" + i), node, (a, b) -> a.compareTo(b) <= 0 ? a : b);
+            }
+        }
+        this.nodes = List.copyOf(distinct);
+        this.points = new long[ring.size()];
+        this.owners = new String[ring.size()];
+        int i = 0;
+        for (var entry : ring.entrySet()) {
+            points[i] = entry.getKey();
+            owners[i] = entry.getValue();
+            i++;
+        }
+    }
+
+    /**
+     * @param userId
+     * @return 노드가 없으면 null
+     */
+    public String ownerOf(long userId) {
+        if (points.length == 0) {
+            return null;
+        }
+        int index = Arrays.binarySearch(points, mix(userId));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    /**
+     * @return 이름순으로 정렬된 노드 주소
+     */
+    public List<String> nodes() {
+        return nodes;
+    }
+
+    private static long hash(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * MurmurHash3 fmix64. 연속된 id 도 ring 전체에 흩어지게 한다.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
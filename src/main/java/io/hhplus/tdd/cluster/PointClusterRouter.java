@@ -0,0 +1,607 @@
+package io.hhplus.tdd.cluster;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hhplus.tdd.exception.AdmissionRejectedException;
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.hhplus.tdd.exception.PointServiceException;
+import io.hhplus.tdd.exception.ServiceException;
+import io.hhplus.tdd.index.PointHistoryIndex;
+import io.hhplus.tdd.ledger.PointLedger;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointHistoryRepository;
+import io.hhplus.tdd.point.UserPoint;
+import io.hhplus.tdd.point.UserPointRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 여러 노드가 유저를 나눠 담당하게 한다. (consistent hashing)
+ * - 유저마다 담당 노드가 하나 있고, 잔액/내역은 담당 노드에만 있다. 다른 노드로 온 요청은 담당 노드의 같은 API 로 그대로 전달한다.
+ * - 전달받은 요청(X-Point-Forwarded)은 이미 넘긴 유저가 아니면 다시 전달하지 않는다. 노드 사이 구성이 어긋나 담당이 아니면 503 으로 다시 시도하게 한다.
+ * - 노드 구성 변경(rebalance)은 한 노드가 모든 노드에 세 단계로 진행한다.
+ *   1. prepare : 바뀔 ring 을 알려준다. 이후 옮겨갈 유저 중 내역도 잔액도 없는 유저는 새 담당 노드로 보낸다.
+ *   2. handoff : 노드마다 하나씩, 옮겨갈 유저의 잔액과 내역을 새 담당 노드에 HANDOFF_BATCH_SIZE 명씩 넘긴다. 넘긴 유저는 그 노드로 보낸다.
+ *      넘길 유저는 내역 인덱스와 잔액 저장소 양쪽에서 찾는다. 받는 노드는 한 묶음의 잔액과 내역을 한 번에 저장한다.
+ *   3. commit : 새 ring 으로 바꾼다.
+ *   한 단계가 실패하면 같은 구성으로 다시 요청한다. 넘겨받는 쪽은 유저의 내역을 통째로 바꾸므로 여러 번 넘겨받아도 같다.
+ * - 이 노드에서 처리하는 요청은 유저의 guard(read lock)를 잡는다. 유저를 넘길 때는 write lock 을 잡고 잔액/내역을 읽은 뒤
+ *   넘기는 중(inTransit)으로 표시하고 바로 푼다. 다른 노드에 보내는 동안에는 guard 를 잡지 않고, 그 유저의 요청은 503 으로 다시 시도하게 한다.
+ *   그래서 넘긴 뒤 바뀐 잔액을 잃지 않고, 넘기지 않는 유저의 요청은 멈추지 않는다.
+ * - 옮긴 내역은 새 노드에서도 원래 id 를 쓴다. Idempotency-Key 기록과 잔액 변경 구독은 옮기지 않는다.
+ * - 노드끼리 주고받는 요청(/cluster/**)에는 point.cluster.secret 을 X-Point-Cluster-Secret 헤더로 붙이고, 받는 쪽은 같은 값일 때만 처리한다.
+ *   잔액을 덮어쓰거나 유저를 다른 주소로 넘기는 API 이므로, 클러스터 모드가 아니면 모두 거절하고 secret 없이는 클러스터 모드를 시작하지 않는다.
+ * - 넘겨준 노드와 넘겨받은 노드 모두 저널에 유저 삭제를 기록하므로, 재시작해도 옮기기 전의 잔액/내역으로 돌아가지 않는다.
+ */
+@Component
+public class PointClusterRouter {
+
+    public static final String FORWARDED_HEADER = "X-Point-Forwarded";
+    public static final String SECRET_HEADER = "X-Point-Cluster-Secret";
+
+    private static final Logger log = LoggerFactory.getLogger(PointClusterRouter.class);
+    private static final int GUARD_STRIPES = 256;
+    private static final List<String> FORWARDED_REQUEST_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.ACCEPT, "Idempotency-Key");
+    private static final List<String> FORWARDED_RESPONSE_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.RETRY_AFTER);
+    private static final long RETRY_AFTER_SECONDS = 1;
+    /**
+     * 다른 노드에 한 번에 넘기는 유저 수. 요청 하나가 request-timeout-ms 안에 끝나도록 나눈다.
+     */
+    static final int HANDOFF_BATCH_SIZE = 256;
+    /**
+     * 재배치의 한 단계(노드 하나의 handoff 전체)를 기다리는 시간. 유저 수에 비례하므로 요청 하나의 제한 시간과 따로 둔다.
+     */
+    private static final Duration REBALANCE_STEP_TIMEOUT = Duration.ofMinutes(10);
+
+    private final boolean enabled;
+    private final int virtualNodes;
+    private final Duration requestTimeout;
+    private final byte[] secret;
+    private final UserPointRepository userPointRepository;
+    private final PointHistoryRepository pointHistoryRepository;
+    private final PointHistoryIndex pointHistoryIndex;
+    private final PointLedger pointLedger;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final ReentrantReadWriteLock[] guards = new ReentrantReadWriteLock[GUARD_STRIPES];
+    /**
+     * 이번 재배치에서 넘겨받은 유저 / 넘겨준 유저와 받은 노드. commit 후 ring 과 같아지면 지운다.
+     */
+    private final Set<Long> handedIn = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<Long, String> handedOut = new ConcurrentHashMap<>();
+    /**
+     * 다른 노드에 보내는 중인 유저. 보내는 동안 들어온 요청은 다시 시도하게 한다.
+     */
+    private final Set<Long> inTransit = ConcurrentHashMap.newKeySet();
+    /**
+     * 이번 재배치에서 옮겨갈 유저 중 내역 없이 잔액만 있는 유저. prepare 에서 찾는다.
+     */
+    private volatile Set<Long> balanceOnlyOutgoing = Set.of();
+    private volatile String self;
+    private volatile ConsistentHashRing ring;
+    private volatile ConsistentHashRing nextRing;
+
+    /**
+     * @param self 이 노드의 주소. 비어 있으면 웹 서버가 뜬 뒤 http://localhost:{port} 로 정한다.
+     * @param nodes 시작할 때의 노드 주소 목록. 비어 있으면 이 노드 혼자 모든 유저를 담당한다.
+     * @param virtualNodes 노드마다 ring 에 찍는 점의 수
+     * @param requestTimeoutMillis 다른 노드에 보내는 요청 하나의 제한 시간
+     * @param secret 노드끼리 주고받는 요청에 붙이는 값. 클러스터 모드에서는 비어 있으면 안 된다.
+     */
+    public PointClusterRouter(
+            UserPointRepository userPointRepository,
+            PointHistoryRepository pointHistoryRepository,
+            PointHistoryIndex pointHistoryIndex,
+            PointLedger pointLedger,
+            ObjectMapper objectMapper,
+            @Value("${point.cluster.enabled:false}") boolean enabled,
+            @Value("${point.cluster.self:}") String self,
+            @Value("${point.cluster.nodes:}") List<String> nodes,
+            @Value("${point.cluster.virtual-nodes:128}") int virtualNodes,
+            @Value("${point.cluster.request-timeout-ms:5000}") long requestTimeoutMillis,
+            @Value("${point.cluster.secret:}") String secret
+    ) {
+        if (enabled && secret.isBlank()) {
+            throw new IllegalStateException("클러스터 모드에서는 point.cluster.secret 을 설정해야 합니다.");
+        }
+        this.userPointRepository = userPointRepository;
+        this.pointHistoryRepository = pointHistoryRepository;
+        this.pointHistoryIndex = pointHistoryIndex;
+        this.pointLedger = pointLedger;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.virtualNodes = virtualNodes;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMillis);
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(requestTimeout)
+                .build();
+        for (int i = 0; i < guards.length; i++) {
+            guards[i] = new ReentrantReadWriteLock();
+        }
+        this.self = self.isBlank() ? null : self;
+        List<String> initialNodes = nodes.isEmpty() && this.self != null ? List.of(this.self) : nodes;
+        this.ring = new ConsistentHashRing(initialNodes, virtualNodes);
+    }
+
+    @EventListener
+    public void onWebServerInitialized(WebServerInitializedEvent event) {
+        // management 포트처럼 따로 뜬 서버는 제외한다.
+        if (self != null || event.getApplicationContext().getServerNamespace() != null) {
+            return;
+        }
+        self = "http://localhost:" + event.getWebServer().getPort();
+        if (ring.nodes().isEmpty()) {
+            ring = new ConsistentHashRing(List.of(self), virtualNodes);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 다른 노드가 보낸 요청인지 확인한다. 클러스터 모드가 아니면 항상 false 다.
+     * @param secret X-Point-Cluster-Secret 헤더 값
+     * @return
+     */
+    public boolean isTrustedNode(String secret) {
+        return enabled && secret != null && MessageDigest.isEqual(this.secret, secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public ClusterMembership membership() {
+        ConsistentHashRing next = nextRing;
+        return new ClusterMembership(self, ring.nodes(), next == null ? null : next.nodes());
+    }
+
+    /**
+     * 유저를 이 노드에서 처리할 수 있으면 guard 를 잡아서 돌려준다. 처리가 끝나면 같은 스레드에서 닫는다.
+     * @param userId
+     * @param forwarded 다른 노드가 전달한 요청인지
+     * @return 다른 노드가 담당하면 null
+     */
+    public LocalGuard tryEnter(long userId, boolean forwarded) {
+        Lock lock = guardOf(userId).readLock();
+        lock.lock();
+        if (!isLocal(userId, forwarded)) {
+            lock.unlock();
+            return null;
+        }
+        return new LocalGuard(lock);
+    }
+
+    /**
+     * 담당 노드로 전달하지 않는 요청(일괄 처리)에서 유저의 guard 를 잡는다. 클러스터 모드가 아니면 아무것도 잡지 않는다.
+     * @param userId
+     * @return 이 노드에서 처리할 수 없으면(다른 노드가 담당하거나 이미 넘긴 유저) null
+     */
+    public LocalGuard tryEnter(long userId) {
+        if (!enabled) {
+            return LocalGuard.NONE;
+        }
+        return tryEnter(userId, false);
+    }
+
+    /**
+     * 두 유저를 모두 이 노드에서 처리할 수 있을 때 두 유저의 guard 를 잡는다. 클러스터 모드가 아니면 아무것도 잡지 않는다.
+     * @param userId
+     * @param otherUserId
+     * @return
+     */
+    public LocalGuard enter(long userId, long otherUserId) {
+        if (!enabled) {
+            return LocalGuard.NONE;
+        }
+        int stripe = stripeOf(userId);
+        int otherStripe = stripeOf(otherUserId);
+        // 여러 stripe 를 잡을 때는 번호 순서대로 잡는다.
+        Lock first = guards[Math.min(stripe, otherStripe)].readLock();
+        Lock second = stripe == otherStripe ? null : guards[Math.max(stripe, otherStripe)].readLock();
+        LocalGuard guard = second == null ? new LocalGuard(first) : new LocalGuard(first, second);
+        guard.lock();
+        if (!isLocal(userId, false) || !isLocal(otherUserId, false)) {
+            guard.close();
+            throw new PointServiceException(PointErrorCode.CROSS_NODE_TRANSFER);
+        }
+        return guard;
+    }
+
+    /**
+     * 유저를 담당하는 노드. 재배치 중 이미 넘긴 유저는 넘겨받은 노드다.
+     * @param userId
+     * @param forwarded 다른 노드가 전달한 요청인지. 넘긴 유저가 아니면 다시 전달하지 않는다.
+     * @return 전달할 노드가 없거나 넘기는 중인 유저면 null
+     */
+    public String ownerOf(long userId, boolean forwarded) {
+        if (inTransit.contains(userId)) {
+            return null;
+        }
+        String target = handedOut.get(userId);
+        if (target != null) {
+            // 넘겨받은 노드는 그 유저를 항상 처리하므로 한 번 더 전달해도 돌아오지 않는다.
+            return target;
+        }
+        if (forwarded) {
+            return null;
+        }
+        ConsistentHashRing next = nextRing;
+        String owner = ring.ownerOf(userId);
+        // 옮겨갈 유저 중 이 노드에 내역이 없는 유저는 바로 새 담당 노드로 보낸다.
+        if (next != null && self.equals(owner) && !self.equals(next.ownerOf(userId))) {
+            return next.ownerOf(userId);
+        }
+        return owner;
+    }
+
+    /**
+     * 요청을 owner 의 같은 경로로 보내고, 받은 상태/헤더/본문을 그대로 응답한다.
+     * @param owner
+     * @param request
+     * @param response
+     * @throws IOException 클라이언트에 응답을 쓰지 못한 경우
+     */
+    public void forward(String owner, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String query = request.getQueryString();
+        byte[] body = request.getInputStream().readAllBytes();
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(owner + request.getRequestURI() + (query == null ? "" : "?" + query)))
+                .timeout(requestTimeout)
+                .header(FORWARDED_HEADER, self)
+                .method(request.getMethod(), body.length == 0
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(body));
+        for (String name : FORWARDED_REQUEST_HEADERS) {
+            String value = request.getHeader(name);
+            if (value != null) {
+                builder.header(name, value);
+            }
+        }
+        HttpResponse<InputStream> forwarded = send(owner, builder.build());
+        response.setStatus(forwarded.statusCode());
+        for (String name : FORWARDED_RESPONSE_HEADERS) {
+            forwarded.headers().firstValue(name).ifPresent(value -> response.setHeader(name, value));
+        }
+        // 내역 스트리밍처럼 긴 응답도 받는 대로 흘려보낸다.
+        try (InputStream forwardedBody = forwarded.body()) {
+            forwardedBody.transferTo(response.getOutputStream());
+        }
+    }
+
+    /**
+     * 모든 노드(지금 노드 + 바뀔 노드)에 prepare → handoff → commit 을 차례로 요청해서 노드 구성을 바꾼다.
+     * 한 번에 한 노드에서만 요청한다.
+     * @param nodes 바뀔 노드 목록
+     * @return
+     */
+    public synchronized RebalanceReport rebalance(List<String> nodes) {
+        requireEnabled();
+        long start = System.nanoTime();
+        Set<String> targets = new LinkedHashSet<>(ring.nodes());
+        targets.addAll(nodes);
+        targets.add(self);
+        for (String node : targets) {
+            call(node, "/cluster/rebalance/prepare", nodes, Void.class);
+        }
+        long movedUsers = 0;
+        // 두 노드가 동시에 서로에게 넘기지 않도록 한 노드씩 넘긴다.
+        for (String node : targets) {
+            movedUsers += call(node, "/cluster/rebalance/handoff", null, Long.class, REBALANCE_STEP_TIMEOUT);
+        }
+        for (String node : targets) {
+            call(node, "/cluster/rebalance/commit", null, Void.class);
+        }
+        RebalanceReport report = new RebalanceReport(new ConsistentHashRing(nodes, virtualNodes).nodes(), movedUsers,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        log.info("노드 구성 변경 완료 {}", report);
+        return report;
+    }
+
+    /**
+     * 바뀔 노드 목록을 받고, 그 전에 시작한 요청이 끝나기를 기다린다.
+     * 이후에는 옮겨갈 유저에게 새 내역이 생기지 않으므로 handoff 에서 빠지는 유저가 없다.
+     * 내역 없이 잔액만 있는 유저는 요청으로 생기지 않으므로, ring 을 바꾸기 전에 찾아 두고 넘길 때까지 이 노드에서 처리한다.
+     * @param nodes
+     */
+    public void prepare(List<String> nodes) {
+        requireEnabled();
+        ConsistentHashRing next = new ConsistentHashRing(nodes, virtualNodes);
+        Set<Long> balanceOnly = ConcurrentHashMap.newKeySet();
+        for (long userId : localUserIds()) {
+            if (!self.equals(next.ownerOf(userId)) && pointHistoryIndex.countByUserId(userId) == 0 && balanceOf(userId).point() != 0) {
+                balanceOnly.add(userId);
+            }
+        }
+        balanceOnlyOutgoing = balanceOnly;
+        nextRing = next;
+        for (ReentrantReadWriteLock guard : guards) {
+            guard.writeLock().lock();
+            guard.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 바뀔 ring 에서 다른 노드가 담당하는 유저를 그 노드로 넘긴다. 받을 노드별로 HANDOFF_BATCH_SIZE 명씩 나눠 보낸다.
+     * @return 넘긴 유저 수
+     */
+    public long handOff() {
+        requireEnabled();
+        ConsistentHashRing next = nextRing;
+        if (next == null) {
+            return 0;
+        }
+        Map<String, List<Long>> usersByNode = new HashMap<>();
+        for (long userId : localUserIds()) {
+            String nextOwner = next.ownerOf(userId);
+            if (!self.equals(nextOwner)) {
+                usersByNode.computeIfAbsent(nextOwner, key -> new ArrayList<>()).add(userId);
+            }
+        }
+        long moved = 0;
+        for (Map.Entry<String, List<Long>> entry : usersByNode.entrySet()) {
+            List<Long> userIds = entry.getValue();
+            for (int from = 0; from < userIds.size(); from += HANDOFF_BATCH_SIZE) {
+                moved += handOff(entry.getKey(), userIds.subList(from, Math.min(from + HANDOFF_BATCH_SIZE, userIds.size())));
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * 새 ring 으로 바꾸고, ring 과 같아진 넘겨준/넘겨받은 기록을 지운다.
+     */
+    public void commit() {
+        requireEnabled();
+        ConsistentHashRing next = nextRing;
+        if (next == null) {
+            return;
+        }
+        ring = next;
+        nextRing = null;
+        balanceOnlyOutgoing = Set.of();
+        handedOut.entrySet().removeIf(entry -> entry.getValue().equals(next.ownerOf(entry.getKey())));
+        handedIn.removeIf(userId -> self.equals(next.ownerOf(userId)));
+    }
+
+    /**
+     * 다른 노드가 넘긴 유저의 잔액과 내역으로 이 노드의 값을 바꾼다.
+     * 받은 유저들의 guard stripe 를 번호 순서대로 모두 잠그고, 잔액과 내역을 한 번에 저장한다.
+     * @param handoffs
+     */
+    public void accept(List<PointHandoff> handoffs) {
+        requireEnabled();
+        if (handoffs.isEmpty()) {
+            return;
+        }
+        TreeSet<Integer> stripes = new TreeSet<>();
+        List<Long> userIds = new ArrayList<>(handoffs.size());
+        List<PointHistory> histories = new ArrayList<>();
+        Map<Long, Long> pointByUserId = new LinkedHashMap<>();
+        for (PointHandoff handoff : handoffs) {
+            stripes.add(stripeOf(handoff.userId()));
+            userIds.add(handoff.userId());
+            histories.addAll(handoff.histories());
+            pointByUserId.put(handoff.userId(), handoff.point());
+        }
+        Lock[] locks = new Lock[stripes.size()];
+        int index = 0;
+        for (int stripe : stripes) {
+            locks[index++] = guards[stripe].writeLock();
+        }
+        LocalGuard guard = new LocalGuard(locks);
+        guard.lock();
+        try {
+            pointHistoryRepository.deleteAllByUserIds(userIds);
+            // 내역을 통째로 바꾸므로, 지운 내역으로 만든 projection 에 넘겨받은 내역이 더해지지 않게 지운다.
+            userIds.forEach(pointLedger::evict);
+            pointHistoryRepository.insertHandedOver(histories);
+            userPointRepository.insertHandedOver(pointByUserId);
+            for (long userId : userIds) {
+                handedOut.remove(userId);
+                handedIn.add(userId);
+            }
+        } finally {
+            guard.close();
+        }
+    }
+
+    /**
+     * 유저마다 guard 를 잠깐 잠그고 잔액과 내역을 읽어 넘기는 중으로 표시한다. 노드에 보내는 동안에는 guard 를 잡지 않는다.
+     * 보내지 못하면 표시를 지워 이 노드에서 다시 처리하고, 재배치는 같은 구성으로 다시 요청한다.
+     */
+    private long handOff(String node, List<Long> userIds) {
+        List<PointHandoff> handoffs = new ArrayList<>(userIds.size());
+        List<Long> moved = new ArrayList<>(userIds.size());
+        for (long userId : userIds) {
+            Lock lock = guardOf(userId).writeLock();
+            lock.lock();
+            try {
+                if (!isLocal(userId, false)) {
+                    continue;
+                }
+                UserPoint userPoint = balanceOf(userId);
+                List<PointHistory> histories = pointHistoryRepository.selectAllByUserId(userId);
+                if (userPoint.point() == 0 && histories.isEmpty()) {
+                    continue;
+                }
+                inTransit.add(userId);
+                handoffs.add(new PointHandoff(userId, userPoint.point(), histories));
+                moved.add(userId);
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (moved.isEmpty()) {
+            return 0;
+        }
+        try {
+            call(node, "/cluster/handoff", handoffs, Void.class);
+        } catch (RuntimeException e) {
+            inTransit.removeAll(moved);
+            throw e;
+        }
+        for (long userId : moved) {
+            handedOut.put(userId, node);
+            handedIn.remove(userId);
+            inTransit.remove(userId);
+        }
+        // 넘긴 유저는 이제 이 노드에서 처리하지 않으므로 guard 없이 지운다.
+        pointHistoryRepository.deleteAllByUserIds(moved);
+        for (long userId : moved) {
+            userPointRepository.evict(userId);
+            pointLedger.evict(userId);
+        }
+        return moved.size();
+    }
+
+    /**
+     * 내역 인덱스와 잔액 저장소에 있는 유저. 내역 없이 잔액만 있는 유저도 넘기도록 두 곳을 합친다.
+     */
+    private Set<Long> localUserIds() {
+        Set<Long> userIds = new HashSet<>();
+        for (long userId : pointHistoryIndex.userIds()) {
+            userIds.add(userId);
+        }
+        userPointRepository.forEachUserId(userIds::add);
+        return userIds;
+    }
+
+    private UserPoint balanceOf(long userId) {
+        return pointLedger.isEnabled() ? pointLedger.peekById(userId) : userPointRepository.peekById(userId);
+    }
+
+    /**
+     * 유저의 guard 를 잡은 상태에서 호출한다.
+     * - 넘겨준 유저와 넘기는 중인 유저는 처리하지 않고, 넘겨받은 유저는 처리한다.
+     * - 담당 유저 중 옮겨갈 유저는 넘기기 전까지 내역이나 잔액이 있을 때만 처리한다.
+     * - 전달받은 요청은 바뀔 ring 에서 담당할 유저도 처리한다. 보낸 노드는 넘긴 뒤에만 보내기 때문이다.
+     */
+    private boolean isLocal(long userId, boolean forwarded) {
+        if (handedOut.containsKey(userId) || inTransit.contains(userId)) {
+            return false;
+        }
+        if (handedIn.contains(userId)) {
+            return true;
+        }
+        ConsistentHashRing next = nextRing;
+        boolean owner = self.equals(ring.ownerOf(userId));
+        boolean nextOwner = next == null ? owner : self.equals(next.ownerOf(userId));
+        if (owner) {
+            return nextOwner || pointHistoryIndex.countByUserId(userId) > 0 || balanceOnlyOutgoing.contains(userId);
+        }
+        return forwarded && nextOwner;
+    }
+
+    private <T> T call(String node, String path, Object body, Class<T> responseType) {
+        return call(node, path, body, responseType, requestTimeout);
+    }
+
+    private <T> T call(String node, String path, Object body, Class<T> responseType, Duration timeout) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(node + path))
+                    .timeout(timeout)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .header(SECRET_HEADER, new String(secret, StandardCharsets.UTF_8))
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        HttpResponse<InputStream> response = send(node, request);
+        try (InputStream responseBody = response.body()) {
+            if (response.statusCode() != HttpStatus.OK.value()) {
+                throw new ServiceException(node + path + " 요청이 실패했습니다. (" + response.statusCode() + ")");
+            }
+            if (responseType == Void.class) {
+                return null;
+            }
+            return objectMapper.readValue(responseBody, responseType);
+        } catch (IOException e) {
+            throw new ServiceException(node + path + " 응답을 읽지 못했습니다.");
+        }
+    }
+
+    private HttpResponse<InputStream> send(String node, HttpRequest request) {
+        try {
+            return httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (IOException e) {
+            log.warn("노드 {} 에 요청하지 못했습니다.", node, e);
+            throw new AdmissionRejectedException(PointErrorCode.NODE_UNAVAILABLE, HttpStatus.SERVICE_UNAVAILABLE.value(), RETRY_AFTER_SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AdmissionRejectedException(PointErrorCode.NODE_UNAVAILABLE, HttpStatus.SERVICE_UNAVAILABLE.value(), RETRY_AFTER_SECONDS);
+        }
+    }
+
+    private void requireEnabled() {
+        if (!enabled) {
+            throw new ServiceException("클러스터 모드가 아닙니다.");
+        }
+    }
+
+    private ReentrantReadWriteLock guardOf(long userId) {
+        return guards[stripeOf(userId)];
+    }
+
+    private static int stripeOf(long userId) {
+        long hash = userId * 0x9e3779b97f4a7c15L;
+        return (int) ((hash ^ (hash >>> 32)) & (GUARD_STRIPES - 1));
+    }
+
+    /**
+     * 이 노드에서 처리하는 동안 잡아두는 유저 guard. 잡은 스레드에서 닫는다.
+     */
+    public static final class LocalGuard implements AutoCloseable {
+        private static final LocalGuard NONE = new LocalGuard();
+
+        private final Lock[] locks;
+
+        private LocalGuard(Lock... locks) {
+            this.locks = locks;
+        }
+
+        private void lock() {
+            for (Lock lock : locks) {
+                lock.lock();
+            }
+        }
+
+        @Override
+        public void close() {
+            for (int i = locks.length - 1; i >= 0; i--) {
+                locks[i].unlock();
+            }
+        }
+    }
+}
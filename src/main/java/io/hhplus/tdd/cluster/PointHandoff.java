@@ -0,0 +1,15 @@
+package io.hhplus.tdd.cluster;
+
+import io.hhplus.tdd.point.PointHistory;
+
+import java.util.List;
+
+/**
+ * 다른 노드로 옮기는 유저 한 명의 잔액과 전체 내역
+ */
+public record PointHandoff(
+        long userId,
+        long point,
+        List<PointHistory> histories
+) {
+}
@@ -0,0 +1,89 @@
+package io.hhplus.tdd.cluster;
+
+import io.hhplus.tdd.exception.AdmissionRejectedException;
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.hhplus.tdd.metrics.PointMetrics;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * 경로에 {id} 가 있는 포인트 API 를 유저의 담당 노드에서 처리하게 한다.
+ * - 이 노드가 담당하면 처리가 끝날 때까지 유저의 guard 를 잡아두고, 아니면 담당 노드로 전달한 응답을 그대로 돌려준다.
+ * - 다른 노드가 전달한 요청인데 이 노드가 담당하지 않으면 503 으로 거절한다. (이미 넘긴 유저는 넘겨받은 노드로 다시 전달한다)
+ *   노드 구성을 바꾸는 중에만 생긴다.
+ */
+@Component
+@RequiredArgsConstructor
+public class PointRoutingInterceptor implements HandlerInterceptor {
+
+    private static final String GUARD_ATTRIBUTE = PointRoutingInterceptor.class.getName() + ".guard";
+    private static final String USER_ID_VARIABLE = "id";
+    private static final long NOT_OWNER_RETRY_AFTER_SECONDS = 1;
+
+    private final PointClusterRouter pointClusterRouter;
+    private final PointMetrics pointMetrics;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (!pointClusterRouter.isEnabled() || request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        Long userId = userIdOf(request);
+        if (userId == null) {
+            return true;
+        }
+        boolean forwarded = request.getHeader(PointClusterRouter.FORWARDED_HEADER) != null;
+        PointClusterRouter.LocalGuard guard = pointClusterRouter.tryEnter(userId, forwarded);
+        if (guard != null) {
+            request.setAttribute(GUARD_ATTRIBUTE, guard);
+            return true;
+        }
+        String owner = pointClusterRouter.ownerOf(userId, forwarded);
+        if (owner == null) {
+            pointMetrics.recordRejection(PointErrorCode.NOT_OWNER);
+            throw new AdmissionRejectedException(PointErrorCode.NOT_OWNER, HttpStatus.SERVICE_UNAVAILABLE.value(),
+                    NOT_OWNER_RETRY_AFTER_SECONDS);
+        }
+        try {
+            pointClusterRouter.forward(owner, request, response);
+        } catch (AdmissionRejectedException e) {
+            pointMetrics.recordRejection(e.getErrorCode());
+            throw e;
+        }
+        return false;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        PointClusterRouter.LocalGuard guard = (PointClusterRouter.LocalGuard) request.getAttribute(GUARD_ATTRIBUTE);
+        if (guard != null) {
+            request.removeAttribute(GUARD_ATTRIBUTE);
+            guard.close();
+        }
+    }
+
+    /**
+     * @return 경로에 {id} 가 없거나 숫자가 아니면 null (숫자가 아니면 컨트롤러가 400 으로 응답한다)
+     */
+    @SuppressWarnings("unchecked")
+    private static Long userIdOf(HttpServletRequest request) {
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variables == null || variables.get(USER_ID_VARIABLE) == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(variables.get(USER_ID_VARIABLE));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package io.hhplus.tdd.cluster;
+
+import java.util.List;
+
+/**
+ * 노드 구성 변경 결과
+ * @param nodes 바뀐 노드 목록
+ * @param movedUsers 다른 노드로 옮긴 유저 수 (내역이 있는 유저만 옮긴다)
+ * @param elapsedMillis
+ */
+public record RebalanceReport(
+        List<String> nodes,
+        long movedUsers,
+        long elapsedMillis
+) {
+}
@@ -0,0 +1,275 @@
+package io.hhplus.tdd.event;
+
+import io.hhplus.tdd.point.UserPoint;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 유저별 잔액 변경을 구독자에게 나눠주는 프로세스 내부 버스
+ * - publish 는 구독자별 버퍼에 넣기만 하고 바로 돌아온다. 전송은 dispatcher 스레드가 한다.
+ * - 버퍼는 buffer-size 로 제한한다. 느린 구독자의 버퍼가 가득 차면 쌓인 값을 버리고 최신 잔액 하나만 남긴다.
+ *   잔액은 이전 값을 덮어쓰는 상태라서 최신 값만 받아도 된다.
+ * - heartbeat-ms 마다 구독자에게 빈 신호를 보내서 끊긴 연결을 찾아낸다. 보내지 못하면 바로 구독을 끝낸다.
+ * - 잔액 변경이든 heartbeat 든 idle-timeout-ms 동안 하나도 보내지 못한 구독(전송이 멈춘 연결)은 끝낸다.
+ *   heartbeat 를 받는 구독은 잔액 변경이 없어도 유지한다.
+ */
+@Component
+public class PointEventBus {
+
+    private static final Logger log = LoggerFactory.getLogger(PointEventBus.class);
+
+    private final ConcurrentHashMap<Long, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final LongAdder droppedCount = new LongAdder();
+    private final int bufferSize;
+    private final long idleTimeoutNanos;
+    private final ExecutorService dispatcher;
+    private final ScheduledExecutorService heartbeat;
+
+    public PointEventBus(
+            @Value("${point.stream.buffer-size:16}") int bufferSize,
+            @Value("${point.stream.heartbeat-ms:15000}") long heartbeatMillis,
+            @Value("${point.stream.idle-timeout-ms:600000}") long idleTimeoutMillis,
+            @Value("${point.stream.dispatcher-threads:8}") int dispatcherThreads,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        this.bufferSize = bufferSize;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.dispatcher = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("point-stream-", 0).factory())
+                : Executors.newFixedThreadPool(dispatcherThreads, Thread.ofPlatform().daemon().name("point-stream-", 0).factory());
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("point-stream-heartbeat").factory());
+        heartbeat.scheduleWithFixedDelay(this::checkSubscriptions, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 유저의 잔액 변경을 구독한다.
+     * @param userId
+     * @param listener
+     * @return 해지할 때 cancel() 을 호출한다.
+     */
+    public Subscription subscribe(long userId, PointEventListener listener) {
+        Subscription subscription = new Subscription(userId, listener);
+        // 마지막 구독자를 지우며 Set 을 떼어내는 remove 와 겹쳐도, 떼어낸 Set 에 넣지 않도록 같은 compute 안에서 넣는다.
+        subscriptions.compute(userId, (key, targets) -> {
+            Set<Subscription> current = targets == null ? ConcurrentHashMap.newKeySet() : targets;
+            current.add(subscription);
+            return current;
+        });
+        subscriberCount.incrementAndGet();
+        return subscription;
+    }
+
+    /**
+     * 바뀐 잔액을 그 유저의 구독자에게 보낸다. 같은 유저의 변경은 유저 락 안에서 호출하므로 순서대로 들어온다.
+     * @param userPoint
+     */
+    public void publish(UserPoint userPoint) {
+        if (subscriberCount.get() == 0) {
+            // 구독자가 없으면 Long 키를 만들어 찾아볼 필요가 없다.
+            return;
+        }
+        Set<Subscription> targets = subscriptions.get(userPoint.id());
+        if (targets == null) {
+            return;
+        }
+        for (Subscription subscription : targets) {
+            subscription.offer(userPoint, false);
+        }
+    }
+
+    /**
+     * @return 현재 구독자 수
+     */
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    /**
+     * @return 버퍼가 가득 차서 버린 잔액 변경 수
+     */
+    public long droppedCount() {
+        return droppedCount.sum();
+    }
+
+    @PreDestroy
+    public void stop() {
+        heartbeat.shutdownNow();
+        subscriptions.values().forEach(targets -> targets.forEach(Subscription::close));
+        dispatcher.shutdown();
+    }
+
+    /**
+     * 오래 보내지 못한 구독은 끝내고, 나머지에는 heartbeat 를 보낸다.
+     */
+    private void checkSubscriptions() {
+        long now = System.nanoTime();
+        for (Set<Subscription> targets : subscriptions.values()) {
+            for (Subscription subscription : targets) {
+                if (now - subscription.lastSentNanos > idleTimeoutNanos) {
+                    subscription.close();
+                } else {
+                    subscription.sendHeartbeat();
+                }
+            }
+        }
+    }
+
+    private void remove(Subscription subscription) {
+        subscriptions.computeIfPresent(subscription.userId, (key, targets) -> {
+            targets.remove(subscription);
+            return targets.isEmpty() ? null : targets;
+        });
+    }
+
+    public final class Subscription {
+
+        private final long userId;
+        private final PointEventListener listener;
+        /**
+         * offer 와 drain 은 이 버퍼를 잠그고 접근한다.
+         */
+        private final ArrayDeque<UserPoint> buffer = new ArrayDeque<>();
+        private boolean published;
+        private boolean draining;
+        private boolean heartbeatPending;
+        private boolean cancelled;
+        /**
+         * 마지막으로 잔액 변경이나 heartbeat 를 보낸 시각
+         */
+        private volatile long lastSentNanos = System.nanoTime();
+
+        private Subscription(long userId, PointEventListener listener) {
+            this.userId = userId;
+            this.listener = listener;
+        }
+
+        /**
+         * 구독 직후의 현재 잔액을 보낸다. 그 사이 변경이 먼저 들어왔으면 더 최신이므로 보내지 않는다.
+         * @param userPoint
+         */
+        public void offerInitial(UserPoint userPoint) {
+            offer(userPoint, true);
+        }
+
+        /**
+         * 구독을 해지한다. 이미 해지했으면 아무것도 하지 않는다.
+         */
+        public void cancel() {
+            synchronized (buffer) {
+                if (cancelled) {
+                    return;
+                }
+                cancelled = true;
+                buffer.clear();
+            }
+            remove(this);
+            subscriberCount.decrementAndGet();
+        }
+
+        private void offer(UserPoint userPoint, boolean initial) {
+            synchronized (buffer) {
+                if (cancelled || (initial && published)) {
+                    return;
+                }
+                published = true;
+                if (buffer.size() == bufferSize) {
+                    droppedCount.add(buffer.size());
+                    buffer.clear();
+                }
+                buffer.add(userPoint);
+                if (!startDrain()) {
+                    return;
+                }
+            }
+            dispatch();
+        }
+
+        private void sendHeartbeat() {
+            synchronized (buffer) {
+                if (cancelled) {
+                    return;
+                }
+                heartbeatPending = true;
+                if (!startDrain()) {
+                    return;
+                }
+            }
+            dispatch();
+        }
+
+        private void close() {
+            cancel();
+            dispatcher.execute(listener::onClose);
+        }
+
+        /**
+         * 전송 중이 아니면 전송을 시작한다고 표시한다. buffer 를 잠근 상태에서 호출한다.
+         */
+        private boolean startDrain() {
+            if (draining) {
+                return false;
+            }
+            draining = true;
+            return true;
+        }
+
+        private void dispatch() {
+            try {
+                dispatcher.execute(this::drain);
+            } catch (RuntimeException e) {
+                // 종료 중이면 보내지 않는다.
+                cancel();
+            }
+        }
+
+        /**
+         * 버퍼가 빌 때까지 보낸다. 한 구독자에게는 한 스레드만 보낸다.
+         */
+        private void drain() {
+            while (true) {
+                UserPoint next;
+                boolean ping;
+                synchronized (buffer) {
+                    next = buffer.poll();
+                    ping = next == null && heartbeatPending;
+                    heartbeatPending = false;
+                    if (next == null && !ping) {
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    if (next != null) {
+                        listener.onEvent(next);
+                    } else {
+                        listener.onHeartbeat();
+                    }
+                    lastSentNanos = System.nanoTime();
+                } catch (IOException | RuntimeException e) {
+                    log.debug("잔액 변경 구독자에게 보내지 못해서 구독을 해지합니다. userId={}", userId, e);
+                    synchronized (buffer) {
+                        draining = false;
+                    }
+                    cancel();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package io.hhplus.tdd.event;
+
+import io.hhplus.tdd.point.UserPoint;
+
+import java.io.IOException;
+
+/**
+ * 잔액 변경 구독자. 같은 구독자의 onEvent, onHeartbeat 는 동시에 호출되지 않는다.
+ * 전송에 실패해서 IOException 을 던지면 구독을 해지한다.
+ */
+public interface PointEventListener {
+
+    /**
+     * 바뀐 잔액을 보낸다.
+     * @param userPoint
+     */
+    void onEvent(UserPoint userPoint) throws IOException;
+
+    /**
+     * 연결이 살아있는지 확인하고 중간 프록시가 연결을 끊지 않도록 빈 신호를 보낸다.
+     */
+    void onHeartbeat() throws IOException;
+
+    /**
+     * 서버가 구독을 끝냈다. (idle timeout, 종료)
+     */
+    void onClose();
+}
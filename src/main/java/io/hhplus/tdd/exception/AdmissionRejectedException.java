@@ -0,0 +1,23 @@
+package io.hhplus.tdd.exception;
+
+/**
+ * 처리를 시작하기 전에 부하 때문에 거절한 요청. 응답 상태와 다시 시도할 시점을 함께 전달한다.
+ */
+public class AdmissionRejectedException extends PointServiceException {
+    private final int status;
+    private final long retryAfterSeconds;
+
+    public AdmissionRejectedException(PointErrorCode errorCode, int status, long retryAfterSeconds) {
+        super(errorCode);
+        this.status = status;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,10 @@
+package io.hhplus.tdd.exception;
+
+/**
+ * 호출할 권한이 없는 요청. 403 으로 응답한다.
+ */
+public class ForbiddenException extends PointServiceException {
+    public ForbiddenException(PointErrorCode errorCode) {
+        super(errorCode);
+    }
+}
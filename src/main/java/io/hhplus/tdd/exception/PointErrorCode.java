@@ -0,0 +1,35 @@
+package io.hhplus.tdd.exception;
+
+import io.hhplus.tdd.point.PointPolicy;
+
+/**
+ * 포인트 요청 거절 사유
+ */
+public enum PointErrorCode {
+    INVALID_CHARGE_AMOUNT("최소 충전 금액은 " + PointPolicy.MINIMUM_CHARGE + "이상 입니다."),
+    INVALID_USE_AMOUNT("최소 사용 금액은 0원 이상입니다."),
+    INSUFFICIENT_POINT("사용하려는 포인트는 보유하고 있는 포인트보다 작아야 합니다."),
+    INVALID_TRANSACTION_TYPE("충전(CHARGE) 또는 사용(USE)만 요청할 수 있습니다."),
+    INVALID_HISTORY_LIMIT("내역 조회 건수는 1 이상 " + PointPolicy.MAXIMUM_HISTORY_PAGE_SIZE + " 이하입니다."),
+    IDEMPOTENCY_KEY_REUSED("같은 Idempotency-Key 로 다른 요청을 보낼 수 없습니다."),
+    INVALID_TRANSFER_TARGET("자기 자신에게는 포인트를 이체할 수 없습니다."),
+    OVERLOADED("요청이 많아 처리할 수 없습니다. 잠시 후 다시 시도해주세요."),
+    RATE_LIMITED("요청 한도를 넘었습니다. 잠시 후 다시 시도해주세요."),
+    INVALID_SUMMARY_RANGE("일별 집계는 시작일부터 종료일까지 최대 " + PointPolicy.MAXIMUM_SUMMARY_DAYS + "일까지 조회할 수 있습니다."),
+    NOT_OWNER("다른 노드가 담당하는 유저입니다. 잠시 후 다시 시도해주세요."),
+    NODE_UNAVAILABLE("유저를 담당하는 노드에 연결할 수 없습니다. 잠시 후 다시 시도해주세요."),
+    CROSS_NODE_TRANSFER("두 유저를 모두 담당하는 노드에서만 이체할 수 있습니다."),
+    UNTRUSTED_NODE("클러스터 노드만 호출할 수 있습니다."),
+    INVALID_BATCH_ITEM("일괄 요청의 항목은 {userId, type, amount} 객체여야 합니다."),
+    BATCH_FAILED("처리 중 오류가 발생해 반영 여부를 알 수 없습니다. 잔액을 다시 조회해주세요.");
+
+    private final String message;
+
+    PointErrorCode(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -1,7 +1,45 @@
 package io.hhplus.tdd.exception;
 
 public class PointServiceException extends ServiceException {
+    /**
+     * 거절 사유마다 미리 만든 예외
+     */
+    private static final PointServiceException[] REJECTIONS = new PointServiceException[PointErrorCode.values().length];
+
+    static {
+        for (PointErrorCode errorCode : PointErrorCode.values()) {
+            REJECTIONS[errorCode.ordinal()] = new PointServiceException(errorCode, false);
+        }
+    }
+
+    private final PointErrorCode errorCode;
+
     public PointServiceException(String message) {
         super(message);
+        this.errorCode = null;
+    }
+
+    public PointServiceException(PointErrorCode errorCode) {
+        super(errorCode.getMessage());
+        this.errorCode = errorCode;
+    }
+
+    private PointServiceException(PointErrorCode errorCode, boolean writableStackTrace) {
+        super(errorCode.getMessage(), writableStackTrace);
+        this.errorCode = errorCode;
+    }
+
+    /**
+     * 입력 검증처럼 자주 일어나는 거절에 쓰는 예외. 요청마다 만들지 않고 미리 만든 것을 돌려준다.
+     * stack trace 와 suppressed 예외를 기록하지 않으므로 여러 스레드가 같은 객체를 던져도 된다.
+     * @param errorCode
+     * @return
+     */
+    public static PointServiceException of(PointErrorCode errorCode) {
+        return REJECTIONS[errorCode.ordinal()];
+    }
+
+    public PointErrorCode getErrorCode() {
+        return errorCode;
     }
 }
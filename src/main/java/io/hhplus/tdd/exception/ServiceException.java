@@ -4,4 +4,11 @@ public class ServiceException extends RuntimeException {
     public ServiceException(String message) {
         super(message);
     }
+
+    /**
+     * @param writableStackTrace false 면 stack trace 를 채우지 않는다. 미리 만들어 두고 다시 던지는 예외에 쓴다.
+     */
+    protected ServiceException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
 }
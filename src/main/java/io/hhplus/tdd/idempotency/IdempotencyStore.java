@@ -0,0 +1,204 @@
+package io.hhplus.tdd.idempotency;
+
+import io.hhplus.tdd.exception.AdmissionRejectedException;
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.hhplus.tdd.exception.PointServiceException;
+import io.hhplus.tdd.metrics.PointMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key 중복 요청 제거 저장소
+ * - 키마다 처음 들어온 요청만 실행하고, 같은 키로 다시 들어온 요청에는 처음 요청의 결과를 그대로 돌려준다.
+ * - 처음 요청이 아직 실행 중이면 같은 CompletableFuture 를 기다리므로, 동시에 들어온 재시도도 한 번만 실행된다.
+ * - 실행이 예외로 끝나면 키를 지워서 다음 재시도는 다시 실행되게 한다.
+ * - 만료는 시간 버킷 단위로 한다. 키는 만든 시각의 버킷 큐에 들어가고, ttl 이 지난 버킷의 큐만 비우므로 전체 키를 훑지 않는다.
+ * - ttl 안의 키는 지우지 않는다. 지우면 그 키의 재시도가 다시 실행되어 중복 처리된다.
+ *   키가 max-keys 에 차면 이미 있는 키의 재시도는 그대로 받고, 새 키는 가장 오래된 버킷이 만료될 때까지 OVERLOADED 로 거절한다.
+ *   그래서 ttl 은 재시도 기간(분 단위)으로 짧게 두고, max-keys 는 ttl 동안 들어오는 새 키 수보다 크게 잡는다.
+ *   동시에 들어온 새 키끼리는 max-keys 를 조금 넘을 수 있다.
+ */
+@Component
+public class IdempotencyStore {
+
+    /**
+     * ttl 을 나누는 버킷 수. 키는 ttl 부터 ttl + ttl / BUCKETS 사이에 만료된다.
+     */
+    private static final int BUCKETS = 16;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    /**
+     * 버킷 번호(시각 / bucketMillis) 기준 원형 배열. 살아있는 버킷은 BUCKETS + 1 개이므로 서로 겹치지 않는다.
+     */
+    @SuppressWarnings("unchecked")
+    private final ConcurrentLinkedQueue<Entry>[] buckets = new ConcurrentLinkedQueue[BUCKETS + 1];
+    private final long bucketMillis;
+    private final int maxKeys;
+    private final LongSupplier clock;
+    private final PointMetrics pointMetrics;
+    /**
+     * 가득 찼을 때 알려주는 재시도 시점. 가장 오래된 버킷은 늦어도 버킷 하나만큼 지나면 만료된다.
+     */
+    private final long retryAfterSeconds;
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    /**
+     * 이 번호 이하의 버킷은 비웠다. evictionLock 을 잡고 갱신한다.
+     */
+    private volatile long evictedUntil;
+
+    @Autowired
+    public IdempotencyStore(
+            @Value("${point.idempotency.ttl-ms:600000}") long ttlMillis,
+            @Value("${point.idempotency.max-keys:700000}") int maxKeys,
+            PointMetrics pointMetrics
+    ) {
+        this(ttlMillis, maxKeys, System::currentTimeMillis, pointMetrics);
+    }
+
+    /**
+     * @param ttlMillis 키를 유지하는 시간
+     * @param maxKeys 유지하는 최대 키 수
+     * @param clock 현재 시각(ms)
+     * @param pointMetrics 거절 횟수를 기록한다.
+     */
+    public IdempotencyStore(long ttlMillis, int maxKeys, LongSupplier clock, PointMetrics pointMetrics) {
+        this.bucketMillis = Math.max(1L, ttlMillis / BUCKETS);
+        this.maxKeys = maxKeys;
+        this.clock = clock;
+        this.pointMetrics = pointMetrics;
+        this.retryAfterSeconds = Math.max(1L, (bucketMillis + 999) / 1000);
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.evictedUntil = bucketOf(clock.getAsLong()) - BUCKETS - 1;
+    }
+
+    /**
+     * 키로 처음 들어온 요청이면 action 을 실행하고, 이미 처리했거나 처리 중인 키면 그 결과를 돌려준다.
+     * 새 키인데 max-keys 에 찼으면 실행하지 않고 OVERLOADED 로 거절한다.
+     * @param key Idempotency-Key
+     * @param request 요청 내용. 같은 키로 다른 요청을 보내면 거절한다.
+     * @param action
+     * @return 처음 요청의 결과
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Object request, Supplier<T> action) {
+        long bucket = bucketOf(clock.getAsLong());
+        expire(bucket);
+
+        Entry existing = entries.get(key);
+        Entry created = null;
+        if (existing == null) {
+            if (entries.size() >= maxKeys) {
+                pointMetrics.recordRejection(PointErrorCode.OVERLOADED);
+                throw new AdmissionRejectedException(PointErrorCode.OVERLOADED, HttpStatus.SERVICE_UNAVAILABLE.value(), retryAfterSeconds);
+            }
+            created = new Entry(key, request, bucket);
+            existing = entries.putIfAbsent(key, created);
+        }
+        if (existing != null) {
+            if (!existing.request.equals(request)) {
+                pointMetrics.recordRejection(PointErrorCode.IDEMPOTENCY_KEY_REUSED);
+                throw PointServiceException.of(PointErrorCode.IDEMPOTENCY_KEY_REUSED);
+            }
+            return (T) await(existing);
+        }
+
+        T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            entries.remove(key, created);
+            created.future.completeExceptionally(e);
+            throw e;
+        }
+        created.future.complete(result);
+        // 끝난 키만 버킷 큐에 넣으므로 실행 중인 키는 만료로 지워지지 않는다.
+        buckets[slot(bucket)].add(created);
+        return result;
+    }
+
+    /**
+     * @return 유지하고 있는 키 수
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private static Object await(Entry entry) {
+        try {
+            return entry.future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * ttl 이 지난 버킷들을 비운다.
+     */
+    private void expire(long currentBucket) {
+        long expireUntil = currentBucket - BUCKETS - 1;
+        if (expireUntil <= evictedUntil) {
+            return;
+        }
+        evictionLock.lock();
+        try {
+            // 오래 멈췄다 돌아와도 원형 배열 한 바퀴만 비우면 된다.
+            for (long bucket = Math.max(evictedUntil + 1, expireUntil - BUCKETS); bucket <= expireUntil; bucket++) {
+                drain(bucket, expireUntil);
+            }
+            evictedUntil = Math.max(evictedUntil, expireUntil);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * bucket 자리의 큐에서 until 이하 버킷의 키를 지운다.
+     * 실행이 오래 걸려 늦게 들어온 다른 버킷의 키는 남겨두고, 같은 자리의 다음 버킷을 비울 때 다시 확인한다.
+     */
+    private void drain(long bucket, long until) {
+        for (Iterator<Entry> iterator = buckets[slot(bucket)].iterator(); iterator.hasNext(); ) {
+            Entry entry = iterator.next();
+            if (entry.bucket <= until) {
+                iterator.remove();
+                entries.remove(entry.key, entry);
+            }
+        }
+    }
+
+    private long bucketOf(long millis) {
+        return Math.floorDiv(millis, bucketMillis);
+    }
+
+    private static int slot(long bucket) {
+        return (int) Math.floorMod(bucket, (long) BUCKETS + 1);
+    }
+
+    private static final class Entry {
+        private final String key;
+        private final Object request;
+        private final long bucket;
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        private Entry(String key, Object request, long bucket) {
+            this.key = key;
+            this.request = request;
+            this.bucket = bucket;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package io.hhplus.tdd.index;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.function.LongFunction;
+
+/**
+ * long 키를 그대로 쓰는 동시성 해시 맵. ConcurrentHashMap&lt;Long, V&gt; 처럼 조회마다 Long 키를 만들지 않는다.
+ * - 키를 stripes 개로 나누고, stripe 마다 chaining 해시 테이블을 둔다.
+ * - 노드는 만든 뒤 바꾸지 않는다. 추가/삭제/확장은 stripe 를 잠그고 새 노드로 바꿔 끼우므로 조회는 락 없이 읽는다.
+ * - 조회/이미 있는 키의 computeIfAbsent 는 객체를 만들지 않는다. 새 키를 넣거나 지울 때만 노드를 만든다.
+ */
+final class LongKeyMap<V> {
+
+    private static final int STRIPE_BITS = 6;
+    private static final int INITIAL_BUCKETS = 16;
+    private static final VarHandle BUCKETS = MethodHandles.arrayElementVarHandle(Node[].class);
+
+    private final Stripe<V>[] stripes;
+
+    @SuppressWarnings("unchecked")
+    LongKeyMap() {
+        this.stripes = new Stripe[1 << STRIPE_BITS];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe<>();
+        }
+    }
+
+    V get(long key) {
+        long hash = hash(key);
+        return stripeOf(hash).get(key, hash);
+    }
+
+    /**
+     * 키가 없으면 factory 로 만든 값을 넣는다. 같은 키에 대해 factory 는 한 번만 호출된다.
+     * @return 맵에 있는 값
+     */
+    V computeIfAbsent(long key, LongFunction<? extends V> factory) {
+        long hash = hash(key);
+        Stripe<V> stripe = stripeOf(hash);
+        V value = stripe.get(key, hash);
+        return value != null ? value : stripe.putIfAbsent(key, hash, factory);
+    }
+
+    void remove(long key) {
+        long hash = hash(key);
+        stripeOf(hash).remove(key, hash);
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe<V> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 지금 들어있는 키 목록. 만드는 도중 추가된 키는 빠질 수 있다.
+     */
+    long[] keys() {
+        long[] keys = new long[INITIAL_BUCKETS];
+        int count = 0;
+        for (Stripe<V> stripe : stripes) {
+            synchronized (stripe) {
+                if (count + stripe.size > keys.length) {
+                    keys = Arrays.copyOf(keys, Math.max(keys.length * 2, count + stripe.size));
+                }
+                for (Node<V> head : stripe.buckets) {
+                    for (Node<V> node = head; node != null; node = node.next) {
+                        keys[count++] = node.key;
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(keys, count);
+    }
+
+    private Stripe<V> stripeOf(long hash) {
+        // 버킷 위치는 hash 의 하위 비트를 쓰므로 stripe 는 상위 비트로 고른다.
+        return stripes[(int) (hash >>> (Long.SIZE - STRIPE_BITS))];
+    }
+
+    /**
+     * 연속된 id 가 한 stripe 나 이웃한 버킷에 몰리지 않도록 비트를 섞는다. (MurmurHash3 fmix64)
+     */
+    private static long hash(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private record Node<V>(long key, long hash, V value, Node<V> next) {
+    }
+
+    private static final class Stripe<V> {
+
+        @SuppressWarnings("unchecked")
+        private volatile Node<V>[] buckets = new Node[INITIAL_BUCKETS];
+        private int size;
+
+        @SuppressWarnings("unchecked")
+        private V get(long key, long hash) {
+            Node<V>[] current = buckets;
+            Node<V> node = (Node<V>) BUCKETS.getAcquire(current, (int) hash & (current.length - 1));
+            for (; node != null; node = node.next) {
+                if (node.key == key) {
+                    return node.value;
+                }
+            }
+            return null;
+        }
+
+        private synchronized V putIfAbsent(long key, long hash, LongFunction<? extends V> factory) {
+            V existing = get(key, hash);
+            if (existing != null) {
+                return existing;
+            }
+            V value = factory.apply(key);
+            if (size + 1 > buckets.length * 3 / 4) {
+                resize();
+            }
+            Node<V>[] current = buckets;
+            int index = (int) hash & (current.length - 1);
+            BUCKETS.setRelease(current, index, new Node<>(key, hash, value, current[index]));
+            size++;
+            return value;
+        }
+
+        private synchronized void remove(long key, long hash) {
+            Node<V>[] current = buckets;
+            int index = (int) hash & (current.length - 1);
+            Node<V> head = current[index];
+            Node<V> target = head;
+            while (target != null && target.key != key) {
+                target = target.next;
+            }
+            if (target == null) {
+                return;
+            }
+            // 지울 노드 앞의 노드들만 새로 만들어 뒤쪽 chain 에 이어 붙인다.
+            Node<V> chain = target.next;
+            for (Node<V> node = head; node != target; node = node.next) {
+                chain = new Node<>(node.key, node.hash, node.value, chain);
+            }
+            BUCKETS.setRelease(current, index, chain);
+            size--;
+        }
+
+        /**
+         * 두 배 크기의 새 테이블에 노드를 새로 만들어 옮긴 뒤 바꿔 끼운다. 예전 테이블을 읽던 조회는 예전 chain 을 끝까지 읽는다.
+         */
+        @SuppressWarnings("unchecked")
+        private void resize() {
+            Node<V>[] current = buckets;
+            Node<V>[] resized = new Node[current.length * 2];
+            for (Node<V> head : current) {
+                for (Node<V> node = head; node != null; node = node.next) {
+                    int index = (int) node.hash & (resized.length - 1);
+                    resized[index] = new Node<>(node.key, node.hash, node.value, resized[index]);
+                }
+            }
+            buckets = resized;
+        }
+    }
+}
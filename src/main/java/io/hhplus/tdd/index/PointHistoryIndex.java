@@ -0,0 +1,396 @@
+package io.hhplus.tdd.index;
+
+import io.hhplus.tdd.point.PointBalance;
+import io.hhplus.tdd.point.PointDailySummary;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointHistoryOrder;
+import io.hhplus.tdd.point.PointHistoryPage;
+import io.hhplus.tdd.point.PointHistoryQuery;
+import io.hhplus.tdd.point.PointHistorySummary;
+import io.hhplus.tdd.point.PointPolicy;
+import io.hhplus.tdd.point.TransactionType;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 유저 id 별 포인트 내역 인덱스
+ * - PointHistoryTable.selectAllByUserId 는 전체 내역을 선형 탐색하므로, 유저별로 따로 쌓아서 조회 비용을 해당 유저의 내역 수에 비례하게 한다.
+ * - 내역은 추가만 되고, 유저별로 long 배열 하나에 (id, amount, type, updateMillis) 순서로 이어 붙여 저장한다.
+ * - 한 유저의 내역은 유저 락 안에서 id 를 발급받아 추가되므로 id 오름차순이다. 페이지 조회는 cursor 위치를 이진 탐색으로 찾는다.
+ * - 내역을 추가하면서 거래 종류별 합계/건수, 처음/마지막 시각, 일별 합계/건수를 같은 락 안에서 갱신한다. 집계 조회는 내역 수와 관계없다.
+ * - 유저 id 는 long 그대로 키로 쓰므로(LongKeyMap) 내역을 추가하거나 조회할 때 Long 키를 만들지 않는다.
+ */
+@Component
+public class PointHistoryIndex {
+
+    private final LongKeyMap<UserHistories> histories = new LongKeyMap<>();
+
+    /**
+     * 테이블에 저장된 내역을 인덱스에 추가한다.
+     * @param pointHistory
+     */
+    public void append(PointHistory pointHistory) {
+        append(pointHistory.id(), pointHistory.userId(), pointHistory.amount(), pointHistory.type(), pointHistory.updateMillis());
+    }
+
+    /**
+     * PointHistory 를 만들지 않고 내역을 인덱스에 추가한다.
+     * @param id
+     * @param userId
+     * @param amount
+     * @param type
+     * @param updateMillis
+     */
+    public void append(long id, long userId, long amount, TransactionType type, long updateMillis) {
+        histories.computeIfAbsent(userId, key -> new UserHistories())
+                .append(id, amount, type.ordinal(), updateMillis);
+    }
+
+    /**
+     * 유저의 전체 내역을 저장된 순서대로 조회한다.
+     * @param userId
+     * @return
+     */
+    public List<PointHistory> findAllByUserId(long userId) {
+        UserHistories userHistories = histories.get(userId);
+        if (userHistories == null) {
+            return List.of();
+        }
+        return userHistories.toList(userId);
+    }
+
+    /**
+     * 유저의 내역을 cursor 다음부터 조건에 맞는 것만 limit 건까지 조회한다.
+     * 한 번에 limit 건 넘게 만들지 않으므로 전체 내역 수와 관계없이 메모리 사용량이 일정하다.
+     * @param userId
+     * @param query
+     * @return
+     */
+    public PointHistoryPage page(long userId, PointHistoryQuery query) {
+        UserHistories userHistories = histories.get(userId);
+        if (userHistories == null) {
+            return new PointHistoryPage(List.of(), null);
+        }
+        return userHistories.page(userId, query);
+    }
+
+    /**
+     * 유저의 내역 수
+     * @param userId
+     * @return
+     */
+    public int countByUserId(long userId) {
+        UserHistories userHistories = histories.get(userId);
+        return userHistories == null ? 0 : userHistories.size();
+    }
+
+    /**
+     * 유저의 내역 집계를 조회한다.
+     * @param userId
+     * @return
+     */
+    public PointHistorySummary summary(long userId) {
+        UserHistories userHistories = histories.get(userId);
+        if (userHistories == null) {
+            return summaryOf(userId, new long[TYPE_COUNT], new long[TYPE_COUNT], 0, 0, 0);
+        }
+        return userHistories.summary(userId);
+    }
+
+    /**
+     * 유저의 내역 중 asOfMillis 이하 시각의 내역만 id 순서대로 더한 잔액. 내역 수에 비례해서 걸린다.
+     * @param userId
+     * @param asOfMillis 전체 내역을 더하려면 Long.MAX_VALUE
+     * @return
+     */
+    public PointBalance balance(long userId, long asOfMillis) {
+        UserHistories userHistories = histories.get(userId);
+        if (userHistories == null) {
+            return PointBalance.empty(userId);
+        }
+        return userHistories.balance(userId, asOfMillis);
+    }
+
+    /**
+     * 유저의 일별 집계를 from ~ to (포함) 사이에서 내역이 있는 날만 날짜순으로 조회한다.
+     * @param userId
+     * @param from
+     * @param to
+     * @return
+     */
+    public List<PointDailySummary> dailySummaries(long userId, LocalDate from, LocalDate to) {
+        UserHistories userHistories = histories.get(userId);
+        if (userHistories == null) {
+            return List.of();
+        }
+        return userHistories.dailySummaries(from.toEpochDay(), to.toEpochDay());
+    }
+
+    /**
+     * 유저의 집계가 내역 전체를 다시 더한 결과와 같은지 확인한다. 확인하는 동안 그 유저의 내역은 추가되지 않는다.
+     * @param userId
+     * @return
+     */
+    public boolean isSummaryConsistent(long userId) {
+        UserHistories userHistories = histories.get(userId);
+        return userHistories == null || userHistories.isSummaryConsistent();
+    }
+
+    /**
+     * 유저의 내역과 집계를 인덱스에서 지운다. 테이블에 저장된 내역은 그대로 남는다.
+     * @param userId
+     */
+    public void removeUser(long userId) {
+        histories.remove(userId);
+    }
+
+    /**
+     * 내역이 있는 유저 수
+     * @return
+     */
+    public int userCount() {
+        return histories.size();
+    }
+
+    /**
+     * 지금 내역이 있는 유저 id 목록. 만드는 도중 추가된 유저는 빠질 수 있다.
+     * @return
+     */
+    public long[] userIds() {
+        return histories.keys();
+    }
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final int TYPE_COUNT = TYPES.length;
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+    private static final long ZONE_OFFSET_MILLIS = TimeUnit.SECONDS.toMillis(PointPolicy.SUMMARY_ZONE_OFFSET.getTotalSeconds());
+
+    private static long epochDayOf(long updateMillis) {
+        return Math.floorDiv(updateMillis + ZONE_OFFSET_MILLIS, DAY_MILLIS);
+    }
+
+    private static PointHistorySummary summaryOf(long userId, long[] amounts, long[] counts, int size, long firstMillis, long lastMillis) {
+        return new PointHistorySummary(
+                userId,
+                amounts[TransactionType.CHARGE.ordinal()],
+                amounts[TransactionType.USE.ordinal()],
+                byType(amounts, 0),
+                byType(counts, 0),
+                size == 0 ? null : firstMillis,
+                size == 0 ? null : lastMillis
+        );
+    }
+
+    /**
+     * values[offset] 부터 거래 종류 순서로 담긴 값을 Map 으로 만든다.
+     */
+    private static Map<TransactionType, Long> byType(long[] values, int offset) {
+        Map<TransactionType, Long> result = new EnumMap<>(TransactionType.class);
+        for (TransactionType type : TYPES) {
+            result.put(type, values[offset + type.ordinal()]);
+        }
+        return result;
+    }
+
+    /**
+     * 한 유저의 내역. 한 건당 long 4칸을 사용한다.
+     */
+    private static final class UserHistories {
+        private static final int STRIDE = 4;
+
+        private long[] values = new long[STRIDE * 4];
+        private int size;
+
+        /**
+         * 거래 종류별 금액 합계 / 건수
+         */
+        private final long[] amounts = new long[TYPE_COUNT];
+        private final long[] counts = new long[TYPE_COUNT];
+        private long firstMillis;
+        private long lastMillis;
+        /**
+         * 날짜(epoch day)별 [종류별 금액 합계..., 종류별 건수...]
+         */
+        private final TreeMap<Long, long[]> daily = new TreeMap<>();
+        /**
+         * 내역은 대부분 시간 순서로 들어오므로 마지막으로 갱신한 날을 기억해서 TreeMap 탐색을 줄인다.
+         */
+        private long lastDay = Long.MIN_VALUE;
+        private long[] lastDayBucket;
+
+        synchronized void append(long id, long amount, int type, long updateMillis) {
+            int offset = size * STRIDE;
+            if (offset + STRIDE > values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[offset] = id;
+            values[offset + 1] = amount;
+            values[offset + 2] = type;
+            values[offset + 3] = updateMillis;
+            aggregate(amount, type, updateMillis);
+            size++;
+        }
+
+        private void aggregate(long amount, int type, long updateMillis) {
+            amounts[type] += amount;
+            counts[type]++;
+            if (size == 0 || updateMillis < firstMillis) {
+                firstMillis = updateMillis;
+            }
+            if (size == 0 || updateMillis > lastMillis) {
+                lastMillis = updateMillis;
+            }
+            long day = epochDayOf(updateMillis);
+            if (day != lastDay) {
+                lastDayBucket = daily.computeIfAbsent(day, key -> new long[TYPE_COUNT * 2]);
+                lastDay = day;
+            }
+            lastDayBucket[type] += amount;
+            lastDayBucket[TYPE_COUNT + type]++;
+        }
+
+        synchronized PointHistorySummary summary(long userId) {
+            return summaryOf(userId, amounts, counts, size, firstMillis, lastMillis);
+        }
+
+        synchronized PointBalance balance(long userId, long asOfMillis) {
+            long point = 0;
+            long updateMillis = 0;
+            long lastId = 0;
+            for (int i = 0; i < size; i++) {
+                int offset = i * STRIDE;
+                // 시각은 id 순서와 어긋날 수 있으므로 끝까지 확인한다.
+                if (values[offset + 3] > asOfMillis) {
+                    continue;
+                }
+                point += TYPES[(int) values[offset + 2]].signed(values[offset + 1]);
+                updateMillis = values[offset + 3];
+                lastId = values[offset];
+            }
+            return new PointBalance(userId, point, updateMillis, lastId);
+        }
+
+        synchronized List<PointDailySummary> dailySummaries(long fromEpochDay, long toEpochDay) {
+            List<PointDailySummary> result = new ArrayList<>();
+            for (Map.Entry<Long, long[]> entry : daily.subMap(fromEpochDay, true, toEpochDay, true).entrySet()) {
+                result.add(new PointDailySummary(
+                        LocalDate.ofEpochDay(entry.getKey()),
+                        byType(entry.getValue(), 0),
+                        byType(entry.getValue(), TYPE_COUNT)
+                ));
+            }
+            return result;
+        }
+
+        /**
+         * 내역 전체를 다시 더해서 갱신해온 집계와 비교한다.
+         */
+        synchronized boolean isSummaryConsistent() {
+            long[] foldAmounts = new long[TYPE_COUNT];
+            long[] foldCounts = new long[TYPE_COUNT];
+            long foldFirst = Long.MAX_VALUE;
+            long foldLast = Long.MIN_VALUE;
+            TreeMap<Long, long[]> foldDaily = new TreeMap<>();
+            for (int i = 0; i < size; i++) {
+                int offset = i * STRIDE;
+                long amount = values[offset + 1];
+                int type = (int) values[offset + 2];
+                long updateMillis = values[offset + 3];
+                foldAmounts[type] += amount;
+                foldCounts[type]++;
+                foldFirst = Math.min(foldFirst, updateMillis);
+                foldLast = Math.max(foldLast, updateMillis);
+                long[] bucket = foldDaily.computeIfAbsent(epochDayOf(updateMillis), key -> new long[TYPE_COUNT * 2]);
+                bucket[type] += amount;
+                bucket[TYPE_COUNT + type]++;
+            }
+            if (!Arrays.equals(foldAmounts, amounts) || !Arrays.equals(foldCounts, counts)) {
+                return false;
+            }
+            if (size > 0 && (foldFirst != firstMillis || foldLast != lastMillis)) {
+                return false;
+            }
+            if (!foldDaily.keySet().equals(daily.keySet())) {
+                return false;
+            }
+            for (Map.Entry<Long, long[]> entry : foldDaily.entrySet()) {
+                if (!Arrays.equals(entry.getValue(), daily.get(entry.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized List<PointHistory> toList(long userId) {
+            List<PointHistory> result = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                result.add(get(userId, i));
+            }
+            return result;
+        }
+
+        synchronized PointHistoryPage page(long userId, PointHistoryQuery query) {
+            List<PointHistory> result = new ArrayList<>(Math.min(query.limit(), size));
+            if (query.order() == PointHistoryOrder.ASC) {
+                int i = query.cursor() == null ? 0 : firstIdGreaterThan(query.cursor());
+                for (; i < size && result.size() < query.limit(); i++) {
+                    addIfMatches(result, userId, i, query);
+                }
+            } else {
+                int i = query.cursor() == null ? size - 1 : firstIdGreaterThan(query.cursor() - 1) - 1;
+                for (; i >= 0 && result.size() < query.limit(); i--) {
+                    addIfMatches(result, userId, i, query);
+                }
+            }
+            Long nextCursor = result.size() == query.limit() ? result.get(result.size() - 1).id() : null;
+            return new PointHistoryPage(result, nextCursor);
+        }
+
+        private void addIfMatches(List<PointHistory> result, long userId, int index, PointHistoryQuery query) {
+            int offset = index * STRIDE;
+            if (query.matches(TYPES[(int) values[offset + 2]], values[offset + 3])) {
+                result.add(get(userId, index));
+            }
+        }
+
+        /**
+         * id 가 주어진 값보다 큰 첫 내역의 위치. 없으면 size
+         */
+        private int firstIdGreaterThan(long id) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid * STRIDE] <= id) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private PointHistory get(long userId, int index) {
+            int offset = index * STRIDE;
+            return new PointHistory(
+                    values[offset],
+                    userId,
+                    values[offset + 1],
+                    TYPES[(int) values[offset + 2]],
+                    values[offset + 3]
+            );
+        }
+    }
+}
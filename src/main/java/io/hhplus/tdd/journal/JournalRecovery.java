@@ -0,0 +1,63 @@
+package io.hhplus.tdd.journal;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointHistoryRepository;
+import io.hhplus.tdd.point.TransactionType;
+import io.hhplus.tdd.point.UserPointRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * 시작 시 최신 스냅샷과 그 이후의 저널을 재생해서 잔액과 내역을 복구한다.
+ * 웹 서버가 요청을 받기 전(빈 초기화 단계)에 끝나고, 끝난 뒤 주기적인 스냅샷 생성을 시작한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class JournalRecovery {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalRecovery.class);
+
+    private final PointJournal pointJournal;
+    private final PointSnapshotter pointSnapshotter;
+    private final UserPointRepository userPointRepository;
+    private final PointHistoryRepository pointHistoryRepository;
+
+    @PostConstruct
+    public void recover() {
+        if (!pointJournal.isEnabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        PointSnapshot snapshot = pointSnapshotter.loadLatest();
+        // 스냅샷에서 걸러낸 내역의 id 도 다시 발급하지 않는다.
+        long[] lastHistoryId = {snapshot.lastHistoryId()};
+        JournalReplayHandler handler = new JournalReplayHandler() {
+            @Override
+            public void onBalance(long userId, long point, long updateMillis) {
+                userPointRepository.restore(userId, point, updateMillis);
+            }
+
+            @Override
+            public void onHistory(long id, long userId, long amount, TransactionType type, long updateMillis) {
+                pointHistoryRepository.restore(new PointHistory(id, userId, amount, type, updateMillis));
+                lastHistoryId[0] = Math.max(lastHistoryId[0], id);
+            }
+
+            @Override
+            public void onRemove(long userId) {
+                userPointRepository.evict(userId);
+                pointHistoryRepository.restoreRemoval(userId);
+            }
+        };
+        snapshot.replay(handler);
+        long records = pointJournal.replay(snapshot.segment(), Long.MAX_VALUE, handler);
+        pointHistoryRepository.resumeAfter(lastHistoryId[0]);
+        log.info("포인트 저널 복구 완료. snapshotSegment={}, snapshotBalances={}, snapshotHistories={}, records={}, lastHistoryId={}, elapsed={}ms",
+                snapshot.segment(), snapshot.balanceCount(), snapshot.historyCount(),
+                records, lastHistoryId[0], (System.nanoTime() - start) / 1_000_000);
+        pointSnapshotter.start();
+    }
+}
@@ -0,0 +1,22 @@
+package io.hhplus.tdd.journal;
+
+import io.hhplus.tdd.point.TransactionType;
+
+/**
+ * 저널 재생 시 레코드를 받아 메모리 상태를 복구한다.
+ * 레코드마다 객체를 만들지 않도록 필드를 그대로 넘긴다.
+ */
+public interface JournalReplayHandler {
+
+    void onBalance(long userId, long point, long updateMillis);
+
+    void onHistory(long id, long userId, long amount, TransactionType type, long updateMillis);
+
+    /**
+     * 유저의 잔액과 지금까지 복구한 내역을 지운다. 이후 레코드로 다시 복구될 수 있다.
+     * 레코드를 세기만 하는 handler 는 구현하지 않아도 된다.
+     * @param userId
+     */
+    default void onRemove(long userId) {
+    }
+}
@@ -0,0 +1,493 @@
+package io.hhplus.tdd.journal;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+import io.hhplus.tdd.point.UserPoint;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * 포인트 잔액/내역 변경을 기록하는 append-only 저널
+ * - 레코드는 38바이트 고정 길이 바이너리이고, 고정 크기 세그먼트 파일을 memory-map 해서 이어 쓴다.
+ *   [kind 1][type 1][a 8][b 8][c 8][d 8][crc 4]
+ *   잔액(BALANCE) : a=userId, b=point, c=updateMillis
+ *   내역(HISTORY) : a=id, b=userId, c=amount, d=updateMillis, type=TransactionType ordinal
+ *   삭제(REMOVE) : a=userId. 다른 노드로 옮기거나 넘겨받아 바꾸는 유저의 잔액/내역을 지운다. 재생하면 앞의 레코드를 지우고 뒤의 레코드는 그대로 복구한다.
+ *   crc 는 kind ~ d 의 CRC32C 다.
+ * - kind 를 마지막에 써서, 쓰다 만 레코드는 비어있는(0) 레코드로 보이게 한다.
+ *   전원이 나가면 kind 는 디스크에 남고 나머지가 남지 않을 수 있으므로(페이지 경계 등) crc 로 한 번 더 확인한다.
+ * - 재생은 비어 있거나 crc 가 맞지 않는 첫 레코드에서 멈춘다. 열 때는 crc 가 맞지 않는 첫 레코드부터 잘라내고(세그먼트의 나머지를 비우고
+ *   뒤 세그먼트를 지운다) 그 자리부터 이어 쓴다. 잘라낸 뒤의 레코드는 재생되지 않으므로 잘못된 값으로 잔액을 덮어쓰지 않는다.
+ * - fsync 는 group commit 으로 처리한다. flusher 스레드가 commit-window 마다 한 번 force 하고,
+ *   그 사이에 쌓인 레코드를 기다리던 스레드를 한꺼번에 깨운다. commit-window 가 0 이면 쓰는 스레드가 바로 force 한다.
+ */
+@Component
+public class PointJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(PointJournal.class);
+
+    static final int RECORD_SIZE = 38;
+    /**
+     * crc 를 계산하는 범위 (kind ~ d)
+     */
+    private static final int BODY_SIZE = 34;
+    private static final byte EMPTY = 0;
+    private static final byte BALANCE = 1;
+    private static final byte HISTORY = 2;
+    private static final byte REMOVE = 3;
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final long commitWindowMillis;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock commitLock = new ReentrantLock();
+    private final Condition committed = commitLock.newCondition();
+    /**
+     * appendLock 안에서 레코드를 만들고 crc 를 계산할 때 쓴다.
+     */
+    private final byte[] record = new byte[BODY_SIZE];
+    private final ByteBuffer recordView = ByteBuffer.wrap(record);
+    private final CRC32C crc = new CRC32C();
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long segmentNumber;
+    private int writeOffset;
+    private long writtenSequence;
+    private volatile long durableSequence;
+    private volatile boolean running;
+    private Thread flusher;
+
+    public PointJournal(
+            @Value("${point.journal.enabled:false}") boolean enabled,
+            @Value("${point.journal.dir:data/journal}") String directory,
+            @Value("${point.journal.segment-size:67108864}") int segmentSize,
+            @Value("${point.journal.commit-window-ms:2}") long commitWindowMillis
+    ) {
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.segmentSize = segmentSize - segmentSize % RECORD_SIZE;
+        this.commitWindowMillis = commitWindowMillis;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 마지막 세그먼트의 빈 자리부터 이어 쓸 수 있게 연다.
+     * crc 가 맞지 않는 레코드가 있으면 그 레코드부터 잘라내고 그 자리부터 이어 쓴다.
+     */
+    @PostConstruct
+    public void open() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = segments();
+            if (segments.isEmpty()) {
+                mapSegment(0);
+            } else {
+                openTail(segments);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("포인트 저널을 열 수 없습니다. dir=" + directory, e);
+        }
+        running = true;
+        if (commitWindowMillis > 0) {
+            flusher = Thread.ofPlatform().daemon().name("point-journal-flusher").start(this::flushLoop);
+        }
+    }
+
+    /**
+     * 잔액 변경을 기록한다. 디스크 반영을 기다리려면 반환된 순번으로 awaitDurable 을 호출한다.
+     * @param userPoint
+     * @return 레코드 순번
+     */
+    public long appendBalance(UserPoint userPoint) {
+        return append(BALANCE, EMPTY, userPoint.id(), userPoint.point(), userPoint.updateMillis(), 0L);
+    }
+
+    /**
+     * 내역 추가를 기록한다. 디스크 반영을 기다리려면 반환된 순번으로 awaitDurable 을 호출한다.
+     * @param pointHistory
+     * @return 레코드 순번
+     */
+    public long appendHistory(PointHistory pointHistory) {
+        return appendHistory(pointHistory.id(), pointHistory.userId(), pointHistory.amount(), pointHistory.type(), pointHistory.updateMillis());
+    }
+
+    /**
+     * PointHistory 를 만들지 않고 내역 추가를 기록한다.
+     * @param id
+     * @param userId
+     * @param amount
+     * @param type
+     * @param updateMillis
+     * @return 레코드 순번
+     */
+    public long appendHistory(long id, long userId, long amount, TransactionType type, long updateMillis) {
+        return append(HISTORY, (byte) type.ordinal(), id, userId, amount, updateMillis);
+    }
+
+    /**
+     * 유저의 잔액/내역 삭제를 기록한다. 디스크 반영을 기다리려면 반환된 순번으로 awaitDurable 을 호출한다.
+     * @param userId
+     * @return 레코드 순번
+     */
+    public long appendRemove(long userId) {
+        return append(REMOVE, EMPTY, userId, 0L, 0L, 0L);
+    }
+
+    /**
+     * 순번까지의 레코드가 디스크에 반영될 때까지 기다린다.
+     * @param sequence
+     */
+    public void awaitDurable(long sequence) {
+        if (!enabled || durableSequence >= sequence) {
+            return;
+        }
+        if (commitWindowMillis <= 0) {
+            flush();
+            return;
+        }
+        commitLock.lock();
+        try {
+            while (durableSequence < sequence && running) {
+                committed.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    /**
+     * 지금까지 쓴 레코드를 디스크에 반영한다.
+     */
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        long target;
+        MappedByteBuffer current;
+        appendLock.lock();
+        try {
+            target = writtenSequence;
+            current = buffer;
+        } finally {
+            appendLock.unlock();
+        }
+        if (target <= durableSequence) {
+            return;
+        }
+        // 이전 세그먼트는 교체될 때 이미 force 했으므로 현재 세그먼트만 반영하면 된다.
+        current.force();
+        commitLock.lock();
+        try {
+            if (target > durableSequence) {
+                durableSequence = target;
+            }
+            committed.signalAll();
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    /**
+     * 모든 세그먼트를 처음부터 순서대로 읽어 handler 에 넘긴다.
+     * @param handler
+     * @return 재생한 레코드 수
+     */
+    public long replay(JournalReplayHandler handler) {
+        return replay(0, Long.MAX_VALUE, handler);
+    }
+
+    /**
+     * 세그먼트 번호가 [fromSegment, toSegment) 인 세그먼트를 순서대로 읽어 handler 에 넘긴다.
+     * @param fromSegment
+     * @param toSegment
+     * @param handler
+     * @return 재생한 레코드 수
+     */
+    public long replay(long fromSegment, long toSegment, JournalReplayHandler handler) {
+        if (!enabled) {
+            return 0;
+        }
+        long count = 0;
+        byte[] body = new byte[BODY_SIZE];
+        CRC32C checksum = new CRC32C();
+        try {
+            for (Path segment : segments()) {
+                long number = segmentNumber(segment);
+                if (number < fromSegment || number >= toSegment) {
+                    continue;
+                }
+                try (FileChannel readChannel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                    MappedByteBuffer readBuffer = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+                    int limit = (int) readChannel.size() - RECORD_SIZE;
+                    for (int offset = 0; offset <= limit; offset += RECORD_SIZE) {
+                        byte kind = readBuffer.get(offset);
+                        if (kind == EMPTY) {
+                            break;
+                        }
+                        if (!isValid(readBuffer, offset, body, checksum)) {
+                            // 이후 레코드는 열 때 잘라낸다.
+                            log.warn("포인트 저널의 손상된 레코드에서 재생을 멈춥니다. segment={}, offset={}", number, offset);
+                            return count;
+                        }
+                        long a = readBuffer.getLong(offset + 2);
+                        long b = readBuffer.getLong(offset + 10);
+                        long c = readBuffer.getLong(offset + 18);
+                        if (kind == BALANCE) {
+                            handler.onBalance(a, b, c);
+                        } else if (kind == REMOVE) {
+                            handler.onRemove(a);
+                        } else {
+                            handler.onHistory(a, b, c, TYPES[readBuffer.get(offset + 1)], readBuffer.getLong(offset + 26));
+                        }
+                        count++;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("포인트 저널을 읽을 수 없습니다. dir=" + directory, e);
+        }
+        return count;
+    }
+
+    /**
+     * 현재 세그먼트에 기록이 있으면 디스크에 반영하고 다음 세그먼트로 넘어간다.
+     * 반환된 번호보다 작은 세그먼트는 더 이상 바뀌지 않으므로 스냅샷으로 옮길 수 있다.
+     * @return 아직 쓰고 있는 세그먼트 번호
+     */
+    public long seal() {
+        if (!enabled) {
+            return 0;
+        }
+        appendLock.lock();
+        try {
+            if (writeOffset > 0) {
+                roll();
+            }
+            return segmentNumber;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * 스냅샷에 반영된 세그먼트를 지운다.
+     * @param segment 이 번호보다 작은 세그먼트를 지운다.
+     */
+    public void deleteSegmentsBefore(long segment) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            for (Path path : segments()) {
+                if (segmentNumber(path) < segment) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("포인트 저널 세그먼트를 지울 수 없습니다. dir=" + directory, e);
+        }
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (!enabled || !running) {
+            return;
+        }
+        flush();
+        running = false;
+        commitLock.lock();
+        try {
+            committed.signalAll();
+        } finally {
+            commitLock.unlock();
+        }
+        if (flusher != null) {
+            flusher.interrupt();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("포인트 저널을 닫는 중 오류가 발생했습니다.", e);
+        }
+    }
+
+    private long append(byte kind, byte type, long a, long b, long c, long d) {
+        if (!enabled) {
+            return 0;
+        }
+        appendLock.lock();
+        try {
+            if (writeOffset + RECORD_SIZE > segmentSize) {
+                roll();
+            }
+            int offset = writeOffset;
+            recordView.put(0, kind).put(1, type)
+                    .putLong(2, a).putLong(10, b).putLong(18, c).putLong(26, d);
+            crc.reset();
+            crc.update(record, 0, BODY_SIZE);
+            buffer.put(offset + 1, record, 1, BODY_SIZE - 1);
+            buffer.putInt(offset + BODY_SIZE, (int) crc.getValue());
+            buffer.put(offset, kind);
+            writeOffset += RECORD_SIZE;
+            return ++writtenSequence;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * 가득 찬 세그먼트를 디스크에 반영하고 다음 세그먼트로 넘어간다. appendLock 을 잡은 상태에서 호출한다.
+     */
+    private void roll() {
+        buffer.force();
+        try {
+            channel.close();
+            mapSegment(segmentNumber + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("포인트 저널 세그먼트를 만들 수 없습니다. dir=" + directory, e);
+        }
+    }
+
+    private void mapSegment(long number) throws IOException {
+        segmentNumber = number;
+        channel = FileChannel.open(segmentPath(number),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        writeOffset = 0;
+    }
+
+    private void flushLoop() {
+        while (running) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(commitWindowMillis);
+            } catch (InterruptedException e) {
+                continue;
+            }
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.error("포인트 저널 fsync 에 실패했습니다.", e);
+            }
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().matches("journal-\\d+\\.log"))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(String.format("journal-%012d.log", number));
+    }
+
+    private static long segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring("journal-".length(), name.length() - ".log".length()));
+    }
+
+    /**
+     * 세그먼트를 순서대로 검사해서 이어 쓸 위치를 찾아 연다.
+     * - crc 가 맞지 않는 레코드를 만나면 그 세그먼트의 그 자리부터 이어 쓰고, 뒤 세그먼트는 지운다.
+     * - 모두 올바르면 마지막 세그먼트의 첫 빈 자리부터 이어 쓴다.
+     * 이어 쓸 자리 뒤에 남은 바이트(쓰다 만 레코드 등)는 비워서 다음 재생 때 읽히지 않게 한다.
+     */
+    private void openTail(List<Path> segments) throws IOException {
+        byte[] body = new byte[BODY_SIZE];
+        CRC32C checksum = new CRC32C();
+        for (int i = 0; i < segments.size(); i++) {
+            Path segment = segments.get(i);
+            boolean last = i == segments.size() - 1;
+            int end = 0;
+            boolean corrupted = false;
+            try (FileChannel readChannel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                MappedByteBuffer readBuffer = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+                int limit = (int) readChannel.size() - RECORD_SIZE;
+                while (end <= limit && readBuffer.get(end) != EMPTY) {
+                    if (!isValid(readBuffer, end, body, checksum)) {
+                        corrupted = true;
+                        break;
+                    }
+                    end += RECORD_SIZE;
+                }
+            }
+            if (!corrupted && !last) {
+                continue;
+            }
+            if (corrupted) {
+                log.warn("포인트 저널의 손상된 레코드부터 잘라냅니다. segment={}, offset={}, deletedSegments={}",
+                        segmentNumber(segment), end, segments.size() - i - 1);
+                for (Path after : segments.subList(i + 1, segments.size())) {
+                    Files.deleteIfExists(after);
+                }
+            }
+            mapSegment(segmentNumber(segment));
+            writeOffset = end;
+            clearFrom(end);
+            return;
+        }
+    }
+
+    /**
+     * 현재 세그먼트의 offset 부터 끝까지를 0 으로 만든다. 이미 비어 있으면 쓰지 않는다.
+     */
+    private void clearFrom(int offset) {
+        boolean dirty = false;
+        for (int position = offset; position < segmentSize; position++) {
+            if (buffer.get(position) != 0) {
+                buffer.put(position, (byte) 0);
+                dirty = true;
+            }
+        }
+        if (dirty) {
+            buffer.force();
+        }
+    }
+
+    private static boolean isValid(ByteBuffer buffer, int offset, byte[] body, CRC32C checksum) {
+        buffer.get(offset, body, 0, BODY_SIZE);
+        checksum.reset();
+        checksum.update(body, 0, BODY_SIZE);
+        return (int) checksum.getValue() == buffer.getInt(offset + BODY_SIZE);
+    }
+}
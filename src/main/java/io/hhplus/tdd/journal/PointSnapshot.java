@@ -0,0 +1,330 @@
+package io.hhplus.tdd.journal;
+
+import io.hhplus.tdd.point.TransactionType;
+import io.hhplus.tdd.point.UserPoint;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * 저널 세그먼트 [from, segment) 를 반영한 잔액/내역 이미지
+ * - 전체 스냅샷은 from 이 0 이고, 증분 스냅샷은 직전 스냅샷이 끝난 세그먼트부터 바뀐 잔액, 새 내역, 삭제된 유저만 담는다.
+ * - 복구 시 스냅샷을 먼저 재생하고, 저널은 segment 번 세그먼트부터 재생한다.
+ * - 삭제(REMOVE) 레코드를 받으면 잔액은 바로 지우고, 내역은 그때까지 쌓인 위치만 기억했다가 재생/저장 전에 한 번에 걸러낸다.
+ *   여러 유저를 옮겨도 삭제마다 내역 배열 전체를 당기지 않는다.
+ *   증분 스냅샷은 삭제된 유저도 저장해서, 재생할 때 이전 스냅샷에 있던 그 유저의 잔액과 내역을 먼저 지운다.
+ * - 파일은 컬럼 단위로 저장하고 마지막에 CRC32 를 붙인다. 체크섬이 맞지 않거나 잘린 파일은 읽지 않는다.
+ *   [magic 4][version 4][from 8][segment 8][lastHistoryId 8][balanceCount 4][historyCount 4][removedCount 4]
+ *   [removedUserId..]
+ *   [userId..][point..][updateMillis..]
+ *   [historyId..][historyUserId..][amount..][historyUpdateMillis..][type..]
+ *   [crc 8]
+ *   version 1 파일은 from, removedCount, removedUserId 없이 저장된 전체 스냅샷이다.
+ */
+final class PointSnapshot implements JournalReplayHandler {
+
+    static final String TEMP_SUFFIX = ".tmp";
+    private static final int MAGIC = 0x504E5350;
+    private static final int VERSION = 2;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int V1_HEADER_BYTES = 32;
+    private static final int HEADER_BYTES = 44;
+    private static final int BALANCE_BYTES = 3 * Long.BYTES;
+    private static final int HISTORY_BYTES = 4 * Long.BYTES + 1;
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private final Map<Long, UserPoint> balances;
+    private final long from;
+    private long segment;
+    private long lastHistoryId;
+    private long[] historyIds;
+    private long[] historyUserIds;
+    private long[] amounts;
+    private long[] historyUpdateMillis;
+    private byte[] types;
+    private int historyCount;
+    /**
+     * 삭제된 유저와 삭제될 때의 historyCount. 이 위치보다 앞에 있는 그 유저의 내역은 지워진 내역이다.
+     */
+    private final Map<Long, Integer> removedBefore = new HashMap<>();
+    /**
+     * 증분 스냅샷에서 삭제된 유저. 전체 스냅샷은 삭제를 이미 반영했으므로 기록하지 않는다.
+     */
+    private final Set<Long> removedUsers = new HashSet<>();
+
+    private PointSnapshot(long from, long segment, long lastHistoryId, int balanceCapacity, int historyCapacity) {
+        this.balances = new HashMap<>(Math.max(16, balanceCapacity * 4 / 3 + 1));
+        this.from = from;
+        this.segment = segment;
+        this.lastHistoryId = lastHistoryId;
+        int capacity = Math.max(16, historyCapacity);
+        this.historyIds = new long[capacity];
+        this.historyUserIds = new long[capacity];
+        this.amounts = new long[capacity];
+        this.historyUpdateMillis = new long[capacity];
+        this.types = new byte[capacity];
+    }
+
+    /**
+     * 스냅샷이 없을 때 쓰는 빈 이미지. 저널을 처음부터 재생하게 된다.
+     * @return
+     */
+    static PointSnapshot empty() {
+        return new PointSnapshot(0, 0, 0, 0, 0);
+    }
+
+    /**
+     * from 번 세그먼트부터 반영할 빈 증분 스냅샷
+     * @param from 직전 스냅샷이 반영한 마지막 세그먼트 다음 번호
+     * @return
+     */
+    static PointSnapshot delta(long from) {
+        return new PointSnapshot(from, from, 0, 0, 0);
+    }
+
+    @Override
+    public void onBalance(long userId, long point, long updateMillis) {
+        balances.put(userId, new UserPoint(userId, point, updateMillis));
+    }
+
+    @Override
+    public void onHistory(long id, long userId, long amount, TransactionType type, long updateMillis) {
+        if (historyCount == historyIds.length) {
+            int capacity = Math.max(16, historyCount * 2);
+            historyIds = Arrays.copyOf(historyIds, capacity);
+            historyUserIds = Arrays.copyOf(historyUserIds, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            historyUpdateMillis = Arrays.copyOf(historyUpdateMillis, capacity);
+            types = Arrays.copyOf(types, capacity);
+        }
+        historyIds[historyCount] = id;
+        historyUserIds[historyCount] = userId;
+        amounts[historyCount] = amount;
+        historyUpdateMillis[historyCount] = updateMillis;
+        types[historyCount] = (byte) type.ordinal();
+        historyCount++;
+        lastHistoryId = Math.max(lastHistoryId, id);
+    }
+
+    @Override
+    public void onRemove(long userId) {
+        balances.remove(userId);
+        removedBefore.put(userId, historyCount);
+        if (from > 0) {
+            removedUsers.add(userId);
+        }
+    }
+
+    /**
+     * 삭제된 유저를 먼저, 그 다음 잔액을, 내역은 저널에 기록된 순서대로 handler 에 넘긴다.
+     * @param handler
+     */
+    void replay(JournalReplayHandler handler) {
+        compact();
+        for (long userId : removedUsers) {
+            handler.onRemove(userId);
+        }
+        for (UserPoint userPoint : balances.values()) {
+            handler.onBalance(userPoint.id(), userPoint.point(), userPoint.updateMillis());
+        }
+        for (int i = 0; i < historyCount; i++) {
+            handler.onHistory(historyIds[i], historyUserIds[i], amounts[i], TYPES[types[i]], historyUpdateMillis[i]);
+        }
+    }
+
+    /**
+     * segment 번 이전 세그먼트까지 반영했다고 표시한다.
+     * @param segment
+     */
+    void coverUntil(long segment) {
+        this.segment = segment;
+    }
+
+    /**
+     * 이 이미지에 이어지는 증분 스냅샷을 반영한다.
+     * @param delta from 이 이 이미지의 segment 와 같은 증분 스냅샷
+     */
+    void apply(PointSnapshot delta) {
+        delta.replay(this);
+        lastHistoryId = Math.max(lastHistoryId, delta.lastHistoryId);
+        segment = delta.segment;
+    }
+
+    long from() {
+        return from;
+    }
+
+    long segment() {
+        return segment;
+    }
+
+    long lastHistoryId() {
+        return lastHistoryId;
+    }
+
+    int balanceCount() {
+        return balances.size();
+    }
+
+    int historyCount() {
+        compact();
+        return historyCount;
+    }
+
+    /**
+     * 임시 파일에 쓰고 fsync 한 뒤 target 으로 이름을 바꾼다. 쓰는 도중 죽으면 임시 파일만 남는다.
+     * @param target
+     * @return 파일 크기 (bytes)
+     */
+    long write(Path target) throws IOException {
+        compact();
+        Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+        CRC32 crc = new CRC32();
+        try (FileOutputStream file = new FileOutputStream(temp.toFile())) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(file, crc), BUFFER_SIZE));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(from);
+            out.writeLong(segment);
+            out.writeLong(lastHistoryId);
+            out.writeInt(balances.size());
+            out.writeInt(historyCount);
+            out.writeInt(removedUsers.size());
+            for (long userId : removedUsers) {
+                out.writeLong(userId);
+            }
+            for (UserPoint userPoint : balances.values()) {
+                out.writeLong(userPoint.id());
+            }
+            for (UserPoint userPoint : balances.values()) {
+                out.writeLong(userPoint.point());
+            }
+            for (UserPoint userPoint : balances.values()) {
+                out.writeLong(userPoint.updateMillis());
+            }
+            writeColumn(out, historyIds);
+            writeColumn(out, historyUserIds);
+            writeColumn(out, amounts);
+            writeColumn(out, historyUpdateMillis);
+            out.write(types, 0, historyCount);
+            out.flush();
+            file.write(ByteBuffer.allocate(Long.BYTES).putLong(crc.getValue()).array());
+            file.getFD().sync();
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        return Files.size(target);
+    }
+
+    /**
+     * 스냅샷 파일을 읽는다.
+     * @param path
+     * @return
+     * @throws IOException 파일이 잘렸거나 체크섬이 맞지 않는 경우
+     */
+    static PointSnapshot read(Path path) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream file = new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE)) {
+            DataInputStream in = new DataInputStream(new CheckedInputStream(file, crc));
+            if (in.readInt() != MAGIC) {
+                throw new IOException("포인트 스냅샷 형식이 아닙니다. file=" + path);
+            }
+            int version = in.readInt();
+            if (version != 1 && version != VERSION) {
+                throw new IOException("포인트 스냅샷 형식이 아닙니다. file=" + path);
+            }
+            long from = version == 1 ? 0 : in.readLong();
+            long segment = in.readLong();
+            long lastHistoryId = in.readLong();
+            int balanceCount = in.readInt();
+            int historyCount = in.readInt();
+            int removedCount = version == 1 ? 0 : in.readInt();
+            // 체크섬은 끝까지 읽어야 확인할 수 있으므로, 손상된 건수로 큰 배열을 만들기 전에 파일 크기와 맞춰본다.
+            long headerBytes = version == 1 ? V1_HEADER_BYTES : HEADER_BYTES;
+            if (balanceCount < 0 || historyCount < 0 || removedCount < 0 || Files.size(path)
+                    != headerBytes + (long) removedCount * Long.BYTES + (long) balanceCount * BALANCE_BYTES
+                    + (long) historyCount * HISTORY_BYTES + Long.BYTES) {
+                throw new IOException("포인트 스냅샷 크기가 맞지 않습니다. file=" + path);
+            }
+            PointSnapshot snapshot = new PointSnapshot(from, segment, lastHistoryId, balanceCount, historyCount);
+
+            for (long userId : readColumn(in, removedCount)) {
+                snapshot.removedUsers.add(userId);
+            }
+
+            long[] userIds = readColumn(in, balanceCount);
+            long[] points = readColumn(in, balanceCount);
+            long[] updateMillis = readColumn(in, balanceCount);
+            for (int i = 0; i < balanceCount; i++) {
+                snapshot.onBalance(userIds[i], points[i], updateMillis[i]);
+            }
+            snapshot.historyIds = readColumn(in, historyCount);
+            snapshot.historyUserIds = readColumn(in, historyCount);
+            snapshot.amounts = readColumn(in, historyCount);
+            snapshot.historyUpdateMillis = readColumn(in, historyCount);
+            snapshot.types = new byte[historyCount];
+            in.readFully(snapshot.types);
+            snapshot.historyCount = historyCount;
+
+            long expected = new DataInputStream(file).readLong();
+            if (expected != crc.getValue()) {
+                throw new IOException("포인트 스냅샷 체크섬이 맞지 않습니다. file=" + path);
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * 삭제된 유저의 삭제 전 내역을 걸러내고 남은 내역을 앞으로 당긴다.
+     */
+    private void compact() {
+        if (removedBefore.isEmpty()) {
+            return;
+        }
+        int kept = 0;
+        for (int i = 0; i < historyCount; i++) {
+            Integer removedAt = removedBefore.get(historyUserIds[i]);
+            if (removedAt != null && i < removedAt) {
+                continue;
+            }
+            historyIds[kept] = historyIds[i];
+            historyUserIds[kept] = historyUserIds[i];
+            amounts[kept] = amounts[i];
+            historyUpdateMillis[kept] = historyUpdateMillis[i];
+            types[kept] = types[i];
+            kept++;
+        }
+        historyCount = kept;
+        removedBefore.clear();
+    }
+
+    private void writeColumn(DataOutputStream out, long[] column) throws IOException {
+        for (int i = 0; i < historyCount; i++) {
+            out.writeLong(column[i]);
+        }
+    }
+
+    private static long[] readColumn(DataInputStream in, int size) throws IOException {
+        long[] column = new long[size];
+        for (int i = 0; i < size; i++) {
+            column[i] = in.readLong();
+        }
+        return column;
+    }
+}
@@ -0,0 +1,276 @@
+package io.hhplus.tdd.journal;
+
+import io.hhplus.tdd.metrics.PointMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * 주기적으로 저널을 스냅샷으로 압축해서 재시작 시 재생할 저널 양을 제한한다.
+ * - 저널의 현재 세그먼트를 닫고(seal), 직전 스냅샷 이후에 닫힌 세그먼트들만 재생해서 증분 스냅샷(.delta)을 쓴다.
+ *   닫힌 세그먼트는 더 이상 바뀌지 않으므로 충전/사용 요청을 멈추지 않고도 일관된 시점의 이미지가 된다.
+ *   스냅샷 한 번의 비용은 전체 잔액/내역 수가 아니라 그 사이에 바뀐 양에 비례한다.
+ * - 증분 스냅샷 크기의 합이 전체 스냅샷(.snap) 크기 이상이 되면, 전체 스냅샷과 증분 스냅샷을 읽어 새 전체 스냅샷으로 합친다.
+ *   합칠 때마다 전체 스냅샷 크기 이상의 변경이 쌓여 있으므로, 전체를 다시 쓰는 비용은 변경량에 나누어 보면 일정하다.
+ * - 새 스냅샷 파일이 디스크에 반영된 뒤에, 새 스냅샷의 바탕이 된 스냅샷들과 그 뒤의 세그먼트만 남기고 지운다.
+ *   가장 최근에 쓴 스냅샷이 손상되면 바탕 스냅샷들에서 더 긴 저널을 재생해 복구한다.
+ *   그보다 오래된 스냅샷이 손상되면 그 뒤의 세그먼트가 이미 지워졌으므로, 읽을 수 있는 데까지만 복구하고 오류를 남긴다.
+ * - 스냅샷 이미지는 복구나 합치는 중에만 메모리에 두고, 필요할 때마다 파일에서 읽는다.
+ *   증분 스냅샷을 쓸 때는 이미 쓴 스냅샷 파일을 읽지 않는다.
+ */
+@Component
+public class PointSnapshotter {
+
+    private static final Logger log = LoggerFactory.getLogger(PointSnapshotter.class);
+    private static final String FULL_SUFFIX = ".snap";
+    private static final String DELTA_SUFFIX = ".delta";
+
+    private final PointJournal pointJournal;
+    private final PointMetrics pointMetrics;
+    private final long intervalMillis;
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private ScheduledExecutorService scheduler;
+    /**
+     * 복구에 쓰는 스냅샷 파일. 전체 스냅샷 하나와 그 뒤에 이어지는 증분 스냅샷 순서. snapshotLock 을 잡고 바꾼다.
+     * 처음 스냅샷을 만들거나 복구할 때 loadLatest 로 채운다.
+     */
+    private List<Path> chain;
+    /**
+     * 가장 최근 스냅샷을 쓰기 전의 chain. 그 스냅샷이 손상되었을 때 복구할 수 있도록 함께 남긴다.
+     */
+    private List<Path> baseChain = List.of();
+    private long chainSegment;
+    private long fullBytes;
+    private long deltaBytes;
+
+    public PointSnapshotter(
+            PointJournal pointJournal,
+            PointMetrics pointMetrics,
+            @Value("${point.journal.snapshot-interval-ms:60000}") long intervalMillis
+    ) {
+        this.pointJournal = pointJournal;
+        this.pointMetrics = pointMetrics;
+        this.intervalMillis = intervalMillis;
+    }
+
+    /**
+     * 주기적인 스냅샷 생성을 시작한다. 복구 중에 세그먼트가 지워지지 않도록 저널 복구가 끝난 뒤 호출한다.
+     */
+    public void start() {
+        if (!pointJournal.isEnabled() || intervalMillis <= 0 || scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("point-journal-snapshotter").factory());
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot();
+            } catch (RuntimeException e) {
+                log.error("포인트 스냅샷 생성에 실패했습니다.", e);
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 닫힌 세그먼트를 반영한 새 스냅샷을 만든다.
+     * 증분 스냅샷이 충분히 쌓였으면 전체 스냅샷으로 합치고, 아니면 새 세그먼트만 담은 증분 스냅샷을 쓴다.
+     * @return 새 스냅샷을 만들었으면 true, 반영할 세그먼트가 없으면 false
+     */
+    public boolean snapshot() {
+        if (!pointJournal.isEnabled()) {
+            return false;
+        }
+        snapshotLock.lock();
+        try {
+            long start = System.nanoTime();
+            if (chain == null) {
+                loadLatest();
+            }
+            long segment = pointJournal.seal();
+            if (segment <= chainSegment) {
+                return false;
+            }
+            boolean full = fullBytes == 0 || deltaBytes >= fullBytes;
+            // 합칠 때는 쌓인 스냅샷을 다시 읽어 확인한다. 그 사이 손상된 파일이 있으면 읽은 데까지를 바탕으로 한다.
+            PointSnapshot snapshot = full ? loadLatest() : PointSnapshot.delta(chainSegment);
+            long base = snapshot.segment();
+            pointJournal.replay(base, segment, snapshot);
+            snapshot.coverUntil(segment);
+            Path path = full ? snapshotPath(segment, FULL_SUFFIX) : snapshotPath(segment, DELTA_SUFFIX);
+            long bytes = snapshot.write(path);
+            syncDirectory();
+
+            baseChain = chain;
+            if (full) {
+                chain = List.of(path);
+                fullBytes = bytes;
+                deltaBytes = 0;
+            } else {
+                List<Path> extended = new ArrayList<>(chain);
+                extended.add(path);
+                chain = extended;
+                deltaBytes += bytes;
+            }
+            chainSegment = segment;
+            deleteSnapshotsExceptChain();
+            pointJournal.deleteSegmentsBefore(base);
+            long elapsed = System.nanoTime() - start;
+            pointMetrics.recordSnapshot(elapsed, bytes);
+            log.info("포인트 스냅샷 생성 완료. type={}, segment={}, balances={}, histories={}, bytes={}, elapsed={}ms",
+                    full ? "full" : "delta", segment, snapshot.balanceCount(), snapshot.historyCount(), bytes, elapsed / 1_000_000);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("포인트 스냅샷을 만들 수 없습니다. dir=" + pointJournal.directory(), e);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /**
+     * 복구에 쓸 스냅샷을 파일에서 읽는다. 쓰다 만 임시 파일은 지운다.
+     * 읽을 수 있는 가장 최신 전체 스냅샷에 그 뒤로 이어지는 증분 스냅샷을 차례로 반영한다.
+     * 스냅샷이 손상되었으면 그 앞까지만 반영한다. 가장 최근 스냅샷의 바탕 이후 세그먼트는 남아 있으므로 저널을 더 길게 재생하면 된다.
+     * @return 읽을 수 있는 데까지 반영한 이미지. 스냅샷이 없으면 빈 이미지
+     */
+    PointSnapshot loadLatest() {
+        snapshotLock.lock();
+        try {
+            for (Path temp : files(PointSnapshot.TEMP_SUFFIX)) {
+                log.warn("완료되지 않은 포인트 스냅샷을 지웁니다. file={}", temp);
+                Files.deleteIfExists(temp);
+            }
+            PointSnapshot image = PointSnapshot.empty();
+            List<Path> loaded = new ArrayList<>();
+            List<Path> snapshots = files(FULL_SUFFIX);
+            for (int i = snapshots.size() - 1; i >= 0 && loaded.isEmpty(); i--) {
+                try {
+                    image = PointSnapshot.read(snapshots.get(i));
+                    loaded.add(snapshots.get(i));
+                } catch (IOException e) {
+                    log.warn("손상된 포인트 스냅샷을 건너뛰고 이전 스냅샷으로 복구합니다. file={}", snapshots.get(i), e);
+                }
+            }
+            if (loaded.isEmpty() && !snapshots.isEmpty()) {
+                log.error("읽을 수 있는 포인트 스냅샷이 없습니다. 남아 있는 저널만 재생합니다. dir={}", pointJournal.directory());
+            }
+            long full = loaded.isEmpty() ? 0 : Files.size(loaded.get(0));
+            long deltas = 0;
+            List<Path> deltaFiles = files(DELTA_SUFFIX);
+            for (int i = 0; i < deltaFiles.size(); i++) {
+                Path path = deltaFiles.get(i);
+                if (segmentOf(path) <= image.segment()) {
+                    continue;
+                }
+                try {
+                    PointSnapshot delta = PointSnapshot.read(path);
+                    if (delta.from() != image.segment()) {
+                        // 손상된 전체 스냅샷 뒤에 쓴 증분 스냅샷이다.
+                        log.warn("이어지지 않는 증분 스냅샷부터는 저널을 재생합니다. file={}, from={}, segment={}",
+                                path, delta.from(), image.segment());
+                        break;
+                    }
+                    image.apply(delta);
+                } catch (IOException e) {
+                    if (i < deltaFiles.size() - 1) {
+                        log.error("손상된 증분 스냅샷 이후의 세그먼트가 지워졌을 수 있습니다. 읽은 데까지만 복구합니다. file={}", path, e);
+                    } else {
+                        log.warn("손상된 증분 스냅샷을 건너뛰고 이전 스냅샷으로 복구합니다. file={}", path, e);
+                    }
+                    break;
+                }
+                loaded.add(path);
+                deltas += Files.size(path);
+            }
+            chain = loaded;
+            baseChain = List.of();
+            chainSegment = image.segment();
+            fullBytes = full;
+            deltaBytes = deltas;
+            return image;
+        } catch (IOException e) {
+            throw new UncheckedIOException("포인트 스냅샷을 읽을 수 없습니다. dir=" + pointJournal.directory(), e);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.warn("포인트 스냅샷 생성이 끝나지 않았습니다.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+    }
+
+    /**
+     * chain 과 baseChain 에 있는 스냅샷만 남긴다. 건너뛴 손상된 스냅샷도 여기서 지워진다.
+     */
+    private void deleteSnapshotsExceptChain() throws IOException {
+        List<Path> paths = new ArrayList<>(files(FULL_SUFFIX));
+        paths.addAll(files(DELTA_SUFFIX));
+        for (Path path : paths) {
+            if (!chain.contains(path) && !baseChain.contains(path)) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * 이름 변경이 디렉토리에 반영되도록 fsync 한다. 디렉토리 fsync 를 지원하지 않는 환경에서는 건너뛴다.
+     */
+    private void syncDirectory() {
+        try (FileChannel directory = FileChannel.open(pointJournal.directory(), StandardOpenOption.READ)) {
+            directory.force(true);
+        } catch (IOException e) {
+            log.debug("포인트 저널 디렉토리를 fsync 할 수 없습니다.", e);
+        }
+    }
+
+    private List<Path> files(String suffix) throws IOException {
+        Path directory = pointJournal.directory();
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith("snapshot-") && name.endsWith(suffix);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path snapshotPath(long segment, String suffix) {
+        return pointJournal.directory().resolve(String.format("snapshot-%012d", segment) + suffix);
+    }
+
+    private static long segmentOf(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        return Long.parseLong(name.substring("snapshot-".length(), name.lastIndexOf('.')));
+    }
+}
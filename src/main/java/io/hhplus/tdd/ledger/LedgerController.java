@@ -0,0 +1,28 @@
+package io.hhplus.tdd.ledger;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 운영용 ledger projection API (servlet)
+ * - /point/** 가 아니므로 admission control 을 받지 않는다.
+ */
+@RestController
+@RequestMapping("/admin/ledger")
+@Profile("!reactive")
+@RequiredArgsConstructor
+public class LedgerController {
+
+    private final PointLedger pointLedger;
+
+    /**
+     * 내역이 있는 전체 유저의 잔액 projection 을 내역으로 다시 만든다.
+     */
+    @PostMapping("rebuild")
+    public ProjectionRebuildReport rebuild() {
+        return pointLedger.rebuild();
+    }
+}
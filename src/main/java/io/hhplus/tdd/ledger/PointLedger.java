@@ -0,0 +1,230 @@
+package io.hhplus.tdd.ledger;
+
+import io.hhplus.tdd.exception.ServiceException;
+import io.hhplus.tdd.index.PointHistoryIndex;
+import io.hhplus.tdd.lock.UserLockManager;
+import io.hhplus.tdd.point.PointBalance;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointHistoryRepository;
+import io.hhplus.tdd.point.TransactionType;
+import io.hhplus.tdd.point.UserPoint;
+import io.hhplus.tdd.shard.PointShardEngine;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * 포인트 내역을 유일한 원본으로 쓰는 ledger 모드
+ * - 충전/사용/이체는 내역만 추가하고(append), 잔액은 내역을 더해 만든 projection 에서 읽는다. UserPointStore 에는 쓰지 않는다.
+ * - projection 은 내역을 추가할 때마다 그 한 건만 더해서 갱신한다. 처음 조회하는 유저는 그 유저의 내역을 모두 더해서 만든다.
+ *   내역 id 로 어디까지 반영했는지 기억하므로, 내역 추가와 projection 갱신 사이에 만든 projection 에 같은 내역을 두 번 더하지 않는다.
+ * - 같은 유저의 append 는 PointService 가 유저 락(sharding 모드에서는 유저의 shard 스레드) 안에서 호출하므로 잔액 검증과 추가 사이에 다른 변경이 끼어들지 않는다.
+ * - rebuild 는 유저를 parallelism 개 구간으로 나눠 병렬로 내역을 다시 더하고, 유저마다 그 유저의 변경과 직렬화해서 바꿔 넣는다.
+ * - 특정 시각의 잔액은 그 시각까지의 내역을 더해서 계산한다. 모드와 관계없이 쓸 수 있다.
+ */
+@Component
+public class PointLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(PointLedger.class);
+
+    private final PointHistoryRepository pointHistoryRepository;
+    private final PointHistoryIndex pointHistoryIndex;
+    private final UserLockManager userLockManager;
+    private final PointShardEngine pointShardEngine;
+    private final boolean enabled;
+    private final int parallelism;
+    private final ForkJoinPool pool;
+    private final ConcurrentHashMap<Long, PointBalance> projection = new ConcurrentHashMap<>();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    /**
+     * @param enabled false 면 projection 을 만들지 않고, PointService 는 UserPointStore 의 잔액을 쓴다.
+     * @param parallelism projection 을 다시 만들 때 나누는 구간(스레드) 수
+     */
+    public PointLedger(
+            PointHistoryRepository pointHistoryRepository,
+            PointHistoryIndex pointHistoryIndex,
+            UserLockManager userLockManager,
+            PointShardEngine pointShardEngine,
+            @Value("${point.ledger.enabled:false}") boolean enabled,
+            @Value("${point.ledger.rebuild-parallelism:4}") int parallelism
+    ) {
+        this.pointHistoryRepository = pointHistoryRepository;
+        this.pointHistoryIndex = pointHistoryIndex;
+        this.userLockManager = userLockManager;
+        this.pointShardEngine = pointShardEngine;
+        this.enabled = enabled;
+        this.parallelism = parallelism;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * projection 의 잔액을 조회한다. 없으면 내역을 모두 더해서 만든다.
+     * @param userId
+     * @return
+     */
+    public UserPoint balanceOf(long userId) {
+        PointBalance balance = projection.get(userId);
+        if (balance == null) {
+            balance = fold(userId);
+            if (balance.isEmpty()) {
+                // 내역이 없는 유저는 projection 에 넣지 않는다.
+                return balance.toUserPoint();
+            }
+            balance = projection.computeIfAbsent(userId, key -> fold(key));
+        }
+        return balance.toUserPoint();
+    }
+
+    /**
+     * projection 을 채우지 않고 잔액을 조회한다. projection 에 없으면 내역을 더한 값을 돌려준다.
+     * @param userId
+     * @return
+     */
+    public UserPoint peekById(long userId) {
+        PointBalance balance = projection.get(userId);
+        return (balance == null ? fold(userId) : balance).toUserPoint();
+    }
+
+    /**
+     * asOfMillis 시각(포함)까지의 내역만 더한 잔액
+     * @param userId
+     * @param asOfMillis
+     * @return 그때까지 내역이 없으면 잔액 0
+     */
+    public UserPoint balanceAsOf(long userId, long asOfMillis) {
+        return pointHistoryIndex.balance(userId, asOfMillis).toUserPoint();
+    }
+
+    /**
+     * 내역을 한 건 추가하고 projection 에 반영한다. 유저 락(sharding 모드에서는 유저의 shard 스레드) 안에서 호출한다.
+     * @param userId
+     * @param amount
+     * @param type
+     * @param updateMillis
+     * @return 내역을 반영한 잔액
+     */
+    public UserPoint append(long userId, long amount, TransactionType type, long updateMillis) {
+        long id = pointHistoryRepository.insertPointHistory(userId, amount, type, updateMillis);
+        PointHistory pointHistory = new PointHistory(id, userId, amount, type, updateMillis);
+        // projection 이 없으면 방금 추가한 내역까지 더해서 만든다.
+        return projection.compute(userId, (key, balance) -> balance == null ? fold(key) : balance.apply(pointHistory))
+                .toUserPoint();
+    }
+
+    /**
+     * projection 에서 유저를 지운다. 다음 조회 때 내역으로 다시 만든다.
+     * @param userId
+     */
+    public void evict(long userId) {
+        projection.remove(userId);
+    }
+
+    /**
+     * 내역이 있는 전체 유저의 projection 을 내역으로 다시 만든다. 요청을 처리하는 중에도 실행할 수 있다.
+     * @return
+     */
+    public ProjectionRebuildReport rebuild() {
+        if (!enabled) {
+            throw new ServiceException("ledger 모드가 아닙니다.");
+        }
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new ServiceException("projection 을 이미 다시 만드는 중입니다.");
+        }
+        try {
+            long start = System.nanoTime();
+            long[] userIds = pointHistoryIndex.userIds();
+            List<Callable<long[]>> partitions = new ArrayList<>(parallelism);
+            for (int partition = 0; partition < parallelism; partition++) {
+                int index = partition;
+                partitions.add(() -> rebuild(userIds, index));
+            }
+            long users = 0;
+            long events = 0;
+            for (Future<long[]> future : pool.invokeAll(partitions)) {
+                long[] counts = future.get();
+                users += counts[0];
+                events += counts[1];
+            }
+            ProjectionRebuildReport report = new ProjectionRebuildReport(users, events, parallelism,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            log.info("projection 재생성 완료 {}", report);
+            return report;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("projection 을 다시 만드는 중 인터럽트 되었습니다.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * userIds 중 partition 구간에 속한 유저의 projection 을 다시 만든다.
+     * @return [유저 수, 더한 내역 수]
+     */
+    private long[] rebuild(long[] userIds, int partition) {
+        long users = 0;
+        long events = 0;
+        for (long userId : userIds) {
+            if (partitionOf(userId) != partition) {
+                continue;
+            }
+            events += serialize(userId, () -> {
+                PointBalance balance = fold(userId);
+                if (balance.isEmpty()) {
+                    // 그 사이 다른 노드로 옮겨간 유저
+                    projection.remove(userId);
+                } else {
+                    projection.put(userId, balance);
+                }
+                return pointHistoryIndex.countByUserId(userId);
+            });
+            users++;
+        }
+        return new long[]{users, events};
+    }
+
+    private int partitionOf(long userId) {
+        // 연속된 id 가 한 구간에 몰리지 않도록 비트를 섞는다.
+        long hash = userId * 0x9e3779b97f4a7c15L;
+        return (int) Math.floorMod(hash ^ (hash >>> 32), (long) parallelism);
+    }
+
+    private PointBalance fold(long userId) {
+        return pointHistoryIndex.balance(userId, Long.MAX_VALUE);
+    }
+
+    private <T> T serialize(long userId, Supplier<T> action) {
+        if (pointShardEngine.isEnabled()) {
+            return pointShardEngine.execute(userId, action);
+        }
+        return userLockManager.executeWithLock(userId, action);
+    }
+}
@@ -0,0 +1,16 @@
+package io.hhplus.tdd.ledger;
+
+/**
+ * projection 재생성 결과
+ * @param users 다시 만든 유저 수
+ * @param events 다시 더한 내역 수
+ * @param partitions 나눠서 병렬로 만든 구간 수
+ * @param elapsedMillis
+ */
+public record ProjectionRebuildReport(
+        long users,
+        long events,
+        int partitions,
+        long elapsedMillis
+) {
+}
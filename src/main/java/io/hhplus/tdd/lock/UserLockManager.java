@@ -0,0 +1,208 @@
+package io.hhplus.tdd.lock;
+
+import io.hhplus.tdd.metrics.PointMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 유저 id 단위 락 관리
+ * - 같은 유저의 요청은 fair 락으로 도착 순서대로 직렬화한다.
+ * - 다른 유저의 요청은 서로 기다리지 않는다.
+ * - 두 유저의 락이 필요하면 id 순서대로 잡는다.
+ * - 락을 잡고 있거나 기다리는 스레드가 없으면 엔트리를 제거해서, 락 테이블 크기는 동시에 요청 중인 유저 수를 넘지 않는다.
+ * - 락 안에서 테이블 throttle 로 블로킹되므로 synchronized 대신 ReentrantLock 을 써서 가상 스레드가 carrier 스레드를 고정(pinning)하지 않게 한다.
+ * - 락 테이블은 유저 id 를 long 그대로 키로 쓰는 stripe 별 해시 테이블이다. 다 쓴 엔트리는 stripe 마다 몇 개씩 남겨 다시 쓰므로,
+ *   평소에는 락을 잡고 놓는 데 Long 키나 엔트리 객체를 만들지 않는다. stripe 는 엔트리를 찾고 참조 수를 바꾸는 동안만 잠근다.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserLockManager {
+
+    private static final int STRIPES = 64;
+    private static final int BUCKETS_PER_STRIPE = 16;
+    /**
+     * stripe 마다 다시 쓰려고 남겨두는 엔트리 수
+     */
+    private static final int POOLED_ENTRIES_PER_STRIPE = 16;
+
+    private final Stripe[] stripes = newStripes();
+    private final PointMetrics pointMetrics;
+
+    /**
+     * 유저 락 안에서 실행하는 작업. 유저 id 와 long 인자 하나를 받는다.
+     * 필드에 담아둔 작업을 넘기면 호출마다 값을 캡처한 람다를 만들지 않는다.
+     */
+    @FunctionalInterface
+    public interface LockedAction<T> {
+        T apply(long userId, long argument);
+    }
+
+    /**
+     * 유저 락을 잡은 상태로 action 을 실행한다.
+     * @param userId
+     * @param action
+     * @return action 실행 결과
+     */
+    public <T> T executeWithLock(long userId, Supplier<T> action) {
+        LockEntry entry = acquire(userId);
+        long waitStart = System.nanoTime();
+        entry.lock.lock();
+        pointMetrics.recordLockWait(System.nanoTime() - waitStart);
+        try {
+            return action.get();
+        } finally {
+            entry.lock.unlock();
+            release(userId, entry);
+        }
+    }
+
+    /**
+     * 유저 락을 잡은 상태로 action.apply(userId, argument) 를 실행한다.
+     * @param userId
+     * @param argument
+     * @param action
+     * @return action 실행 결과
+     */
+    public <T> T executeWithLock(long userId, long argument, LockedAction<T> action) {
+        LockEntry entry = acquire(userId);
+        long waitStart = System.nanoTime();
+        entry.lock.lock();
+        pointMetrics.recordLockWait(System.nanoTime() - waitStart);
+        try {
+            return action.apply(userId, argument);
+        } finally {
+            entry.lock.unlock();
+            release(userId, entry);
+        }
+    }
+
+    /**
+     * 두 유저의 락을 모두 잡은 상태로 action 을 실행한다.
+     * 항상 id 가 작은 유저의 락부터 잡으므로, 서로 반대 방향으로 요청해도 교착 상태에 빠지지 않는다.
+     * @param userId
+     * @param otherUserId
+     * @param action
+     * @return action 실행 결과
+     */
+    public <T> T executeWithLocks(long userId, long otherUserId, Supplier<T> action) {
+        long first = Math.min(userId, otherUserId);
+        long second = Math.max(userId, otherUserId);
+        return executeWithLock(first, () -> executeWithLock(second, action));
+    }
+
+    /**
+     * 현재 락 테이블에 남아있는 엔트리 수
+     * @return
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 엔트리의 참조 수를 올린다. 같은 stripe 를 잠근 상태에서만 엔트리를 넣고 빼므로 제거와 경합하지 않는다.
+     */
+    private LockEntry acquire(long userId) {
+        long hash = hash(userId);
+        Stripe stripe = stripes[(int) hash & (STRIPES - 1)];
+        synchronized (stripe) {
+            return stripe.acquire(userId, (int) (hash >>> 32) & (BUCKETS_PER_STRIPE - 1));
+        }
+    }
+
+    /**
+     * 참조 수를 내리고, 마지막 참조였다면 엔트리를 제거한다.
+     */
+    private void release(long userId, LockEntry entry) {
+        long hash = hash(userId);
+        Stripe stripe = stripes[(int) hash & (STRIPES - 1)];
+        synchronized (stripe) {
+            stripe.release(entry, (int) (hash >>> 32) & (BUCKETS_PER_STRIPE - 1));
+        }
+    }
+
+    private static long hash(long userId) {
+        // 연속된 id 가 한 stripe 에 몰리지 않도록 비트를 섞는다.
+        long hash = userId * 0x9e3779b97f4a7c15L;
+        return hash ^ (hash >>> 29);
+    }
+
+    private static Stripe[] newStripes() {
+        Stripe[] stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+        return stripes;
+    }
+
+    /**
+     * 유저 id 로 엔트리를 찾는 chaining 해시 테이블과 다시 쓸 엔트리 목록. 잠근 상태에서만 접근한다.
+     */
+    private static final class Stripe {
+        private final LockEntry[] buckets = new LockEntry[BUCKETS_PER_STRIPE];
+        private LockEntry pool;
+        private int pooled;
+        private int size;
+
+        private LockEntry acquire(long userId, int bucket) {
+            for (LockEntry entry = buckets[bucket]; entry != null; entry = entry.next) {
+                if (entry.userId == userId) {
+                    entry.holders++;
+                    return entry;
+                }
+            }
+            LockEntry entry = pool;
+            if (entry == null) {
+                entry = new LockEntry();
+            } else {
+                pool = entry.next;
+                pooled--;
+            }
+            entry.userId = userId;
+            entry.holders = 1;
+            entry.next = buckets[bucket];
+            buckets[bucket] = entry;
+            size++;
+            return entry;
+        }
+
+        private void release(LockEntry entry, int bucket) {
+            if (--entry.holders > 0) {
+                return;
+            }
+            if (buckets[bucket] == entry) {
+                buckets[bucket] = entry.next;
+            } else {
+                LockEntry previous = buckets[bucket];
+                while (previous.next != entry) {
+                    previous = previous.next;
+                }
+                previous.next = entry.next;
+            }
+            size--;
+            // 참조 수가 0 이면 락을 잡거나 기다리는 스레드가 없으므로 다른 유저의 락으로 다시 써도 된다.
+            if (pooled < POOLED_ENTRIES_PER_STRIPE) {
+                entry.next = pool;
+                pool = entry;
+                pooled++;
+            } else {
+                entry.next = null;
+            }
+        }
+    }
+
+    private static final class LockEntry {
+        private final ReentrantLock lock = new ReentrantLock(true);
+        private long userId;
+        private int holders;
+        private LockEntry next;
+    }
+}
@@ -0,0 +1,73 @@
+package io.hhplus.tdd.metrics;
+
+import io.hhplus.tdd.admission.AdaptiveConcurrencyLimiter;
+import io.hhplus.tdd.admission.AdmissionInterceptor;
+import io.hhplus.tdd.cache.UserPointCache;
+import io.hhplus.tdd.event.PointEventBus;
+import io.hhplus.tdd.lock.UserLockManager;
+import io.hhplus.tdd.shard.PointShardEngine;
+import io.hhplus.tdd.writer.PointHistoryWriter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * 큐 길이, 캐시, 락 테이블, shard 큐, 스트림 구독자, 동시 처리 한도처럼 값을 직접 기록하지 않고 scrape 시점에 읽어가는 지표를 등록한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class PointMeterBinder implements MeterBinder {
+
+    private final PointHistoryWriter pointHistoryWriter;
+    private final UserPointCache userPointCache;
+    private final UserLockManager userLockManager;
+    private final PointEventBus pointEventBus;
+    private final AdmissionInterceptor admissionInterceptor;
+    private final PointShardEngine pointShardEngine;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("point.history.queue.depth", pointHistoryWriter, PointHistoryWriter::pendingCount)
+                .description("테이블 저장을 기다리는 포인트 내역 수")
+                .register(registry);
+        Gauge.builder("point.lock.active", userLockManager, UserLockManager::size)
+                .description("락 테이블에 남아있는 유저 수")
+                .register(registry);
+        Gauge.builder("point.cache.size", userPointCache, UserPointCache::size)
+                .description("캐시된 유저 포인트 수")
+                .register(registry);
+        FunctionCounter.builder("point.cache.requests", userPointCache, UserPointCache::hitCount)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("point.cache.requests", userPointCache, UserPointCache::missCount)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("point.cache.evictions", userPointCache, UserPointCache::evictionCount)
+                .register(registry);
+        Gauge.builder("point.stream.subscribers", pointEventBus, PointEventBus::subscriberCount)
+                .description("잔액 변경 스트림 구독자 수")
+                .register(registry);
+        FunctionCounter.builder("point.stream.dropped", pointEventBus, PointEventBus::droppedCount)
+                .description("느린 구독자의 버퍼가 가득 차서 버린 잔액 변경 수")
+                .register(registry);
+        Gauge.builder("point.shard.queue.depth", pointShardEngine, PointShardEngine::pendingCount)
+                .description("shard 스레드 실행을 기다리는 작업 수")
+                .register(registry);
+        bindLimiter(registry, "read", admissionInterceptor.readLimiter());
+        bindLimiter(registry, "write", admissionInterceptor.writeLimiter());
+    }
+
+    private static void bindLimiter(MeterRegistry registry, String access, AdaptiveConcurrencyLimiter limiter) {
+        Gauge.builder("point.admission.limit", limiter, AdaptiveConcurrencyLimiter::limit)
+                .description("동시 처리 한도")
+                .tag("access", access)
+                .register(registry);
+        Gauge.builder("point.admission.in_flight", limiter, AdaptiveConcurrencyLimiter::inFlight)
+                .description("처리 중인 요청 수")
+                .tag("access", access)
+                .register(registry);
+    }
+}
@@ -0,0 +1,130 @@
+package io.hhplus.tdd.metrics;
+
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 포인트 API 측정값 기록
+ * - 태그 조합별 Timer/Counter 를 생성 시점에 모두 등록해두고 배열로 꺼내 쓴다.
+ *   요청마다 태그 문자열이나 Timer.Sample 을 만들지 않아서 기록 경로에서 객체를 할당하지 않는다.
+ */
+@Component
+public class PointMetrics {
+
+    private final Timer[] operationTimers;
+    private final Counter[] rejectionCounters;
+    private final Timer userPointTableRead;
+    private final Timer userPointTableWrite;
+    private final Counter coalescedUserPointReads;
+    private final Timer pointHistoryTableWrite;
+    private final Timer lockWait;
+    private final Timer snapshotDuration;
+    private final DistributionSummary snapshotSize;
+    private final Timer reconciliationDuration;
+    private final Counter reconciledUsers;
+    private final Counter reconciliationMismatches;
+
+    public PointMetrics(MeterRegistry meterRegistry) {
+        PointOperation[] operations = PointOperation.values();
+        this.operationTimers = new Timer[operations.length];
+        for (PointOperation operation : operations) {
+            operationTimers[operation.ordinal()] = Timer.builder("point.operation")
+                    .description("포인트 API 처리 시간")
+                    .tag("operation", operation.name().toLowerCase(Locale.ROOT))
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+
+        PointErrorCode[] errorCodes = PointErrorCode.values();
+        this.rejectionCounters = new Counter[errorCodes.length];
+        for (PointErrorCode errorCode : errorCodes) {
+            rejectionCounters[errorCode.ordinal()] = Counter.builder("point.rejection")
+                    .description("거절된 포인트 요청 수")
+                    .tag("reason", errorCode.name())
+                    .register(meterRegistry);
+        }
+
+        this.userPointTableRead = tableTimer(meterRegistry, "user_point", "read");
+        this.userPointTableWrite = tableTimer(meterRegistry, "user_point", "write");
+        this.coalescedUserPointReads = Counter.builder("point.table.coalesced")
+                .description("진행 중인 테이블 조회 결과를 같이 받아 테이블을 읽지 않은 조회 수")
+                .tag("table", "user_point")
+                .register(meterRegistry);
+        this.pointHistoryTableWrite = tableTimer(meterRegistry, "point_history", "write");
+        this.lockWait = Timer.builder("point.lock.wait")
+                .description("유저 락 대기 시간")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.snapshotDuration = Timer.builder("point.journal.snapshot")
+                .description("저널 스냅샷 생성 시간")
+                .register(meterRegistry);
+        this.snapshotSize = DistributionSummary.builder("point.journal.snapshot.size")
+                .description("저널 스냅샷 파일 크기")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.reconciliationDuration = Timer.builder("point.reconcile")
+                .description("잔액/내역 정합성 점검 시간")
+                .register(meterRegistry);
+        this.reconciledUsers = Counter.builder("point.reconcile.users")
+                .description("정합성을 점검한 유저 수")
+                .register(meterRegistry);
+        this.reconciliationMismatches = Counter.builder("point.reconcile.mismatches")
+                .description("잔액이 내역과 맞지 않는 유저 수")
+                .register(meterRegistry);
+    }
+
+    public void recordOperation(PointOperation operation, long nanos) {
+        operationTimers[operation.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRejection(PointErrorCode errorCode) {
+        rejectionCounters[errorCode.ordinal()].increment();
+    }
+
+    public void recordUserPointTableRead(long nanos) {
+        userPointTableRead.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordCoalescedUserPointRead() {
+        coalescedUserPointReads.increment();
+    }
+
+    public void recordUserPointTableWrite(long nanos) {
+        userPointTableWrite.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPointHistoryTableWrite(long nanos) {
+        pointHistoryTableWrite.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordLockWait(long nanos) {
+        lockWait.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordSnapshot(long nanos, long bytes) {
+        snapshotDuration.record(nanos, TimeUnit.NANOSECONDS);
+        snapshotSize.record(bytes);
+    }
+
+    public void recordReconciliation(long nanos, long users, long mismatches) {
+        reconciliationDuration.record(nanos, TimeUnit.NANOSECONDS);
+        reconciledUsers.increment(users);
+        reconciliationMismatches.increment(mismatches);
+    }
+
+    private static Timer tableTimer(MeterRegistry meterRegistry, String table, String access) {
+        return Timer.builder("point.table")
+                .description("테이블 접근 시간")
+                .tag("table", table)
+                .tag("access", access)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
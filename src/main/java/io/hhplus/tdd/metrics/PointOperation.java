@@ -0,0 +1,8 @@
+package io.hhplus.tdd.metrics;
+
+/**
+ * 시간을 측정하는 포인트 API 종류
+ */
+public enum PointOperation {
+    CHARGE, USE, GET, HISTORY, BATCH, TRANSFER, SUMMARY
+}
@@ -0,0 +1,44 @@
+package io.hhplus.tdd.point;
+
+/**
+ * 내역을 id 순서대로 더해 만든 유저의 잔액 (ledger 모드의 projection)
+ * @param userId
+ * @param point 잔액
+ * @param updateMillis 마지막으로 반영한 내역 시각. 반영한 내역이 없으면 0
+ * @param lastHistoryId 마지막으로 반영한 내역 id. 반영한 내역이 없으면 0
+ */
+public record PointBalance(
+        long userId,
+        long point,
+        long updateMillis,
+        long lastHistoryId
+) {
+
+    public static PointBalance empty(long userId) {
+        return new PointBalance(userId, 0, 0, 0);
+    }
+
+    /**
+     * 내역 한 건을 반영한다. 이미 반영한 id 까지의 내역은 다시 더하지 않는다.
+     * @param pointHistory
+     * @return
+     */
+    public PointBalance apply(PointHistory pointHistory) {
+        if (pointHistory.id() <= lastHistoryId) {
+            return this;
+        }
+        return new PointBalance(userId, point + pointHistory.type().signed(pointHistory.amount()), pointHistory.updateMillis(), pointHistory.id());
+    }
+
+    public boolean isEmpty() {
+        return lastHistoryId == 0;
+    }
+
+    /**
+     * 반영한 내역이 없으면 UserPoint.empty 와 같다.
+     * @return
+     */
+    public UserPoint toUserPoint() {
+        return isEmpty() ? UserPoint.empty(userId) : new UserPoint(userId, point, updateMillis);
+    }
+}
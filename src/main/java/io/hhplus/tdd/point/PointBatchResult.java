@@ -0,0 +1,41 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.exception.PointErrorCode;
+
+/**
+ * 일괄 충전/사용 요청 한 건의 처리 결과
+ * - 성공하면 point 는 이 요청까지 반영한 잔액이고, updateMillis 는 함께 처리한 요청들의 잔액을 저장한 시각이다.
+ * - 실패하면 errorCode/message 에 거절 사유가 들어가고, point 는 반영하지 않은 잔액, updateMillis 는 0 이다.
+ * - 유저의 요청을 처리하지 못했으면(저장소 오류, 노드 거절 등) 잔액을 알 수 없으므로 point 는 0 이다.
+ * - 객체가 아닌 항목은 유저를 알 수 없으므로 userId, type, amount 도 비워서 INVALID_BATCH_ITEM 으로 응답한다.
+ */
+public record PointBatchResult(
+        long userId,
+        TransactionType type,
+        long amount,
+        boolean success,
+        long point,
+        long updateMillis,
+        String errorCode,
+        String message
+) {
+
+    public static PointBatchResult succeeded(PointBatchCommand command, long point, long updateMillis) {
+        return new PointBatchResult(command.userId(), command.type(), command.amount(), true, point, updateMillis, null, null);
+    }
+
+    public static PointBatchResult failed(PointBatchCommand command, long point, PointErrorCode errorCode) {
+        return new PointBatchResult(command.userId(), command.type(), command.amount(), false, point, 0L,
+                errorCode.name(), errorCode.getMessage());
+    }
+
+    public static PointBatchResult unprocessed(PointBatchCommand command, PointErrorCode errorCode) {
+        return new PointBatchResult(command.userId(), command.type(), command.amount(), false, 0L, 0L,
+                errorCode.name(), errorCode.getMessage());
+    }
+
+    public static PointBatchResult invalid() {
+        PointErrorCode errorCode = PointErrorCode.INVALID_BATCH_ITEM;
+        return new PointBatchResult(0L, null, 0L, false, 0L, 0L, errorCode.name(), errorCode.getMessage());
+    }
+}
@@ -0,0 +1,218 @@
+package io.hhplus.tdd.point;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.hhplus.tdd.cluster.PointClusterRouter;
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.hhplus.tdd.exception.PointServiceException;
+import io.hhplus.tdd.exception.ServiceException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 일괄 충전/사용 처리
+ * - 요청 JSON 배열을 chunk-size 건씩 읽어서 처리하고, 처리한 chunk 의 결과를 바로 응답 JSON 배열에 이어 쓴다.
+ *   전체 요청을 메모리에 올리지 않고, 응답 순서는 요청 순서와 같다.
+ * - chunk 안에서 유저별로 요청을 모아 PointService.applyBatch 로 한 번에 적용한다. 서로 다른 유저는 병렬로 처리한다.
+ * - chunk 는 순서대로 처리하므로 같은 유저의 요청은 chunk 를 넘어가도 요청 순서대로 적용된다.
+ * - 클러스터 모드에서는 유저마다 guard 를 잡고 처리한다. 이 노드가 담당하지 않거나 이미 넘긴 유저의 요청은
+ *   전달하지 않고 NOT_OWNER 결과로 남기므로, 클라이언트가 담당 노드(GET /cluster/nodes)로 다시 보낸다.
+ * - 앞 chunk 의 결과는 이미 응답에 썼으므로, 유저의 처리가 실패해도 예외를 던지지 않고 그 유저의 요청을 실패 결과로 남긴다.
+ *   객체가 아닌 항목(null, 숫자, 문자열, 배열)도 INVALID_BATCH_ITEM 결과로 남기므로, 응답 배열은 항상 요청 배열과 1:1 로 끝난다.
+ * - JSON 형식이 깨진 요청은 400 으로 거절한다. 이미 응답을 쓰기 시작했으면 응답 배열을 닫지 않아,
+ *   클라이언트가 잘린 응답을 완전한 결과로 읽지 않게 한다.
+ */
+@Service
+public class PointBatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(PointBatchService.class);
+
+    private final PointService pointService;
+    private final PointClusterRouter pointClusterRouter;
+    private final ObjectMapper objectMapper;
+    /**
+     * 결과 한 건마다 flush 하지 않고 chunk 단위로 flush 한다.
+     */
+    private final ObjectWriter resultWriter;
+    private final int chunkSize;
+    private final ExecutorService executor;
+
+    public PointBatchService(
+            PointService pointService,
+            PointClusterRouter pointClusterRouter,
+            ObjectMapper objectMapper,
+            @Value("${point.batch.chunk-size:10000}") int chunkSize,
+            @Value("${point.batch.parallelism:32}") int parallelism,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        this.pointService = pointService;
+        this.pointClusterRouter = pointClusterRouter;
+        this.objectMapper = objectMapper;
+        this.resultWriter = objectMapper.writerFor(PointBatchResult.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.chunkSize = chunkSize;
+        this.executor = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("point-batch-", 0).factory())
+                : Executors.newFixedThreadPool(parallelism, Thread.ofPlatform().daemon().name("point-batch-", 0).factory());
+    }
+
+    /**
+     * [{userId, type, amount}, ...] 형식의 요청을 읽어 처리하고, 요청 순서대로의 결과 배열을 쓴다.
+     * @param in 요청 본문
+     * @param out 응답 본문
+     * @throws ServiceException 요청이 JSON 배열이 아니거나 JSON 형식이 깨진 경우
+     */
+    public void process(InputStream in, OutputStream out) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new ServiceException("일괄 요청은 JSON 배열이어야 합니다.");
+            }
+            try (JsonGenerator generator = objectMapper.createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT)) {
+                generator.writeStartArray();
+                List<PointBatchCommand> chunk = new ArrayList<>(chunkSize);
+                JsonToken token;
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    if (token == null) {
+                        throw new ServiceException("일괄 요청 JSON 배열이 끝나지 않았습니다.");
+                    }
+                    if (token == JsonToken.START_OBJECT) {
+                        chunk.add(parser.readValueAs(PointBatchCommand.class));
+                    } else {
+                        // 객체가 아닌 항목은 null 로 두고 apply 에서 INVALID_BATCH_ITEM 결과로 바꾼다.
+                        parser.skipChildren();
+                        chunk.add(null);
+                    }
+                    if (chunk.size() == chunkSize) {
+                        write(generator, apply(chunk));
+                        chunk.clear();
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    write(generator, apply(chunk));
+                }
+                generator.writeEndArray();
+            }
+        } catch (JsonProcessingException e) {
+            throw new ServiceException("일괄 요청 JSON 형식이 올바르지 않습니다. " + e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * 요청을 유저별로 모아 병렬로 적용한다.
+     * 처리하지 못한 유저의 요청은 그 거절 사유(담당 노드가 아니면 NOT_OWNER, 저장소 오류 등은 BATCH_FAILED)의 실패 결과가 된다.
+     * @param commands null 인 항목은 형식이 잘못된 항목으로 보고 INVALID_BATCH_ITEM 결과가 된다.
+     * @return 요청 순서대로의 처리 결과
+     */
+    public List<PointBatchResult> apply(List<PointBatchCommand> commands) {
+        Map<Long, List<Integer>> positionsByUser = new LinkedHashMap<>();
+        for (int i = 0; i < commands.size(); i++) {
+            if (commands.get(i) == null) {
+                continue;
+            }
+            positionsByUser.computeIfAbsent(commands.get(i).userId(), key -> new ArrayList<>()).add(i);
+        }
+
+        PointBatchResult[] results = new PointBatchResult[commands.size()];
+        List<Future<?>> futures = new ArrayList<>(positionsByUser.size());
+        positionsByUser.forEach((userId, positions) -> futures.add(executor.submit(() -> {
+            List<PointBatchCommand> userCommands = new ArrayList<>(positions.size());
+            for (int position : positions) {
+                userCommands.add(commands.get(position));
+            }
+            List<PointBatchResult> userResults;
+            PointClusterRouter.LocalGuard guard = pointClusterRouter.tryEnter(userId);
+            if (guard == null) {
+                for (int position : positions) {
+                    results[position] = PointBatchResult.unprocessed(commands.get(position), PointErrorCode.NOT_OWNER);
+                }
+                return;
+            }
+            try (guard) {
+                userResults = pointService.applyBatch(userId, userCommands);
+            } catch (RuntimeException e) {
+                PointErrorCode errorCode = errorCodeOf(e);
+                if (errorCode == PointErrorCode.BATCH_FAILED) {
+                    log.warn("일괄 처리 중 유저의 요청을 처리하지 못했습니다. userId={}", userId, e);
+                }
+                for (int position : positions) {
+                    results[position] = PointBatchResult.unprocessed(commands.get(position), errorCode);
+                }
+                return;
+            }
+            for (int i = 0; i < positions.size(); i++) {
+                results[positions.get(i)] = userResults.get(i);
+            }
+        })));
+        await(futures);
+        // 끝나지 않은 유저의 결과 칸은 실패로 채운다. 늦게 끝난 작업이 돌려준 목록을 바꾸지 않게 복사해서 돌려준다.
+        List<PointBatchResult> ordered = new ArrayList<>(results.length);
+        for (int i = 0; i < results.length; i++) {
+            PointBatchResult result = results[i];
+            if (result == null) {
+                PointBatchCommand command = commands.get(i);
+                result = command == null
+                        ? PointBatchResult.invalid()
+                        : PointBatchResult.unprocessed(command, PointErrorCode.BATCH_FAILED);
+            }
+            ordered.add(result);
+        }
+        return ordered;
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    private void write(JsonGenerator generator, List<PointBatchResult> results) throws IOException {
+        for (PointBatchResult result : results) {
+            resultWriter.writeValue(generator, result);
+        }
+        generator.flush();
+    }
+
+    private static PointErrorCode errorCodeOf(RuntimeException e) {
+        if (e instanceof PointServiceException rejected && rejected.getErrorCode() != null) {
+            return rejected.getErrorCode();
+        }
+        return PointErrorCode.BATCH_FAILED;
+    }
+
+    /**
+     * 모든 유저의 처리가 끝날 때까지 기다린다. 유저별 예외는 작업 안에서 결과로 바꾸므로 여기서는 던지지 않는다.
+     * 인터럽트 되면 기다리기를 멈추고, 끝나지 않은 유저는 호출한 쪽에서 실패로 채운다.
+     */
+    private static void await(List<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                log.warn("일괄 처리 작업이 실패했습니다.", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.lock.UserLockManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 요청이 몰리는 유저의 충전/사용을 모아서 한 번에 저장한다. (flat combining)
+ * - 유저마다 대기 큐를 두고, 한 번에 한 스레드(combiner)만 큐에 쌓인 요청을 꺼내 유저 락 안에서 순서대로 적용한다.
+ * - combiner 가 테이블에 쓰는 동안 들어온 요청은 큐에 쌓였다가 다음 combiner 가 한 번에 처리한다.
+ * - combiner 는 한 번만 처리하고, 큐에 남은 요청이 있으면 가장 먼저 들어온 요청의 스레드에게 combiner 를 넘긴다.
+ *   그래서 계속 요청이 들어와도 한 스레드가 남의 요청만 처리하며 붙잡혀 있지 않는다.
+ * - 큐 엔트리는 combiner 가 있는 동안만 남아있으므로, 맵 크기는 동시에 요청 중인 유저 수를 넘지 않는다.
+ */
+@Component
+public class PointCombiner {
+
+    private final UserLockManager userLockManager;
+    private final boolean enabled;
+    /**
+     * 엔트리가 있으면 그 유저의 combiner 가 있다. 모든 변경은 compute 안에서 한다.
+     */
+    private final ConcurrentHashMap<Long, List<Pending>> queues = new ConcurrentHashMap<>();
+
+    public PointCombiner(
+            UserLockManager userLockManager,
+            @Value("${point.combining.enabled:false}") boolean enabled
+    ) {
+        this.userLockManager = userLockManager;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 요청을 큐에 넣고, 다른 요청들과 함께 적용된 결과를 돌려준다.
+     * @param userId
+     * @param command
+     * @param applier 유저 락을 잡은 상태에서 모인 요청을 순서대로 적용하고 요청별 결과를 돌려준다.
+     * @return 이 요청의 처리 결과
+     */
+    public PointBatchResult combine(long userId, PointBatchCommand command,
+                                    Function<List<PointBatchCommand>, List<PointBatchResult>> applier) {
+        Pending mine = new Pending(command);
+        boolean[] combiner = new boolean[1];
+        queues.compute(userId, (key, queue) -> {
+            List<Pending> target = queue;
+            if (target == null) {
+                target = new ArrayList<>();
+                combiner[0] = true;
+            }
+            target.add(mine);
+            return target;
+        });
+        // 다른 combiner 가 처리해주면 true, combiner 를 넘겨받으면 false
+        if (combiner[0] || !mine.done.join()) {
+            combineRound(userId, applier);
+        }
+        if (mine.failure != null) {
+            throw mine.failure;
+        }
+        return mine.result;
+    }
+
+    /**
+     * 큐에 쌓인 요청을 한 번 처리하고 다음 combiner 를 정한다.
+     */
+    private void combineRound(long userId, Function<List<PointBatchCommand>, List<PointBatchResult>> applier) {
+        List<List<Pending>> taken = new ArrayList<>(1);
+        queues.compute(userId, (key, queue) -> {
+            taken.add(queue);
+            return new ArrayList<>();
+        });
+        List<Pending> batch = taken.get(0);
+        try {
+            List<PointBatchCommand> commands = new ArrayList<>(batch.size());
+            for (Pending pending : batch) {
+                commands.add(pending.command);
+            }
+            List<PointBatchResult> results = userLockManager.executeWithLock(userId, () -> applier.apply(commands));
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result = results.get(i);
+            }
+        } catch (RuntimeException e) {
+            for (Pending pending : batch) {
+                pending.failure = e;
+            }
+        } finally {
+            for (Pending pending : batch) {
+                pending.done.complete(true);
+            }
+            handOff(userId);
+        }
+    }
+
+    /**
+     * 남은 요청이 없으면 엔트리를 지우고, 있으면 가장 먼저 들어온 요청의 스레드를 다음 combiner 로 깨운다.
+     */
+    private void handOff(long userId) {
+        List<Pending> next = new ArrayList<>(1);
+        queues.compute(userId, (key, queue) -> {
+            if (queue.isEmpty()) {
+                return null;
+            }
+            next.add(queue.get(0));
+            return queue;
+        });
+        if (!next.isEmpty()) {
+            next.get(0).done.complete(false);
+        }
+    }
+
+    private static final class Pending {
+        private final PointBatchCommand command;
+        private final CompletableFuture<Boolean> done = new CompletableFuture<>();
+        private PointBatchResult result;
+        private RuntimeException failure;
+
+        private Pending(PointBatchCommand command) {
+            this.command = command;
+        }
+    }
+}
@@ -1,29 +1,60 @@
 package io.hhplus.tdd.point;
 
-import io.hhplus.tdd.database.UserPointTable;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.hhplus.tdd.cluster.PointClusterRouter;
+import io.hhplus.tdd.event.PointEventBus;
+import io.hhplus.tdd.event.PointEventListener;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
+/**
+ * 포인트 API (servlet). reactive 프로필에서는 ReactivePointController 가 같은 API 를 제공한다.
+ */
 @RestController
 @RequestMapping("/point")
+@Profile("!reactive")
 @RequiredArgsConstructor
 public class PointController {
 
     private static final Logger log = LoggerFactory.getLogger(PointController.class);
+    private static final int STREAM_PAGE_SIZE = 1000;
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
 
     private final PointService pointService;
+    private final PointBatchService pointBatchService;
+    private final ObjectMapper objectMapper;
+    private final PointEventBus pointEventBus;
+    private final PointClusterRouter pointClusterRouter;
 
     /**
      * TODO - 특정 유저의 포인트를 조회하는 기능을 작성해주세요.
+     * asOf(epoch millis)를 주면 그 시각까지의 내역으로 계산한 포인트를 조회한다.
      */
     @GetMapping("{id}")
     public UserPoint point(
-            @PathVariable long id
+            @PathVariable long id,
+            @RequestParam(required = false) Long asOf
     ) {
+        if (asOf != null) {
+            return pointService.getUserPointAsOf(id, asOf);
+        }
         return pointService.getUserPoint(id);
     }
 
@@ -37,25 +68,168 @@ public class PointController {
         return pointService.getPointHistory(id);
     }
 
+    /**
+     * 특정 유저의 포인트 내역을 cursor 기반으로 한 페이지씩 조회한다.
+     * 다음 페이지는 응답의 nextCursor 를 cursor 로 넘겨서 조회한다.
+     */
+    @GetMapping("{id}/histories/page")
+    public PointHistoryPage historyPage(
+            @PathVariable long id,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(defaultValue = "DESC") PointHistoryOrder order,
+            @RequestParam(required = false) TransactionType type,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to
+    ) {
+        return pointService.getPointHistoryPage(id, new PointHistoryQuery(cursor, limit, order, type, from, to));
+    }
+
+    /**
+     * 특정 유저의 포인트 내역 전체를 NDJSON(한 줄에 내역 하나)으로 스트리밍한다.
+     * 내역을 페이지 단위로 읽어서 바로 쓰므로 내역 수와 관계없이 요청당 메모리 사용량이 일정하다.
+     */
+    @GetMapping(value = "{id}/histories/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void historyStream(
+            @PathVariable long id,
+            @RequestParam(defaultValue = "ASC") PointHistoryOrder order,
+            @RequestParam(required = false) TransactionType type,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to,
+            HttpServletResponse response
+    ) throws IOException {
+        PointHistoryQuery query = new PointHistoryQuery(null, STREAM_PAGE_SIZE, order, type, from, to);
+        ObjectWriter writer = objectMapper.writerFor(PointHistory.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (Stream<PointHistory> histories = pointService.streamPointHistory(id, query)) {
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            try (JsonGenerator generator = objectMapper.createGenerator(response.getOutputStream())) {
+                // 값 사이 기본 구분자(공백) 대신 줄바꿈만 쓴다.
+                generator.setRootValueSeparator(null);
+                Iterator<PointHistory> iterator = histories.iterator();
+                for (int count = 1; iterator.hasNext(); count++) {
+                    writer.writeValue(generator, iterator.next());
+                    generator.writeRaw('\n');
+                    if (count % STREAM_PAGE_SIZE == 0) {
+                        generator.flush();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 특정 유저의 포인트 내역 집계(종류별 합계/건수, 처음/마지막 시각)를 조회한다. 내역을 훑지 않는다.
+     */
+    @GetMapping("{id}/summary")
+    public PointHistorySummary summary(
+            @PathVariable long id
+    ) {
+        return pointService.getPointSummary(id);
+    }
+
+    /**
+     * 특정 유저의 from ~ to (포함, yyyy-MM-dd) 일별 내역 집계를 조회한다.
+     */
+    @GetMapping("{id}/summary/daily")
+    public List<PointDailySummary> dailySummary(
+            @PathVariable long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return pointService.getDailyPointSummaries(id, from, to);
+    }
+
+    /**
+     * 특정 유저의 잔액이 바뀔 때마다 UserPoint 를 Server-Sent Events 로 보낸다. 구독하자마자 현재 잔액을 먼저 보낸다.
+     * 연결 유지와 idle timeout 은 PointEventBus 가 관리하므로 servlet async timeout 은 두지 않는다.
+     */
+    @GetMapping(value = "{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            @PathVariable long id
+    ) {
+        SseEmitter emitter = new SseEmitter(0L);
+        PointEventBus.Subscription subscription = pointEventBus.subscribe(id, new SseListener(emitter));
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(e -> subscription.cancel());
+        subscription.offerInitial(pointService.getUserPoint(id));
+        return emitter;
+    }
+
     /**
      * TODO - 특정 유저의 포인트를 충전하는 기능을 작성해주세요.
+     * Idempotency-Key 헤더가 있으면 같은 키의 재시도는 다시 충전하지 않고 처음 결과를 응답한다.
      */
     @PatchMapping("{id}/charge")
     public UserPoint charge(
             @PathVariable long id,
-            @RequestBody long amount
+            @RequestBody long amount,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey
     ) {
-        return pointService.chargeUserPoint(id, amount);
+        return idempotencyKey == null
+                ? pointService.chargeUserPoint(id, amount)
+                : pointService.chargeUserPoint(id, amount, idempotencyKey);
     }
 
     /**
      * TODO - 특정 유저의 포인트를 사용하는 기능을 작성해주세요.
+     * Idempotency-Key 헤더가 있으면 같은 키의 재시도는 다시 차감하지 않고 처음 결과를 응답한다.
      */
     @PatchMapping("{id}/use")
     public UserPoint use(
             @PathVariable long id,
-            @RequestBody long amount
+            @RequestBody long amount,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey
     ) {
-        return pointService.useUserPoint(id, amount);
+        return idempotencyKey == null
+                ? pointService.useUserPoint(id, amount)
+                : pointService.useUserPoint(id, amount, idempotencyKey);
+    }
+
+    /**
+     * 보낸 유저의 포인트를 받는 유저에게 이체한다. 두 유저의 잔액이 함께 바뀌거나 함께 바뀌지 않는다.
+     * 클러스터 모드에서는 두 유저를 모두 담당하는 노드에서만 이체한다.
+     */
+    @PostMapping("transfer")
+    public PointTransferResult transfer(
+            @RequestBody PointTransferCommand command
+    ) {
+        try (PointClusterRouter.LocalGuard guard = pointClusterRouter.enter(command.fromUserId(), command.toUserId())) {
+            return pointService.transfer(command.fromUserId(), command.toUserId(), command.amount());
+        }
+    }
+
+    /**
+     * 여러 유저의 포인트를 한 번에 충전/사용한다.
+     * [{userId, type, amount}, ...] 배열을 받아 요청 순서대로의 처리 결과 배열을 스트리밍으로 응답한다.
+     */
+    @PostMapping(value = "batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public void batch(
+            InputStream body,
+            HttpServletResponse response
+    ) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        pointBatchService.process(body, response.getOutputStream());
+    }
+
+    private record SseListener(SseEmitter emitter) implements PointEventListener {
+
+        private static final String EVENT_NAME = "point";
+
+        @Override
+        public void onEvent(UserPoint userPoint) throws IOException {
+            emitter.send(SseEmitter.event().name(EVENT_NAME).data(userPoint, MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void onHeartbeat() throws IOException {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+        }
+
+        @Override
+        public void onClose() {
+            emitter.complete();
+        }
     }
 }
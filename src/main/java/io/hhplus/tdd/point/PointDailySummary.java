@@ -0,0 +1,17 @@
+package io.hhplus.tdd.point;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * 하루 동안의 포인트 내역 집계. 날짜는 PointPolicy.SUMMARY_ZONE_OFFSET 기준이다.
+ * @param date
+ * @param amountByType 거래 종류별 금액 합계
+ * @param countByType 거래 종류별 건수
+ */
+public record PointDailySummary(
+        LocalDate date,
+        Map<TransactionType, Long> amountByType,
+        Map<TransactionType, Long> countByType
+) {
+}
@@ -0,0 +1,14 @@
+package io.hhplus.tdd.point;
+
+import java.util.List;
+
+/**
+ * 포인트 내역 한 페이지
+ * @param items 조회한 내역
+ * @param nextCursor 다음 페이지 조회에 쓸 cursor. 더 조회할 내역이 없으면 null
+ */
+public record PointHistoryPage(
+        List<PointHistory> items,
+        Long nextCursor
+) {
+}
@@ -0,0 +1,41 @@
+package io.hhplus.tdd.point;
+
+/**
+ * 포인트 내역 페이지 조회 조건
+ * @param cursor 이 id 다음(order 방향)부터 조회한다. null 이면 처음부터 조회한다.
+ * @param limit 최대 조회 건수
+ * @param order 조회 순서
+ * @param type null 이면 모든 종류를 조회한다.
+ * @param fromMillis 이 시각 이후(포함) 내역만 조회한다. null 이면 제한 없음
+ * @param toMillis 이 시각 이전(제외) 내역만 조회한다. null 이면 제한 없음
+ */
+public record PointHistoryQuery(
+        Long cursor,
+        int limit,
+        PointHistoryOrder order,
+        TransactionType type,
+        Long fromMillis,
+        Long toMillis
+) {
+
+    /**
+     * 같은 조건으로 cursor 다음 페이지를 조회한다.
+     * @param cursor
+     * @return
+     */
+    public PointHistoryQuery after(long cursor) {
+        return new PointHistoryQuery(cursor, limit, order, type, fromMillis, toMillis);
+    }
+
+    /**
+     * 종류/기간 조건에 맞는지 확인한다.
+     * @param type
+     * @param updateMillis
+     * @return
+     */
+    public boolean matches(TransactionType type, long updateMillis) {
+        return (this.type == null || this.type == type)
+                && (fromMillis == null || updateMillis >= fromMillis)
+                && (toMillis == null || updateMillis < toMillis);
+    }
+}
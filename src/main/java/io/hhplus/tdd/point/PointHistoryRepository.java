@@ -1,21 +1,156 @@
 package io.hhplus.tdd.point;
 
-import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.index.PointHistoryIndex;
+import io.hhplus.tdd.journal.PointJournal;
+import io.hhplus.tdd.writer.PointHistoryWriter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 @RequiredArgsConstructor
 public class PointHistoryRepository {
 
-    private final PointHistoryTable pointHistoryTable;
+    private final PointHistoryIndex pointHistoryIndex;
+    private final PointHistoryWriter pointHistoryWriter;
+    private final PointJournal pointJournal;
+
+    /**
+     * 테이블 전체를 훑지 않고 유저별 인덱스에서 조회한다.
+     * 인덱스에는 테이블 저장을 기다리는 내역도 들어있어서, 방금 충전/사용한 내역도 바로 조회된다.
+     * @param id
+     * @return
+     */
     public List<PointHistory> selectAllByUserId(long id) {
-        return pointHistoryTable.selectAllByUserId(id);
+        return pointHistoryIndex.findAllByUserId(id);
+    }
+
+    /**
+     * 유저별 인덱스에서 한 페이지를 조회한다.
+     * @param id
+     * @param query
+     * @return
+     */
+    public PointHistoryPage selectPageByUserId(long id, PointHistoryQuery query) {
+        return pointHistoryIndex.page(id, query);
+    }
+
+    /**
+     * 인덱스가 내역을 추가하면서 갱신해둔 집계를 조회한다.
+     * @param id
+     * @return
+     */
+    public PointHistorySummary selectSummaryByUserId(long id) {
+        return pointHistoryIndex.summary(id);
+    }
+
+    /**
+     * from ~ to (포함) 사이의 일별 집계를 조회한다.
+     * @param id
+     * @param from
+     * @param to
+     * @return
+     */
+    public List<PointDailySummary> selectDailySummariesByUserId(long id, LocalDate from, LocalDate to) {
+        return pointHistoryIndex.dailySummaries(id, from, to);
+    }
+
+    /**
+     * 집계가 내역 전체를 다시 더한 결과와 같은지 확인한다.
+     * @param id
+     * @return
+     */
+    public boolean isSummaryConsistent(long id) {
+        return pointHistoryIndex.isSummaryConsistent(id);
+    }
+
+    /**
+     * 내역을 저장 큐에 넣고 인덱스에 추가한다. 테이블 저장은 writer 스레드가 비동기로 처리한다.
+     * 저널에는 동기로 기록해서 디스크 반영까지 기다린다.
+     * 충전/사용마다 호출되므로 PointHistory 를 만들지 않고 값 그대로 넘긴다.
+     * @param userId
+     * @param amount
+     * @param type
+     * @param updateMillis
+     * @return 발급된 내역 id
+     */
+    public long insertPointHistory(long userId, long amount, TransactionType type, long updateMillis) {
+        long id = pointHistoryWriter.enqueue(userId, amount, type, updateMillis);
+        long sequence = pointJournal.appendHistory(id, userId, amount, type, updateMillis);
+        pointHistoryIndex.append(id, userId, amount, type, updateMillis);
+        pointJournal.awaitDurable(sequence);
+        return id;
+    }
+
+    /**
+     * 다른 노드로 옮긴 유저의 내역을 인덱스에서 지운다. 테이블에는 남는다.
+     * 저널에는 삭제를 기록해서 디스크 반영까지 기다린다. 재시작해도 옮긴 유저의 잔액/내역을 다시 복구하지 않는다.
+     * @param id
+     */
+    public void deleteAllByUserId(long id) {
+        long sequence = pointJournal.appendRemove(id);
+        pointHistoryIndex.removeUser(id);
+        pointJournal.awaitDurable(sequence);
+    }
+
+    /**
+     * 여러 유저의 내역을 한 번에 지운다. 저널에는 모두 기록한 뒤 마지막 기록의 디스크 반영만 기다린다.
+     * @param ids
+     */
+    public void deleteAllByUserIds(Collection<Long> ids) {
+        long sequence = 0;
+        for (long id : ids) {
+            sequence = pointJournal.appendRemove(id);
+            pointHistoryIndex.removeUser(id);
+        }
+        pointJournal.awaitDurable(sequence);
+    }
+
+    /**
+     * 다른 노드에서 넘겨받은 유저의 내역을 원래 id 그대로 인덱스에 넣는다.
+     * 테이블에는 원래 노드가 이미 저장했으므로 다시 쓰지 않고, 저널에만 기록해서 디스크 반영까지 기다린다.
+     * 이후 발급하는 id 는 넘겨받은 id 보다 크게 해서 유저의 내역이 id 오름차순을 유지하게 한다.
+     * @param histories 여러 유저의 내역. 유저마다 id 오름차순이다.
+     */
+    public void insertHandedOver(List<PointHistory> histories) {
+        if (histories.isEmpty()) {
+            return;
+        }
+        long sequence = 0;
+        long lastId = 0;
+        for (PointHistory history : histories) {
+            sequence = pointJournal.appendHistory(history);
+            pointHistoryIndex.append(history);
+            lastId = Math.max(lastId, history.id());
+        }
+        pointHistoryWriter.skipPast(lastId);
+        pointJournal.awaitDurable(sequence);
+    }
+
+    /**
+     * 저널 재생 중 내역을 복구한다. 테이블에는 다시 쓰지 않고 인덱스에만 넣는다.
+     * @param pointHistory
+     */
+    public void restore(PointHistory pointHistory) {
+        pointHistoryIndex.append(pointHistory);
+    }
+
+    /**
+     * 저널 재생 중 삭제 레코드를 복구한다. 그때까지 복구한 유저의 내역을 인덱스에서 지운다.
+     * @param userId
+     */
+    public void restoreRemoval(long userId) {
+        pointHistoryIndex.removeUser(userId);
     }
 
-    public PointHistory insertPointHistory(long userId, long amount, TransactionType type, long updateMillis) {
-        return pointHistoryTable.insert(userId, amount, type, updateMillis);
+    /**
+     * 복구한 마지막 내역 id 다음부터 id 를 발급하게 한다.
+     * @param lastId
+     */
+    public void resumeAfter(long lastId) {
+        pointHistoryWriter.resumeAfter(lastId);
     }
 }
@@ -0,0 +1,33 @@
+package io.hhplus.tdd.point;
+
+import java.util.Map;
+
+/**
+ * 유저의 포인트 내역 집계. 내역을 추가할 때마다 함께 갱신해두므로 내역 수와 관계없이 바로 조회한다.
+ * @param userId
+ * @param totalCharged 충전 합계
+ * @param totalUsed 사용 합계
+ * @param amountByType 거래 종류별 금액 합계
+ * @param countByType 거래 종류별 건수
+ * @param firstUpdateMillis 가장 이른 내역 시각. 내역이 없으면 null
+ * @param lastUpdateMillis 가장 늦은 내역 시각. 내역이 없으면 null
+ */
+public record PointHistorySummary(
+        long userId,
+        long totalCharged,
+        long totalUsed,
+        Map<TransactionType, Long> amountByType,
+        Map<TransactionType, Long> countByType,
+        Long firstUpdateMillis,
+        Long lastUpdateMillis
+) {
+
+    /**
+     * 내역만으로 계산한 잔액 (충전 - 사용 + 이체로 받은 금액 - 이체로 보낸 금액)
+     * @return
+     */
+    public long balance() {
+        return totalCharged - totalUsed
+                + amountByType.get(TransactionType.TRANSFER_IN) - amountByType.get(TransactionType.TRANSFER_OUT);
+    }
+}
@@ -1,5 +1,13 @@
 package io.hhplus.tdd.point;
 
+import java.time.ZoneOffset;
+
 public final class PointPolicy {
     public static final long MINIMUM_CHARGE = 1L;
+    public static final int MAXIMUM_HISTORY_PAGE_SIZE = 1000;
+    public static final int MAXIMUM_SUMMARY_DAYS = 366;
+    /**
+     * 일별 집계의 날짜 기준 (KST)
+     */
+    public static final ZoneOffset SUMMARY_ZONE_OFFSET = ZoneOffset.ofHours(9);
 }
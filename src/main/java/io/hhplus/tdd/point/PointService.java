@@ -1,13 +1,25 @@
 package io.hhplus.tdd.point;
 
+import io.hhplus.tdd.event.PointEventBus;
+import io.hhplus.tdd.exception.PointErrorCode;
 import io.hhplus.tdd.exception.PointServiceException;
+import io.hhplus.tdd.idempotency.IdempotencyStore;
+import io.hhplus.tdd.ledger.PointLedger;
+import io.hhplus.tdd.lock.UserLockManager;
+import io.hhplus.tdd.metrics.PointMetrics;
+import io.hhplus.tdd.metrics.PointOperation;
+import io.hhplus.tdd.shard.PointShardEngine;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -15,64 +27,456 @@ public class PointService {
     private static final Logger log = LoggerFactory.getLogger(PointService.class);
     private final UserPointRepository userPointRepository;
     private final PointHistoryRepository pointHistoryRepository;
+    private final UserLockManager userLockManager;
+    private final PointMetrics pointMetrics;
+    private final IdempotencyStore idempotencyStore;
+    private final PointCombiner pointCombiner;
+    private final PointEventBus pointEventBus;
+    private final PointShardEngine pointShardEngine;
+    private final PointLedger pointLedger;
+    // 충전/사용마다 람다를 만들지 않도록 한 번만 만들어 둔다.
+    private final UserLockManager.LockedAction<UserPoint> chargeAction = this::charge;
+    private final UserLockManager.LockedAction<UserPoint> useAction = this::use;
 
     /**
      * 고객 id 기준으로 포인트를 조회한다.
+     * ledger 모드에서는 내역으로 만든 projection 의 잔액을 조회한다.
      * @param id
      * @return
      */
     public UserPoint getUserPoint(long id) {
-        return userPointRepository.selectById(id);
+        long start = System.nanoTime();
+        try {
+            return currentUserPoint(id);
+        } finally {
+            pointMetrics.recordOperation(PointOperation.GET, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * asOfMillis 시각(포함)까지의 내역으로 계산한 포인트를 조회한다.
+     * @param id
+     * @param asOfMillis
+     * @return
+     */
+    public UserPoint getUserPointAsOf(long id, long asOfMillis) {
+        long start = System.nanoTime();
+        try {
+            return pointLedger.balanceAsOf(id, asOfMillis);
+        } finally {
+            pointMetrics.recordOperation(PointOperation.GET, System.nanoTime() - start);
+        }
     }
 
     /**'
      * 고객 id 기준으로 포인트를 충전한다.
+     * 같은 유저의 충전/사용은 유저 락(sharding 모드에서는 유저의 shard 스레드)으로 직렬화해서 조회-갱신 사이에 다른 요청이 끼어들지 않게 한다.
+     * combining 모드에서는 같은 유저의 다른 요청들과 모아서 한 번에 저장한다.
      * @param id
      * @param amount
      * @return UserPoint
      */
     public UserPoint chargeUserPoint(long id, long amount) {
+        long start = System.nanoTime();
+        try {
+            if (pointCombiner.isEnabled() && !pointShardEngine.isEnabled()) {
+                return combine(id, TransactionType.CHARGE, amount);
+            }
+            return serialize(id, amount, chargeAction);
+        } finally {
+            pointMetrics.recordOperation(PointOperation.CHARGE, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Idempotency-Key 를 붙인 충전. 같은 키로 다시 요청하면 다시 충전하지 않고 처음 충전 결과를 돌려준다.
+     * @param id
+     * @param amount
+     * @param idempotencyKey
+     * @return UserPoint
+     */
+    public UserPoint chargeUserPoint(long id, long amount, String idempotencyKey) {
+        return idempotencyStore.execute(idempotencyKey, new PointBatchCommand(id, TransactionType.CHARGE, amount),
+                () -> chargeUserPoint(id, amount));
+    }
+
+    /**
+     * 유저 락을 잡은 상태(sharding 모드에서는 유저의 shard 스레드)에서 호출한다.
+     */
+    private UserPoint charge(long id, long amount) {
         // id로 유저의 현재 포인트를 조회
-        UserPoint nowUserPoint = getUserPoint(id);
+        UserPoint nowUserPoint = currentUserPoint(id);
         // 0보다 큰 포인트를 충전하려는지 확인
         validChargePoint(amount);
-        // id 기준으로 현재포인트 + 충전하고자 하는 포인트만큼 더해준다.
-        UserPoint userPoint = userPointRepository.useOrChargePointById(nowUserPoint.id(), nowUserPoint.point() + amount);
-        //pointHistory 테이블에 업데이트
-        insertPointHistory(id, amount, TransactionType.CHARGE, Instant.now().toEpochMilli());
+        UserPoint userPoint;
+        if (pointLedger.isEnabled()) {
+            // 내역만 추가하고, 잔액은 그 내역을 반영한 projection 에서 받는다.
+            userPoint = pointLedger.append(id, amount, TransactionType.CHARGE, System.currentTimeMillis());
+        } else {
+            // id 기준으로 현재포인트 + 충전하고자 하는 포인트만큼 더해준다.
+            userPoint = userPointRepository.useOrChargePointById(nowUserPoint.id(), nowUserPoint.point() + amount);
+            //pointHistory 테이블에 업데이트
+            insertPointHistory(id, amount, TransactionType.CHARGE, System.currentTimeMillis());
+        }
+        // 락 안에서 알려야 구독자가 변경 순서대로 받는다.
+        pointEventBus.publish(userPoint);
 
         return userPoint;
-
     }
 
     /**
      * 포인트 사용
+     * 충전과 같은 유저 락 안에서 잔액 확인과 차감을 수행한다.
+     * combining 모드에서는 같은 유저의 다른 요청들과 모아서 한 번에 저장한다.
      * @param id
      * @param amount
      * @return
      */
     public UserPoint useUserPoint(long id, long amount) {
+        long start = System.nanoTime();
+        try {
+            if (pointCombiner.isEnabled() && !pointShardEngine.isEnabled()) {
+                return combine(id, TransactionType.USE, amount);
+            }
+            return serialize(id, amount, useAction);
+        } finally {
+            pointMetrics.recordOperation(PointOperation.USE, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Idempotency-Key 를 붙인 사용. 같은 키로 다시 요청하면 다시 차감하지 않고 처음 사용 결과를 돌려준다.
+     * @param id
+     * @param amount
+     * @param idempotencyKey
+     * @return
+     */
+    public UserPoint useUserPoint(long id, long amount, String idempotencyKey) {
+        return idempotencyStore.execute(idempotencyKey, new PointBatchCommand(id, TransactionType.USE, amount),
+                () -> useUserPoint(id, amount));
+    }
+
+    /**
+     * 유저 락을 잡은 상태(sharding 모드에서는 유저의 shard 스레드)에서 호출한다.
+     */
+    private UserPoint use(long id, long amount) {
         //id로 유저의 현재 포인트를 조회
-        UserPoint nowUserPoint = getUserPoint(id);
+        UserPoint nowUserPoint = currentUserPoint(id);
         // 0이상의 포인트를 사용하려는지 확인
         validUsePoint(amount);
         // 보유하고 있는 포인트보다 많은 포인트를 사용하려는지 확인
-        validUseUserPoint(nowUserPoint, amount);
-        // 포인트 사용
-        UserPoint userPoint = userPointRepository.useOrChargePointById(nowUserPoint.id(), nowUserPoint.point() - amount);
-        // pointHistory 테이블에 업데이트
-        insertPointHistory(id, amount, TransactionType.USE, Instant.now().toEpochMilli());
+        validUseUserPoint(nowUserPoint.point(), amount);
+        UserPoint userPoint;
+        if (pointLedger.isEnabled()) {
+            userPoint = pointLedger.append(id, amount, TransactionType.USE, System.currentTimeMillis());
+        } else {
+            // 포인트 사용
+            userPoint = userPointRepository.useOrChargePointById(nowUserPoint.id(), nowUserPoint.point() - amount);
+            // pointHistory 테이블에 업데이트
+            insertPointHistory(id, amount, TransactionType.USE, System.currentTimeMillis());
+        }
+        pointEventBus.publish(userPoint);
 
         return userPoint;
     }
 
+    /**
+     * 같은 유저의 요청이 모이면 일괄 처리와 같은 방식으로 순서대로 검증/적용하고 잔액은 한 번만 저장한다.
+     * 요청마다 자기 순서까지 반영한 잔액과 저장한 시각을 받고, 거절된 요청은 단건 요청과 같은 예외를 받는다.
+     * 마지막 요청은 저장한 UserPoint 와 같은 값을 받는다.
+     */
+    private UserPoint combine(long id, TransactionType type, long amount) {
+        PointBatchResult result = pointCombiner.combine(id, new PointBatchCommand(id, type, amount),
+                commands -> batch(id, commands));
+        if (!result.success()) {
+            // 거절 횟수는 batch 에서 이미 기록했다.
+            throw PointServiceException.of(PointErrorCode.valueOf(result.errorCode()));
+        }
+        return new UserPoint(id, result.point(), result.updateMillis());
+    }
+
+    /**
+     * 한 유저의 충전/사용 요청을 순서대로 적용한다.
+     * 요청마다 단건 충전/사용과 같은 검증을 하고, 거절된 요청은 건너뛴 채 다음 요청을 계속 적용한다.
+     * 잔액은 마지막에 한 번만 저장하고, 성공한 요청마다 내역을 남긴다. (ledger 모드에서는 내역만 남긴다.)
+     * @param id
+     * @param commands 같은 유저의 요청
+     * @return 요청 순서대로의 처리 결과
+     */
+    public List<PointBatchResult> applyBatch(long id, List<PointBatchCommand> commands) {
+        long start = System.nanoTime();
+        try {
+            return serialize(id, () -> batch(id, commands));
+        } finally {
+            pointMetrics.recordOperation(PointOperation.BATCH, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 유저 락을 잡은 상태(sharding 모드에서는 유저의 shard 스레드)에서 호출한다.
+     */
+    private List<PointBatchResult> batch(long id, List<PointBatchCommand> commands) {
+        UserPoint nowUserPoint = currentUserPoint(id);
+        long point = nowUserPoint.point();
+        // 성공한 요청의 결과는 저장한 시각을 알고 나서 만든다. 그 전까지는 null 로 두고 반영한 잔액만 기억한다.
+        List<PointBatchResult> results = new ArrayList<>(commands.size());
+        long[] points = new long[commands.size()];
+        List<PointBatchCommand> applied = new ArrayList<>(commands.size());
+        for (int i = 0; i < commands.size(); i++) {
+            PointBatchCommand command = commands.get(i);
+            try {
+                point = apply(point, command);
+                applied.add(command);
+                points[i] = point;
+                results.add(null);
+            } catch (PointServiceException e) {
+                results.add(PointBatchResult.failed(command, point, e.getErrorCode()));
+            }
+        }
+        if (applied.isEmpty()) {
+            return results;
+        }
+        long updateMillis = System.currentTimeMillis();
+        UserPoint userPoint = null;
+        if (pointLedger.isEnabled()) {
+            for (PointBatchCommand command : applied) {
+                userPoint = pointLedger.append(id, command.amount(), command.type(), updateMillis);
+            }
+        } else {
+            // 유저의 요청을 모아 잔액은 한 번만 저장한다.
+            userPoint = userPointRepository.useOrChargePointById(nowUserPoint.id(), point);
+            for (PointBatchCommand command : applied) {
+                insertPointHistory(id, command.amount(), command.type(), updateMillis);
+            }
+        }
+        for (int i = 0; i < commands.size(); i++) {
+            if (results.get(i) == null) {
+                results.set(i, PointBatchResult.succeeded(commands.get(i), points[i], userPoint.updateMillis()));
+            }
+        }
+        // 모아서 처리한 요청들의 마지막 잔액만 알린다.
+        pointEventBus.publish(userPoint);
+        return results;
+    }
+
+    /**
+     * 요청 한 건을 검증하고 반영한 잔액을 계산한다.
+     * @param point 현재 잔액
+     * @param command
+     * @return 반영한 잔액
+     */
+    private long apply(long point, PointBatchCommand command) {
+        if (command.type() == TransactionType.CHARGE) {
+            validChargePoint(command.amount());
+            return point + command.amount();
+        }
+        if (command.type() == TransactionType.USE) {
+            validUsePoint(command.amount());
+            validUseUserPoint(point, command.amount());
+            return point - command.amount();
+        }
+        throw reject(PointErrorCode.INVALID_TRANSACTION_TYPE);
+    }
+
+    /**
+     * 보낸 유저의 포인트를 받는 유저에게 이체한다.
+     * 두 유저의 락을 id 순서대로 잡고, 사용과 같은 규칙으로 보낸 유저의 잔액을 검증한다.
+     * 받는 유저의 잔액을 저장하지 못하면 보낸 유저의 잔액을 되돌린다.
+     * 내역을 남기지 못하면 두 유저의 잔액을 되돌리고, 이미 남긴 TRANSFER_OUT 내역은 같은 금액의 TRANSFER_IN 내역으로 되돌린다.
+     * ledger 모드에서는 받는 유저의 내역을 남기지 못하면 보낸 유저에게 같은 금액의 TRANSFER_IN 내역을 남겨 되돌린다.
+     * @param fromId 보낸 유저
+     * @param toId 받는 유저
+     * @param amount
+     * @return 이체 후 두 유저의 잔액
+     */
+    public PointTransferResult transfer(long fromId, long toId, long amount) {
+        long start = System.nanoTime();
+        try {
+            validTransferTarget(fromId, toId);
+            if (pointShardEngine.isEnabled()) {
+                return pointShardEngine.executeOnBoth(fromId, toId, () -> move(fromId, toId, amount));
+            }
+            return userLockManager.executeWithLocks(fromId, toId, () -> move(fromId, toId, amount));
+        } finally {
+            pointMetrics.recordOperation(PointOperation.TRANSFER, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 두 유저의 락을 잡은 상태에서 호출한다.
+     */
+    private PointTransferResult move(long fromId, long toId, long amount) {
+        if (pointLedger.isEnabled()) {
+            return moveInLedger(fromId, toId, amount);
+        }
+        UserPoint nowFromPoint = userPointRepository.selectById(fromId);
+        UserPoint nowToPoint = userPointRepository.selectById(toId);
+        validUsePoint(amount);
+        validUseUserPoint(nowFromPoint.point(), amount);
+
+        UserPoint fromPoint = userPointRepository.useOrChargePointById(fromId, nowFromPoint.point() - amount);
+        UserPoint toPoint;
+        try {
+            toPoint = userPointRepository.useOrChargePointById(toId, nowToPoint.point() + amount);
+        } catch (RuntimeException e) {
+            // 락을 잡고 있으므로 그 사이 바뀐 잔액은 없다.
+            userPointRepository.useOrChargePointById(fromId, nowFromPoint.point());
+            throw e;
+        }
+        long updateMillis = System.currentTimeMillis();
+        boolean transferOutRecorded = false;
+        try {
+            insertPointHistory(fromId, amount, TransactionType.TRANSFER_OUT, updateMillis);
+            transferOutRecorded = true;
+            insertPointHistory(toId, amount, TransactionType.TRANSFER_IN, updateMillis);
+        } catch (RuntimeException e) {
+            userPointRepository.useOrChargePointById(toId, nowToPoint.point());
+            userPointRepository.useOrChargePointById(fromId, nowFromPoint.point());
+            if (transferOutRecorded) {
+                // 내역은 지울 수 없으므로 반대 방향 내역으로 되돌린다.
+                insertPointHistory(fromId, amount, TransactionType.TRANSFER_IN, updateMillis);
+            }
+            throw e;
+        }
+        pointEventBus.publish(fromPoint);
+        pointEventBus.publish(toPoint);
+        return new PointTransferResult(fromPoint, toPoint);
+    }
+
+    /**
+     * ledger 모드의 이체. 두 유저의 락을 잡은 상태에서 호출한다.
+     */
+    private PointTransferResult moveInLedger(long fromId, long toId, long amount) {
+        validUsePoint(amount);
+        validUseUserPoint(pointLedger.balanceOf(fromId).point(), amount);
+
+        long updateMillis = System.currentTimeMillis();
+        UserPoint fromPoint = pointLedger.append(fromId, amount, TransactionType.TRANSFER_OUT, updateMillis);
+        UserPoint toPoint;
+        try {
+            toPoint = pointLedger.append(toId, amount, TransactionType.TRANSFER_IN, updateMillis);
+        } catch (RuntimeException e) {
+            // 내역은 지울 수 없으므로 반대 방향 내역으로 되돌린다.
+            pointLedger.append(fromId, amount, TransactionType.TRANSFER_IN, updateMillis);
+            throw e;
+        }
+        pointEventBus.publish(fromPoint);
+        pointEventBus.publish(toPoint);
+        return new PointTransferResult(fromPoint, toPoint);
+    }
+
     /**
      * 포인트 히스토리 내역 리스트 조회
      * @param id
      * @return
      */
     public List<PointHistory> getPointHistory(long id) {
-        return pointHistoryRepository.selectAllByUserId(id);
+        long start = System.nanoTime();
+        try {
+            return pointHistoryRepository.selectAllByUserId(id);
+        } finally {
+            pointMetrics.recordOperation(PointOperation.HISTORY, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 포인트 내역을 cursor 기반으로 한 페이지씩 조회한다.
+     * @param id
+     * @param query
+     * @return
+     */
+    public PointHistoryPage getPointHistoryPage(long id, PointHistoryQuery query) {
+        long start = System.nanoTime();
+        try {
+            validHistoryLimit(query.limit());
+            return pointHistoryRepository.selectPageByUserId(id, query);
+        } finally {
+            pointMetrics.recordOperation(PointOperation.HISTORY, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 포인트 내역 전체를 query.limit 건씩 페이지로 나눠 읽는 스트림. 다음 페이지는 앞 페이지를 다 소비한 뒤에 읽는다.
+     * @param id
+     * @param query cursor 부터 끝까지 읽는다.
+     * @return
+     */
+    public Stream<PointHistory> streamPointHistory(long id, PointHistoryQuery query) {
+        validHistoryLimit(query.limit());
+        PointHistoryPage last = new PointHistoryPage(List.of(), null);
+        return Stream.iterate(
+                        pointHistoryRepository.selectPageByUserId(id, query),
+                        page -> !page.items().isEmpty(),
+                        page -> page.nextCursor() == null ? last : pointHistoryRepository.selectPageByUserId(id, query.after(page.nextCursor()))
+                )
+                .flatMap(page -> page.items().stream());
+    }
+
+    /**
+     * 포인트 내역 집계 조회. 내역을 쌓을 때 갱신해둔 값을 읽으므로 내역 수와 관계없다.
+     * @param id
+     * @return
+     */
+    public PointHistorySummary getPointSummary(long id) {
+        long start = System.nanoTime();
+        try {
+            return pointHistoryRepository.selectSummaryByUserId(id);
+        } finally {
+            pointMetrics.recordOperation(PointOperation.SUMMARY, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * from ~ to (포함) 사이의 일별 내역 집계 조회
+     * @param id
+     * @param from
+     * @param to
+     * @return 내역이 있는 날만 날짜순으로
+     */
+    public List<PointDailySummary> getDailyPointSummaries(long id, LocalDate from, LocalDate to) {
+        long start = System.nanoTime();
+        try {
+            validSummaryRange(from, to);
+            return pointHistoryRepository.selectDailySummariesByUserId(id, from, to);
+        } finally {
+            pointMetrics.recordOperation(PointOperation.SUMMARY, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 같은 유저의 변경이 동시에 실행되지 않게 한다. sharding 모드면 유저의 shard 스레드에서, 아니면 유저 락 안에서 실행한다.
+     * @param id
+     * @param action
+     * @return action 실행 결과
+     */
+    private <T> T serialize(long id, Supplier<T> action) {
+        if (pointShardEngine.isEnabled()) {
+            return pointShardEngine.execute(id, action);
+        }
+        return userLockManager.executeWithLock(id, action);
+    }
+
+    /**
+     * serialize 와 같지만, 유저 락 모드에서는 (id, amount) 를 그대로 넘겨 요청마다 람다를 만들지 않는다.
+     * @param id
+     * @param amount
+     * @param action
+     * @return action 실행 결과
+     */
+    private <T> T serialize(long id, long amount, UserLockManager.LockedAction<T> action) {
+        if (pointShardEngine.isEnabled()) {
+            return pointShardEngine.execute(id, () -> action.apply(id, amount));
+        }
+        return userLockManager.executeWithLock(id, amount, action);
+    }
+
+    /**
+     * 현재 잔액. ledger 모드에서는 projection 에서, 아니면 UserPointStore 에서 읽는다.
+     * @param id
+     * @return
+     */
+    private UserPoint currentUserPoint(long id) {
+        return pointLedger.isEnabled() ? pointLedger.balanceOf(id) : userPointRepository.selectById(id);
     }
 
     /**
@@ -92,7 +496,7 @@ public class PointService {
      */
     private void validChargePoint(long amount) {
         if (amount < PointPolicy.MINIMUM_CHARGE) {
-            throw new PointServiceException("최소 충전 금액은 " + PointPolicy.MINIMUM_CHARGE + "이상 입니다.");
+            throw reject(PointErrorCode.INVALID_CHARGE_AMOUNT);
         }
     }
 
@@ -102,20 +506,64 @@ public class PointService {
      */
     private void validUsePoint(long amount) {
         if (amount <= 0) {
-            throw new PointServiceException("최소 사용 금액은 0원 이상입니다.");
+            throw reject(PointErrorCode.INVALID_USE_AMOUNT);
         }
     }
 
     /**
      * 사용금액이 보유하고 있는 포인트 보다 큰지 여부 확인
-     * @param userPoint
+     * @param point
      * @param amount
      */
-    private void validUseUserPoint(UserPoint userPoint, long amount) {
-        if (userPoint.point() < amount) {
-            throw new PointServiceException("사용하려는 포인트는 보유하고 있는 포인트보다 작아야 합니다.");
+    private void validUseUserPoint(long point, long amount) {
+        if (point < amount) {
+            throw reject(PointErrorCode.INSUFFICIENT_POINT);
         }
 
     }
+
+    /**
+     * 보낸 유저와 받는 유저가 다른지 확인
+     * @param fromId
+     * @param toId
+     */
+    private void validTransferTarget(long fromId, long toId) {
+        if (fromId == toId) {
+            throw reject(PointErrorCode.INVALID_TRANSFER_TARGET);
+        }
+    }
+
+    /**
+     * 내역 조회 건수가 허용 범위인지 확인
+     * @param limit
+     */
+    private void validHistoryLimit(int limit) {
+        if (limit < 1 || limit > PointPolicy.MAXIMUM_HISTORY_PAGE_SIZE) {
+            throw reject(PointErrorCode.INVALID_HISTORY_LIMIT);
+        }
+    }
+
+    /**
+     * 일별 집계 조회 기간이 허용 범위인지 확인
+     * @param from
+     * @param to
+     */
+    private void validSummaryRange(LocalDate from, LocalDate to) {
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (days < 1 || days > PointPolicy.MAXIMUM_SUMMARY_DAYS) {
+            throw reject(PointErrorCode.INVALID_SUMMARY_RANGE);
+        }
+    }
+
+    /**
+     * 거절 사유별 횟수를 기록하고 예외를 돌려준다.
+     * 거절은 정상적인 응답이므로 stack trace 없이 미리 만들어 둔 예외를 쓴다.
+     * @param errorCode
+     * @return
+     */
+    private PointServiceException reject(PointErrorCode errorCode) {
+        pointMetrics.recordRejection(errorCode);
+        return PointServiceException.of(errorCode);
+    }
 }
 
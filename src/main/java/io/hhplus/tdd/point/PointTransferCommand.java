@@ -0,0 +1,11 @@
+package io.hhplus.tdd.point;
+
+/**
+ * 포인트 이체 요청
+ */
+public record PointTransferCommand(
+        long fromUserId,
+        long toUserId,
+        long amount
+) {
+}
@@ -0,0 +1,12 @@
+package io.hhplus.tdd.point;
+
+/**
+ * 포인트 이체 결과
+ * - from : 이체 후 보낸 유저의 잔액
+ * - to : 이체 후 받은 유저의 잔액
+ */
+public record PointTransferResult(
+        UserPoint from,
+        UserPoint to
+) {
+}
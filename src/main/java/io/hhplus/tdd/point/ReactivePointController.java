@@ -0,0 +1,115 @@
+package io.hhplus.tdd.point;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+/**
+ * PointController 와 같은 API 를 WebFlux 로 제공한다. (reactive 프로필)
+ * - 핸들러는 블로킹하지 않고 Mono/Flux 를 돌려주므로, 이벤트 루프 스레드 몇 개로 많은 요청을 동시에 붙잡고 있을 수 있다.
+ * - 일괄 처리(POST /point/batch)와 잔액 변경 스트림(GET /point/{id}/stream)은 servlet 버전에서만 제공한다.
+ */
+@RestController
+@RequestMapping("/point")
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactivePointController {
+
+    private static final int STREAM_PAGE_SIZE = 1000;
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private final ReactivePointService reactivePointService;
+
+    @GetMapping("{id}")
+    public Mono<UserPoint> point(
+            @PathVariable long id,
+            @RequestParam(required = false) Long asOf
+    ) {
+        if (asOf != null) {
+            return reactivePointService.getUserPointAsOf(id, asOf);
+        }
+        return reactivePointService.getUserPoint(id);
+    }
+
+    @GetMapping("{id}/histories")
+    public Flux<PointHistory> history(
+            @PathVariable long id
+    ) {
+        return reactivePointService.getPointHistory(id);
+    }
+
+    @GetMapping("{id}/histories/page")
+    public Mono<PointHistoryPage> historyPage(
+            @PathVariable long id,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(defaultValue = "DESC") PointHistoryOrder order,
+            @RequestParam(required = false) TransactionType type,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to
+    ) {
+        return reactivePointService.getPointHistoryPage(id, new PointHistoryQuery(cursor, limit, order, type, from, to));
+    }
+
+    /**
+     * 특정 유저의 포인트 내역 전체를 NDJSON 으로 스트리밍한다.
+     * 클라이언트가 읽는 속도에 맞춰 내역을 읽으므로(backpressure) 느린 클라이언트 때문에 메모리에 내역이 쌓이지 않는다.
+     */
+    @GetMapping(value = "{id}/histories/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<PointHistory> historyStream(
+            @PathVariable long id,
+            @RequestParam(defaultValue = "ASC") PointHistoryOrder order,
+            @RequestParam(required = false) TransactionType type,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to
+    ) {
+        return reactivePointService.streamPointHistory(id, new PointHistoryQuery(null, STREAM_PAGE_SIZE, order, type, from, to));
+    }
+
+    @GetMapping("{id}/summary")
+    public Mono<PointHistorySummary> summary(
+            @PathVariable long id
+    ) {
+        return reactivePointService.getPointSummary(id);
+    }
+
+    @GetMapping("{id}/summary/daily")
+    public Flux<PointDailySummary> dailySummary(
+            @PathVariable long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return reactivePointService.getDailyPointSummaries(id, from, to);
+    }
+
+    @PatchMapping("{id}/charge")
+    public Mono<UserPoint> charge(
+            @PathVariable long id,
+            @RequestBody long amount,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey
+    ) {
+        return reactivePointService.chargeUserPoint(id, amount, idempotencyKey);
+    }
+
+    @PatchMapping("{id}/use")
+    public Mono<UserPoint> use(
+            @PathVariable long id,
+            @RequestBody long amount,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey
+    ) {
+        return reactivePointService.useUserPoint(id, amount, idempotencyKey);
+    }
+
+    @PostMapping("transfer")
+    public Mono<PointTransferResult> transfer(
+            @RequestBody PointTransferCommand command
+    ) {
+        return reactivePointService.transfer(command.fromUserId(), command.toUserId(), command.amount());
+    }
+}
@@ -0,0 +1,120 @@
+package io.hhplus.tdd.point;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDate;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+/**
+ * PointService 를 Mono/Flux 로 감싼다. (reactive 프로필)
+ * - 테이블 throttle 과 유저 락 대기처럼 블로킹되는 호출은 전용 스케줄러에서 실행해서 이벤트 루프 스레드를 막지 않는다.
+ * - 스케줄러 스레드는 thread-cap 개로 제한하고, 그보다 많은 요청은 스레드 없이 queued-task-cap 까지 대기열에서 기다린다.
+ * - 가상 스레드 모드에서는 요청마다 가상 스레드에서 실행하므로 스레드 수 제한이 없다.
+ * - admission control 과 클러스터 라우팅은 servlet interceptor 로만 구현되어 있다.
+ *   켠 채로 reactive 프로필로 띄우면 걸리지 않은 채 요청을 받게 되므로 시작하지 않는다.
+ */
+@Service
+@Profile("reactive")
+public class ReactivePointService {
+
+    private final PointService pointService;
+    private final Scheduler scheduler;
+
+    @Autowired
+    public ReactivePointService(
+            PointService pointService,
+            @Value("${point.reactive.thread-cap:64}") int threadCap,
+            @Value("${point.reactive.queued-task-cap:100000}") int queuedTaskCap,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            @Value("${point.admission.enabled:false}") boolean admissionEnabled,
+            @Value("${point.cluster.enabled:false}") boolean clusterEnabled
+    ) {
+        this(pointService, threadCap, queuedTaskCap, virtualThreads);
+        if (admissionEnabled || clusterEnabled) {
+            throw new IllegalStateException("reactive 프로필은 admission control 과 클러스터 라우팅을 지원하지 않습니다. "
+                    + "point.admission.enabled 와 point.cluster.enabled 를 끄거나 servlet 으로 띄워주세요.");
+        }
+    }
+
+    public ReactivePointService(PointService pointService, int threadCap, int queuedTaskCap, boolean virtualThreads) {
+        this.pointService = pointService;
+        this.scheduler = virtualThreads
+                ? Schedulers.fromExecutorService(
+                        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("point-reactive-", 0).factory()), "point-reactive")
+                : Schedulers.newBoundedElastic(threadCap, queuedTaskCap, "point-reactive");
+    }
+
+    public Mono<UserPoint> getUserPoint(long id) {
+        return blocking(() -> pointService.getUserPoint(id));
+    }
+
+    public Mono<UserPoint> getUserPointAsOf(long id, long asOfMillis) {
+        return blocking(() -> pointService.getUserPointAsOf(id, asOfMillis));
+    }
+
+    public Flux<PointHistory> getPointHistory(long id) {
+        return blocking(() -> pointService.getPointHistory(id)).flatMapIterable(histories -> histories);
+    }
+
+    public Mono<PointHistoryPage> getPointHistoryPage(long id, PointHistoryQuery query) {
+        return blocking(() -> pointService.getPointHistoryPage(id, query));
+    }
+
+    public Mono<PointHistorySummary> getPointSummary(long id) {
+        return blocking(() -> pointService.getPointSummary(id));
+    }
+
+    public Flux<PointDailySummary> getDailyPointSummaries(long id, LocalDate from, LocalDate to) {
+        return blocking(() -> pointService.getDailyPointSummaries(id, from, to)).flatMapIterable(summaries -> summaries);
+    }
+
+    /**
+     * 내역을 페이지 단위로 읽어서 흘려보낸다.
+     * 받는 쪽이 요청한 만큼만 스트림에서 꺼내므로, 다음 페이지는 앞 페이지를 다 내보낸 뒤에 읽는다.
+     * 구독을 취소하면 스트림을 닫고 더 읽지 않는다.
+     * @param id
+     * @param query
+     * @return
+     */
+    public Flux<PointHistory> streamPointHistory(long id, PointHistoryQuery query) {
+        return Flux.fromStream(() -> pointService.streamPointHistory(id, query))
+                .subscribeOn(scheduler);
+    }
+
+    public Mono<UserPoint> chargeUserPoint(long id, long amount, String idempotencyKey) {
+        return blocking(() -> idempotencyKey == null
+                ? pointService.chargeUserPoint(id, amount)
+                : pointService.chargeUserPoint(id, amount, idempotencyKey));
+    }
+
+    public Mono<UserPoint> useUserPoint(long id, long amount, String idempotencyKey) {
+        return blocking(() -> idempotencyKey == null
+                ? pointService.useUserPoint(id, amount)
+                : pointService.useUserPoint(id, amount, idempotencyKey));
+    }
+
+    public Mono<PointTransferResult> transfer(long fromId, long toId, long amount) {
+        return blocking(() -> pointService.transfer(fromId, toId, amount));
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.dispose();
+    }
+
+    /**
+     * 구독할 때 스케줄러 스레드에서 call 을 실행한다.
+     */
+    private <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(scheduler);
+    }
+}
@@ -5,7 +5,25 @@ package io.hhplus.tdd.point;
  * 포인트 트랜잭션 종류
  * - CHARGE : 충전
  * - USE : 사용
+ * - TRANSFER_OUT : 다른 유저에게 이체 (보낸 유저의 내역)
+ * - TRANSFER_IN : 다른 유저로부터 이체 (받은 유저의 내역)
+ * 저널/스냅샷에 ordinal 로 기록하므로 새 종류는 뒤에 추가한다.
  */
 public enum TransactionType {
-    CHARGE, USE
+    CHARGE(1), USE(-1), TRANSFER_OUT(-1), TRANSFER_IN(1);
+
+    private final int sign;
+
+    TransactionType(int sign) {
+        this.sign = sign;
+    }
+
+    /**
+     * 이 종류의 내역이 잔액을 바꾸는 양
+     * @param amount
+     * @return 잔액이 늘면 amount, 줄면 -amount
+     */
+    public long signed(long amount) {
+        return sign * amount;
+    }
 }
\ No newline at end of file
@@ -1,21 +1,194 @@
 package io.hhplus.tdd.point;
 
-import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.cache.UserPointCache;
+import io.hhplus.tdd.journal.PointJournal;
+import io.hhplus.tdd.metrics.PointMetrics;
+import io.hhplus.tdd.store.UserPointStore;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongConsumer;
+
 @Repository
 @RequiredArgsConstructor
 public class UserPointRepository {
-    private final UserPointTable userPointTable;
+    private final UserPointStore userPointStore;
+    private final UserPointCache userPointCache;
+    private final PointMetrics pointMetrics;
+    private final PointJournal pointJournal;
+    /**
+     * 재시작 후 저널에서 복구한 잔액. 복구 이후 한 번도 갱신되지 않은 유저만 남는다.
+     * 보통은 비어 있으므로, 비어 있으면 Long 키를 만들지 않도록 조회/삭제를 건너뛴다.
+     */
+    private final ConcurrentHashMap<Long, UserPoint> recovered = new ConcurrentHashMap<>();
+    /**
+     * 유저별로 진행 중인 저장소 조회. 같은 유저를 동시에 조회하면 먼저 온 요청만 저장소를 읽고 나머지는 그 결과를 같이 받는다.
+     * 충전/사용이 끝나면 진행 중인 조회를 떼어내고 갱신한 값으로 끝내므로, 갱신 뒤에 결과를 받는 조회는 갱신 전 값을 받지 않는다.
+     */
+    private final ConcurrentHashMap<Long, CompletableFuture<UserPoint>> inFlight = new ConcurrentHashMap<>();
 
+    /**
+     * 캐시 → 저널 복구값 → 저장소 순서로 조회하고, 캐시에 없던 값은 캐시에 채운다.
+     * 같은 유저의 저장소 조회가 이미 진행 중이면 저장소를 다시 읽지 않고 그 결과를 기다린다.
+     * @param id
+     * @return
+     */
     public UserPoint selectById(long id) {
-        return userPointTable.selectById(id);
+        UserPoint cached = userPointCache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        if (!recovered.isEmpty()) {
+            long stamp = userPointCache.writeStamp(id);
+            UserPoint restored = recovered.get(id);
+            if (restored != null) {
+                return userPointCache.putIfNotWrittenSince(restored, stamp);
+            }
+        }
+        return readThrough(id);
+    }
+
+    /**
+     * 캐시를 거치지 않고 저널 복구값 → 저장소 순서로 조회한다. 조회한 값을 캐시에 채우지 않는다.
+     * 전체 유저를 훑는 작업이 자주 쓰는 유저를 캐시에서 밀어내지 않게 한다.
+     * @param id
+     * @return
+     */
+    public UserPoint peekById(long id) {
+        UserPoint restored = recovered.get(id);
+        if (restored != null) {
+            return restored;
+        }
+        long start = System.nanoTime();
+        UserPoint userPoint = userPointStore.selectById(id);
+        pointMetrics.recordUserPointTableRead(System.nanoTime() - start);
+        return userPoint;
     }
 
+    /**
+     * 저장소에 쓴 결과를 캐시에도 바로 반영하고, 저널에 기록해서 디스크 반영까지 기다린다.
+     * @param id
+     * @param amount
+     * @return
+     */
     public UserPoint useOrChargePointById(long id, long amount) {
-        return userPointTable.insertOrUpdate(id, amount);
+        UserPoint userPoint = write(id, amount);
+        pointJournal.awaitDurable(pointJournal.appendBalance(userPoint));
+        return userPoint;
+    }
+
+    /**
+     * 다른 노드에서 넘겨받은 유저들의 잔액을 저장한다.
+     * 저널에는 모두 기록한 뒤 마지막 기록의 디스크 반영만 기다린다.
+     * @param pointByUserId 유저 id 별 잔액
+     */
+    public void insertHandedOver(Map<Long, Long> pointByUserId) {
+        long sequence = 0;
+        for (Map.Entry<Long, Long> entry : pointByUserId.entrySet()) {
+            sequence = pointJournal.appendBalance(write(entry.getKey(), entry.getValue()));
+        }
+        pointJournal.awaitDurable(sequence);
+    }
+
+    /**
+     * 저널 복구값과 저장소에 있는 유저 id 를 모두 넘긴다. 두 곳에 모두 있는 유저는 두 번 넘길 수 있다.
+     * @param action
+     */
+    public void forEachUserId(LongConsumer action) {
+        for (Long id : recovered.keySet()) {
+            action.accept(id);
+        }
+        userPointStore.forEachUserId(action);
     }
 
+    /**
+     * 다른 노드로 옮긴 유저를 캐시와 저널 복구값에서 지운다. 저장소에 남은 값은 다시 옮겨올 때 덮어쓴다.
+     * @param id
+     */
+    public void evict(long id) {
+        recovered.remove(id);
+        // 진행 중인 조회가 끝나도 읽은 값을 캐시에 채우지 않게 떼어낸다.
+        inFlight.remove(id);
+        // 복구값을 지운 뒤에 캐시의 쓰기 표시를 올려야 그 전에 복구값을 읽은 조회도 채우지 않는다.
+        userPointCache.evict(id);
+    }
 
+    /**
+     * 저널 재생 중 잔액을 복구한다. 같은 유저의 레코드는 뒤에 나온 값이 이긴다.
+     * @param id
+     * @param point
+     * @param updateMillis
+     */
+    public void restore(long id, long point, long updateMillis) {
+        recovered.put(id, new UserPoint(id, point, updateMillis));
+    }
+
+    /**
+     * 저장소를 읽어 캐시에 채운다. 같은 유저의 조회가 진행 중이면 그 결과를 기다린다.
+     * 읽는 사이에 충전/사용이나 이관으로 조회가 떼어졌으면 읽은 값은 캐시에 채우지 않는다.
+     * 충전/사용이 캐시에 쓴 뒤 조회를 떼어내기 전이면 떼어졌는지로는 알 수 없고, 그 값이 이미 캐시에서 밀려났을 수도 있으므로
+     * 읽기 전에 받아둔 캐시의 쓰기 표시로 한 번 더 거른다.
+     */
+    private UserPoint readThrough(long id) {
+        CompletableFuture<UserPoint> flight = new CompletableFuture<>();
+        CompletableFuture<UserPoint> leader = inFlight.putIfAbsent(id, flight);
+        if (leader != null) {
+            pointMetrics.recordCoalescedUserPointRead();
+            return await(leader);
+        }
+        long stamp = userPointCache.writeStamp(id);
+        UserPoint userPoint;
+        try {
+            long start = System.nanoTime();
+            userPoint = userPointStore.selectById(id);
+            pointMetrics.recordUserPointTableRead(System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            inFlight.remove(id, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        if (inFlight.remove(id, flight)) {
+            userPoint = userPointCache.putIfNotWrittenSince(userPoint, stamp);
+        }
+        // 충전/사용이 먼저 끝냈으면 그 값을 받는다.
+        flight.complete(userPoint);
+        return flight.join();
+    }
+
+    /**
+     * 저장소에 쓰고 캐시에 반영한다. 저널 기록은 호출한 쪽이 한다.
+     */
+    private UserPoint write(long id, long amount) {
+        long start = System.nanoTime();
+        UserPoint userPoint = userPointStore.insertOrUpdate(id, amount);
+        pointMetrics.recordUserPointTableWrite(System.nanoTime() - start);
+        // 복구값을 먼저 지워야 복구값을 읽은 조회가 캐시의 쓰기 표시로 갱신을 알아챈다.
+        if (!recovered.isEmpty()) {
+            recovered.remove(id);
+        }
+        userPointCache.put(userPoint);
+        if (!inFlight.isEmpty()) {
+            // 갱신 전에 시작한 조회를 기다리던 요청도 갱신한 값을 받는다.
+            CompletableFuture<UserPoint> flight = inFlight.remove(id);
+            if (flight != null) {
+                flight.complete(userPoint);
+            }
+        }
+        return userPoint;
+    }
+
+    private UserPoint await(CompletableFuture<UserPoint> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
 }
@@ -0,0 +1,16 @@
+package io.hhplus.tdd.reconcile;
+
+/**
+ * 잔액이 내역과 맞지 않는 유저. 유저 락 안에서 다시 확인한 값이다.
+ * @param userId
+ * @param point 저장된 잔액
+ * @param historyPoint 내역만으로 계산한 잔액
+ * @param summaryConsistent 내역 집계가 내역 전체를 다시 더한 결과와 같은지
+ */
+public record PointMismatch(
+        long userId,
+        long point,
+        long historyPoint,
+        boolean summaryConsistent
+) {
+}
@@ -0,0 +1,246 @@
+package io.hhplus.tdd.reconcile;
+
+import io.hhplus.tdd.exception.ServiceException;
+import io.hhplus.tdd.index.PointHistoryIndex;
+import io.hhplus.tdd.ledger.PointLedger;
+import io.hhplus.tdd.lock.UserLockManager;
+import io.hhplus.tdd.metrics.PointMetrics;
+import io.hhplus.tdd.point.PointHistorySummary;
+import io.hhplus.tdd.point.UserPoint;
+import io.hhplus.tdd.point.UserPointRepository;
+import io.hhplus.tdd.shard.PointShardEngine;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 잔액/내역 정합성 점검
+ * - 내역이 있는 유저의 잔액(UserPointStore, ledger 모드에서는 projection)이 내역으로 계산한 잔액과 같은지 확인하고, 다른 유저를 바로 알린다.
+ *   잔액 저장소는 전체 유저를 조회할 수 없으므로 내역이 한 건도 없는 유저는 점검하지 않는다.
+ * - 유저 id 를 split-size 단위로 나눠 fork-join pool 에서 병렬로 점검한다.
+ * - 요청을 처리하는 노드에서 돌려도 되도록 parallelism 개 스레드만 쓰고, 초당 users-per-second 명까지만 점검한다.
+ * - 유저 락은 잡지 않고 내역 집계 → 잔액 → 내역 집계 순서로 읽는다. 앞뒤 집계가 같고 잔액이 맞으면 그대로 통과시킨다.
+ *   값이 맞지 않으면 충전/사용이 진행 중이었을 수 있으므로 그 유저만 유저 락 안에서(sharding 모드에서는 유저의 shard 스레드에서) 다시 확인하고,
+ *   그래도 다르면 불일치로 본다.
+ * - 한 번에 하나만 실행한다.
+ */
+@Component
+public class PointReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(PointReconciler.class);
+    /**
+     * 락 없이 읽는 도중 내역이 추가되면 다시 읽는 횟수
+     */
+    private static final int OPTIMISTIC_ATTEMPTS = 3;
+
+    private final UserPointRepository userPointRepository;
+    private final PointHistoryIndex pointHistoryIndex;
+    private final UserLockManager userLockManager;
+    private final PointMetrics pointMetrics;
+    private final PointShardEngine pointShardEngine;
+    private final PointLedger pointLedger;
+    private final ForkJoinPool pool;
+    private final int splitSize;
+    private final double usersPerSecond;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * @param parallelism 점검에 쓰는 스레드 수
+     * @param splitSize 한 작업이 나누지 않고 점검하는 유저 수
+     * @param usersPerSecond 초당 점검하는 최대 유저 수. 0 이면 제한하지 않는다.
+     */
+    public PointReconciler(
+            UserPointRepository userPointRepository,
+            PointHistoryIndex pointHistoryIndex,
+            UserLockManager userLockManager,
+            PointMetrics pointMetrics,
+            PointShardEngine pointShardEngine,
+            PointLedger pointLedger,
+            @Value("${point.reconcile.parallelism:2}") int parallelism,
+            @Value("${point.reconcile.split-size:64}") int splitSize,
+            @Value("${point.reconcile.users-per-second:1000}") double usersPerSecond
+    ) {
+        this.userPointRepository = userPointRepository;
+        this.pointHistoryIndex = pointHistoryIndex;
+        this.userLockManager = userLockManager;
+        this.pointMetrics = pointMetrics;
+        this.pointShardEngine = pointShardEngine;
+        this.pointLedger = pointLedger;
+        this.pool = new ForkJoinPool(parallelism);
+        this.splitSize = splitSize;
+        this.usersPerSecond = usersPerSecond;
+    }
+
+    /**
+     * 내역이 있는 전체 유저를 점검한다. 불일치를 찾을 때마다 mismatchSink 로 알리고, 끝나면 결과를 돌려준다.
+     * @param mismatchSink 점검 스레드에서 동시에 호출될 수 있다.
+     * @return
+     */
+    public ReconciliationReport reconcile(Consumer<PointMismatch> mismatchSink) {
+        if (!running.compareAndSet(false, true)) {
+            throw new ServiceException("정합성 점검이 이미 실행 중입니다.");
+        }
+        try {
+            long start = System.nanoTime();
+            long[] userIds = pointHistoryIndex.userIds();
+            Run run = new Run(mismatchSink, new Pacer(usersPerSecond));
+            pool.invoke(new ReconcileTask(run, userIds, 0, userIds.length));
+
+            long elapsedNanos = System.nanoTime() - start;
+            long mismatches = run.mismatches.sum();
+            pointMetrics.recordReconciliation(elapsedNanos, userIds.length, mismatches);
+            ReconciliationReport report = new ReconciliationReport(
+                    userIds.length,
+                    mismatches,
+                    run.lockedUsers.sum(),
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                    elapsedNanos == 0 ? 0 : userIds.length * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos
+            );
+            log.info("정합성 점검 완료 {}", report);
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * 한 유저를 점검한다.
+     * @param userId
+     * @return 불일치가 없으면 null
+     */
+    public PointMismatch check(long userId) {
+        return check(userId, null);
+    }
+
+    @PreDestroy
+    public void stop() {
+        pool.shutdownNow();
+    }
+
+    private PointMismatch check(long userId, Run run) {
+        for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+            PointHistorySummary before = pointHistoryIndex.summary(userId);
+            UserPoint userPoint = peekById(userId);
+            PointHistorySummary after = pointHistoryIndex.summary(userId);
+            if (!before.equals(after)) {
+                // 읽는 사이 내역이 추가됐다.
+                continue;
+            }
+            if (userPoint.point() == after.balance() && pointHistoryIndex.isSummaryConsistent(userId)) {
+                return null;
+            }
+            break;
+        }
+        if (run != null) {
+            run.lockedUsers.increment();
+        }
+        // 유저 락 안에서는 잔액과 내역이 함께 바뀌지 않는다.
+        return serialize(userId, () -> {
+            PointHistorySummary summary = pointHistoryIndex.summary(userId);
+            UserPoint userPoint = peekById(userId);
+            boolean summaryConsistent = pointHistoryIndex.isSummaryConsistent(userId);
+            if (userPoint.point() == summary.balance() && summaryConsistent) {
+                return null;
+            }
+            return new PointMismatch(userId, userPoint.point(), summary.balance(), summaryConsistent);
+        });
+    }
+
+    private UserPoint peekById(long userId) {
+        return pointLedger.isEnabled() ? pointLedger.peekById(userId) : userPointRepository.peekById(userId);
+    }
+
+    private <T> T serialize(long userId, Supplier<T> action) {
+        if (pointShardEngine.isEnabled()) {
+            return pointShardEngine.execute(userId, action);
+        }
+        return userLockManager.executeWithLock(userId, action);
+    }
+
+    /**
+     * 한 번의 점검 실행 동안 작업들이 함께 쓰는 값
+     */
+    private static final class Run {
+        private final Consumer<PointMismatch> mismatchSink;
+        private final Pacer pacer;
+        private final LongAdder mismatches = new LongAdder();
+        private final LongAdder lockedUsers = new LongAdder();
+
+        private Run(Consumer<PointMismatch> mismatchSink, Pacer pacer) {
+            this.mismatchSink = mismatchSink;
+            this.pacer = pacer;
+        }
+    }
+
+    /**
+     * userIds[from, to) 를 점검한다. split-size 보다 크면 반으로 나눈다.
+     */
+    private final class ReconcileTask extends RecursiveAction {
+        private final Run run;
+        private final long[] userIds;
+        private final int from;
+        private final int to;
+
+        private ReconcileTask(Run run, long[] userIds, int from, int to) {
+            this.run = run;
+            this.userIds = userIds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > splitSize) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ReconcileTask(run, userIds, from, middle), new ReconcileTask(run, userIds, middle, to));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                run.pacer.acquire();
+                PointMismatch mismatch = check(userIds[i], run);
+                if (mismatch != null) {
+                    run.mismatches.increment();
+                    run.mismatchSink.accept(mismatch);
+                }
+            }
+        }
+    }
+
+    /**
+     * 초당 permitsPerSecond 번까지만 통과시킨다. 다음 차례가 올 때까지 호출한 스레드를 재운다.
+     * 한동안 호출이 없어도 지난 차례를 모아두지 않는다.
+     */
+    private static final class Pacer {
+        private final long intervalNanos;
+        private final AtomicLong nextNanos = new AtomicLong(System.nanoTime());
+
+        private Pacer(double permitsPerSecond) {
+            this.intervalNanos = permitsPerSecond <= 0 ? 0 : (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        }
+
+        private void acquire() {
+            if (intervalNanos == 0) {
+                return;
+            }
+            long now = System.nanoTime();
+            long slot = nextNanos.getAndUpdate(next -> Math.max(next, now) + intervalNanos);
+            long waitNanos = slot - now;
+            while (waitNanos > 0) {
+                LockSupport.parkNanos(waitNanos);
+                waitNanos = slot - System.nanoTime();
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package io.hhplus.tdd.reconcile;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * 운영용 잔액/내역 정합성 점검 API (servlet)
+ * - /point/** 가 아니므로 admission control 을 받지 않는다. 점검 속도는 point.reconcile.* 로 제한한다.
+ */
+@RestController
+@RequestMapping("/admin/reconciliation")
+@Profile("!reactive")
+@RequiredArgsConstructor
+public class ReconciliationController {
+
+    private final PointReconciler pointReconciler;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 내역이 있는 전체 유저를 점검하고 NDJSON 으로 스트리밍한다.
+     * 불일치(PointMismatch)를 찾는 대로 한 줄씩 보내고, 마지막 줄에 점검 결과(ReconciliationReport)를 보낸다.
+     */
+    @PostMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void reconcile(
+            HttpServletResponse response
+    ) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        try (JsonGenerator generator = objectMapper.createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(null);
+            ReconciliationReport report = pointReconciler.reconcile(mismatch -> {
+                // 여러 점검 스레드가 동시에 쓴다.
+                synchronized (generator) {
+                    writeLine(generator, mismatch);
+                }
+            });
+            synchronized (generator) {
+                writeLine(generator, report);
+            }
+        }
+    }
+
+    /**
+     * 한 유저만 점검한다.
+     * @return 불일치가 없으면 빈 응답
+     */
+    @PostMapping("{id}")
+    public PointMismatch reconcileUser(
+            @PathVariable long id
+    ) {
+        return pointReconciler.check(id);
+    }
+
+    private void writeLine(JsonGenerator generator, Object value) {
+        try {
+            objectMapper.writeValue(generator, value);
+            generator.writeRaw('\n');
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
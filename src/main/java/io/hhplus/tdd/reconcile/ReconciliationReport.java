@@ -0,0 +1,18 @@
+package io.hhplus.tdd.reconcile;
+
+/**
+ * 정합성 점검 결과
+ * @param checkedUsers 점검한 유저 수
+ * @param mismatchedUsers 잔액이 내역과 맞지 않는 유저 수
+ * @param lockedUsers 락 없이 읽은 값이 맞지 않아 유저 락 안에서 다시 확인한 유저 수
+ * @param elapsedMillis
+ * @param usersPerSecond 초당 점검한 유저 수
+ */
+public record ReconciliationReport(
+        long checkedUsers,
+        long mismatchedUsers,
+        long lockedUsers,
+        long elapsedMillis,
+        double usersPerSecond
+) {
+}
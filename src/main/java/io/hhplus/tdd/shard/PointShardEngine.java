@@ -0,0 +1,254 @@
+package io.hhplus.tdd.shard;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * 유저 id 를 shards 개로 나누고, shard 마다 스레드 하나만 그 유저들의 잔액/내역을 바꾸게 한다. (single writer)
+ * - 요청 스레드는 작업을 shard 의 lock-free 큐(ConcurrentLinkedQueue)에 넣고 future 로 결과를 기다린다.
+ *   같은 유저의 변경은 한 스레드에서 도착 순서대로 실행되므로 유저 락 없이 직렬화되고, 락을 넘겨주는 비용이 없다.
+ * - shard 스레드는 큐가 비면 잠들고, 작업을 넣은 스레드가 깨운다.
+ * - 두 shard 에 걸친 작업(이체)은 두 shard 를 번호 순서대로 멈춰 세운 뒤 요청 스레드에서 실행한다.
+ *   멈추는 순서가 항상 같으므로 반대 방향 이체가 동시에 와도 서로 기다리며 멈추지 않는다.
+ * - shard 스레드는 테이블 throttle 동안 블로킹되므로, 느린 테이블에서는 shard 의 다른 유저 요청도 그만큼 기다린다.
+ */
+@Component
+public class PointShardEngine {
+
+    private static final int SPINS_BEFORE_PARK = 100;
+
+    private final boolean enabled;
+    private final Shard[] shards;
+
+    /**
+     * @param enabled false 면 shard 스레드를 만들지 않는다.
+     * @param shards 0 이면 CPU 수
+     */
+    public PointShardEngine(
+            @Value("${point.sharding.enabled:false}") boolean enabled,
+            @Value("${point.sharding.shards:0}") int shards
+    ) {
+        this.enabled = enabled;
+        int shardCount = shards > 0 ? shards : Runtime.getRuntime().availableProcessors();
+        this.shards = new Shard[enabled ? shardCount : 0];
+        for (int i = 0; i < this.shards.length; i++) {
+            this.shards[i] = new Shard(i);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    /**
+     * 유저의 shard 스레드에서 action 을 실행하고 결과를 기다린다. 이미 그 shard 스레드라면 바로 실행한다.
+     * @param userId
+     * @param action
+     * @return action 실행 결과. action 이 던진 예외는 그대로 던진다.
+     */
+    public <T> T execute(long userId, Supplier<T> action) {
+        Shard shard = shardOf(userId);
+        if (Thread.currentThread() == shard.thread) {
+            return action.get();
+        }
+        Task<T> task = new Task<>(action);
+        shard.submit(task);
+        return join(task.future);
+    }
+
+    /**
+     * 두 유저의 shard 에서 다른 작업이 실행되지 않는 상태로 action 을 실행한다.
+     * 같은 shard 면 그 shard 스레드에서 실행한다.
+     * @param userId
+     * @param otherUserId
+     * @param action
+     * @return action 실행 결과
+     */
+    public <T> T executeOnBoth(long userId, long otherUserId, Supplier<T> action) {
+        Shard shard = shardOf(userId);
+        Shard other = shardOf(otherUserId);
+        if (shard == other) {
+            return execute(userId, action);
+        }
+        Shard first = shard.index < other.index ? shard : other;
+        Shard second = shard.index < other.index ? other : shard;
+        Barrier firstBarrier = first.pause();
+        try {
+            Barrier secondBarrier = second.pause();
+            try {
+                return action.get();
+            } finally {
+                secondBarrier.release();
+            }
+        } finally {
+            firstBarrier.release();
+        }
+    }
+
+    /**
+     * 모든 shard 큐에 남은 작업 수
+     * @return
+     */
+    public int pendingCount() {
+        int pending = 0;
+        for (Shard shard : shards) {
+            pending += shard.queue.size();
+        }
+        return pending;
+    }
+
+    /**
+     * 큐에 남은 작업을 모두 실행한 뒤 shard 스레드를 멈춘다.
+     */
+    @PreDestroy
+    public void stop() {
+        for (Shard shard : shards) {
+            shard.running = false;
+            LockSupport.unpark(shard.thread);
+        }
+        for (Shard shard : shards) {
+            try {
+                shard.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private Shard shardOf(long userId) {
+        // 연속된 id 가 한 shard 에 몰리지 않도록 비트를 섞는다.
+        long hash = userId * 0x9e3779b97f4a7c15L;
+        return shards[(int) Math.floorMod(hash ^ (hash >>> 32), (long) shards.length)];
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Task<T> implements Runnable {
+        private final Supplier<T> action;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private Task(Supplier<T> action) {
+            this.action = action;
+        }
+
+        @Override
+        public void run() {
+            try {
+                future.complete(action.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * shard 스레드를 release 될 때까지 붙잡아두는 작업
+     */
+    private static final class Barrier implements Runnable {
+        private final CountDownLatch paused = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+
+        @Override
+        public void run() {
+            paused.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void release() {
+            released.countDown();
+        }
+    }
+
+    private static final class Shard {
+        private final int index;
+        private final ConcurrentLinkedQueue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        private final Thread thread;
+        private volatile boolean sleeping;
+        private volatile boolean running = true;
+
+        private Shard(int index) {
+            this.index = index;
+            this.thread = Thread.ofPlatform().daemon().name("point-shard-" + index).start(this::loop);
+        }
+
+        private void submit(Runnable task) {
+            if (!running) {
+                throw new IllegalStateException("point-shard-" + index + " 가 멈췄습니다.");
+            }
+            queue.offer(task);
+            // 큐에 넣은 뒤 sleeping 을 읽으므로, shard 스레드가 큐를 비었다고 본 뒤 잠들었다면 여기서 깨운다.
+            if (sleeping) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        /**
+         * shard 스레드가 이 작업에 닿을 때까지 기다린다. 이후 release 할 때까지 shard 는 다른 작업을 실행하지 않는다.
+         */
+        private Barrier pause() {
+            Barrier barrier = new Barrier();
+            submit(barrier);
+            try {
+                barrier.paused.await();
+            } catch (InterruptedException e) {
+                barrier.release();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("shard 를 기다리는 중 인터럽트 되었습니다.", e);
+            }
+            return barrier;
+        }
+
+        private void loop() {
+            int idle = 0;
+            while (true) {
+                Runnable task = queue.poll();
+                if (task != null) {
+                    task.run();
+                    idle = 0;
+                    continue;
+                }
+                if (!running) {
+                    return;
+                }
+                if (idle++ < SPINS_BEFORE_PARK) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                sleeping = true;
+                if (queue.isEmpty() && running) {
+                    LockSupport.park(this);
+                }
+                sleeping = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package io.hhplus.tdd.store;
+
+import io.hhplus.tdd.point.UserPoint;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongConsumer;
+
+/**
+ * 힙 밖(direct ByteBuffer)에 잔액을 저장하는 open addressing 해시 테이블
+ * - 유저 한 명당 슬롯 하나에 (id, point, updateMillis) long 3칸만 쓴다. Long 키나 UserPoint 객체를 만들어 두지 않으므로
+ *   유저 수가 늘어도 힙 크기와 GC 대상이 늘지 않는다.
+ * - 테이블을 stripes 개로 나누고 stripe 마다 StampedLock 을 둔다. 조회는 락 없이 읽고(optimistic read) 그 사이 쓰기가 있었을 때만 다시 읽는다.
+ * - 빈 슬롯은 id 0 으로 표시한다. (새로 할당한 direct 버퍼는 0 으로 채워져 있다) 실제 id 0 은 stripe 필드에 따로 저장한다.
+ * - stripe 의 슬롯이 LOAD_FACTOR 를 넘게 차면 두 배 크기로 옮긴다. 예전 버퍼는 GC 가 회수할 때 해제된다.
+ */
+@Component
+@ConditionalOnProperty(name = "point.store.type", havingValue = "off-heap")
+public class OffHeapUserPointStore implements UserPointStore {
+
+    private static final int SLOT_BYTES = Long.BYTES * 3;
+    private static final int POINT_OFFSET = Long.BYTES;
+    private static final int UPDATE_MILLIS_OFFSET = Long.BYTES * 2;
+    private static final double LOAD_FACTOR = 0.75;
+    /**
+     * ByteBuffer 는 int 범위까지만 쓸 수 있다.
+     */
+    private static final int MAX_SLOTS = Integer.highestOneBit(Integer.MAX_VALUE / SLOT_BYTES);
+    private static final int MIN_SLOTS = 16;
+    private static final long EMPTY = 0L;
+
+    private final Stripe[] stripes;
+    private final int stripeShift;
+
+    /**
+     * @param expectedUsers 처음부터 옮기지 않고 담을 유저 수
+     * @param stripes 락을 나누는 수. 2의 거듭제곱으로 올린다.
+     */
+    public OffHeapUserPointStore(
+            @Value("${point.store.off-heap.expected-users:1000000}") long expectedUsers,
+            @Value("${point.store.off-heap.stripes:64}") int stripes
+    ) {
+        int stripeCount = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new Stripe[stripeCount];
+        this.stripeShift = Long.SIZE - Integer.numberOfTrailingZeros(stripeCount);
+        int slots = slotsFor((long) Math.ceil(expectedUsers / (double) stripeCount / LOAD_FACTOR));
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = new Stripe(slots);
+        }
+    }
+
+    @Override
+    public UserPoint selectById(long id) {
+        long hash = hash(id);
+        return stripeOf(hash).get(id, hash);
+    }
+
+    @Override
+    public UserPoint insertOrUpdate(long id, long point) {
+        long hash = hash(id);
+        long updateMillis = System.currentTimeMillis();
+        stripeOf(hash).put(id, hash, point, updateMillis);
+        return new UserPoint(id, point, updateMillis);
+    }
+
+    /**
+     * stripe 마다 read lock 을 잡고 슬롯을 훑는다.
+     * @param action
+     */
+    @Override
+    public void forEachUserId(LongConsumer action) {
+        for (Stripe stripe : stripes) {
+            stripe.forEachId(action);
+        }
+    }
+
+    /**
+     * 저장된 유저 수
+     * @return
+     */
+    public long size() {
+        long size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    /**
+     * 힙 밖에 할당한 버퍼 크기 합 (bytes)
+     * @return
+     */
+    public long offHeapBytes() {
+        long bytes = 0;
+        for (Stripe stripe : stripes) {
+            bytes += stripe.bytes();
+        }
+        return bytes;
+    }
+
+    private Stripe stripeOf(long hash) {
+        // 슬롯 위치는 hash 의 하위 비트를 쓰므로 stripe 는 상위 비트로 고른다.
+        return stripeShift == Long.SIZE ? stripes[0] : stripes[(int) (hash >>> stripeShift)];
+    }
+
+    private static int slotsFor(long minSlots) {
+        if (minSlots > MAX_SLOTS) {
+            throw new IllegalStateException("stripe 하나에 담을 수 있는 유저 수를 넘었습니다. point.store.off-heap.stripes 를 늘려주세요.");
+        }
+        return Math.max(MIN_SLOTS, Integer.highestOneBit((int) Math.max(1, minSlots - 1)) << 1);
+    }
+
+    /**
+     * 연속된 id 가 이웃한 슬롯에 몰리지 않도록 비트를 섞는다. (MurmurHash3 fmix64)
+     */
+    private static long hash(long id) {
+        long h = id;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * 슬롯 버퍼와 mask. 옮길 때 둘을 한 번에 바꿔서, 락 없이 읽는 쪽이 서로 다른 크기의 버퍼와 mask 를 섞어 쓰지 않게 한다.
+     */
+    private record Table(ByteBuffer slots, int mask) {
+
+        private static Table allocate(int slotCount) {
+            return new Table(ByteBuffer.allocateDirect(slotCount * SLOT_BYTES).order(ByteOrder.nativeOrder()), slotCount - 1);
+        }
+
+        /**
+         * id 가 있는 슬롯, 없으면 넣을 빈 슬롯의 위치(byte offset)
+         */
+        private int find(long id, long hash) {
+            int slot = (int) hash & mask;
+            for (int probe = 0; probe <= mask; probe++) {
+                int offset = slot * SLOT_BYTES;
+                long key = slots.getLong(offset);
+                if (key == id || key == EMPTY) {
+                    return offset;
+                }
+                slot = (slot + 1) & mask;
+            }
+            // 락 없이 읽는 중 옮겨지고 있던 버퍼. 호출한 쪽이 validate 에 실패해서 다시 읽는다.
+            return -1;
+        }
+    }
+
+    private static final class Stripe {
+
+        private final StampedLock lock = new StampedLock();
+        private Table table;
+        private int size;
+        /**
+         * id 0 은 빈 슬롯 표시와 겹치므로 따로 저장한다.
+         */
+        private boolean zeroPresent;
+        private long zeroPoint;
+        private long zeroUpdateMillis;
+
+        private Stripe(int slotCount) {
+            this.table = Table.allocate(slotCount);
+        }
+
+        private UserPoint get(long id, long hash) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                UserPoint userPoint = read(id, hash);
+                if (lock.validate(stamp)) {
+                    return userPoint;
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                return read(id, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private UserPoint read(long id, long hash) {
+            if (id == EMPTY) {
+                return zeroPresent ? new UserPoint(id, zeroPoint, zeroUpdateMillis) : UserPoint.empty(id);
+            }
+            Table current = table;
+            int offset = current.find(id, hash);
+            if (offset < 0 || current.slots.getLong(offset) == EMPTY) {
+                return UserPoint.empty(id);
+            }
+            return new UserPoint(id, current.slots.getLong(offset + POINT_OFFSET), current.slots.getLong(offset + UPDATE_MILLIS_OFFSET));
+        }
+
+        private void put(long id, long hash, long point, long updateMillis) {
+            long stamp = lock.writeLock();
+            try {
+                if (id == EMPTY) {
+                    zeroPresent = true;
+                    zeroPoint = point;
+                    zeroUpdateMillis = updateMillis;
+                    return;
+                }
+                int offset = table.find(id, hash);
+                if (table.slots.getLong(offset) == EMPTY) {
+                    if (size + 1 > (table.mask + 1) * LOAD_FACTOR) {
+                        resize();
+                        offset = table.find(id, hash);
+                    }
+                    table.slots.putLong(offset, id);
+                    size++;
+                }
+                table.slots.putLong(offset + POINT_OFFSET, point);
+                table.slots.putLong(offset + UPDATE_MILLIS_OFFSET, updateMillis);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * 쓰기 락을 잡은 상태에서 호출한다.
+         */
+        private void resize() {
+            Table old = table;
+            Table resized = Table.allocate(slotsFor((old.mask + 1) * 2L));
+            for (int offset = 0; offset < old.slots.capacity(); offset += SLOT_BYTES) {
+                long key = old.slots.getLong(offset);
+                if (key == EMPTY) {
+                    continue;
+                }
+                int target = resized.find(key, hash(key));
+                resized.slots.putLong(target, key);
+                resized.slots.putLong(target + POINT_OFFSET, old.slots.getLong(offset + POINT_OFFSET));
+                resized.slots.putLong(target + UPDATE_MILLIS_OFFSET, old.slots.getLong(offset + UPDATE_MILLIS_OFFSET));
+            }
+            table = resized;
+        }
+
+        private void forEachId(LongConsumer action) {
+            long stamp = lock.readLock();
+            try {
+                if (zeroPresent) {
+                    action.accept(EMPTY);
+                }
+                for (int offset = 0; offset < table.slots.capacity(); offset += SLOT_BYTES) {
+                    long key = table.slots.getLong(offset);
+                    if (key != EMPTY) {
+                        action.accept(key);
+                    }
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private long size() {
+            long stamp = lock.readLock();
+            try {
+                return size + (zeroPresent ? 1 : 0);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private long bytes() {
+            long stamp = lock.readLock();
+            try {
+                return table.slots.capacity();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package io.hhplus.tdd.store;
+
+import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.point.UserPoint;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+
+/**
+ * UserPointTable 에 잔액을 저장한다. (write-behind)
+ * - 잔액의 기준은 ConcurrentHashMap 이다. 저장은 맵을 바꾸고 바로 반환하므로, 서로 다른 유저의 저장은 서로를 기다리지 않는다.
+ * - UserPointTable 은 스레드 안전하지 않은 HashMap 이고 변경할 수 없으므로, 전용 writer 스레드 하나만 테이블에 쓴다.
+ *   저장 요청 스레드는 테이블 쓰기(최대 300ms)를 기다리지 않는다.
+ * - writer 가 쓰기 전에 같은 유저가 다시 저장되면 마지막 값만 테이블에 쓴다.
+ * - 맵에 없는 유저만 테이블에서 읽어 맵에 올린다. 테이블 조회는 read lock, writer 의 테이블 쓰기는 write lock 으로 막아
+ *   HashMap 을 동시에 바꾸며 읽지 않게 한다. 조회 중에 저장된 값이 있으면 테이블에서 읽은 값은 버린다.
+ * - 맵은 테이블과 같은 유저 수만큼 메모리를 쓴다.
+ * - 애플리케이션 종료 시 테이블에 쓰지 못한 잔액을 모두 쓴 뒤 멈춘다.
+ */
+@Component
+@ConditionalOnProperty(name = "point.store.type", havingValue = "table", matchIfMissing = true)
+public class TableUserPointStore implements UserPointStore {
+
+    private static final Logger log = LoggerFactory.getLogger(TableUserPointStore.class);
+    private static final long POLL_MILLIS = 100L;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 30_000L;
+
+    private final UserPointTable userPointTable;
+    private final ConcurrentHashMap<Long, UserPoint> balances = new ConcurrentHashMap<>();
+    /**
+     * 테이블에 아직 쓰지 않은 유저별 마지막 잔액
+     */
+    private final ConcurrentHashMap<Long, UserPoint> unwritten = new ConcurrentHashMap<>();
+    /**
+     * 테이블에 쓸 유저 id. unwritten 에 없던 유저만 넣으므로 한 유저가 두 번 들어 있지 않다.
+     */
+    private final BlockingQueue<Long> writeQueue = new LinkedBlockingQueue<>();
+    /**
+     * 큐에 넣었지만 테이블 쓰기가 끝나지 않은 유저 수
+     */
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final ReadWriteLock tableLock = new ReentrantReadWriteLock();
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    public TableUserPointStore(UserPointTable userPointTable) {
+        this.userPointTable = userPointTable;
+        this.writerThread = Thread.ofPlatform().daemon().name("user-point-table-writer").start(this::drain);
+    }
+
+    @Override
+    public UserPoint selectById(long id) {
+        UserPoint userPoint = balances.get(id);
+        if (userPoint != null) {
+            return userPoint;
+        }
+        UserPoint loaded;
+        tableLock.readLock().lock();
+        try {
+            loaded = userPointTable.selectById(id);
+        } finally {
+            tableLock.readLock().unlock();
+        }
+        UserPoint written = balances.putIfAbsent(id, loaded);
+        return written != null ? written : loaded;
+    }
+
+    @Override
+    public UserPoint insertOrUpdate(long id, long point) {
+        UserPoint userPoint = new UserPoint(id, point, System.currentTimeMillis());
+        // 같은 유저의 저장이 겹쳐도 맵과 테이블 쓰기 순서가 어긋나지 않도록 유저 항목을 잡은 채로 큐에 넣는다.
+        balances.compute(id, (key, previous) -> {
+            if (unwritten.put(key, userPoint) == null) {
+                pendingCount.incrementAndGet();
+                writeQueue.add(key);
+            }
+            return userPoint;
+        });
+        return userPoint;
+    }
+
+    /**
+     * 저장했거나 테이블에서 읽어 온 유저 id 를 넘긴다. 테이블의 값은 모두 이 저장소가 쓴 값이므로 테이블을 훑지 않는다.
+     * @param action
+     */
+    @Override
+    public void forEachUserId(LongConsumer action) {
+        for (Long id : balances.keySet()) {
+            action.accept(id);
+        }
+    }
+
+    /**
+     * 지금까지 저장한 잔액이 모두 테이블에 쓰일 때까지 기다린다.
+     * @param timeoutMillis
+     * @return 제한 시간 안에 모두 썼는지
+     */
+    public boolean awaitWritten(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (pendingCount.get() > 0) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            Thread.sleep(1L);
+        }
+        return true;
+    }
+
+    /**
+     * 테이블에 쓰지 못한 잔액을 모두 쓴 뒤 writer 를 멈춘다.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        try {
+            writerThread.join(SHUTDOWN_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (pendingCount.get() > 0) {
+            log.warn("종료 제한 시간 안에 테이블에 쓰지 못한 잔액이 {}건 남았습니다.", pendingCount.get());
+        }
+    }
+
+    private void drain() {
+        while (running || pendingCount.get() > 0) {
+            Long id;
+            try {
+                id = writeQueue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (id == null) {
+                continue;
+            }
+            // 꺼낸 뒤 저장된 값은 다시 큐에 들어가므로, 여기서는 꺼낸 시점의 마지막 값만 쓴다.
+            UserPoint userPoint = unwritten.remove(id);
+            try {
+                write(userPoint);
+            } catch (RuntimeException e) {
+                log.error("잔액을 테이블에 쓰지 못했습니다. userId={}", id, e);
+            } finally {
+                pendingCount.decrementAndGet();
+            }
+        }
+    }
+
+    private void write(UserPoint userPoint) {
+        tableLock.writeLock().lock();
+        try {
+            userPointTable.insertOrUpdate(userPoint.id(), userPoint.point());
+        } finally {
+            tableLock.writeLock().unlock();
+        }
+    }
+}
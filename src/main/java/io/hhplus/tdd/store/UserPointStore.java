@@ -0,0 +1,32 @@
+package io.hhplus.tdd.store;
+
+import io.hhplus.tdd.point.UserPoint;
+
+import java.util.function.LongConsumer;
+
+/**
+ * 유저 잔액 저장소. point.store.type 으로 구현을 고른다.
+ * - table : TableUserPointStore. UserPointTable 에 write-behind 로 저장한다. (기본값)
+ * - off-heap : OffHeapUserPointStore
+ */
+public interface UserPointStore {
+
+    /**
+     * @param id
+     * @return 없으면 잔액 0
+     */
+    UserPoint selectById(long id);
+
+    /**
+     * @param id
+     * @param point 저장할 잔액
+     * @return 저장한 값
+     */
+    UserPoint insertOrUpdate(long id, long point);
+
+    /**
+     * 저장된 유저 id 를 모두 넘긴다. 넘기는 중에 처음 저장된 유저는 빠질 수 있다.
+     * @param action
+     */
+    void forEachUserId(LongConsumer action);
+}
@@ -0,0 +1,306 @@
+package io.hhplus.tdd.writer;
+
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.metrics.PointMetrics;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 포인트 내역 write-behind
+ * - 충전/사용 요청 스레드는 내역을 큐에 넣고 바로 반환하고, 전용 writer 스레드 하나가 큐 순서대로 PointHistoryTable 에 저장한다.
+ * - 내역 id 는 큐에 넣는 시점에 미리 발급한다. writer 가 발급 순서대로 저장하므로 테이블 cursor 와 같은 값이 된다.
+ * - 큐가 가득 차면 자리가 날 때까지 요청 스레드가 기다린다. (backpressure)
+ * - 큐는 처음에 만든 long 배열 하나를 돌려 쓰는 ring buffer 다. 내역 한 건을 (userId, amount, type, updateMillis) 로 저장하고,
+ *   id 는 큐 순서와 같으므로 따로 저장하지 않는다. 큐에 넣을 때 PointHistory 나 큐 노드를 만들지 않는다.
+ * - 다른 노드에서 넘겨받은 내역은 원래 id 를 쓰므로, 그 id 까지 건너뛰라는 표시를 큐에 넣는다. (skipPast)
+ *   writer 는 표시 앞의 내역까지 원래 순서의 id 로 저장하고, 건너뛴 만큼 테이블 cursor 와의 차이를 늘린다.
+ * - writer 스레드는 큐가 비면 잠들고, 내역을 넣은 스레드가 깨운다.
+ * - 애플리케이션 종료 시 큐에 남은 내역을 모두 저장한 뒤 멈춘다.
+ */
+@Component
+public class PointHistoryWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(PointHistoryWriter.class);
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100L);
+    private static final int STRIDE = 4;
+    /**
+     * type 자리에 넣는 건너뛰기 표시. userId 자리에 건너뛸 마지막 id 를 넣는다.
+     */
+    private static final int SKIP = -2;
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private final PointHistoryTable pointHistoryTable;
+    private final PointMetrics pointMetrics;
+    private final long[] slots;
+    private final int capacity;
+    private final long shutdownTimeoutMillis;
+    private final boolean virtualThreads;
+    /**
+     * id 발급, 큐 삽입, writer 의 큐 꺼내기를 함께 보호한다.
+     */
+    private final ReentrantLock enqueueLock = new ReentrantLock();
+    private final Condition notFull = enqueueLock.newCondition();
+
+    /**
+     * 다음에 테이블에 저장할 내역의 위치와 큐에 남은 내역 수
+     */
+    private int head;
+    private volatile int count;
+    private volatile boolean writerSleeping;
+
+    private long nextId = 1;
+    /**
+     * 저널에서 복구하거나 다른 노드에서 넘겨받은 내역은 테이블에 다시 쓰지 않으므로, 테이블 cursor 는 발급 id 보다 이만큼 작다.
+     */
+    private volatile long cursorOffset = 0;
+    private volatile long lastEnqueuedId = 0;
+    private volatile long lastWrittenId = 0;
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public PointHistoryWriter(
+            PointHistoryTable pointHistoryTable,
+            PointMetrics pointMetrics,
+            @Value("${point.history.queue-capacity:10000}") int queueCapacity,
+            @Value("${point.history.shutdown-timeout-ms:30000}") long shutdownTimeoutMillis,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        this.pointHistoryTable = pointHistoryTable;
+        this.pointMetrics = pointMetrics;
+        this.capacity = queueCapacity;
+        this.slots = new long[queueCapacity * STRIDE];
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * writer 스레드를 시작한다. 가상 스레드 모드에서는 writer 도 가상 스레드로 실행한다.
+     */
+    @PostConstruct
+    public void start() {
+        running = true;
+        Thread.Builder builder = virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform();
+        writerThread = builder.name("point-history-writer").start(this::drain);
+    }
+
+    /**
+     * 내역 id 를 발급하고 저장 큐에 넣는다.
+     * id 발급과 큐 삽입을 같은 락 안에서 해서 큐 순서와 id 순서를 맞춘다.
+     * @param userId
+     * @param amount
+     * @param type
+     * @param updateMillis
+     * @return 발급된 내역 id
+     */
+    public long enqueue(long userId, long amount, TransactionType type, long updateMillis) {
+        enqueueLock.lock();
+        try {
+            int offset = reserveSlot();
+            slots[offset] = userId;
+            slots[offset + 1] = amount;
+            slots[offset + 2] = type.ordinal();
+            slots[offset + 3] = updateMillis;
+            long id = nextId++;
+            publish(id);
+            return id;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("포인트 내역 저장 대기 중 인터럽트 되었습니다.", e);
+        } finally {
+            enqueueLock.unlock();
+        }
+    }
+
+    /**
+     * 다른 노드에서 넘겨받은 내역처럼 이미 id 가 있는 내역을 인덱스에 넣은 뒤, lastId 다음부터 id 를 발급한다.
+     * 유저의 내역이 id 오름차순을 유지하도록, 넘겨받은 유저의 요청을 처리하기 전에 호출한다.
+     * @param lastId
+     */
+    public void skipPast(long lastId) {
+        enqueueLock.lock();
+        try {
+            if (lastId < nextId) {
+                return;
+            }
+            int offset = reserveSlot();
+            slots[offset] = lastId;
+            slots[offset + 2] = SKIP;
+            nextId = lastId + 1;
+            publish(lastId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("포인트 내역 저장 대기 중 인터럽트 되었습니다.", e);
+        } finally {
+            enqueueLock.unlock();
+        }
+    }
+
+    /**
+     * 저널 복구 후 lastId 다음부터 id 를 발급한다. 요청을 받기 전에 호출한다.
+     * @param lastId
+     */
+    public void resumeAfter(long lastId) {
+        enqueueLock.lock();
+        try {
+            if (lastId < nextId) {
+                return;
+            }
+            nextId = lastId + 1;
+            lastEnqueuedId = lastId;
+            lastWrittenId = lastId;
+            cursorOffset = lastId;
+        } finally {
+            enqueueLock.unlock();
+        }
+    }
+
+    /**
+     * 지금까지 큐에 넣은 내역이 모두 테이블에 저장될 때까지 기다린다.
+     * @param timeoutMillis
+     * @return 제한 시간 안에 모두 저장되었는지 여부
+     */
+    public boolean flush(long timeoutMillis) {
+        long target = lastEnqueuedId;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (lastWrittenId < target) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        return true;
+    }
+
+    /**
+     * 저장 대기 중인 내역 수
+     * @return
+     */
+    public int pendingCount() {
+        return count;
+    }
+
+    @PreDestroy
+    public void stop() {
+        enqueueLock.lock();
+        try {
+            running = false;
+        } finally {
+            enqueueLock.unlock();
+        }
+        if (writerThread == null) {
+            return;
+        }
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(shutdownTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (count > 0) {
+            log.warn("종료 제한 시간 안에 저장하지 못한 포인트 내역이 {}건 남았습니다.", count);
+        }
+    }
+
+    /**
+     * 큐에 자리가 날 때까지 기다려서 다음 자리를 돌려준다. enqueueLock 을 잡은 상태에서 호출한다.
+     */
+    private int reserveSlot() throws InterruptedException {
+        if (!running) {
+            throw new IllegalStateException("포인트 내역 writer 가 중지되었습니다.");
+        }
+        while (count == capacity) {
+            notFull.await();
+        }
+        return ((head + count) % capacity) * STRIDE;
+    }
+
+    /**
+     * reserveSlot 으로 받은 자리를 채운 뒤 큐에 내놓는다. enqueueLock 을 잡은 상태에서 호출한다.
+     */
+    private void publish(long id) {
+        count++;
+        lastEnqueuedId = id;
+        // count 를 올린 뒤 writerSleeping 을 읽으므로, writer 가 큐를 비었다고 본 뒤 잠들었다면 여기서 깨운다.
+        if (writerSleeping) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            long userId;
+            long amount;
+            int type;
+            long updateMillis;
+            enqueueLock.lock();
+            try {
+                if (count == 0) {
+                    if (!running) {
+                        return;
+                    }
+                    userId = -1;
+                    amount = 0;
+                    type = -1;
+                    updateMillis = 0;
+                } else {
+                    int offset = head * STRIDE;
+                    userId = slots[offset];
+                    amount = slots[offset + 1];
+                    type = (int) slots[offset + 2];
+                    updateMillis = slots[offset + 3];
+                    head = (head + 1) % capacity;
+                    count--;
+                    notFull.signal();
+                }
+            } finally {
+                enqueueLock.unlock();
+            }
+            if (type == SKIP) {
+                // userId 자리의 id 까지는 테이블에 쓰지 않는다.
+                cursorOffset += userId - lastWrittenId;
+                lastWrittenId = userId;
+                continue;
+            }
+            if (type < 0) {
+                sleepWhileEmpty();
+                continue;
+            }
+            // 발급 순서대로 저장하므로 다음 id 는 마지막으로 저장한 id 다음이다.
+            write(lastWrittenId + 1, userId, amount, TYPES[type], updateMillis);
+        }
+    }
+
+    private void sleepWhileEmpty() {
+        writerSleeping = true;
+        if (count == 0 && running) {
+            LockSupport.parkNanos(this, POLL_NANOS);
+        }
+        writerSleeping = false;
+    }
+
+    private void write(long id, long userId, long amount, TransactionType type, long updateMillis) {
+        try {
+            long start = System.nanoTime();
+            PointHistory stored = pointHistoryTable.insert(userId, amount, type, updateMillis);
+            pointMetrics.recordPointHistoryTableWrite(System.nanoTime() - start);
+            if (stored.id() + cursorOffset != id) {
+                log.warn("포인트 내역 id 가 테이블 cursor 와 다릅니다. pending={}, stored={}", id, stored.id());
+            }
+        } catch (RuntimeException e) {
+            log.error("포인트 내역 저장에 실패했습니다. history={}", new PointHistory(id, userId, amount, type, updateMillis), e);
+        } finally {
+            lastWrittenId = id;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package io.hhplus.tdd.index;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * LongKeyMap 은 패키지 안에서만 쓰므로 같은 패키지에서 테스트한다.
+ */
+public class LongKeyMapTest {
+
+    /**
+     * 작성 이유 : 버킷이 여러 번 늘어나고 한 버킷에 여러 키가 이어져도(chaining) 모든 키를 찾고, 음수/경계 키도 구분하는지 확인
+     */
+    @Test
+    @DisplayName("많은 키를 넣어 버킷이 겹치고 늘어나도 모든 키를 찾는다")
+    void computeIfAbsent_manyKeys_findAll() {
+        //given
+        LongKeyMap<String> map = new LongKeyMap<>();
+        long[] edges = {0L, -1L, Long.MIN_VALUE, Long.MAX_VALUE};
+
+        //when
+        for (long key = 1; key <= 100_000; key++) {
+            map.computeIfAbsent(key, String::valueOf);
+        }
+        for (long key : edges) {
+            map.computeIfAbsent(key, String::valueOf);
+        }
+
+        //then
+        assertThat(map.size()).isEqualTo(100_000 + edges.length);
+        for (long key = 1; key <= 100_000; key++) {
+            assertThat(map.get(key)).isEqualTo(String.valueOf(key));
+        }
+        for (long key : edges) {
+            assertThat(map.get(key)).isEqualTo(String.valueOf(key));
+        }
+        assertThat(map.get(100_001L)).isNull();
+        assertThat(map.keys()).hasSize(100_000 + edges.length);
+    }
+
+    /**
+     * 작성 이유 : chain 의 앞/중간/끝에 있는 키를 지워도 같은 버킷의 다른 키가 남고, 지운 키는 다시 넣을 수 있는지 확인
+     */
+    @Test
+    @DisplayName("키를 지워도 같은 버킷의 다른 키는 남고, 지운 키는 다시 넣을 수 있다")
+    void remove_everyOtherKey_keepRest() {
+        //given
+        LongKeyMap<Long> map = new LongKeyMap<>();
+        for (long key = 0; key < 10_000; key++) {
+            map.computeIfAbsent(key, k -> k);
+        }
+
+        //when
+        for (long key = 0; key < 10_000; key += 2) {
+            map.remove(key);
+        }
+        map.remove(20_000L);
+
+        //then
+        assertThat(map.size()).isEqualTo(5_000);
+        for (long key = 0; key < 10_000; key++) {
+            assertThat(map.get(key)).isEqualTo(key % 2 == 0 ? null : key);
+        }
+        long[] keys = map.keys();
+        Arrays.sort(keys);
+        assertThat(keys[0]).isEqualTo(1L);
+        assertThat(keys[keys.length - 1]).isEqualTo(9_999L);
+
+        assertThat(map.computeIfAbsent(0L, k -> -1L)).isEqualTo(-1L);
+        assertThat(map.computeIfAbsent(1L, k -> -1L)).isEqualTo(1L);
+    }
+
+    /**
+     * 작성 이유 : 여러 스레드가 같은 키를 동시에 computeIfAbsent 해도 factory 는 키마다 한 번만 호출되고 모두 같은 값을 받는지 확인
+     */
+    @Test
+    @DisplayName("같은 키를 동시에 넣어도 factory 는 키마다 한 번만 호출된다")
+    void computeIfAbsent_concurrently_createOncePerKey() throws Exception {
+        //given
+        LongKeyMap<Object> map = new LongKeyMap<>();
+        int threadCount = 16;
+        int keyCount = 20_000;
+        AtomicInteger created = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        List<Future<Object[]>> futures = new ArrayList<>();
+
+        //when
+        for (int t = 0; t < threadCount; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                Object[] values = new Object[keyCount];
+                for (int key = 0; key < keyCount; key++) {
+                    values[key] = map.computeIfAbsent(key, k -> {
+                        created.incrementAndGet();
+                        return new Object();
+                    });
+                }
+                return values;
+            }));
+        }
+        start.countDown();
+        List<Object[]> results = new ArrayList<>();
+        for (Future<Object[]> future : futures) {
+            results.add(future.get(1, TimeUnit.MINUTES));
+        }
+        executor.shutdown();
+
+        //then
+        assertThat(created.get()).isEqualTo(keyCount);
+        assertThat(map.size()).isEqualTo(keyCount);
+        for (int key = 0; key < keyCount; key++) {
+            for (Object[] values : results) {
+                assertThat(values[key]).isSameAs(map.get(key));
+            }
+        }
+    }
+
+    /**
+     * 작성 이유 : 락 없이 읽는 조회가 다른 스레드의 추가/삭제/확장 중에도 지우지 않은 키를 놓치지 않는지 확인
+     */
+    @Test
+    @DisplayName("다른 스레드가 넣고 지우는 동안에도 지우지 않은 키는 항상 조회된다")
+    void get_whileOthersPutAndRemove_neverMissStableKeys() throws Exception {
+        //given
+        LongKeyMap<Long> map = new LongKeyMap<>();
+        int stableCount = 1_000;
+        for (long key = 0; key < stableCount; key++) {
+            map.computeIfAbsent(key, k -> k);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch done = new CountDownLatch(2);
+
+        //when
+        for (int w = 0; w < 2; w++) {
+            long base = 1_000_000L * (w + 1);
+            executor.submit(() -> {
+                try {
+                    for (long key = base; key < base + 200_000; key++) {
+                        map.computeIfAbsent(key, k -> k);
+                        // 3 개 중 1 개(66,667 개)는 넣자마자 지운다.
+                        if ((key - base) % 3 == 0) {
+                            map.remove(key);
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        List<Future<Integer>> readers = new ArrayList<>();
+        for (int r = 0; r < 2; r++) {
+            readers.add(executor.submit(() -> {
+                int missed = 0;
+                while (done.getCount() > 0) {
+                    for (long key = 0; key < stableCount; key++) {
+                        Long value = map.get(key);
+                        if (value == null || value != key) {
+                            missed++;
+                        }
+                    }
+                }
+                return missed;
+            }));
+        }
+        int missed = 0;
+        for (Future<Integer> reader : readers) {
+            missed += reader.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        //then
+        assertThat(missed).isZero();
+        assertThat(map.size()).isEqualTo(stableCount + 2 * (200_000 - 66_667));
+    }
+}
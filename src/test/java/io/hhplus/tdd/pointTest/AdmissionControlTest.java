@@ -0,0 +1,215 @@
+package io.hhplus.tdd.pointTest;
+
+import io.hhplus.tdd.admission.AdaptiveConcurrencyLimiter;
+import io.hhplus.tdd.admission.AdmissionInterceptor;
+import io.hhplus.tdd.admission.UserRateLimiter;
+import io.hhplus.tdd.exception.AdmissionRejectedException;
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.hhplus.tdd.metrics.PointMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AdmissionControlTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final PointMetrics pointMetrics = new PointMetrics(new SimpleMeterRegistry());
+
+    /**
+     * 작성 이유 : 한도만큼 처리 중이면 다음 요청을 기다리게 하지 않고 바로 거절하는지 확인
+     */
+    @Test
+    @DisplayName("처리 중인 요청이 한도에 닿으면 거절하고, 반납하면 다시 받는다")
+    void tryAcquire_atLimit_reject() {
+        //given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 2, 10, 2.0, 0, 100);
+
+        //when
+        boolean first = limiter.tryAcquire();
+        boolean second = limiter.tryAcquire();
+        boolean third = limiter.tryAcquire();
+        limiter.release(MILLIS);
+        boolean afterRelease = limiter.tryAcquire();
+
+        //then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(third).isFalse();
+        assertThat(afterRelease).isTrue();
+        assertThat(limiter.inFlight()).isEqualTo(2);
+    }
+
+    /**
+     * 작성 이유 : 평소보다 지연이 크게 늘어나면 한도를 줄이고, 최소 한도 아래로는 내려가지 않는지 확인
+     */
+    @Test
+    @DisplayName("지연이 평소의 tolerance 배를 넘으면 한도를 줄인다")
+    void release_latencySpike_decreaseLimit() {
+        //given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 100, 1000, 2.0, 0, 10);
+        runWindows(limiter, 20, 10, 5 * MILLIS);
+        int before = limiter.limit();
+
+        //when
+        runWindows(limiter, 100, 10, 50 * MILLIS);
+
+        //then
+        assertThat(before).isEqualTo(100);
+        assertThat(limiter.limit()).isLessThan(before);
+        assertThat(limiter.limit()).isGreaterThanOrEqualTo(4);
+    }
+
+    /**
+     * 작성 이유 : 지연이 그대로인데 한도를 다 쓰고 있으면 한도를 늘리고, 최대 한도는 넘지 않는지 확인
+     */
+    @Test
+    @DisplayName("지연이 그대로면서 한도를 다 쓰면 최대 한도까지 한도를 늘린다")
+    void release_stableLatencyAtLimit_increaseLimit() {
+        //given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 10, 100, 2.0, 0, 1);
+
+        //when
+        for (int window = 0; window < 200; window++) {
+            int acquired = 0;
+            while (limiter.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limiter.release(5 * MILLIS);
+            }
+        }
+
+        //then
+        assertThat(limiter.limit()).isEqualTo(100);
+    }
+
+    /**
+     * 작성 이유 : burst 만큼 쓰고 나면 토큰이 찰 때까지 거절하고, 기다릴 시간을 알려주는지 확인
+     */
+    @Test
+    @DisplayName("유저의 토큰을 다 쓰면 다음 토큰이 찰 때까지 거절한다")
+    void userRateLimiter_burstExceeded_reject() {
+        //given
+        AtomicLong now = new AtomicLong(1_000_000_000L);
+        UserRateLimiter limiter = new UserRateLimiter(2, 2, 100, now::get);
+
+        //when
+        long first = limiter.tryAcquire(1L);
+        long second = limiter.tryAcquire(1L);
+        long third = limiter.tryAcquire(1L);
+        long otherUser = limiter.tryAcquire(2L);
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(600));
+        long afterRefill = limiter.tryAcquire(1L);
+
+        //then
+        assertThat(first).isZero();
+        assertThat(second).isZero();
+        // 초당 2개씩 차므로 다음 토큰까지 0.5초
+        assertThat(third).isBetween(TimeUnit.MILLISECONDS.toNanos(499), TimeUnit.MILLISECONDS.toNanos(501));
+        assertThat(otherUser).isZero();
+        assertThat(afterRefill).isZero();
+    }
+
+    /**
+     * 작성 이유 : 유저가 계속 늘어나도 버킷 수가 max-users 를 넘지 않고, 오래 요청이 없던 유저의 버킷부터 지우는지 확인
+     */
+    @Test
+    @DisplayName("버킷이 max-users 에 차면 가장 오래 요청이 없던 유저의 버킷을 지운다")
+    void userRateLimiter_tooManyUsers_evictLeastRecentlyUsed() {
+        //given
+        AtomicLong now = new AtomicLong(1_000_000_000L);
+        UserRateLimiter limiter = new UserRateLimiter(1, 1, 100, now::get);
+
+        //when
+        for (long userId = 0; userId < 1_000; userId++) {
+            limiter.tryAcquire(userId);
+            assertThat(limiter.size()).isLessThanOrEqualTo(100);
+        }
+
+        //then
+        // 방금 요청한 유저는 버킷이 남아 있어 토큰이 없고, 처음 요청한 유저는 지워져서 가득 찬 버킷으로 다시 시작한다.
+        assertThat(limiter.tryAcquire(999L)).isPositive();
+        assertThat(limiter.tryAcquire(0L)).isZero();
+    }
+
+    /**
+     * 작성 이유 : 변경 요청이 한도에 닿아도 조회는 따로 받고, 한도를 넘은 변경 요청은 503 으로 거절하는지 확인
+     */
+    @Test
+    @DisplayName("조회와 변경은 한도를 따로 쓰고, 한도를 넘으면 503 으로 거절한다")
+    void preHandle_writeLimitReached_rejectOnlyWrites() throws Exception {
+        //given
+        AdmissionInterceptor interceptor = new AdmissionInterceptor(pointMetrics, true,
+                new AdaptiveConcurrencyLimiter(1, 1, 1, 2.0, 0, 1),
+                new AdaptiveConcurrencyLimiter(1, 1, 1, 2.0, 0, 1),
+                null);
+        MockHttpServletRequest charge = request("PATCH", 1L);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(charge, response, null);
+
+        //when
+        //then
+        assertThatThrownBy(() -> interceptor.preHandle(request("PATCH", 2L), response, null))
+                .isInstanceOfSatisfying(AdmissionRejectedException.class, e -> {
+                    assertThat(e.getErrorCode()).isEqualTo(PointErrorCode.OVERLOADED);
+                    assertThat(e.getStatus()).isEqualTo(503);
+                });
+        assertThat(interceptor.preHandle(request("GET", 1L), response, null)).isTrue();
+        // 처리를 마치면 다음 변경 요청을 받는다.
+        interceptor.afterCompletion(charge, response, null, null);
+        assertThat(interceptor.preHandle(request("PATCH", 2L), response, null)).isTrue();
+    }
+
+    /**
+     * 작성 이유 : 유저별 제한을 넘은 요청은 429 와 다시 시도할 시간으로 거절되고, 다른 유저는 영향받지 않는지 확인
+     */
+    @Test
+    @DisplayName("유저별 요청 한도를 넘으면 429 로 거절한다")
+    void preHandle_userRateExceeded_reject() throws Exception {
+        //given
+        AtomicLong now = new AtomicLong(1_000_000_000L);
+        AdmissionInterceptor interceptor = new AdmissionInterceptor(pointMetrics, true,
+                new AdaptiveConcurrencyLimiter(100, 100, 100, 2.0, 0, 1),
+                new AdaptiveConcurrencyLimiter(100, 100, 100, 2.0, 0, 1),
+                new UserRateLimiter(1, 1, 100, now::get));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request("PATCH", 1L), response, null);
+
+        //when
+        //then
+        assertThatThrownBy(() -> interceptor.preHandle(request("PATCH", 1L), response, null))
+                .isInstanceOfSatisfying(AdmissionRejectedException.class, e -> {
+                    assertThat(e.getErrorCode()).isEqualTo(PointErrorCode.RATE_LIMITED);
+                    assertThat(e.getStatus()).isEqualTo(429);
+                    assertThat(e.getRetryAfterSeconds()).isEqualTo(1L);
+                });
+        assertThat(interceptor.preHandle(request("PATCH", 2L), response, null)).isTrue();
+    }
+
+    /**
+     * window 마다 samples 건을 처리 중 1건인 상태로 반영한다. (한도를 다 쓰지 않으므로 한도를 늘리지는 않는다)
+     */
+    private static void runWindows(AdaptiveConcurrencyLimiter limiter, int windows, int samples, long latencyNanos) {
+        for (int i = 0; i < windows * samples; i++) {
+            limiter.tryAcquire();
+            limiter.release(latencyNanos);
+        }
+    }
+
+    private static MockHttpServletRequest request(String method, long userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/point/" + userId);
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("id", String.valueOf(userId)));
+        return request;
+    }
+}
@@ -0,0 +1,198 @@
+package io.hhplus.tdd.pointTest;
+
+import io.hhplus.tdd.exception.AdmissionRejectedException;
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.hhplus.tdd.exception.PointServiceException;
+import io.hhplus.tdd.idempotency.IdempotencyStore;
+import io.hhplus.tdd.metrics.PointMetrics;
+import io.hhplus.tdd.point.UserPoint;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class IdempotencyStoreTest {
+
+    private static final long TTL_MILLIS = 16_000L;
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PointMetrics pointMetrics = new PointMetrics(meterRegistry);
+
+    /**
+     * 작성 이유 : 처음 요청이 끝나기 전에 같은 키의 재시도가 몰려와도 한 번만 실행되고 모두 같은 결과를 받는지 확인
+     */
+    @Test
+    @DisplayName("실행 중인 키로 동시에 들어온 요청은 처음 요청의 결과를 기다려 받는다")
+    void execute_concurrentDuplicates_runOnce() throws Exception {
+        //given
+        IdempotencyStore store = new IdempotencyStore(TTL_MILLIS, 1_000, now::get, pointMetrics);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        int threadCount = 32;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+
+        //when
+        List<Future<UserPoint>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < threadCount; i++) {
+                futures.add(executor.submit(() -> store.execute("key-1", "charge 1 10", () -> {
+                    executions.incrementAndGet();
+                    started.countDown();
+                    await(release);
+                    return new UserPoint(1L, 10L, now.get());
+                })));
+            }
+            started.await(10, TimeUnit.SECONDS);
+            TimeUnit.MILLISECONDS.sleep(100);
+            release.countDown();
+
+            //then
+            for (Future<UserPoint> future : futures) {
+                assertThat(future.get(10, TimeUnit.SECONDS)).isEqualTo(new UserPoint(1L, 10L, 1_000_000L));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    /**
+     * 작성 이유 : 실패한 요청은 기억하지 않아서 재시도가 다시 실행되고, 같은 키로 다른 요청은 거절되는지 확인
+     */
+    @Test
+    @DisplayName("실패한 키는 다시 실행하고, 같은 키로 다른 요청을 보내면 거절한다")
+    void execute_failedOrMismatched() {
+        //given
+        IdempotencyStore store = new IdempotencyStore(TTL_MILLIS, 1_000, now::get, pointMetrics);
+
+        //when
+        //then
+        assertThatThrownBy(() -> store.execute("key-1", "use 1 10", () -> {
+            throw new PointServiceException(PointErrorCode.INSUFFICIENT_POINT);
+        })).isInstanceOf(PointServiceException.class);
+        assertThat(store.size()).isZero();
+
+        assertThat(store.execute("key-1", "use 1 10", () -> "used")).isEqualTo("used");
+        assertThatThrownBy(() -> store.execute("key-1", "use 1 20", () -> "used again"))
+                .isInstanceOf(PointServiceException.class)
+                .hasMessage(PointErrorCode.IDEMPOTENCY_KEY_REUSED.getMessage());
+        assertThat(meterRegistry.get("point.rejection").tag("reason", PointErrorCode.IDEMPOTENCY_KEY_REUSED.name()).counter().count())
+                .isEqualTo(1.0);
+    }
+
+    /**
+     * 작성 이유 : ttl 이 지난 키는 잊어서 다시 실행되고, ttl 안의 키는 기억하는지 확인
+     */
+    @Test
+    @DisplayName("ttl 이 지난 키는 만료되어 다시 실행된다")
+    void execute_afterTtl_runAgain() {
+        //given
+        IdempotencyStore store = new IdempotencyStore(TTL_MILLIS, 1_000, now::get, pointMetrics);
+        AtomicInteger executions = new AtomicInteger();
+        store.execute("key-1", "charge", executions::incrementAndGet);
+        now.addAndGet(TTL_MILLIS / 2);
+        store.execute("key-2", "charge", executions::incrementAndGet);
+
+        //when
+        now.addAndGet(TTL_MILLIS / 2 - 1);
+        int beforeTtl = store.execute("key-1", "charge", executions::incrementAndGet);
+        // 버킷 단위로 만료하므로 ttl 에 버킷 하나(ttl / 16)를 더 지나면 확실히 만료된다.
+        now.addAndGet(TTL_MILLIS / 16 + 1);
+        int afterTtl = store.execute("key-1", "charge", executions::incrementAndGet);
+
+        //then
+        assertThat(beforeTtl).isEqualTo(1);
+        assertThat(afterTtl).isEqualTo(3);
+        // key-2 는 아직 ttl 이 지나지 않았다.
+        assertThat(store.execute("key-2", "charge", executions::incrementAndGet)).isEqualTo(2);
+        assertThat(store.size()).isEqualTo(2);
+    }
+
+    /**
+     * 작성 이유 : 키가 max-keys 에 차도 ttl 안의 키를 지워서 재시도가 다시 실행되는 일이 없고, 새 키만 거절되는지 확인
+     */
+    @Test
+    @DisplayName("키가 max-keys 에 차면 ttl 안의 키는 그대로 두고 새 키를 거절한다")
+    void execute_atMaxKeys_rejectNewKeyAndKeepWindow() {
+        //given
+        IdempotencyStore store = new IdempotencyStore(TTL_MILLIS, 100, now::get, pointMetrics);
+        for (int i = 0; i < 100; i++) {
+            store.execute("key-" + i, "charge", () -> "done");
+        }
+
+        //when
+        //then
+        assertThatThrownBy(() -> store.execute("key-100", "charge", () -> "done"))
+                .isInstanceOf(AdmissionRejectedException.class)
+                .hasMessage(PointErrorCode.OVERLOADED.getMessage());
+        assertThat(store.size()).isEqualTo(100);
+        // 이미 있는 키의 재시도는 다시 실행하지 않고 처음 결과를 받는다.
+        assertThat(store.execute("key-0", "charge", () -> "again")).isEqualTo("done");
+        assertThat(meterRegistry.get("point.rejection").tag("reason", PointErrorCode.OVERLOADED.name()).counter().count())
+                .isEqualTo(1.0);
+
+        // ttl 이 지나 키가 만료되면 새 키를 다시 받는다.
+        now.addAndGet(TTL_MILLIS + TTL_MILLIS / 16 + 1);
+        assertThat(store.execute("key-100", "charge", () -> "done")).isEqualTo("done");
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    /**
+     * 작성 이유 : 새 키가 ttl 동안 max-keys 보다 많이 계속 들어와도, 거절이 ttl 을 넘게 이어지지 않고 만료된 자리만큼 새 키를 다시 받는지 확인
+     */
+    @Test
+    @DisplayName("max-keys 를 넘겨 계속 새 키를 넣어도 ttl 안에 다시 새 키를 받는다")
+    void execute_writePastMaxKeys_keysFreeUpWithinTtl() {
+        //given
+        int maxKeys = 100;
+        IdempotencyStore store = new IdempotencyStore(TTL_MILLIS, maxKeys, now::get, pointMetrics);
+        // ttl 동안 max-keys 의 네 배가 들어오는 속도로 ttl 다섯 번 동안 넣는다.
+        long intervalMillis = TTL_MILLIS / (maxKeys * 4);
+        int requestCount = maxKeys * 4 * 5;
+        long lastAcceptedMillis = now.get();
+        long longestRejectedMillis = 0;
+        int accepted = 0;
+
+        //when
+        for (int i = 0; i < requestCount; i++) {
+            try {
+                store.execute("key-" + i, "charge", () -> "done");
+                accepted++;
+                lastAcceptedMillis = now.get();
+            } catch (AdmissionRejectedException e) {
+                longestRejectedMillis = Math.max(longestRejectedMillis, now.get() - lastAcceptedMillis);
+            }
+            now.addAndGet(intervalMillis);
+        }
+
+        //then
+        // 가득 찬 뒤에도 늦어도 ttl + 버킷 하나 안에 새 키를 다시 받는다.
+        assertThat(longestRejectedMillis).isLessThanOrEqualTo(TTL_MILLIS + TTL_MILLIS / 16);
+        // ttl 이 지날 때마다 max-keys 만큼 자리가 다시 난다.
+        assertThat(accepted).isGreaterThanOrEqualTo(maxKeys * 4);
+        assertThat(store.size()).isLessThanOrEqualTo(maxKeys);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
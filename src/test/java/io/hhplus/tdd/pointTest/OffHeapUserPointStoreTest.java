@@ -0,0 +1,123 @@
+package io.hhplus.tdd.pointTest;
+
+import io.hhplus.tdd.point.UserPoint;
+import io.hhplus.tdd.store.OffHeapUserPointStore;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OffHeapUserPointStoreTest {
+
+    /**
+     * 작성 이유 : 저장한 잔액과 시각을 그대로 돌려주고, 없는 유저는 테이블처럼 잔액 0 으로 돌려주는지 확인
+     */
+    @Test
+    @DisplayName("저장한 잔액을 조회하고, 없는 유저는 잔액 0 이다")
+    void insertOrUpdate_thenSelect_returnSaved() {
+        //given
+        OffHeapUserPointStore store = new OffHeapUserPointStore(16, 4);
+
+        //when
+        UserPoint saved = store.insertOrUpdate(1L, 100L);
+        store.insertOrUpdate(2L, 200L);
+        UserPoint updated = store.insertOrUpdate(1L, 50L);
+
+        //then
+        assertThat(store.selectById(1L)).isEqualTo(updated);
+        assertThat(store.selectById(1L).point()).isEqualTo(50L);
+        assertThat(store.selectById(2L).point()).isEqualTo(200L);
+        assertThat(store.selectById(3L).point()).isZero();
+        assertThat(saved.point()).isEqualTo(100L);
+        assertThat(store.size()).isEqualTo(2);
+    }
+
+    /**
+     * 작성 이유 : 빈 슬롯 표시와 겹치는 id 0 과 음수 id 도 다른 유저와 섞이지 않고 저장되는지 확인
+     */
+    @Test
+    @DisplayName("id 0 과 음수 id 도 저장한다")
+    void insertOrUpdate_zeroAndNegativeId_stored() {
+        //given
+        OffHeapUserPointStore store = new OffHeapUserPointStore(16, 1);
+
+        //when
+        store.insertOrUpdate(0L, 10L);
+        store.insertOrUpdate(-1L, 20L);
+        store.insertOrUpdate(Long.MIN_VALUE, 30L);
+
+        //then
+        assertThat(store.selectById(0L).point()).isEqualTo(10L);
+        assertThat(store.selectById(-1L).point()).isEqualTo(20L);
+        assertThat(store.selectById(Long.MIN_VALUE).point()).isEqualTo(30L);
+        assertThat(store.size()).isEqualTo(3);
+    }
+
+    /**
+     * 작성 이유 : 예상보다 많은 유저를 넣어도 버퍼를 늘려가며 기존 잔액을 잃지 않는지 확인
+     */
+    @Test
+    @DisplayName("예상 유저 수를 넘으면 버퍼를 늘리고 기존 잔액을 유지한다")
+    void insertOrUpdate_overExpected_resizeKeepValues() {
+        //given
+        OffHeapUserPointStore store = new OffHeapUserPointStore(16, 4);
+        long before = store.offHeapBytes();
+
+        //when
+        for (long id = 1; id <= 100_000; id++) {
+            store.insertOrUpdate(id, id * 10);
+        }
+
+        //then
+        assertThat(store.size()).isEqualTo(100_000);
+        assertThat(store.offHeapBytes()).isGreaterThan(before);
+        for (long id = 1; id <= 100_000; id++) {
+            assertThat(store.selectById(id).point()).isEqualTo(id * 10);
+        }
+    }
+
+    /**
+     * 작성 이유 : 여러 스레드가 같은 stripe 의 유저들을 동시에 갱신하고 조회해도(버퍼를 옮기는 중에도) 값이 섞이거나 사라지지 않는지 확인
+     */
+    @Test
+    @DisplayName("동시에 갱신하고 조회해도 유저별 마지막 잔액이 남는다")
+    void insertOrUpdate_concurrently_keepLastValues() throws Exception {
+        //given
+        OffHeapUserPointStore store = new OffHeapUserPointStore(16, 2);
+        int threads = 8;
+        int usersPerThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        //when
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long base = (long) t * usersPerThread;
+            futures.add(executor.submit(() -> {
+                boolean readOwnWrites = true;
+                for (int round = 1; round <= 3; round++) {
+                    for (long id = base; id < base + usersPerThread; id++) {
+                        store.insertOrUpdate(id, id * round);
+                        readOwnWrites &= store.selectById(id).point() == id * round;
+                    }
+                }
+                return readOwnWrites;
+            }));
+        }
+        for (Future<Boolean> future : futures) {
+            assertThat(future.get()).isTrue();
+        }
+        executor.shutdown();
+
+        //then
+        assertThat(store.size()).isEqualTo((long) threads * usersPerThread);
+        for (long id = 0; id < (long) threads * usersPerThread; id++) {
+            assertThat(store.selectById(id).point()).isEqualTo(id * 3);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package io.hhplus.tdd.pointTest;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.hhplus.tdd.exception.ServiceException;
+import io.hhplus.tdd.point.UserPoint;
+import io.hhplus.tdd.point.PointBatchCommand;
+import io.hhplus.tdd.point.PointBatchResult;
+import io.hhplus.tdd.point.PointBatchService;
+import io.hhplus.tdd.point.TransactionType;
+import io.hhplus.tdd.pointTest.support.InMemoryPointHistoryTable;
+import io.hhplus.tdd.pointTest.support.InMemoryUserPointTable;
+import io.hhplus.tdd.pointTest.support.PointFixture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PointBatchServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private PointFixture fixture;
+    private PointBatchService pointBatchService;
+
+    private void setUp(long latencyMillis, int chunkSize) {
+        fixture = PointFixture.inMemory(latencyMillis);
+        pointBatchService = new PointBatchService(fixture.pointService, fixture.pointClusterRouter, objectMapper, chunkSize, 8, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pointBatchService.stop();
+        fixture.close();
+    }
+
+    /**
+     * 작성 이유 : 여러 유저가 섞인 요청이 유저별로 순서대로 검증/적용되고, 결과는 요청 순서대로 돌아오는지 확인
+     */
+    @Test
+    @DisplayName("일괄 요청 결과는 요청 순서대로 돌아오고 유저별로 잔액 저장은 한 번이다")
+    void apply_mixedUsers_resultsInRequestOrder() {
+        //given
+        setUp(0, 100);
+        List<PointBatchCommand> commands = List.of(
+                new PointBatchCommand(1L, TransactionType.CHARGE, 100L),
+                new PointBatchCommand(2L, TransactionType.USE, 10L),
+                new PointBatchCommand(1L, TransactionType.USE, 30L),
+                new PointBatchCommand(2L, TransactionType.CHARGE, 50L),
+                new PointBatchCommand(1L, TransactionType.USE, 100L),
+                new PointBatchCommand(2L, null, 10L)
+        );
+
+        //when
+        List<PointBatchResult> results = pointBatchService.apply(commands);
+
+        //then
+        assertThat(results).extracting(PointBatchResult::userId).containsExactly(1L, 2L, 1L, 2L, 1L, 2L);
+        assertThat(results).extracting(PointBatchResult::success).containsExactly(true, false, true, true, false, false);
+        assertThat(results).extracting(PointBatchResult::point).containsExactly(100L, 0L, 70L, 50L, 70L, 50L);
+        assertThat(results.get(5).errorCode()).isEqualTo(PointErrorCode.INVALID_TRANSACTION_TYPE.name());
+        assertThat(fixture.pointService.getUserPoint(1L).point()).isEqualTo(70L);
+        assertThat(fixture.pointService.getUserPoint(2L).point()).isEqualTo(50L);
+        assertThat(fixture.pointService.getPointHistory(1L)).hasSize(2);
+        assertThat(fixture.pointService.getPointHistory(2L)).hasSize(1);
+        assertThat(fixture.meterRegistry.get("point.table").tag("table", "user_point").tag("access", "write").timer().count())
+                .isEqualTo(2L);
+    }
+
+    /**
+     * 작성 이유 : chunk 단위로 나눠 읽고 써도 같은 유저의 요청이 순서대로 적용되고, 응답 배열이 요청 배열과 1:1 로 대응하는지 확인
+     */
+    @Test
+    @DisplayName("JSON 배열을 chunk 로 나눠 처리해도 요청 순서대로 적용하고 응답한다")
+    void process_streamInChunks_keepOrderAcrossChunks() throws Exception {
+        //given
+        setUp(0, 3);
+        List<PointBatchCommand> commands = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            commands.add(new PointBatchCommand(1L, TransactionType.CHARGE, 10L));
+            commands.add(new PointBatchCommand(1L, TransactionType.USE, 15L));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //when
+        pointBatchService.process(new ByteArrayInputStream(objectMapper.writeValueAsBytes(commands)), out);
+
+        //then
+        List<PointBatchResult> results = objectMapper.readValue(out.toByteArray(), new TypeReference<>() {
+        });
+        assertThat(results).hasSize(commands.size());
+        // 10 충전 → 15 사용 거절 → 20 → 5 → 15 → 0 → 10 → 거절 ...
+        assertThat(results.get(1).success()).isFalse();
+        assertThat(results.get(3).point()).isEqualTo(5L);
+        assertThat(results.get(5).point()).isEqualTo(0L);
+        long expected = 0L;
+        for (int i = 0; i < commands.size(); i++) {
+            PointBatchCommand command = commands.get(i);
+            if (command.type() == TransactionType.CHARGE) {
+                expected += command.amount();
+            } else if (expected >= command.amount()) {
+                expected -= command.amount();
+            }
+            assertThat(results.get(i).point()).isEqualTo(expected);
+        }
+        assertThat(fixture.pointService.getUserPoint(1L).point()).isEqualTo(expected);
+    }
+
+    /**
+     * 작성 이유 : 여러 유저의 요청을 섞어 보내도 유저별 최종 잔액과 내역 수가 정확한지 확인
+     */
+    @Test
+    @DisplayName("여러 유저의 일괄 요청을 병렬로 처리해도 유저별 잔액이 정확하다")
+    void apply_manyUsers_balancesAreExact() {
+        //given
+        setUp(1, 10_000);
+        int userCount = 200;
+        List<PointBatchCommand> commands = new ArrayList<>();
+        for (long id = 1; id <= userCount; id++) {
+            for (int i = 0; i < 5; i++) {
+                commands.add(new PointBatchCommand(id, TransactionType.CHARGE, 100L));
+                commands.add(new PointBatchCommand(id, TransactionType.USE, 30L));
+            }
+        }
+        Collections.shuffle(commands);
+
+        //when
+        List<PointBatchResult> results = pointBatchService.apply(commands);
+
+        //then
+        assertThat(results).hasSize(commands.size());
+        for (long id = 1; id <= userCount; id++) {
+            // 섞인 순서 때문에 잔액이 모자란 시점의 사용 요청은 거절될 수 있다.
+            long usedCount = 5 - countRejected(results, id);
+            assertThat(fixture.pointService.getUserPoint(id).point()).isEqualTo(5 * 100L - usedCount * 30L);
+            assertThat((long) fixture.pointService.getPointHistory(id).size()).isEqualTo(5 + usedCount);
+        }
+    }
+
+    /**
+     * 작성 이유 : 중간 chunk 에서 저장소 오류가 나도 앞 chunk 까지 쓴 응답을 깨지 않고, 실패한 요청만 실패 결과로 남긴 채 배열을 끝까지 쓰는지 확인
+     */
+    @Test
+    @DisplayName("한 chunk 에서 저장소 오류가 나도 그 유저의 요청만 실패로 응답하고 나머지는 끝까지 처리한다")
+    void process_storeFailsInOneChunk_failOnlyThatUserAndFinishArray() throws Exception {
+        //given
+        // 유저 2 의 잔액 조회만 실패하는 테이블. 잔액 저장은 테이블에 나중에 쓰므로 요청이 겪는 테이블 오류는 조회 오류다.
+        InMemoryUserPointTable userPointTable = new InMemoryUserPointTable(0) {
+            @Override
+            public UserPoint selectById(Long id) {
+                if (id == 2L) {
+                    throw new IllegalStateException("조회 실패");
+                }
+                return super.selectById(id);
+            }
+        };
+        fixture = new PointFixture(userPointTable, new InMemoryPointHistoryTable(0), 100);
+        pointBatchService = new PointBatchService(fixture.pointService, fixture.pointClusterRouter, objectMapper, 2, 8, false);
+        List<PointBatchCommand> commands = List.of(
+                new PointBatchCommand(1L, TransactionType.CHARGE, 10L),
+                new PointBatchCommand(1L, TransactionType.CHARGE, 10L),
+                new PointBatchCommand(2L, TransactionType.CHARGE, 10L),
+                new PointBatchCommand(1L, TransactionType.CHARGE, 10L),
+                new PointBatchCommand(1L, TransactionType.CHARGE, 10L)
+        );
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //when
+        pointBatchService.process(new ByteArrayInputStream(objectMapper.writeValueAsBytes(commands)), out);
+
+        //then
+        List<PointBatchResult> results = objectMapper.readValue(out.toByteArray(), new TypeReference<>() {
+        });
+        assertThat(results).hasSize(commands.size());
+        assertThat(results).extracting(PointBatchResult::success).containsExactly(true, true, false, true, true);
+        assertThat(results.get(2).errorCode()).isEqualTo(PointErrorCode.BATCH_FAILED.name());
+        assertThat(results.get(4).point()).isEqualTo(40L);
+        assertThat(fixture.pointService.getUserPoint(1L).point()).isEqualTo(40L);
+    }
+
+    /**
+     * 작성 이유 : 배열 중간에 객체가 아닌 항목이 있어도 읽기를 멈추지 않고, 그 항목만 실패 결과로 남긴 채 뒤의 요청까지 처리하는지 확인
+     * 객체가 아닌 항목에서 읽기를 멈추면 뒤의 요청은 응답 없이 버려지고, 응답은 완전한 배열처럼 보인다.
+     */
+    @Test
+    @DisplayName("객체가 아닌 항목은 INVALID_BATCH_ITEM 으로 응답하고 뒤의 요청도 처리한다")
+    void process_nonObjectItems_failOnlyThoseItems() throws Exception {
+        //given
+        setUp(0, 2);
+        String body = "[{\"userId\":1,\"type\":\"CHARGE\",\"amount\":10}, null, 5, \"x\", [1, {\"userId\":1}],"
+                + " {\"userId\":1,\"type\":\"CHARGE\",\"amount\":10}]";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //when
+        pointBatchService.process(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), out);
+
+        //then
+        List<PointBatchResult> results = objectMapper.readValue(out.toByteArray(), new TypeReference<>() {
+        });
+        assertThat(results).hasSize(6);
+        assertThat(results).extracting(PointBatchResult::success).containsExactly(true, false, false, false, false, true);
+        assertThat(results.subList(1, 5)).extracting(PointBatchResult::errorCode)
+                .containsOnly(PointErrorCode.INVALID_BATCH_ITEM.name());
+        assertThat(results.get(5).point()).isEqualTo(20L);
+        assertThat(fixture.pointService.getUserPoint(1L).point()).isEqualTo(20L);
+    }
+
+    /**
+     * 작성 이유 : JSON 형식이 깨진 요청은 400 으로 거절하고, 이미 쓴 응답은 배열을 닫지 않아 완전한 결과로 읽히지 않는지 확인
+     */
+    @Test
+    @DisplayName("JSON 형식이 깨진 일괄 요청은 거절하고 응답 배열을 닫지 않는다")
+    void process_malformedJson_rejectWithoutClosingArray() {
+        //given
+        setUp(0, 1);
+        String body = "[{\"userId\":1,\"type\":\"CHARGE\",\"amount\":10}, {\"userId\":";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //when
+        //then
+        assertThatThrownBy(() -> pointBatchService.process(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), out))
+                .isInstanceOf(ServiceException.class);
+        assertThat(out.toString(StandardCharsets.UTF_8)).startsWith("[").doesNotEndWith("]");
+    }
+
+    private static long countRejected(List<PointBatchResult> results, long userId) {
+        return results.stream()
+                .filter(result -> result.userId() == userId && !result.success())
+                .count();
+    }
+}
@@ -0,0 +1,419 @@
+package io.hhplus.tdd.pointTest;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hhplus.tdd.TddApplication;
+import io.hhplus.tdd.cluster.ClusterMembership;
+import io.hhplus.tdd.cluster.PointClusterRouter;
+import io.hhplus.tdd.cluster.PointHandoff;
+import io.hhplus.tdd.cluster.RebalanceReport;
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.hhplus.tdd.index.PointHistoryIndex;
+import io.hhplus.tdd.point.PointBatchCommand;
+import io.hhplus.tdd.point.PointBatchResult;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+import io.hhplus.tdd.point.UserPoint;
+import io.hhplus.tdd.point.UserPointRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 한 JVM 에 노드(Spring 컨텍스트)를 여러 개 랜덤 포트로 띄워서 클러스터 라우팅과 재배치를 확인한다.
+ * - 실제 throttle 이 있는 테이블을 그대로 사용한다.
+ * - 노드 구성을 바꾸는 중에는 503 이 올 수 있으므로 클라이언트는 Idempotency-Key 를 붙여 다시 시도한다.
+ */
+public class PointClusterTest {
+
+    private static final String SECRET = "cluster-test-secret";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    /**
+     * 작성 이유 : 어느 노드로 요청해도 담당 노드 한 곳에서만 잔액과 내역이 바뀌고, 모든 노드에서 같은 값이 조회되는지 확인
+     */
+    @Test
+    @DisplayName("어느 노드로 요청해도 담당 노드 한 곳의 잔액과 내역이 바뀐다")
+    void chargeAndUse_anyNode_appliedOnOwnerOnly() throws Exception {
+        //given
+        List<String> urls = List.of(startNode(), startNode(), startNode());
+        changeNodes(urls.get(0), urls);
+
+        //when
+        for (long userId = 1; userId <= 30; userId++) {
+            charge(urls.get((int) (userId % 3)), userId, 1_000L);
+            use(urls.get((int) ((userId + 1) % 3)), userId, userId);
+        }
+
+        //then
+        for (long userId = 1; userId <= 30; userId++) {
+            for (String url : urls) {
+                assertThat(point(url, userId).point()).isEqualTo(1_000L - userId);
+                assertThat(histories(url, userId)).extracting(PointHistory::type)
+                        .containsExactly(TransactionType.CHARGE, TransactionType.USE);
+            }
+            assertThat(ownerCount(userId)).isEqualTo(1);
+        }
+    }
+
+    /**
+     * 작성 이유 : 노드가 들어오고 나갈 때 담당이 바뀐 유저의 잔액과 내역을 새 담당 노드로 옮겨서, 나간 노드를 내린 뒤에도 그대로 조회되는지 확인
+     */
+    @Test
+    @DisplayName("노드가 들어오고 나가도 옮겨진 유저의 잔액과 내역이 유지된다")
+    void changeNodes_joinAndLeave_handOffUsers() throws Exception {
+        //given
+        List<String> urls = new ArrayList<>(List.of(startNode(), startNode(), startNode()));
+        changeNodes(urls.get(0), urls);
+        for (long userId = 1; userId <= 60; userId++) {
+            charge(urls.get((int) (userId % 3)), userId, userId * 10);
+        }
+
+        //when
+        urls.add(startNode());
+        RebalanceReport joined = changeNodes(urls.get(1), urls);
+        String leaving = urls.remove(0);
+        RebalanceReport left = changeNodes(urls.get(0), urls);
+        nodes.remove(0).close();
+
+        //then
+        assertThat(joined.nodes()).hasSize(4);
+        assertThat(joined.movedUsers()).isPositive();
+        assertThat(left.nodes()).doesNotContain(leaving);
+        assertThat(left.movedUsers()).isPositive();
+        for (long userId = 1; userId <= 60; userId++) {
+            for (String url : urls) {
+                assertThat(point(url, userId).point()).isEqualTo(userId * 10);
+                assertThat(histories(url, userId)).extracting(PointHistory::amount).containsExactly(userId * 10);
+            }
+            assertThat(ownerCount(userId)).isEqualTo(1);
+        }
+    }
+
+    /**
+     * 작성 이유 : 내역 없이 잔액만 있는 유저도 옮기고, 한 번에 넘기는 수(256명)보다 많은 유저를 옮겨도 요청 하나의 제한 시간 안에 끝나는지 확인
+     */
+    @Test
+    @DisplayName("내역 없이 잔액만 있는 유저를 많이 옮겨도 잔액이 유지된다")
+    void changeNodes_manyBalanceOnlyUsers_handOffAll() throws Exception {
+        //given
+        String first = startNode();
+        changeNodes(first, List.of(first));
+        int userCount = 1_000;
+        // 충전 API 를 거치지 않고 잔액만 저장해서 내역이 없는 유저를 만든다.
+        UserPointRepository userPointRepository = nodes.get(0).getBean(UserPointRepository.class);
+        for (long userId = 1; userId <= userCount; userId++) {
+            userPointRepository.useOrChargePointById(userId, userId * 10);
+        }
+        List<String> urls = List.of(first, startNode());
+
+        //when
+        RebalanceReport joined = changeNodes(first, urls);
+
+        //then
+        assertThat(joined.movedUsers()).isGreaterThan(256L);
+        for (long userId = 1; userId <= userCount; userId++) {
+            for (String url : urls) {
+                assertThat(point(url, userId).point()).isEqualTo(userId * 10);
+            }
+        }
+    }
+
+    /**
+     * 작성 이유 : 노드 구성을 바꾸는 중에 들어온 충전도 옮기기 전/후 어느 한쪽에 한 번만 반영되어 잃어버리지 않는지 확인
+     */
+    @Test
+    @DisplayName("노드 구성을 바꾸는 중에 들어온 충전을 잃지 않는다")
+    void changeNodes_duringTraffic_noLostCharge() throws Exception {
+        //given
+        int users = 20;
+        List<String> urls = new ArrayList<>(List.of(startNode(), startNode()));
+        changeNodes(urls.get(0), urls);
+        AtomicLongArray charged = new AtomicLongArray(users + 1);
+        AtomicBoolean stop = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> traffic = new ArrayList<>();
+        for (int client = 0; client < 8; client++) {
+            List<String> entries = List.copyOf(urls);
+            traffic.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (!stop.get()) {
+                    int userId = random.nextInt(1, users + 1);
+                    charge(entries.get(random.nextInt(entries.size())), userId, 1L);
+                    charged.incrementAndGet(userId);
+                }
+                return null;
+            }));
+        }
+
+        //when
+        Thread.sleep(1_000);
+        urls.add(startNode());
+        changeNodes(urls.get(0), urls);
+        Thread.sleep(1_000);
+        stop.set(true);
+        for (Future<?> future : traffic) {
+            future.get();
+        }
+        executor.shutdown();
+
+        //then
+        for (int userId = 1; userId <= users; userId++) {
+            assertThat(point(urls.get(2), userId).point()).isEqualTo(charged.get(userId));
+            assertThat(histories(urls.get(0), userId)).hasSize((int) charged.get(userId));
+            assertThat(ownerCount(userId)).isEqualTo(1);
+        }
+    }
+
+    /**
+     * 작성 이유 : 일괄 처리는 담당 노드로 전달하지 않으므로, 받은 노드가 담당하는 유저만 반영하고
+     * 다른 노드가 담당하는 유저는 반영하지 않고 NOT_OWNER 로 돌려주는지 확인
+     */
+    @Test
+    @DisplayName("담당 노드가 섞인 일괄 요청은 이 노드가 담당하는 유저만 반영하고 나머지는 NOT_OWNER 로 돌려준다")
+    void batch_mixedOwners_applyOnlyLocalUsers() throws Exception {
+        //given
+        List<String> urls = List.of(startNode(), startNode());
+        changeNodes(urls.get(0), urls);
+        List<PointBatchCommand> commands = new ArrayList<>();
+        for (long userId = 1; userId <= 20; userId++) {
+            commands.add(new PointBatchCommand(userId, TransactionType.CHARGE, 100L));
+        }
+
+        //when
+        HttpRequest request = HttpRequest.newBuilder(URI.create(urls.get(0) + "/point/batch"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(commands)))
+                .build();
+        List<PointBatchResult> results = objectMapper.readValue(send(request), new TypeReference<>() {
+        });
+
+        //then
+        assertThat(results).hasSize(commands.size());
+        assertThat(results).extracting(PointBatchResult::success).contains(true, false);
+        for (PointBatchResult result : results) {
+            long userId = result.userId();
+            if (result.success()) {
+                assertThat(point(urls.get(1), userId).point()).isEqualTo(100L);
+                assertThat(ownerCount(userId)).isEqualTo(1);
+            } else {
+                assertThat(result.errorCode()).isEqualTo(PointErrorCode.NOT_OWNER.name());
+                assertThat(point(urls.get(1), userId).point()).isZero();
+                assertThat(ownerCount(userId)).isZero();
+            }
+        }
+    }
+
+    /**
+     * 작성 이유 : 잔액을 덮어쓰거나 유저를 넘기는 클러스터 API 를 secret 없이 호출하면 거절하고, 클러스터 모드가 아니면 API 자체가 없는지 확인
+     */
+    @Test
+    @DisplayName("secret 없이 클러스터 API 를 호출하면 403 이고, 클러스터 모드가 아니면 404 다")
+    void clusterApi_withoutSecretOrDisabled_reject() throws Exception {
+        //given
+        String url = startNode();
+        changeNodes(url, List.of(url));
+        charge(url, 1L, 100L);
+        ConfigurableApplicationContext standalone = new SpringApplicationBuilder(TddApplication.class)
+                .properties("server.port=0", "point.history.shutdown-timeout-ms=1000")
+                .run();
+        nodes.add(standalone);
+        String standaloneUrl = "http://localhost:" + ((WebServerApplicationContext) standalone).getWebServer().getPort();
+        byte[] forged = objectMapper.writeValueAsBytes(List.of(new PointHandoff(1L, 999_999_999L, List.of())));
+
+        //when
+        int withoutSecret = post(url + "/cluster/handoff", forged, null);
+        int wrongSecret = post(url + "/cluster/rebalance/prepare", objectMapper.writeValueAsBytes(List.of("http://attacker")), "wrong");
+        int disabled = post(standaloneUrl + "/cluster/handoff", forged, null);
+
+        //then
+        assertThat(withoutSecret).isEqualTo(403);
+        assertThat(wrongSecret).isEqualTo(403);
+        assertThat(disabled).isEqualTo(404);
+        assertThat(point(url, 1L).point()).isEqualTo(100L);
+        assertThat(histories(url, 1L)).hasSize(1);
+        assertThat(membership(url).nextNodes()).isNull();
+    }
+
+    /**
+     * 작성 이유 : 노드 하나가 처리할 수 있는 양(Tomcat 스레드 수)이 정해져 있을 때, 노드를 늘리면 전체 처리량이 늘어나는지 확인
+     * 요청은 아무 노드로나 보내므로 다른 노드로 전달하는 비용까지 포함한다. ./gradlew test -DloadTest=true 로 실행한다.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "loadTest", matches = "true")
+    @DisplayName("노드 1대 대비 3대의 전체 충전 처리량 비교")
+    void compareChargesPerSecond_oneVsThreeNodes() throws Exception {
+        double[] chargesPerSecond = new double[2];
+        int[] nodeCounts = {1, 3};
+
+        for (int mode = 0; mode < nodeCounts.length; mode++) {
+            List<String> urls = new ArrayList<>();
+            for (int i = 0; i < nodeCounts[mode]; i++) {
+                urls.add(startNode("server.tomcat.threads.max=8"));
+            }
+            changeNodes(urls.get(0), urls);
+            chargesPerSecond[mode] = chargesPerSecond(urls, 200, Duration.ofSeconds(20));
+            nodes.forEach(ConfigurableApplicationContext::close);
+            nodes.clear();
+        }
+
+        System.out.printf("nodes=1 %.1f charges/s, nodes=3 %.1f charges/s%n", chargesPerSecond[0], chargesPerSecond[1]);
+        assertThat(chargesPerSecond[1]).isGreaterThan(chargesPerSecond[0] * 1.4);
+    }
+
+    private String startNode(String... properties) {
+        List<String> all = new ArrayList<>(List.of(
+                "server.port=0",
+                "point.cluster.enabled=true",
+                "point.cluster.secret=" + SECRET,
+                // 거절 없이 라우팅만 비교한다.
+                "point.admission.enabled=false",
+                "point.history.shutdown-timeout-ms=1000"
+        ));
+        all.addAll(List.of(properties));
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(TddApplication.class)
+                .properties(all.toArray(String[]::new))
+                .run();
+        nodes.add(context);
+        return "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    /**
+     * 유저의 내역이 인덱스에 있는 노드 수
+     */
+    private long ownerCount(long userId) {
+        return nodes.stream()
+                .filter(context -> context.getBean(PointHistoryIndex.class).countByUserId(userId) > 0)
+                .count();
+    }
+
+    private RebalanceReport changeNodes(String url, List<String> urls) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url + "/cluster/nodes"))
+                .header("Content-Type", "application/json")
+                .header(PointClusterRouter.SECRET_HEADER, SECRET)
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(urls)))
+                .build();
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        assertThat(response.statusCode()).isEqualTo(200);
+        return objectMapper.readValue(response.body(), RebalanceReport.class);
+    }
+
+    private int post(String uri, byte[] body, String secret) throws Exception {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(uri))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+        if (secret != null) {
+            builder.header(PointClusterRouter.SECRET_HEADER, secret);
+        }
+        return httpClient.send(builder.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private ClusterMembership membership(String url) throws Exception {
+        return objectMapper.readValue(send(HttpRequest.newBuilder(URI.create(url + "/cluster/nodes")).GET().build()), ClusterMembership.class);
+    }
+
+    private UserPoint charge(String url, long userId, long amount) throws Exception {
+        return patch(url + "/point/" + userId + "/charge", amount);
+    }
+
+    private UserPoint use(String url, long userId, long amount) throws Exception {
+        return patch(url + "/point/" + userId + "/use", amount);
+    }
+
+    private UserPoint point(String url, long userId) throws Exception {
+        return objectMapper.readValue(send(HttpRequest.newBuilder(URI.create(url + "/point/" + userId)).GET().build()), UserPoint.class);
+    }
+
+    private List<PointHistory> histories(String url, long userId) throws Exception {
+        return objectMapper.readValue(send(HttpRequest.newBuilder(URI.create(url + "/point/" + userId + "/histories")).GET().build()),
+                new TypeReference<>() {
+                });
+    }
+
+    /**
+     * 재시도해도 한 번만 반영되도록 요청마다 Idempotency-Key 를 붙인다.
+     */
+    private UserPoint patch(String uri, long amount) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(uri))
+                .header("Content-Type", "application/json")
+                .header("Idempotency-Key", UUID.randomUUID().toString())
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(String.valueOf(amount)))
+                .build();
+        return objectMapper.readValue(send(request), UserPoint.class);
+    }
+
+    /**
+     * 503 이면 잠시 뒤 다시 보낸다. 그 외 실패는 바로 테스트를 실패시킨다.
+     */
+    private byte[] send(HttpRequest request) throws Exception {
+        while (true) {
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() == 200) {
+                return response.body();
+            }
+            assertThat(response.statusCode()).as(new String(response.body())).isEqualTo(503);
+            Thread.sleep(10);
+        }
+    }
+
+    private double chargesPerSecond(List<String> urls, int clients, Duration duration) throws Exception {
+        AtomicInteger succeeded = new AtomicInteger();
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>(clients);
+            for (int client = 0; client < clients; client++) {
+                long userId = client;
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        try {
+                            charge(urls.get(random.nextInt(urls.size())), userId, 1L);
+                            succeeded.incrementAndGet();
+                        } catch (IOException e) {
+                            // 연결 거부/타임아웃은 실패로 보고 처리량에서 제외한다.
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return succeeded.get() / ((System.nanoTime() - start) / 1e9);
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package io.hhplus.tdd.pointTest;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hhplus.tdd.cluster.PointClusterRouter;
+import io.hhplus.tdd.event.PointEventBus;
+import io.hhplus.tdd.exception.PointErrorCode;
 import io.hhplus.tdd.exception.PointServiceException;
+import io.hhplus.tdd.metrics.PointMetrics;
 import io.hhplus.tdd.point.*;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -10,15 +14,28 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.web.bind.annotation.PatchMapping;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 
@@ -34,6 +51,18 @@ public class PointControllerTest {
     @MockBean
     PointService pointService;
 
+    @MockBean
+    PointBatchService pointBatchService;
+
+    @MockBean
+    PointEventBus pointEventBus;
+
+    @MockBean
+    PointMetrics pointMetrics;
+
+    @MockBean
+    PointClusterRouter pointClusterRouter;
+
     @Test
     @DisplayName("GET point/{id} 특정 유저의 포인트를 조회하는 기능")
     void getPoint_returnSucces() throws Exception {
@@ -93,6 +122,29 @@ public class PointControllerTest {
                 .andExpect(jsonPath("$.point").value(100L));
     }
 
+    /**
+     * Idempotency-Key 헤더를 붙인 포인트 충전
+     */
+    @Test
+    @DisplayName("PATCH /point/{id}/charge Idempotency-Key 헤더를 서비스로 전달한다")
+    void chargeUserPoint_withIdempotencyKey_returnSuccess() throws Exception {
+        //given
+        long id = 1L;
+        UserPoint userPoint = new UserPoint(id, 100L, Instant.parse("2025-11-30T00:00:00Z").toEpochMilli());
+        //when
+        when(pointService.chargeUserPoint(id, 100L, "key-1")).thenReturn(userPoint);
+        //then
+        mockMvc.perform(
+                        patch("/point/{id}/charge", 1L)
+                                .header("Idempotency-Key", "key-1")
+                                .content("100")
+                                .contentType(MediaType.APPLICATION_JSON)
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.point").value(100L));
+        verify(pointService, never()).chargeUserPoint(id, 100L);
+    }
+
     /**
      * 포인트 충전 실패
      */
@@ -114,10 +166,35 @@ public class PointControllerTest {
                 )
                 .andExpect(status().is(400))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.code").exists())
+                .andExpect(jsonPath("$.code").value("INVALID_REQUEST"))
                 .andExpect(jsonPath("$.message").value("최소 충전 금액은 " + PointPolicy.MINIMUM_CHARGE + "이상 입니다."));
     }
 
+    /**
+     * 작성 이유 : 거절 사유가 있는 오류는 상태 코드와 상관없이 code 에 거절 사유 이름이 들어가는지 확인
+     * 429/503 응답과 일괄 처리 결과는 거절 사유 이름을 쓰므로, 400 응답도 같은 방식이어야 클라이언트가 한 가지로 처리한다.
+     */
+    @Test
+    @DisplayName("PATCH /point/{id}/use 잔액 부족은 400 과 거절 사유 이름으로 응답한다")
+    void usePoint_insufficient_returnErrorCodeName() throws Exception {
+        //given
+        long id = 1L;
+        long useAmount = 1_000L;
+
+        //when
+        when(pointService.useUserPoint(id, useAmount)).thenThrow(PointServiceException.of(PointErrorCode.INSUFFICIENT_POINT));
+
+        //then
+        mockMvc.perform(
+                        patch("/point/{id}/use", id)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(String.valueOf(useAmount))
+                )
+                .andExpect(status().is(400))
+                .andExpect(jsonPath("$.code").value(PointErrorCode.INSUFFICIENT_POINT.name()))
+                .andExpect(jsonPath("$.message").value(PointErrorCode.INSUFFICIENT_POINT.getMessage()));
+    }
+
     /**
      * 포인트 정상 사용
      */
@@ -141,4 +218,157 @@ public class PointControllerTest {
                 .andExpect(jsonPath("$.id").value(id))
                 .andExpect(jsonPath("$.point").value(90L));
     }
+
+    /**
+     * 일괄 충전/사용
+     */
+    @Test
+    @DisplayName("POST /point/batch 요청 본문을 일괄 처리에 넘기고 결과 배열을 응답한다")
+    void batch_returnResults() throws Exception {
+        //given
+        List<PointBatchResult> results = List.of(
+                new PointBatchResult(1L, TransactionType.CHARGE, 100L, true, 100L, 1L, null, null),
+                new PointBatchResult(2L, TransactionType.USE, 100L, false, 0L, 0L, "INSUFFICIENT_POINT", "사용하려는 포인트는 보유하고 있는 포인트보다 작아야 합니다.")
+        );
+        //when
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write(mapper.writeValueAsString(results).getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(pointBatchService).process(any(), any());
+        //then
+        mockMvc.perform(
+                        post("/point/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("[{\"userId\":1,\"type\":\"CHARGE\",\"amount\":100},{\"userId\":2,\"type\":\"USE\",\"amount\":100}]")
+                )
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].success").value(true))
+                .andExpect(jsonPath("$[0].point").value(100L))
+                .andExpect(jsonPath("$[1].success").value(false))
+                .andExpect(jsonPath("$[1].errorCode").value("INSUFFICIENT_POINT"));
+    }
+
+    /**
+     * 포인트 이체
+     */
+    @Test
+    @DisplayName("POST /point/transfer 보낸 유저와 받는 유저의 이체 후 잔액을 응답한다")
+    void transfer_returnBothBalances() throws Exception {
+        //given
+        PointTransferResult result = new PointTransferResult(new UserPoint(1L, 70L, 0L), new UserPoint(2L, 30L, 0L));
+        //when
+        when(pointService.transfer(1L, 2L, 30L)).thenReturn(result);
+        //then
+        mockMvc.perform(
+                        post("/point/transfer")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"fromUserId\":1,\"toUserId\":2,\"amount\":30}")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.from.point").value(70L))
+                .andExpect(jsonPath("$.to.point").value(30L));
+    }
+
+    /**
+     * 포인트 내역 페이지 조회
+     */
+    @Test
+    @DisplayName("GET /point/{id}/histories/page 조건을 넘겨 내역 한 페이지를 조회한다")
+    void getPointHistoryPage_returnSuccess() throws Exception {
+        //given
+        long id = 1L;
+        PointHistoryQuery query = new PointHistoryQuery(10L, 2, PointHistoryOrder.DESC, TransactionType.USE, null, null);
+        PointHistoryPage page = new PointHistoryPage(List.of(
+                new PointHistory(8L, id, 100L, TransactionType.USE, 8L),
+                new PointHistory(6L, id, 200L, TransactionType.USE, 6L)
+        ), 6L);
+        //when
+        when(pointService.getPointHistoryPage(id, query)).thenReturn(page);
+        //then
+        mockMvc.perform(get("/point/{id}/histories/page", id)
+                        .param("cursor", "10")
+                        .param("limit", "2")
+                        .param("type", "USE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(8L))
+                .andExpect(jsonPath("$.items[1].id").value(6L))
+                .andExpect(jsonPath("$.nextCursor").value(6L));
+    }
+
+    /**
+     * 포인트 내역 스트리밍
+     */
+    @Test
+    @DisplayName("GET /point/{id}/histories/stream 내역을 한 줄에 하나씩 NDJSON 으로 응답한다")
+    void streamPointHistory_returnNdjson() throws Exception {
+        //given
+        long id = 1L;
+        PointHistory first = new PointHistory(1L, id, 300L, TransactionType.CHARGE, 1L);
+        PointHistory second = new PointHistory(2L, id, 200L, TransactionType.USE, 2L);
+        //when
+        when(pointService.streamPointHistory(eq(id), any())).thenReturn(Stream.of(first, second));
+        //then
+        mockMvc.perform(get("/point/{id}/histories/stream", id))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(mapper.writeValueAsString(first) + "\n" + mapper.writeValueAsString(second) + "\n"));
+    }
+
+    /**
+     * 잔액 변경 스트림
+     */
+    @Test
+    @DisplayName("GET /point/{id}/stream 현재 잔액과 이후 바뀐 잔액을 SSE 로 보낸다")
+    void streamUserPoint_sendServerSentEvents() throws Exception {
+        //given
+        long id = 1L;
+        PointEventBus bus = new PointEventBus(16, 15_000, 600_000, 1, false);
+        when(pointEventBus.subscribe(eq(id), any())).thenAnswer(invocation -> bus.subscribe(id, invocation.getArgument(1)));
+        when(pointService.getUserPoint(id)).thenReturn(new UserPoint(id, 100L, 1L));
+        try {
+            //when
+            MvcResult result = mockMvc.perform(get("/point/{id}/stream", id))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            bus.publish(new UserPoint(id, 110L, 2L));
+
+            //then
+            String expected = "event:point\ndata:" + mapper.writeValueAsString(new UserPoint(id, 110L, 2L));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (!result.getResponse().getContentAsString().contains(expected) && System.nanoTime() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+            assertThat(result.getResponse().getContentAsString())
+                    .contains("event:point\ndata:" + mapper.writeValueAsString(new UserPoint(id, 100L, 1L)))
+                    .contains(expected);
+            assertThat(bus.subscriberCount()).isEqualTo(1);
+        } finally {
+            bus.stop();
+        }
+    }
+
+    /**
+     * 포인트 내역 집계
+     */
+    @Test
+    @DisplayName("GET /point/{id}/summary 특정 유저의 내역 집계를 조회한다")
+    void getPointSummary_returnSuccess() throws Exception {
+        //given
+        long id = 1L;
+        PointHistorySummary summary = new PointHistorySummary(id, 500L, 100L,
+                Map.of(TransactionType.CHARGE, 500L, TransactionType.USE, 100L),
+                Map.of(TransactionType.CHARGE, 2L, TransactionType.USE, 1L),
+                10L, 30L);
+        //when
+        when(pointService.getPointSummary(id)).thenReturn(summary);
+        //then
+        mockMvc.perform(get("/point/{id}/summary", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalCharged").value(500L))
+                .andExpect(jsonPath("$.totalUsed").value(100L))
+                .andExpect(jsonPath("$.countByType.CHARGE").value(2L))
+                .andExpect(jsonPath("$.lastUpdateMillis").value(30L));
+    }
 }
@@ -0,0 +1,244 @@
+package io.hhplus.tdd.pointTest;
+
+import io.hhplus.tdd.event.PointEventBus;
+import io.hhplus.tdd.event.PointEventListener;
+import io.hhplus.tdd.point.UserPoint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PointEventBusTest {
+
+    private PointEventBus bus;
+
+    @AfterEach
+    void tearDown() {
+        if (bus != null) {
+            bus.stop();
+        }
+    }
+
+    /**
+     * 작성 이유 : 한 유저의 잔액 변경이 그 유저의 모든 구독자에게 순서대로 가고, 다른 유저의 구독자에게는 가지 않는지 확인
+     */
+    @Test
+    @DisplayName("잔액 변경은 그 유저의 구독자 모두에게 순서대로 전달된다")
+    void publish_fanOutInOrder() throws Exception {
+        //given
+        bus = new PointEventBus(1_000, 60_000, 600_000, 4, false);
+        RecordingListener first = new RecordingListener();
+        RecordingListener second = new RecordingListener();
+        RecordingListener other = new RecordingListener();
+        bus.subscribe(1L, first);
+        bus.subscribe(1L, second);
+        bus.subscribe(2L, other);
+
+        //when
+        for (long point = 1; point <= 100; point++) {
+            bus.publish(new UserPoint(1L, point, point));
+        }
+
+        //then
+        await(() -> first.points.size() == 100 && second.points.size() == 100);
+        assertThat(first.points).isSortedAccordingTo(Long::compare).hasSize(100);
+        assertThat(second.points).isSortedAccordingTo(Long::compare).hasSize(100);
+        assertThat(other.points).isEmpty();
+        assertThat(bus.subscriberCount()).isEqualTo(3);
+    }
+
+    /**
+     * 작성 이유 : 느린 구독자의 버퍼가 가득 차면 쌓인 변경을 버리고 최신 잔액은 반드시 받는지 확인
+     */
+    @Test
+    @DisplayName("느린 구독자는 중간 변경을 건너뛰고 최신 잔액을 받는다")
+    void publish_slowSubscriber_keepLatest() throws Exception {
+        //given
+        bus = new PointEventBus(4, 60_000, 600_000, 4, false);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingListener slow = new RecordingListener() {
+            @Override
+            public void onEvent(UserPoint userPoint) throws IOException {
+                await(release);
+                super.onEvent(userPoint);
+            }
+        };
+        RecordingListener fast = new RecordingListener();
+        bus.subscribe(1L, slow);
+        bus.subscribe(1L, fast);
+
+        //when
+        int publishCount = 1_000;
+        for (long point = 1; point <= publishCount; point++) {
+            bus.publish(new UserPoint(1L, point, point));
+        }
+        release.countDown();
+
+        //then
+        // 빠른 구독자는 느린 구독자에게 막히지 않고 최신 잔액까지 받는다.
+        await(() -> fast.points.contains((long) publishCount) && slow.points.contains((long) publishCount));
+        assertThat(fast.points).isSortedAccordingTo(Long::compare);
+        // 느린 구독자는 (전송 중이던 1건 + 버퍼 크기) 이하만 받는다.
+        assertThat(slow.points).hasSizeLessThanOrEqualTo(5).isSortedAccordingTo(Long::compare);
+        // 발행한 변경은 전달되거나 버린 것으로 집계된다.
+        assertThat(bus.droppedCount()).isEqualTo(2L * publishCount - slow.points.size() - fast.points.size());
+    }
+
+    /**
+     * 작성 이유 : 보내지 못한 구독과 전송이 멈춘 구독은 정리되고, 잔액 변경 없이 heartbeat 만 받는 구독은 idle timeout 이 지나도 유지되는지 확인
+     */
+    @Test
+    @DisplayName("전송에 실패하거나 전송이 멈춘 구독은 끝내고, heartbeat 를 받는 조용한 구독은 유지한다")
+    void subscription_failedOrStuck_removedButQuietKept() throws Exception {
+        //given
+        bus = new PointEventBus(16, 20, 200, 4, false);
+        RecordingListener broken = new RecordingListener() {
+            @Override
+            public void onEvent(UserPoint userPoint) throws IOException {
+                throw new IOException("connection reset");
+            }
+        };
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingListener stuck = new RecordingListener() {
+            @Override
+            public void onHeartbeat() {
+                // 클라이언트가 읽지 않아 쓰기가 끝나지 않는 연결
+                await(release);
+            }
+        };
+        RecordingListener quiet = new RecordingListener();
+        bus.subscribe(1L, broken);
+        bus.subscribe(2L, stuck);
+        bus.subscribe(3L, quiet);
+
+        //when
+        bus.publish(new UserPoint(1L, 10L, 1L));
+
+        //then
+        await(() -> bus.subscriberCount() == 2);
+        await(stuck.closed::get);
+        assertThat(bus.subscriberCount()).isEqualTo(1);
+        // idle timeout(200ms) 의 몇 배가 지나도 heartbeat 를 받는 구독은 닫지 않는다.
+        TimeUnit.MILLISECONDS.sleep(600);
+        assertThat(quiet.closed.get()).isFalse();
+        assertThat(quiet.heartbeats.get()).isPositive();
+        assertThat(broken.closed.get()).isFalse();
+        assertThat(bus.subscriberCount()).isEqualTo(1);
+        release.countDown();
+    }
+
+    /**
+     * 작성 이유 : 한 유저의 마지막 구독 해지와 새 구독이 겹쳐도, 새 구독이 떼어낸 Set 에 들어가 잔액 변경을 못 받는 일이 없는지 확인
+     */
+    @Test
+    @DisplayName("구독 해지와 새 구독이 겹쳐도 새 구독자는 잔액 변경을 받는다")
+    void subscribe_concurrentWithCancel_receiveEvents() throws Exception {
+        //given
+        bus = new PointEventBus(16, 60_000, 600_000, 4, false);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        int rounds = 2_000;
+
+        //when
+        List<RecordingListener> listeners = new ArrayList<>();
+        for (int round = 0; round < rounds; round++) {
+            long userId = round;
+            RecordingListener listener = new RecordingListener();
+            CountDownLatch start = new CountDownLatch(1);
+            Future<?> leaving = executor.submit(() -> {
+                PointEventBus.Subscription subscription = bus.subscribe(userId, new RecordingListener());
+                await(start);
+                subscription.cancel();
+            });
+            Future<?> joining = executor.submit(() -> {
+                await(start);
+                bus.subscribe(userId, listener);
+            });
+            start.countDown();
+            leaving.get();
+            joining.get();
+            bus.publish(new UserPoint(userId, 10L, 1L));
+            listeners.add(listener);
+        }
+        executor.shutdown();
+
+        //then
+        await(() -> listeners.stream().allMatch(listener -> listener.points.size() == 1));
+        assertThat(bus.subscriberCount()).isEqualTo(rounds);
+    }
+
+    /**
+     * 작성 이유 : 구독 직후 보내는 현재 잔액이 그 사이 들어온 더 최신 변경을 덮어쓰지 않는지 확인
+     */
+    @Test
+    @DisplayName("구독 후 변경이 먼저 들어왔으면 현재 잔액은 보내지 않는다")
+    void offerInitial_afterPublish_skip() throws Exception {
+        //given
+        bus = new PointEventBus(16, 60_000, 600_000, 4, false);
+        RecordingListener listener = new RecordingListener();
+        PointEventBus.Subscription subscription = bus.subscribe(1L, listener);
+
+        //when
+        bus.publish(new UserPoint(1L, 20L, 2L));
+        subscription.offerInitial(new UserPoint(1L, 10L, 1L));
+        await(() -> !listener.points.isEmpty());
+        subscription.cancel();
+        bus.publish(new UserPoint(1L, 30L, 3L));
+
+        //then
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertThat(listener.points).isEqualTo(List.of(20L));
+        assertThat(bus.subscriberCount()).isZero();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class RecordingListener implements PointEventListener {
+
+        final List<Long> points = new CopyOnWriteArrayList<>();
+        final AtomicInteger heartbeats = new AtomicInteger();
+        final AtomicBoolean closed = new AtomicBoolean();
+
+        @Override
+        public void onEvent(UserPoint userPoint) throws IOException {
+            points.add(userPoint.point());
+        }
+
+        @Override
+        public void onHeartbeat() {
+            heartbeats.incrementAndGet();
+        }
+
+        @Override
+        public void onClose() {
+            closed.set(true);
+        }
+    }
+}
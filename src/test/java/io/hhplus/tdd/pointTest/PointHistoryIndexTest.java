@@ -0,0 +1,228 @@
+package io.hhplus.tdd.pointTest;
+
+import io.hhplus.tdd.index.PointHistoryIndex;
+import io.hhplus.tdd.point.PointDailySummary;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointHistoryOrder;
+import io.hhplus.tdd.point.PointHistoryPage;
+import io.hhplus.tdd.point.PointHistoryQuery;
+import io.hhplus.tdd.point.PointHistorySummary;
+import io.hhplus.tdd.point.TransactionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PointHistoryIndexTest {
+
+    /**
+     * 작성 이유 : 인덱스가 유저별 내역을 저장 순서대로 그대로 돌려주는지 확인
+     */
+    @Test
+    @DisplayName("유저별 내역을 저장 순서대로 조회한다")
+    void findAllByUserId_returnInsertionOrder() {
+        //given
+        PointHistoryIndex pointHistoryIndex = new PointHistoryIndex();
+        PointHistory first = new PointHistory(1L, 1L, 300L, TransactionType.CHARGE, 10L);
+        PointHistory other = new PointHistory(2L, 2L, 100L, TransactionType.CHARGE, 11L);
+        PointHistory second = new PointHistory(3L, 1L, 200L, TransactionType.USE, 12L);
+
+        //when
+        pointHistoryIndex.append(first);
+        pointHistoryIndex.append(other);
+        pointHistoryIndex.append(second);
+
+        //then
+        assertThat(pointHistoryIndex.findAllByUserId(1L)).containsExactly(first, second);
+        assertThat(pointHistoryIndex.findAllByUserId(2L)).containsExactly(other);
+        assertThat(pointHistoryIndex.findAllByUserId(99L)).isEmpty();
+    }
+
+    /**
+     * 작성 이유 : 전체 내역이 많아져도 유저별 내역을 빠짐없이, 다른 유저의 내역 없이 찾는지 확인
+     * 테이블 방식(전체 선형 탐색)과의 조회 시간 비교는 PointHistoryIndexBenchmark 에서 한다.
+     */
+    @Test
+    @DisplayName("대량 내역에서 유저별 내역을 빠짐없이 찾는다")
+    void findAllByUserId_millionRows_findAllOfUser() {
+        //given
+        int userCount = 100_000;
+        int rowCount = 1_000_000;
+        PointHistoryIndex pointHistoryIndex = new PointHistoryIndex();
+        for (int i = 0; i < rowCount; i++) {
+            pointHistoryIndex.append(new PointHistory(i + 1, i % userCount, 100L, TransactionType.CHARGE, i));
+        }
+        int lookups = 200;
+
+        //when
+        List<PointHistory> found = new ArrayList<>();
+        for (int i = 0; i < lookups; i++) {
+            found.addAll(pointHistoryIndex.findAllByUserId(i));
+        }
+
+        //then
+        assertThat(pointHistoryIndex.userCount()).isEqualTo(userCount);
+        assertThat(found).hasSize(lookups * (rowCount / userCount));
+        assertThat(found).allMatch(pointHistory -> pointHistory.userId() < lookups);
+    }
+
+    /**
+     * 작성 이유 : cursor 와 limit 으로 오래된 순/최근 순 페이지를 빠짐없이, 겹치지 않게 조회하는지 확인
+     */
+    @Test
+    @DisplayName("cursor 기반으로 오래된 순/최근 순 페이지를 조회한다")
+    void page_withCursor_returnNextPageInOrder() {
+        //given
+        PointHistoryIndex pointHistoryIndex = new PointHistoryIndex();
+        for (int i = 1; i <= 25; i++) {
+            pointHistoryIndex.append(new PointHistory(i * 2L, 1L, i, TransactionType.CHARGE, i));
+        }
+
+        //when
+        List<Long> ascending = new ArrayList<>();
+        PointHistoryQuery query = new PointHistoryQuery(null, 10, PointHistoryOrder.ASC, null, null, null);
+        PointHistoryPage page = pointHistoryIndex.page(1L, query);
+        page.items().forEach(pointHistory -> ascending.add(pointHistory.id()));
+        while (page.nextCursor() != null) {
+            page = pointHistoryIndex.page(1L, query.after(page.nextCursor()));
+            page.items().forEach(pointHistory -> ascending.add(pointHistory.id()));
+        }
+        PointHistoryPage descending = pointHistoryIndex.page(1L, new PointHistoryQuery(11L, 3, PointHistoryOrder.DESC, null, null, null));
+
+        //then
+        assertThat(ascending).hasSize(25);
+        assertThat(ascending.get(0)).isEqualTo(2L);
+        assertThat(ascending.get(24)).isEqualTo(50L);
+        assertThat(descending.items()).extracting(PointHistory::id).containsExactly(10L, 8L, 6L);
+        assertThat(descending.nextCursor()).isEqualTo(6L);
+        assertThat(pointHistoryIndex.page(99L, query).items()).isEmpty();
+    }
+
+    /**
+     * 작성 이유 : 종류/기간 조건에 맞는 내역만 limit 건까지 조회하는지 확인
+     */
+    @Test
+    @DisplayName("종류와 기간 조건으로 내역을 걸러서 조회한다")
+    void page_withFilters_returnMatchingOnly() {
+        //given
+        PointHistoryIndex pointHistoryIndex = new PointHistoryIndex();
+        for (int i = 1; i <= 20; i++) {
+            TransactionType type = i % 2 == 0 ? TransactionType.USE : TransactionType.CHARGE;
+            pointHistoryIndex.append(new PointHistory(i, 1L, 100L, type, 1_000L + i));
+        }
+
+        //when
+        PointHistoryPage page = pointHistoryIndex.page(1L,
+                new PointHistoryQuery(null, 100, PointHistoryOrder.DESC, TransactionType.USE, 1_005L, 1_015L));
+
+        //then
+        assertThat(page.items()).extracting(PointHistory::id).containsExactly(14L, 12L, 10L, 8L, 6L);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    /**
+     * 작성 이유 : 내역을 추가할 때 갱신한 집계(종류별 합계/건수, 처음/마지막 시각)가 내역과 맞는지 확인
+     */
+    @Test
+    @DisplayName("내역을 추가하면 종류별 합계와 건수, 처음/마지막 시각을 집계한다")
+    void summary_afterAppend_returnTotals() {
+        //given
+        PointHistoryIndex pointHistoryIndex = new PointHistoryIndex();
+        pointHistoryIndex.append(new PointHistory(1L, 1L, 300L, TransactionType.CHARGE, 20L));
+        pointHistoryIndex.append(new PointHistory(2L, 1L, 100L, TransactionType.USE, 10L));
+        pointHistoryIndex.append(new PointHistory(3L, 1L, 200L, TransactionType.CHARGE, 30L));
+        pointHistoryIndex.append(new PointHistory(4L, 1L, 50L, TransactionType.TRANSFER_OUT, 40L));
+        pointHistoryIndex.append(new PointHistory(5L, 2L, 999L, TransactionType.CHARGE, 50L));
+
+        //when
+        PointHistorySummary summary = pointHistoryIndex.summary(1L);
+        PointHistorySummary empty = pointHistoryIndex.summary(99L);
+
+        //then
+        assertThat(summary.totalCharged()).isEqualTo(500L);
+        assertThat(summary.totalUsed()).isEqualTo(100L);
+        assertThat(summary.amountByType().get(TransactionType.TRANSFER_OUT)).isEqualTo(50L);
+        assertThat(summary.countByType().get(TransactionType.CHARGE)).isEqualTo(2L);
+        assertThat(summary.countByType().get(TransactionType.TRANSFER_IN)).isEqualTo(0L);
+        assertThat(summary.firstUpdateMillis()).isEqualTo(10L);
+        assertThat(summary.lastUpdateMillis()).isEqualTo(40L);
+        assertThat(empty.totalCharged()).isZero();
+        assertThat(empty.firstUpdateMillis()).isNull();
+    }
+
+    /**
+     * 작성 이유 : 일별 집계가 KST 날짜 기준으로 나뉘고, 조회 기간 안에서 내역이 있는 날만 나오는지 확인
+     */
+    @Test
+    @DisplayName("일별 집계는 KST 날짜로 나누고 기간 안의 날만 조회한다")
+    void dailySummaries_splitByKstDate() {
+        //given
+        PointHistoryIndex pointHistoryIndex = new PointHistoryIndex();
+        // 2025-11-30T14:59:59Z = KST 2025-11-30 23:59:59, 2025-11-30T15:00:00Z = KST 2025-12-01 00:00:00
+        pointHistoryIndex.append(new PointHistory(1L, 1L, 100L, TransactionType.CHARGE, Instant.parse("2025-11-30T14:59:59Z").toEpochMilli()));
+        pointHistoryIndex.append(new PointHistory(2L, 1L, 200L, TransactionType.CHARGE, Instant.parse("2025-11-30T15:00:00Z").toEpochMilli()));
+        pointHistoryIndex.append(new PointHistory(3L, 1L, 50L, TransactionType.USE, Instant.parse("2025-12-01T01:00:00Z").toEpochMilli()));
+        pointHistoryIndex.append(new PointHistory(4L, 1L, 10L, TransactionType.USE, Instant.parse("2025-12-05T01:00:00Z").toEpochMilli()));
+
+        //when
+        List<PointDailySummary> summaries = pointHistoryIndex.dailySummaries(1L, LocalDate.of(2025, 11, 30), LocalDate.of(2025, 12, 1));
+
+        //then
+        assertThat(summaries).extracting(PointDailySummary::date)
+                .containsExactly(LocalDate.of(2025, 11, 30), LocalDate.of(2025, 12, 1));
+        assertThat(summaries.get(0).amountByType().get(TransactionType.CHARGE)).isEqualTo(100L);
+        assertThat(summaries.get(1).amountByType().get(TransactionType.CHARGE)).isEqualTo(200L);
+        assertThat(summaries.get(1).amountByType().get(TransactionType.USE)).isEqualTo(50L);
+        assertThat(summaries.get(1).countByType().get(TransactionType.USE)).isEqualTo(1L);
+    }
+
+    /**
+     * 작성 이유 : 여러 스레드가 동시에 내역을 추가해도 집계가 내역 전체를 다시 더한 결과와 같은지 확인 (reconciliation)
+     */
+    @Test
+    @DisplayName("동시에 추가해도 집계는 내역을 다시 더한 결과와 같다")
+    void isSummaryConsistent_concurrentAppend_true() throws Exception {
+        //given
+        PointHistoryIndex pointHistoryIndex = new PointHistoryIndex();
+        TransactionType[] types = TransactionType.values();
+        AtomicLong ids = new AtomicLong();
+        long start = Instant.parse("2025-11-01T00:00:00Z").toEpochMilli();
+
+        //when
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int thread = 0; thread < 8; thread++) {
+                executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 10_000; i++) {
+                        long userId = random.nextLong(10);
+                        long updateMillis = start + random.nextLong(TimeUnit.DAYS.toMillis(30));
+                        pointHistoryIndex.append(new PointHistory(ids.incrementAndGet(), userId, random.nextLong(1, 1_000),
+                                types[random.nextInt(types.length)], updateMillis));
+                    }
+                });
+            }
+        }
+
+        //then
+        for (long userId = 0; userId < 10; userId++) {
+            assertThat(pointHistoryIndex.isSummaryConsistent(userId)).isTrue();
+            List<PointHistory> histories = pointHistoryIndex.findAllByUserId(userId);
+            PointHistorySummary summary = pointHistoryIndex.summary(userId);
+            assertThat(summary.totalCharged()).isEqualTo(histories.stream()
+                    .filter(history -> history.type() == TransactionType.CHARGE)
+                    .mapToLong(PointHistory::amount)
+                    .sum());
+            assertThat(summary.countByType().values().stream().mapToLong(Long::longValue).sum()).isEqualTo(histories.size());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package io.hhplus.tdd.pointTest;
+
+import io.hhplus.tdd.index.PointHistoryIndex;
+import io.hhplus.tdd.journal.PointJournal;
+import io.hhplus.tdd.metrics.PointMetrics;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointHistoryRepository;
+import io.hhplus.tdd.point.TransactionType;
+import io.hhplus.tdd.pointTest.support.InMemoryPointHistoryTable;
+import io.hhplus.tdd.writer.PointHistoryWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PointHistoryRepositoryTest {
+
+    private final InMemoryPointHistoryTable pointHistoryTable = new InMemoryPointHistoryTable(20);
+    private PointHistoryWriter pointHistoryWriter;
+
+    private PointHistoryRepository setUp(int queueCapacity) {
+        pointHistoryWriter = new PointHistoryWriter(pointHistoryTable, new PointMetrics(new SimpleMeterRegistry()), queueCapacity, 10_000, false);
+        pointHistoryWriter.start();
+        return new PointHistoryRepository(new PointHistoryIndex(), pointHistoryWriter, new PointJournal(false, "", 0, 0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pointHistoryWriter.stop();
+    }
+
+    /**
+     * 작성 이유 : 테이블 저장을 기다리는 내역도 바로 조회되는지 확인 (read-your-writes)
+     */
+    @Test
+    @DisplayName("테이블에 저장되기 전에도 방금 추가한 내역이 조회된다")
+    void insertPointHistory_beforeTableWrite_readable() {
+        //given
+        PointHistoryRepository pointHistoryRepository = setUp(100);
+
+        //when
+        for (int i = 0; i < 10; i++) {
+            pointHistoryRepository.insertPointHistory(1L, 100L, TransactionType.CHARGE, i);
+        }
+
+        //then
+        assertThat(pointHistoryRepository.selectAllByUserId(1L)).hasSize(10);
+        assertThat(pointHistoryTable.size()).isLessThan(10);
+    }
+
+    /**
+     * 작성 이유 : writer 가 발급 순서대로 저장해서 미리 발급한 id 와 테이블 cursor 가 일치하는지 확인
+     */
+    @Test
+    @DisplayName("비동기로 저장된 내역의 id 가 테이블 cursor 와 같다")
+    void insertPointHistory_flushed_idMatchesTableCursor() {
+        //given
+        PointHistoryRepository pointHistoryRepository = setUp(100);
+        for (int i = 0; i < 5; i++) {
+            pointHistoryRepository.insertPointHistory(1L, 100L, TransactionType.CHARGE, i);
+            pointHistoryRepository.insertPointHistory(2L, 50L, TransactionType.USE, i);
+        }
+
+        //when
+        boolean flushed = pointHistoryWriter.flush(10_000);
+
+        //then
+        assertThat(flushed).isTrue();
+        assertThat(pointHistoryTable.selectAllByUserId(1L)).isEqualTo(pointHistoryRepository.selectAllByUserId(1L));
+        assertThat(pointHistoryTable.selectAllByUserId(2L)).isEqualTo(pointHistoryRepository.selectAllByUserId(2L));
+    }
+
+    /**
+     * 작성 이유 : 큐가 작아도(backpressure) 종료 시 남은 내역이 모두 저장되는지 확인
+     */
+    @Test
+    @DisplayName("종료 시 큐에 남은 내역을 모두 저장한다")
+    void stop_pendingHistories_flushAll() {
+        //given
+        PointHistoryRepository pointHistoryRepository = setUp(2);
+        for (int i = 0; i < 10; i++) {
+            pointHistoryRepository.insertPointHistory(1L, 100L, TransactionType.CHARGE, i);
+        }
+
+        //when
+        pointHistoryWriter.stop();
+
+        //then
+        List<PointHistory> stored = pointHistoryTable.selectAllByUserId(1L);
+        assertThat(stored).hasSize(10);
+        assertThat(pointHistoryWriter.pendingCount()).isZero();
+    }
+}
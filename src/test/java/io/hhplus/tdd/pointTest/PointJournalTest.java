@@ -0,0 +1,205 @@
+package io.hhplus.tdd.pointTest;
+
+import io.hhplus.tdd.cluster.PointHandoff;
+import io.hhplus.tdd.journal.JournalReplayHandler;
+import io.hhplus.tdd.journal.PointJournal;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+import io.hhplus.tdd.point.UserPoint;
+import io.hhplus.tdd.pointTest.support.PointFixture;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PointJournalTest {
+
+    @TempDir
+    Path journalDir;
+
+    /**
+     * 작성 이유 : 재시작(새 테이블) 후에도 저널 재생으로 잔액과 내역이 그대로 복구되는지 확인
+     */
+    @Test
+    @DisplayName("재시작 후 저널을 재생해서 잔액과 내역을 복구한다")
+    void recover_afterRestart_restoreBalancesAndHistories() {
+        //given
+        List<PointHistory> histories;
+        try (PointFixture before = PointFixture.journaled(0, journalDir.toString())) {
+            for (long id = 1; id <= 10; id++) {
+                before.pointService.chargeUserPoint(id, 1_000L);
+                before.pointService.useUserPoint(id, id * 10);
+            }
+            histories = before.pointService.getPointHistory(3L);
+        }
+
+        //when
+        try (PointFixture after = PointFixture.journaled(0, journalDir.toString())) {
+
+            //then
+            for (long id = 1; id <= 10; id++) {
+                assertThat(after.pointService.getUserPoint(id).point()).isEqualTo(1_000L - id * 10);
+            }
+            assertThat(after.pointService.getPointHistory(3L)).isEqualTo(histories);
+
+            // 복구 후 새 내역 id 는 복구한 마지막 id 다음부터 이어진다.
+            after.pointService.chargeUserPoint(3L, 1L);
+            List<PointHistory> resumed = after.pointService.getPointHistory(3L);
+            assertThat(resumed.get(resumed.size() - 1).id()).isEqualTo(21L);
+        }
+    }
+
+    /**
+     * 작성 이유 : 다른 노드로 넘긴 유저는 재시작해도 다시 복구되지 않고, 넘겨받은 유저의 내역은 원래 id 그대로 한 번만 복구되는지 확인
+     */
+    @Test
+    @DisplayName("넘긴 유저는 재시작 후 복구되지 않고, 넘겨받은 내역은 원래 id 로 복구된다")
+    void recover_afterHandoff_keepMovedUsers() {
+        //given
+        List<PointHistory> handedOver = List.of(
+                new PointHistory(100L, 50L, 1_000L, TransactionType.CHARGE, 1L),
+                new PointHistory(101L, 50L, 300L, TransactionType.USE, 2L)
+        );
+        List<PointHistory> histories;
+        try (PointFixture before = PointFixture.journaled(0, journalDir.toString())) {
+            for (long id = 1; id <= 3; id++) {
+                before.pointService.chargeUserPoint(id, 1_000L);
+                before.pointService.useUserPoint(id, 100L);
+            }
+            // 유저 1 을 다른 노드로 넘긴다.
+            before.pointHistoryRepository.deleteAllByUserId(1L);
+            before.userPointRepository.evict(1L);
+            // 유저 50 을 넘겨받는다. 다시 넘겨받아도 내역을 통째로 바꾼다.
+            before.pointClusterRouter.accept(List.of(new PointHandoff(50L, 700L, handedOver)));
+            before.pointClusterRouter.accept(List.of(new PointHandoff(50L, 700L, handedOver)));
+            before.pointService.chargeUserPoint(50L, 1L);
+            histories = before.pointService.getPointHistory(50L);
+        }
+
+        //when
+        try (PointFixture after = PointFixture.journaled(0, journalDir.toString())) {
+
+            //then
+            assertThat(histories).extracting(PointHistory::id).containsExactly(100L, 101L, 102L);
+            assertThat(after.pointService.getPointHistory(50L)).isEqualTo(histories);
+            assertThat(after.pointService.getUserPoint(50L).point()).isEqualTo(701L);
+            assertThat(after.pointHistoryIndex.countByUserId(1L)).isZero();
+            assertThat(after.pointService.getUserPoint(1L).point()).isZero();
+            assertThat(after.pointService.getUserPoint(2L).point()).isEqualTo(900L);
+
+            // 넘겨받은 id 다음부터 발급한다.
+            after.pointService.chargeUserPoint(3L, 1L);
+            List<PointHistory> resumed = after.pointService.getPointHistory(3L);
+            assertThat(resumed.get(resumed.size() - 1).id()).isEqualTo(103L);
+        }
+    }
+
+    /**
+     * 작성 이유 : 세그먼트 여러 개에 걸친 대량 레코드를 빠짐없이 순서대로 재생하는지 확인
+     * 재생 시간은 PointJournalReplayBenchmark 에서 잰다.
+     */
+    @Test
+    @DisplayName("여러 세그먼트에 걸친 100만 건을 순서대로 재생한다")
+    void replay_millionRecords_inOrder() {
+        //given
+        int records = 1_000_000;
+        PointJournal writer = new PointJournal(true, journalDir.toString(), 8 << 20, 2);
+        writer.open();
+        for (int i = 1; i <= records; i++) {
+            if (i % 2 == 0) {
+                writer.appendBalance(new UserPoint(i % 1000, i, i));
+            } else {
+                writer.appendHistory(new PointHistory(i, i % 1000, i, TransactionType.USE, i));
+            }
+        }
+        writer.close();
+
+        //when
+        PointJournal reader = new PointJournal(true, journalDir.toString(), 8 << 20, 2);
+        long[] last = {0L};
+        long[] outOfOrder = {0L};
+        long replayed = reader.replay(new JournalReplayHandler() {
+            @Override
+            public void onBalance(long userId, long point, long updateMillis) {
+                check(updateMillis);
+            }
+
+            @Override
+            public void onHistory(long id, long userId, long amount, TransactionType type, long updateMillis) {
+                check(updateMillis);
+            }
+
+            private void check(long sequence) {
+                if (sequence != last[0] + 1) {
+                    outOfOrder[0]++;
+                }
+                last[0] = sequence;
+            }
+        });
+
+        //then
+        assertThat(replayed).isEqualTo(records);
+        assertThat(outOfOrder[0]).isZero();
+    }
+
+    /**
+     * 작성 이유 : 쓰다 만 레코드(kind 만 디스크에 남은 경우 등)를 잘못된 값으로 재생하지 않고, 다시 열면 그 자리부터 잘라내는지 확인
+     */
+    @Test
+    @DisplayName("crc 가 맞지 않는 레코드에서 재생을 멈추고, 다시 열면 그 자리부터 잘라내고 이어 쓴다")
+    void replay_corruptedRecord_stopAndTruncate() throws IOException {
+        //given
+        PointJournal writer = new PointJournal(true, journalDir.toString(), 1 << 20, 2);
+        writer.open();
+        for (long id = 1; id <= 10; id++) {
+            writer.appendBalance(new UserPoint(id, id * 100, id));
+        }
+        writer.close();
+        // 6번째 레코드(유저 6)의 point 한 바이트를 뒤집는다. 레코드는 38바이트다.
+        try (RandomAccessFile segment = new RandomAccessFile(journalDir.resolve("journal-000000000000.log").toFile(), "rw")) {
+            long position = 5 * 38 + 10 + 7;
+            segment.seek(position);
+            int original = segment.read();
+            segment.seek(position);
+            segment.write(original ^ 0xFF);
+        }
+
+        //when
+        List<Long> replayed = replayedUserIds();
+
+        //then
+        assertThat(replayed).containsExactly(1L, 2L, 3L, 4L, 5L);
+
+        //when
+        PointJournal reopened = new PointJournal(true, journalDir.toString(), 1 << 20, 2);
+        reopened.open();
+        reopened.appendBalance(new UserPoint(99L, 1L, 11L));
+        reopened.close();
+
+        //then
+        assertThat(replayedUserIds()).containsExactly(1L, 2L, 3L, 4L, 5L, 99L);
+    }
+
+    private List<Long> replayedUserIds() {
+        List<Long> userIds = new ArrayList<>();
+        new PointJournal(true, journalDir.toString(), 1 << 20, 2).replay(new JournalReplayHandler() {
+            @Override
+            public void onBalance(long userId, long point, long updateMillis) {
+                userIds.add(userId);
+            }
+
+            @Override
+            public void onHistory(long id, long userId, long amount, TransactionType type, long updateMillis) {
+                userIds.add(userId);
+            }
+        });
+        return userIds;
+    }
+}
@@ -0,0 +1,235 @@
+package io.hhplus.tdd.pointTest;
+
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.hhplus.tdd.exception.PointServiceException;
+import io.hhplus.tdd.ledger.PointLedger;
+import io.hhplus.tdd.ledger.ProjectionRebuildReport;
+import io.hhplus.tdd.point.PointService;
+import io.hhplus.tdd.point.TransactionType;
+import io.hhplus.tdd.point.UserPoint;
+import io.hhplus.tdd.pointTest.support.PointFixture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PointLedgerTest {
+
+    private PointFixture fixture;
+    private PointService pointService;
+    private PointLedger pointLedger;
+
+    private void setUp(PointFixture pointFixture) {
+        fixture = pointFixture;
+        pointService = fixture.pointService;
+        pointLedger = fixture.pointLedger;
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixture.close();
+    }
+
+    /**
+     * 작성 이유 : ledger 모드에서는 충전/사용/이체가 내역만 남기고, 조회한 잔액이 내역을 더한 값과 같은지 확인
+     */
+    @Test
+    @DisplayName("ledger 모드의 잔액은 내역을 더한 값이고 잔액 테이블에는 쓰지 않는다")
+    void chargeUseTransfer_ledger_balanceIsProjectionOfHistories() {
+        //given
+        setUp(PointFixture.ledger(0, 0));
+
+        //when
+        pointService.chargeUserPoint(1L, 1_000L);
+        pointService.useUserPoint(1L, 300L);
+        pointService.transfer(1L, 2L, 200L);
+
+        //then
+        assertThat(pointService.getUserPoint(1L).point()).isEqualTo(500L);
+        assertThat(pointService.getUserPoint(2L).point()).isEqualTo(200L);
+        assertThat(pointService.getPointSummary(1L).balance()).isEqualTo(500L);
+        assertThat(pointService.getPointHistory(1L)).hasSize(3);
+        assertThat(fixture.userPointTable.selectById(1L).point()).isZero();
+    }
+
+    /**
+     * 작성 이유 : 사용 가능 여부를 projection 잔액으로 검증해서, 잔액보다 많이 쓰려는 요청은 내역을 남기지 않고 거절하는지 확인
+     */
+    @Test
+    @DisplayName("ledger 모드에서 잔액보다 많이 사용하면 내역 없이 거절한다")
+    void use_ledgerInsufficientPoint_throwException() {
+        //given
+        setUp(PointFixture.ledger(0, 0));
+        pointService.chargeUserPoint(1L, 100L);
+
+        //when //then
+        assertThatThrownBy(() -> pointService.useUserPoint(1L, 101L))
+                .isInstanceOf(PointServiceException.class)
+                .hasMessage(PointErrorCode.INSUFFICIENT_POINT.getMessage());
+        assertThat(pointService.getPointHistory(1L)).hasSize(1);
+    }
+
+    /**
+     * 작성 이유 : 한 유저에게 사용 요청이 동시에 몰려도 잔액만큼만 성공해서 잔액이 음수가 되지 않는지 확인
+     */
+    @Test
+    @DisplayName("ledger 모드에서 동시 사용 요청은 잔액만큼만 성공한다")
+    void useConcurrently_ledger_neverNegative() throws Exception {
+        //given
+        setUp(PointFixture.ledger(0, 0));
+
+        //when //then
+        assertUseConcurrentlyNeverNegative();
+    }
+
+    /**
+     * 작성 이유 : sharding 모드와 함께 켜도 같은 유저의 잔액 검증과 내역 추가가 shard 스레드에서 직렬화되는지 확인
+     */
+    @Test
+    @DisplayName("ledger + sharding 모드에서 동시 사용 요청은 잔액만큼만 성공한다")
+    void useConcurrently_ledgerSharded_neverNegative() throws Exception {
+        //given
+        setUp(PointFixture.ledger(0, 4));
+
+        //when //then
+        assertUseConcurrentlyNeverNegative();
+    }
+
+    private void assertUseConcurrentlyNeverNegative() throws Exception {
+        pointService.chargeUserPoint(1L, 500L);
+        AtomicInteger succeeded = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            futures.add(executor.submit(() -> {
+                try {
+                    pointService.useUserPoint(1L, 10L);
+                    succeeded.incrementAndGet();
+                } catch (PointServiceException e) {
+                    // 잔액 부족
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertThat(succeeded.get()).isEqualTo(50);
+        assertThat(pointService.getUserPoint(1L).point()).isZero();
+        assertThat(pointService.getPointSummary(1L).balance()).isZero();
+    }
+
+    /**
+     * 작성 이유 : asOf 시각까지의 내역만 더한 잔액을 돌려주고, 그 전에 내역이 없으면 0 인지 확인
+     */
+    @Test
+    @DisplayName("특정 시각의 잔액은 그 시각까지의 내역만 더한다")
+    void getUserPointAsOf_returnBalanceAtThatTime() {
+        //given
+        setUp(PointFixture.ledger(0, 0));
+        pointLedger.append(1L, 1_000L, TransactionType.CHARGE, 1_000L);
+        pointLedger.append(1L, 300L, TransactionType.USE, 2_000L);
+        pointLedger.append(1L, 100L, TransactionType.TRANSFER_IN, 3_000L);
+
+        //when
+        UserPoint before = pointService.getUserPointAsOf(1L, 999L);
+        UserPoint afterCharge = pointService.getUserPointAsOf(1L, 1_500L);
+        UserPoint afterUse = pointService.getUserPointAsOf(1L, 2_000L);
+        UserPoint now = pointService.getUserPointAsOf(1L, Long.MAX_VALUE);
+
+        //then
+        assertThat(before.point()).isZero();
+        assertThat(afterCharge).isEqualTo(new UserPoint(1L, 1_000L, 1_000L));
+        assertThat(afterUse).isEqualTo(new UserPoint(1L, 700L, 2_000L));
+        assertThat(now).isEqualTo(pointService.getUserPoint(1L));
+    }
+
+    /**
+     * 작성 이유 : projection 을 거치지 않고 추가된 내역(복구 등)이 있어도, 다시 만들면 모든 유저의 잔액이 내역과 같아지는지 확인
+     */
+    @Test
+    @DisplayName("projection 을 다시 만들면 내역과 같아진다")
+    void rebuild_staleProjection_matchHistories() {
+        //given
+        setUp(PointFixture.ledger(0, 0));
+        for (long userId = 1; userId <= 200; userId++) {
+            pointService.chargeUserPoint(userId, 1_000L);
+        }
+        fixture.pointHistoryRepository.insertPointHistory(7L, 500L, TransactionType.CHARGE, System.currentTimeMillis());
+        assertThat(pointService.getUserPoint(7L).point()).isEqualTo(1_000L);
+
+        //when
+        ProjectionRebuildReport report = pointLedger.rebuild();
+
+        //then
+        assertThat(report.users()).isEqualTo(200);
+        assertThat(report.events()).isEqualTo(201);
+        assertThat(report.partitions()).isEqualTo(4);
+        assertThat(pointService.getUserPoint(7L).point()).isEqualTo(1_500L);
+        for (long userId = 1; userId <= 200; userId++) {
+            assertThat(pointService.getUserPoint(userId).point()).isEqualTo(pointService.getPointSummary(userId).balance());
+        }
+    }
+
+    /**
+     * 작성 이유 : 충전/사용이 계속 들어오는 중에 projection 을 다시 만들어도 내역을 빠뜨리거나 두 번 더하지 않는지 확인
+     */
+    @Test
+    @DisplayName("요청을 처리하는 중에 다시 만들어도 잔액이 내역과 같다")
+    void rebuild_duringTraffic_noDrift() throws Exception {
+        //given
+        setUp(PointFixture.ledger(0, 0));
+        for (long userId = 1; userId <= 50; userId++) {
+            pointService.chargeUserPoint(userId, 1_000L);
+        }
+        AtomicBoolean stop = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> traffic = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            traffic.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (!stop.get()) {
+                    long userId = random.nextLong(1, 51);
+                    if (random.nextBoolean()) {
+                        pointService.chargeUserPoint(userId, 10L);
+                    } else {
+                        try {
+                            pointService.useUserPoint(userId, 7L);
+                        } catch (PointServiceException e) {
+                            // 잔액 부족
+                        }
+                    }
+                }
+            }));
+        }
+
+        //when
+        for (int round = 0; round < 20; round++) {
+            pointLedger.rebuild();
+        }
+        stop.set(true);
+        for (Future<?> future : traffic) {
+            future.get();
+        }
+        executor.shutdown();
+
+        //then
+        for (long userId = 1; userId <= 50; userId++) {
+            assertThat(pointService.getUserPoint(userId).point())
+                    .isEqualTo(pointService.getPointSummary(userId).balance())
+                    .isNotNegative();
+        }
+    }
+}
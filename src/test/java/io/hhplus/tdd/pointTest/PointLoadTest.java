@@ -0,0 +1,225 @@
+package io.hhplus.tdd.pointTest;
+
+import io.hhplus.tdd.TddApplication;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 플랫폼 스레드 / 가상 스레드 모드, servlet / reactive 버전의 처리량, admission control 유무에 따른 지연 비교
+ * - 실제 throttle 이 있는 테이블을 그대로 사용하므로 오래 걸린다. ./gradlew test -DloadTest=true 로 실행한다.
+ * - 캐시 capacity 를 1로 두고 유저마다 다른 id 를 조회해서 모든 요청이 UserPointTable.selectById 에서 블로킹되게 한다.
+ */
+@EnabledIfSystemProperty(named = "loadTest", matches = "true")
+public class PointLoadTest {
+
+    private static final int REQUESTS_PER_CLIENT = 5;
+
+    /**
+     * 작성 이유 : 가상 스레드 모드에서 동시 접속 수가 Tomcat 스레드 풀 크기를 넘어도 처리량이 늘어나는지 확인
+     */
+    @Test
+    @DisplayName("동시 접속 1천/1만에서 플랫폼 스레드 대비 가상 스레드 처리량 비교")
+    void compareRequestsPerSecond_platformVsVirtual() throws Exception {
+        int[] clientCounts = {1_000, 10_000};
+        double[][] result = new double[2][clientCounts.length];
+
+        for (int mode = 0; mode < 2; mode++) {
+            boolean virtual = mode == 1;
+            try (ConfigurableApplicationContext context = startServer(virtual)) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                for (int i = 0; i < clientCounts.length; i++) {
+                    result[mode][i] = requestsPerSecond(port, clientCounts[i]);
+                }
+            }
+        }
+
+        for (int i = 0; i < clientCounts.length; i++) {
+            System.out.printf("clients=%d platform=%.1f req/s virtual=%.1f req/s%n",
+                    clientCounts[i], result[0][i], result[1][i]);
+        }
+        assertThat(result[1][0]).isGreaterThan(result[0][0]);
+    }
+
+    /**
+     * 작성 이유 : reactive 버전이 적은 수의 스레드로 동시 요청 1만 건을 모두 붙잡고 처리하는지 servlet 버전과 비교
+     * 두 버전 모두 플랫폼 스레드를 쓰고, 처리 중 가장 많았던 서버 JVM 의 스레드 수를 함께 비교한다.
+     */
+    @Test
+    @DisplayName("동시 접속 1만에서 servlet 대비 reactive 처리량과 스레드 수 비교")
+    void compareRequestsPerSecond_servletVsReactive() throws Exception {
+        int clients = 10_000;
+        String[] profiles = {"default", "reactive"};
+        double[] requestsPerSecond = new double[profiles.length];
+        int[] peakThreads = new int[profiles.length];
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+        for (int mode = 0; mode < profiles.length; mode++) {
+            try (ConfigurableApplicationContext context = startServer(false, profiles[mode])) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                threadMXBean.resetPeakThreadCount();
+                requestsPerSecond[mode] = requestsPerSecond(port, clients);
+                peakThreads[mode] = threadMXBean.getPeakThreadCount();
+            }
+        }
+
+        System.out.printf("clients=%d servlet=%.1f req/s (peak %d threads) reactive=%.1f req/s (peak %d threads)%n",
+                clients, requestsPerSecond[0], peakThreads[0], requestsPerSecond[1], peakThreads[1]);
+        assertThat(peakThreads[1]).isLessThan(peakThreads[0]);
+    }
+
+    /**
+     * 작성 이유 : 처리할 수 있는 것보다 많은 요청이 몰릴 때, admission control 이 넘치는 요청을 바로 거절해서 받은 요청의 p99 를 낮게 유지하는지 확인
+     */
+    @Test
+    @DisplayName("동시 접속 2천에서 admission control 유무에 따른 p99 비교")
+    void compareP99_withAndWithoutAdmission() throws Exception {
+        int clients = 2_000;
+        long[][] latencies = new long[2][];
+        int[] rejected = new int[2];
+
+        for (int mode = 0; mode < 2; mode++) {
+            boolean admission = mode == 1;
+            try (ConfigurableApplicationContext context = startServer(false, "default", admission)) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                AtomicInteger rejectedCount = new AtomicInteger();
+                latencies[mode] = acceptedLatencies(port, clients, rejectedCount);
+                rejected[mode] = rejectedCount.get();
+            }
+        }
+
+        long p99Without = percentile(latencies[0], 0.99);
+        long p99With = percentile(latencies[1], 0.99);
+        System.out.printf("clients=%d without admission p99=%dms (rejected %d) with admission p99=%dms (accepted %d, rejected %d)%n",
+                clients, p99Without, rejected[0], p99With, latencies[1].length, rejected[1]);
+        assertThat(p99With).isLessThan(p99Without);
+    }
+
+    private ConfigurableApplicationContext startServer(boolean virtual) {
+        return startServer(virtual, "default");
+    }
+
+    private ConfigurableApplicationContext startServer(boolean virtual, String profile) {
+        // 처리량 비교는 거절 없이 모든 요청을 받은 상태에서 한다.
+        return startServer(virtual, profile, false);
+    }
+
+    private ConfigurableApplicationContext startServer(boolean virtual, String profile, boolean admission) {
+        return new SpringApplicationBuilder(TddApplication.class)
+                .profiles(profile)
+                .properties(
+                        "server.port=0",
+                        "server.tomcat.max-connections=20000",
+                        "server.tomcat.accept-count=10000",
+                        "point.cache.capacity=1",
+                        "point.admission.enabled=" + admission,
+                        "spring.threads.virtual.enabled=" + virtual
+                )
+                .run();
+    }
+
+    /**
+     * 유저마다 다른 id 를 REQUESTS_PER_CLIENT 번 조회하고, 200 으로 응답한 요청의 지연(ms)을 정렬해서 돌려준다.
+     * 503 으로 거절된 요청은 rejected 에 센다.
+     */
+    private long[] acceptedLatencies(int port, int clients, AtomicInteger rejected) throws Exception {
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .executor(executor)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+            List<Future<?>> futures = new ArrayList<>(clients);
+            for (int client = 0; client < clients; client++) {
+                long userId = client;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/point/" + userId))
+                                .timeout(Duration.ofMinutes(5))
+                                .GET()
+                                .build();
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() == 200) {
+                                latencies.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                            } else if (response.statusCode() == 503) {
+                                rejected.incrementAndGet();
+                            }
+                        } catch (IOException e) {
+                            // 연결 거부/타임아웃은 지연 비교에서 제외한다.
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        return latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * percentile))];
+    }
+
+    private double requestsPerSecond(int port, int clients) throws Exception {
+        AtomicInteger succeeded = new AtomicInteger();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .executor(executor)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>(clients);
+            for (int client = 0; client < clients; client++) {
+                long userId = client;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/point/" + userId))
+                                .timeout(Duration.ofMinutes(5))
+                                .GET()
+                                .build();
+                        try {
+                            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() == 200) {
+                                succeeded.incrementAndGet();
+                            }
+                        } catch (IOException e) {
+                            // 연결 거부/타임아웃은 실패로 보고 처리량에서 제외한다.
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - start;
+            return succeeded.get() / (elapsed / 1e9);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package io.hhplus.tdd.pointTest;
+
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.hhplus.tdd.exception.PointServiceException;
+import io.hhplus.tdd.pointTest.support.PointFixture;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PointMetricsTest {
+
+    private final PointFixture fixture = PointFixture.inMemory(0);
+    private final SimpleMeterRegistry meterRegistry = fixture.meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        fixture.close();
+    }
+
+    /**
+     * 작성 이유 : API 별 처리 시간과 테이블 읽기/쓰기 시간이 따로 기록되는지 확인
+     */
+    @Test
+    @DisplayName("충전/조회 시 API 별 타이머와 테이블 읽기/쓰기 타이머가 기록된다")
+    void charge_recordOperationAndTableTimers() {
+        //when
+        fixture.pointService.chargeUserPoint(1L, 100L);
+        fixture.pointService.getUserPoint(1L);
+
+        //then
+        assertThat(meterRegistry.get("point.operation").tag("operation", "charge").timer().count()).isEqualTo(1L);
+        assertThat(meterRegistry.get("point.operation").tag("operation", "get").timer().count()).isEqualTo(1L);
+        assertThat(meterRegistry.get("point.table").tag("table", "user_point").tag("access", "read").timer().count()).isEqualTo(1L);
+        assertThat(meterRegistry.get("point.table").tag("table", "user_point").tag("access", "write").timer().count()).isEqualTo(1L);
+        assertThat(meterRegistry.get("point.lock.wait").timer().count()).isEqualTo(1L);
+    }
+
+    /**
+     * 작성 이유 : 거절된 요청이 사유별로 집계되는지 확인
+     */
+    @Test
+    @DisplayName("거절된 요청은 사유별로 카운트된다")
+    void use_insufficientPoint_countRejection() {
+        //when
+        assertThatThrownBy(() -> fixture.pointService.useUserPoint(1L, 100L))
+                .isInstanceOf(PointServiceException.class);
+
+        //then
+        assertThat(meterRegistry.get("point.rejection").tag("reason", PointErrorCode.INSUFFICIENT_POINT.name()).counter().count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.get("point.rejection").tag("reason", PointErrorCode.INVALID_CHARGE_AMOUNT.name()).counter().count())
+                .isEqualTo(0.0);
+    }
+}
@@ -0,0 +1,151 @@
+package io.hhplus.tdd.pointTest;
+
+import io.hhplus.tdd.point.PointService;
+import io.hhplus.tdd.pointTest.support.PointFixture;
+import io.hhplus.tdd.reconcile.PointMismatch;
+import io.hhplus.tdd.reconcile.PointReconciler;
+import io.hhplus.tdd.reconcile.ReconciliationReport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PointReconcilerTest {
+
+    private final PointFixture fixture = PointFixture.inMemory(0);
+    private final PointService pointService = fixture.pointService;
+    private PointReconciler pointReconciler;
+
+    @AfterEach
+    void tearDown() {
+        if (pointReconciler != null) {
+            pointReconciler.stop();
+        }
+        fixture.close();
+    }
+
+    private PointReconciler reconciler(double usersPerSecond) {
+        pointReconciler = new PointReconciler(fixture.userPointRepository, fixture.pointHistoryIndex, fixture.userLockManager,
+                fixture.pointMetrics, fixture.pointShardEngine, fixture.pointLedger, 4, 8, usersPerSecond);
+        return pointReconciler;
+    }
+
+    /**
+     * 작성 이유 : 충전/사용/이체로만 바뀐 잔액은 내역과 모두 맞아서 불일치 없이 전체 유저를 점검하는지 확인
+     */
+    @Test
+    @DisplayName("서비스로만 바뀐 잔액은 모두 내역과 일치한다")
+    void reconcile_consistentUsers_noMismatch() {
+        //given
+        for (long userId = 1; userId <= 100; userId++) {
+            pointService.chargeUserPoint(userId, 1_000L);
+            pointService.useUserPoint(userId, userId);
+        }
+        pointService.transfer(1L, 2L, 300L);
+        ConcurrentLinkedQueue<PointMismatch> mismatches = new ConcurrentLinkedQueue<>();
+
+        //when
+        ReconciliationReport report = reconciler(0).reconcile(mismatches::add);
+
+        //then
+        assertThat(mismatches).isEmpty();
+        assertThat(report.checkedUsers()).isEqualTo(100);
+        assertThat(report.mismatchedUsers()).isZero();
+        assertThat(report.usersPerSecond()).isPositive();
+    }
+
+    /**
+     * 작성 이유 : 내역 없이 테이블의 잔액만 바뀐 유저를 찾아 저장된 잔액과 내역으로 계산한 잔액을 알려주는지 확인
+     */
+    @Test
+    @DisplayName("내역 없이 바뀐 잔액을 불일치로 알린다")
+    void reconcile_balanceDrift_reportMismatch() {
+        //given
+        for (long userId = 1; userId <= 50; userId++) {
+            pointService.chargeUserPoint(userId, 1_000L);
+        }
+        fixture.userPointTable.insertOrUpdate(7L, 1_500L);
+        ConcurrentLinkedQueue<PointMismatch> mismatches = new ConcurrentLinkedQueue<>();
+
+        //when
+        ReconciliationReport report = reconciler(0).reconcile(mismatches::add);
+
+        //then
+        assertThat(mismatches).containsExactly(new PointMismatch(7L, 1_500L, 1_000L, true));
+        assertThat(report.checkedUsers()).isEqualTo(50);
+        assertThat(report.mismatchedUsers()).isEqualTo(1);
+        assertThat(report.lockedUsers()).isEqualTo(1);
+    }
+
+    /**
+     * 작성 이유 : 충전/사용이 계속 들어오는 중에 점검해도 잔액과 내역 사이에 끼어든 요청을 불일치로 잘못 알리지 않는지 확인
+     */
+    @Test
+    @DisplayName("요청을 처리하는 중에 점검해도 불일치가 없다")
+    void reconcile_duringTraffic_noFalseMismatch() throws Exception {
+        //given
+        for (long userId = 1; userId <= 20; userId++) {
+            pointService.chargeUserPoint(userId, 1_000L);
+        }
+        AtomicBoolean stop = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> traffic = java.util.stream.IntStream.range(0, 4)
+                .<Future<?>>mapToObj(i -> executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (!stop.get()) {
+                        long userId = random.nextLong(1, 21);
+                        if (random.nextBoolean()) {
+                            pointService.chargeUserPoint(userId, 10L);
+                        } else {
+                            pointService.useUserPoint(userId, 1L);
+                        }
+                    }
+                }))
+                .toList();
+        ConcurrentLinkedQueue<PointMismatch> mismatches = new ConcurrentLinkedQueue<>();
+
+        //when
+        PointReconciler reconciler = reconciler(0);
+        for (int round = 0; round < 50; round++) {
+            reconciler.reconcile(mismatches::add);
+        }
+        stop.set(true);
+        for (Future<?> future : traffic) {
+            future.get();
+        }
+        executor.shutdown();
+
+        //then
+        assertThat(mismatches).isEmpty();
+    }
+
+    /**
+     * 작성 이유 : users-per-second 를 넘는 속도로 점검하지 않아서, 운영 중인 노드의 요청 처리를 방해하지 않는지 확인
+     */
+    @Test
+    @DisplayName("초당 점검 유저 수를 제한한다")
+    void reconcile_rateLimited_paceUsers() {
+        //given
+        for (long userId = 1; userId <= 100; userId++) {
+            pointService.chargeUserPoint(userId, 1_000L);
+        }
+
+        //when
+        ReconciliationReport report = reconciler(200).reconcile(mismatch -> {
+        });
+
+        //then
+        // 첫 유저는 바로 점검하고, 나머지 99명은 5ms 간격으로 점검한다.
+        assertThat(report.elapsedMillis()).isGreaterThanOrEqualTo(450);
+        assertThat(report.usersPerSecond()).isLessThanOrEqualTo(220);
+    }
+}
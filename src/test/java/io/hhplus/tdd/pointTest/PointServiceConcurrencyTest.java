@@ -0,0 +1,399 @@
+package io.hhplus.tdd.pointTest;
+
+import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.exception.PointServiceException;
+import io.hhplus.tdd.lock.UserLockManager;
+import io.hhplus.tdd.point.*;
+import io.hhplus.tdd.pointTest.support.InMemoryPointHistoryTable;
+import io.hhplus.tdd.pointTest.support.PointFixture;
+import io.hhplus.tdd.writer.PointHistoryWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PointServiceConcurrencyTest {
+
+    private static final int THREADS = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+
+    private PointFixture fixture;
+    private InMemoryPointHistoryTable pointHistoryTable;
+    private UserLockManager userLockManager;
+    private PointHistoryWriter pointHistoryWriter;
+    private PointService pointService;
+
+    private void setUp(long latencyMillis) {
+        setUp(PointFixture.inMemory(latencyMillis));
+    }
+
+    private void setUp(PointFixture pointFixture) {
+        fixture = pointFixture;
+        pointHistoryTable = (InMemoryPointHistoryTable) fixture.pointHistoryTable;
+        userLockManager = fixture.userLockManager;
+        pointHistoryWriter = fixture.pointHistoryWriter;
+        pointService = fixture.pointService;
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixture.close();
+    }
+
+    /**
+     * 작성 이유 : 같은 유저에 대한 동시 충전이 유실(lost update) 없이 모두 반영되는지 확인
+     */
+    @Test
+    @DisplayName("같은 유저 동시 충전 시 모든 충전이 반영된다")
+    void chargeConcurrently_sameUser_noLostUpdate() throws Exception {
+        //given
+        setUp(0);
+        long id = 1L;
+        int requestCount = 1000;
+
+        //when
+        List<Runnable> tasks = new ArrayList<>();
+        for (int i = 0; i < requestCount; i++) {
+            tasks.add(() -> pointService.chargeUserPoint(id, 10L));
+        }
+        runConcurrently(tasks);
+
+        //then
+        assertThat(pointService.getUserPoint(id).point()).isEqualTo(requestCount * 10L);
+        assertThat(pointService.getPointHistory(id)).hasSize(requestCount);
+        assertThat(userLockManager.size()).isZero();
+    }
+
+    /**
+     * 작성 이유 : 여러 유저에게 충전/사용이 섞여 동시에 들어와도 유저별 최종 잔액이 정확한지 확인
+     */
+    @Test
+    @DisplayName("여러 유저 충전/사용 혼합 동시 요청 시 유저별 잔액이 정확하다")
+    void chargeAndUseConcurrently_manyUsers_balancesAreExact() throws Exception {
+        //given
+        setUp(0);
+        int userCount = 200;
+        int chargeCount = 20;
+        int useCount = 20;
+        long initialPoint = 10_000L;
+        for (long id = 1; id <= userCount; id++) {
+            pointService.chargeUserPoint(id, initialPoint);
+        }
+
+        //when
+        List<Runnable> tasks = new ArrayList<>();
+        for (long id = 1; id <= userCount; id++) {
+            long userId = id;
+            for (int i = 0; i < chargeCount; i++) {
+                tasks.add(() -> pointService.chargeUserPoint(userId, 100L));
+            }
+            for (int i = 0; i < useCount; i++) {
+                tasks.add(() -> pointService.useUserPoint(userId, 50L));
+            }
+        }
+        Collections.shuffle(tasks);
+        runConcurrently(tasks);
+
+        //then
+        for (long id = 1; id <= userCount; id++) {
+            assertThat(pointService.getUserPoint(id).point())
+                    .isEqualTo(initialPoint + chargeCount * 100L - useCount * 50L);
+        }
+        assertThat(pointHistoryWriter.flush(10_000)).isTrue();
+        assertThat(pointHistoryTable.size()).isEqualTo(userCount * (1 + chargeCount + useCount));
+        assertThat(userLockManager.size()).isZero();
+    }
+
+    /**
+     * 작성 이유 : 스레드 안전하지 않은 실제 UserPointTable(HashMap)을 써도, 서로 다른 유저의 동시 충전이 테이블에서 유실되지 않는지 확인
+     * 유저 락은 같은 유저끼리만 막으므로 테이블 쓰기는 TableUserPointStore 의 writer 스레드 하나만 해야 한다.
+     */
+    @Test
+    @DisplayName("실제 UserPointTable 에 여러 유저가 동시에 충전해도 모든 잔액이 테이블에 남는다")
+    void chargeConcurrently_realTable_noLostEntry() throws Exception {
+        //given
+        // 캐시를 1칸으로 두어 조회도 대부분 테이블을 거치게 한다.
+        setUp(new PointFixture(new UserPointTable(), new InMemoryPointHistoryTable(0), 1));
+        int userCount = 32;
+
+        //when
+        List<Runnable> tasks = new ArrayList<>();
+        for (long id = 1; id <= userCount; id++) {
+            long userId = id;
+            tasks.add(() -> pointService.chargeUserPoint(userId, userId * 10));
+        }
+        runConcurrently(tasks);
+
+        //then
+        for (long id = 1; id <= userCount; id++) {
+            assertThat(fixture.userPointRepository.peekById(id).point()).isEqualTo(id * 10);
+        }
+        assertThat(fixture.userPointStore.awaitWritten(30_000)).isTrue();
+        for (long id = 1; id <= userCount; id++) {
+            assertThat(fixture.userPointTable.selectById(id).point()).isEqualTo(id * 10);
+        }
+        assertThat(userLockManager.size()).isZero();
+    }
+
+    /**
+     * 작성 이유 : 실제 UserPointTable 의 쓰기 지연(최대 300ms)이 있어도, 서로 다른 유저의 충전은 서로의 테이블 쓰기를 기다리지 않고 동시에 끝나는지 확인
+     * 한 유저씩 차례로 테이블에 썼다면 32 명의 충전에 수 초가 걸린다.
+     */
+    @Test
+    @DisplayName("실제 UserPointTable 에서도 서로 다른 유저의 충전은 테이블 쓰기를 기다리지 않는다")
+    void chargeConcurrently_realTable_differentUsersOverlap() throws Exception {
+        //given
+        // 유저를 미리 저장해 두어 충전 전 조회가 테이블을 거치지 않게 한다.
+        setUp(new PointFixture(new UserPointTable(), new InMemoryPointHistoryTable(0), 100));
+        int userCount = 32;
+        for (long id = 1; id <= userCount; id++) {
+            fixture.userPointStore.insertOrUpdate(id, 0L);
+        }
+
+        //when
+        List<Runnable> tasks = new ArrayList<>();
+        for (long id = 1; id <= userCount; id++) {
+            long userId = id;
+            tasks.add(() -> pointService.chargeUserPoint(userId, 100L));
+        }
+        long start = System.nanoTime();
+        runConcurrently(tasks);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        //then
+        // 저장이 테이블 쓰기를 차례로 기다렸다면 평균 지연(150ms)만 더해도 4 초가 넘는다.
+        assertThat(elapsedMillis).isLessThan(1_000L);
+        for (long id = 1; id <= userCount; id++) {
+            assertThat(pointService.getUserPoint(id).point()).isEqualTo(100L);
+        }
+    }
+
+    /**
+     * 작성 이유 : 임의의 두 유저 사이에서 양방향 이체가 동시에 몰려도 교착 상태 없이 끝나고, 전체 포인트가 보존되는지 확인
+     */
+    @Test
+    @DisplayName("임의의 유저 쌍으로 동시에 이체해도 교착 상태 없이 전체 포인트가 보존된다")
+    void transferConcurrently_randomPairs_noDeadlockAndConserveTotal() throws Exception {
+        //given
+        setUp(0);
+        int userCount = 20;
+        int transferCount = 20_000;
+        long initialPoint = 1_000L;
+        for (long id = 1; id <= userCount; id++) {
+            pointService.chargeUserPoint(id, initialPoint);
+        }
+        Random random = new Random(13);
+
+        //when
+        List<Runnable> tasks = new ArrayList<>();
+        for (int i = 0; i < transferCount; i++) {
+            long from = 1 + random.nextInt(userCount);
+            long to = 1 + (from + random.nextInt(userCount - 1)) % userCount;
+            long amount = 1 + random.nextInt(50);
+            tasks.add(() -> {
+                try {
+                    pointService.transfer(from, to, amount);
+                } catch (PointServiceException e) {
+                    // 잔액이 모자란 이체는 거절된다.
+                }
+            });
+        }
+        runConcurrently(tasks);
+
+        //then
+        long total = 0;
+        for (long id = 1; id <= userCount; id++) {
+            long point = pointService.getUserPoint(id).point();
+            assertThat(point).isNotNegative();
+            // 잔액과 이체 내역이 서로 맞아야 한다.
+            assertThat(point).isEqualTo(initialPoint + transferredOf(id));
+            total += point;
+        }
+        assertThat(total).isEqualTo(userCount * initialPoint);
+        assertThat(userLockManager.size()).isZero();
+    }
+
+    /**
+     * 작성 이유 : combining 모드에서 한 유저에게 몰린 충전을 모아 저장해도, 요청마다 자기 순서의 잔액과 내역을 받는지 확인
+     */
+    @Test
+    @DisplayName("combining 모드에서 한 유저에게 몰린 충전은 적은 횟수의 저장으로 모두 반영된다")
+    void chargeConcurrently_combining_coalesceWrites() throws Exception {
+        //given
+        setUp(PointFixture.combining(20));
+        long id = 1L;
+        int requestCount = 200;
+        Queue<UserPoint> returned = new ConcurrentLinkedQueue<>();
+
+        //when
+        List<Runnable> tasks = new ArrayList<>();
+        for (int i = 0; i < requestCount; i++) {
+            tasks.add(() -> returned.add(pointService.chargeUserPoint(id, 10L)));
+        }
+        runConcurrently(tasks);
+
+        //then
+        long writes = fixture.meterRegistry.get("point.table").tag("table", "user_point").tag("access", "write").timer().count();
+        assertThat(pointService.getUserPoint(id).point()).isEqualTo(requestCount * 10L);
+        assertThat(pointService.getPointHistory(id)).hasSize(requestCount);
+        // 요청마다 자기 순서까지 반영한 서로 다른 잔액을 받고, 마지막 요청은 저장한 값을 그대로 받는다.
+        assertThat(returned).extracting(UserPoint::point).doesNotHaveDuplicates().hasSize(requestCount);
+        assertThat(returned).contains(pointService.getUserPoint(id));
+        assertThat(writes).isLessThan(requestCount / 4);
+    }
+
+    /**
+     * 작성 이유 : combining 모드에서 충전/사용이 섞여도 잔액 부족 거절이 요청 순서대로 한 건씩 판단되는지 확인
+     */
+    @Test
+    @DisplayName("combining 모드에서 충전/사용이 섞여도 잔액이 음수가 되지 않고 성공한 요청만 반영된다")
+    void chargeAndUseConcurrently_combining_rejectInSequence() throws Exception {
+        //given
+        setUp(PointFixture.combining(5));
+        long id = 1L;
+        int requestCount = 200;
+        Queue<Long> usedPoints = new ConcurrentLinkedQueue<>();
+        AtomicInteger rejectedCount = new AtomicInteger();
+
+        //when
+        List<Runnable> tasks = new ArrayList<>();
+        for (int i = 0; i < requestCount; i++) {
+            tasks.add(() -> pointService.chargeUserPoint(id, 10L));
+            tasks.add(() -> {
+                try {
+                    usedPoints.add(pointService.useUserPoint(id, 15L).point());
+                } catch (PointServiceException e) {
+                    rejectedCount.incrementAndGet();
+                }
+            });
+        }
+        Collections.shuffle(tasks);
+        runConcurrently(tasks);
+
+        //then
+        assertThat(usedPoints.size() + rejectedCount.get()).isEqualTo(requestCount);
+        assertThat(usedPoints).allMatch(point -> point >= 0);
+        assertThat(pointService.getUserPoint(id).point()).isEqualTo(requestCount * 10L - usedPoints.size() * 15L);
+        assertThat(pointService.getPointHistory(id)).hasSize(requestCount + usedPoints.size());
+        assertThat(fixture.meterRegistry.get("point.rejection").tag("reason", "INSUFFICIENT_POINT").counter().count())
+                .isEqualTo(rejectedCount.get());
+    }
+
+    /**
+     * 작성 이유 : sharding 모드에서 유저 락 없이 shard 스레드만으로 같은 유저의 충전/사용이 유실 없이 직렬화되는지 확인
+     */
+    @Test
+    @DisplayName("sharding 모드에서 여러 유저 충전/사용 혼합 동시 요청 시 유저별 잔액이 정확하다")
+    void chargeAndUseConcurrently_sharded_balancesAreExact() throws Exception {
+        //given
+        setUp(PointFixture.sharded(0, 4));
+        int userCount = 200;
+        int chargeCount = 20;
+        int useCount = 20;
+        long initialPoint = 10_000L;
+        for (long id = 1; id <= userCount; id++) {
+            pointService.chargeUserPoint(id, initialPoint);
+        }
+
+        //when
+        List<Runnable> tasks = new ArrayList<>();
+        for (long id = 1; id <= userCount; id++) {
+            long userId = id;
+            for (int i = 0; i < chargeCount; i++) {
+                tasks.add(() -> pointService.chargeUserPoint(userId, 100L));
+            }
+            for (int i = 0; i < useCount; i++) {
+                tasks.add(() -> pointService.useUserPoint(userId, 50L));
+            }
+        }
+        Collections.shuffle(tasks);
+        runConcurrently(tasks);
+
+        //then
+        for (long id = 1; id <= userCount; id++) {
+            assertThat(pointService.getUserPoint(id).point())
+                    .isEqualTo(initialPoint + chargeCount * 100L - useCount * 50L);
+            assertThat(pointService.getPointHistory(id)).hasSize(1 + chargeCount + useCount);
+        }
+        // 유저 락을 쓰지 않는다.
+        assertThat(fixture.meterRegistry.get("point.lock.wait").timer().count()).isZero();
+        assertThat(fixture.pointShardEngine.pendingCount()).isZero();
+    }
+
+    /**
+     * 작성 이유 : sharding 모드에서 서로 다른 shard 의 유저끼리 양방향 이체가 몰려도 교착 상태 없이 끝나고, 전체 포인트가 보존되는지 확인
+     */
+    @Test
+    @DisplayName("sharding 모드에서 임의의 유저 쌍으로 동시에 이체해도 교착 상태 없이 전체 포인트가 보존된다")
+    void transferConcurrently_sharded_noDeadlockAndConserveTotal() throws Exception {
+        //given
+        setUp(PointFixture.sharded(0, 4));
+        int userCount = 20;
+        int transferCount = 20_000;
+        long initialPoint = 1_000L;
+        for (long id = 1; id <= userCount; id++) {
+            pointService.chargeUserPoint(id, initialPoint);
+        }
+        Random random = new Random(13);
+
+        //when
+        List<Runnable> tasks = new ArrayList<>();
+        for (int i = 0; i < transferCount; i++) {
+            long from = 1 + random.nextInt(userCount);
+            long to = 1 + (from + random.nextInt(userCount - 1)) % userCount;
+            long amount = 1 + random.nextInt(50);
+            tasks.add(() -> {
+                try {
+                    pointService.transfer(from, to, amount);
+                } catch (PointServiceException e) {
+                    // 잔액이 모자란 이체는 거절된다.
+                }
+            });
+            // 이체 중에도 같은 shard 의 충전/사용은 계속 들어온다.
+            tasks.add(() -> pointService.chargeUserPoint(from, 1L));
+        }
+        runConcurrently(tasks);
+
+        //then
+        long total = 0;
+        for (long id = 1; id <= userCount; id++) {
+            long point = pointService.getUserPoint(id).point();
+            assertThat(point).isNotNegative();
+            total += point;
+        }
+        assertThat(total).isEqualTo(userCount * initialPoint + transferCount);
+    }
+
+    /**
+     * 이체 내역으로 계산한 유저의 잔액 변화량
+     */
+    private long transferredOf(long id) {
+        long transferred = 0;
+        for (PointHistory history : pointService.getPointHistory(id)) {
+            if (history.type() == TransactionType.TRANSFER_OUT) {
+                transferred -= history.amount();
+            } else if (history.type() == TransactionType.TRANSFER_IN) {
+                transferred += history.amount();
+            }
+        }
+        return transferred;
+    }
+
+    private void runConcurrently(List<Runnable> tasks) throws InterruptedException {
+        ExecutorService executorService = Executors.newFixedThreadPool(THREADS);
+        tasks.forEach(executorService::submit);
+        executorService.shutdown();
+        assertThat(executorService.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+    }
+}
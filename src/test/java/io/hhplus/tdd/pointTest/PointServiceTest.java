@@ -1,15 +1,25 @@
 package io.hhplus.tdd.pointTest;
 
+import io.hhplus.tdd.event.PointEventBus;
+import io.hhplus.tdd.exception.PointErrorCode;
 import io.hhplus.tdd.exception.PointServiceException;
+import io.hhplus.tdd.idempotency.IdempotencyStore;
+import io.hhplus.tdd.ledger.PointLedger;
+import io.hhplus.tdd.lock.UserLockManager;
+import io.hhplus.tdd.metrics.PointMetrics;
 import io.hhplus.tdd.point.*;
+import io.hhplus.tdd.shard.PointShardEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -17,6 +27,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,6 +39,27 @@ public class PointServiceTest {
     @Mock
     PointHistoryRepository pointHistoryRepository;
 
+    @Mock
+    PointMetrics pointMetrics;
+
+    @Mock
+    PointEventBus pointEventBus;
+
+    @Mock
+    PointShardEngine pointShardEngine;
+
+    @Mock
+    PointLedger pointLedger;
+
+    @Spy
+    UserLockManager userLockManager = new UserLockManager(new PointMetrics(new SimpleMeterRegistry()));
+
+    @Spy
+    IdempotencyStore idempotencyStore = new IdempotencyStore(60_000, 1_000, System::currentTimeMillis, new PointMetrics(new SimpleMeterRegistry()));
+
+    @Spy
+    PointCombiner pointCombiner = new PointCombiner(userLockManager, false);
+
     @InjectMocks
     PointService pointService;
 
@@ -239,4 +271,259 @@ public class PointServiceTest {
 
 
     }
+
+    /**
+     * 작성 이유 : 일괄 요청은 요청마다 검증하되, 잔액은 한 번만 저장하고 성공한 요청만 내역을 남기는지 확인
+     */
+    @Test
+    @DisplayName("일괄 충전/사용 시 거절된 요청은 건너뛰고 잔액은 한 번만 저장한다")
+    void applyBatch_mixedCommands_writeBalanceOnce() {
+        //given
+        long id = 1L;
+        UserPoint userPoint = new UserPoint(id, 100L, Instant.parse("2025-11-26T00:00:00Z").toEpochMilli());
+        given(userPointRepository.selectById(id)).willReturn(userPoint);
+        List<PointBatchCommand> commands = List.of(
+                new PointBatchCommand(id, TransactionType.USE, 30L),
+                new PointBatchCommand(id, TransactionType.USE, 100L),
+                new PointBatchCommand(id, TransactionType.CHARGE, 0L),
+                new PointBatchCommand(id, TransactionType.CHARGE, 50L)
+        );
+
+        //when
+        List<PointBatchResult> results = pointService.applyBatch(id, commands);
+
+        //then
+        assertThat(results).extracting(PointBatchResult::success).containsExactly(true, false, false, true);
+        assertThat(results).extracting(PointBatchResult::point).containsExactly(70L, 70L, 70L, 120L);
+        assertThat(results.get(1).errorCode()).isEqualTo(PointErrorCode.INSUFFICIENT_POINT.name());
+        assertThat(results.get(2).errorCode()).isEqualTo(PointErrorCode.INVALID_CHARGE_AMOUNT.name());
+        then(userPointRepository).should(times(1)).useOrChargePointById(id, 120L);
+        then(pointHistoryRepository).should(times(1)).insertPointHistory(eq(id), eq(30L), eq(TransactionType.USE), anyLong());
+        then(pointHistoryRepository).should(times(1)).insertPointHistory(eq(id), eq(50L), eq(TransactionType.CHARGE), anyLong());
+        then(pointHistoryRepository).shouldHaveNoMoreInteractions();
+    }
+
+    /**
+     * 작성 이유 : 내역 스트림이 페이지를 이어서 읽고, 마지막 페이지 다음에는 더 조회하지 않는지 확인
+     */
+    @Test
+    @DisplayName("내역 스트림은 nextCursor 를 따라 페이지를 이어 읽는다")
+    void streamPointHistory_followCursor_readAllPages() {
+        //given
+        long id = 1L;
+        PointHistoryQuery query = new PointHistoryQuery(null, 2, PointHistoryOrder.ASC, null, null, null);
+        PointHistory first = new PointHistory(1L, id, 100L, TransactionType.CHARGE, 1L);
+        PointHistory second = new PointHistory(2L, id, 50L, TransactionType.USE, 2L);
+        PointHistory third = new PointHistory(3L, id, 10L, TransactionType.CHARGE, 3L);
+        given(pointHistoryRepository.selectPageByUserId(id, query)).willReturn(new PointHistoryPage(List.of(first, second), 2L));
+        given(pointHistoryRepository.selectPageByUserId(id, query.after(2L))).willReturn(new PointHistoryPage(List.of(third), null));
+
+        //when
+        List<PointHistory> histories = pointService.streamPointHistory(id, query).toList();
+
+        //then
+        assertThat(histories).containsExactly(first, second, third);
+        then(pointHistoryRepository).should(times(2)).selectPageByUserId(eq(id), any());
+    }
+
+    /**
+     * 작성 이유 : 한 번에 너무 많은 내역을 조회하지 못하게 막는지 확인
+     */
+    @Test
+    @DisplayName("Red: 허용 범위를 벗어난 건수로 내역 페이지 조회")
+    void getPointHistoryPage_invalidLimit_returnFail() {
+        //given
+        PointHistoryQuery query = new PointHistoryQuery(null, PointPolicy.MAXIMUM_HISTORY_PAGE_SIZE + 1, PointHistoryOrder.DESC, null, null, null);
+
+        //when
+        //then
+        assertThatThrownBy(() -> pointService.getPointHistoryPage(1L, query))
+                .isInstanceOf(PointServiceException.class)
+                .hasMessage(PointErrorCode.INVALID_HISTORY_LIMIT.getMessage());
+        then(pointHistoryRepository).shouldHaveNoInteractions();
+    }
+
+    /**
+     * 작성 이유 : 일별 집계 조회 기간이 거꾸로이거나 너무 길면 저장소를 조회하지 않고 거절하는지 확인
+     */
+    @Test
+    @DisplayName("Red: 허용 범위를 벗어난 기간으로 일별 집계 조회")
+    void getDailyPointSummaries_invalidRange_returnFail() {
+        //given
+        LocalDate from = LocalDate.of(2025, 1, 1);
+
+        //when
+        //then
+        assertThatThrownBy(() -> pointService.getDailyPointSummaries(1L, from, from.minusDays(1)))
+                .isInstanceOf(PointServiceException.class)
+                .hasMessage(PointErrorCode.INVALID_SUMMARY_RANGE.getMessage());
+        assertThatThrownBy(() -> pointService.getDailyPointSummaries(1L, from, from.plusDays(PointPolicy.MAXIMUM_SUMMARY_DAYS)))
+                .isInstanceOf(PointServiceException.class)
+                .hasMessage(PointErrorCode.INVALID_SUMMARY_RANGE.getMessage());
+        then(pointHistoryRepository).shouldHaveNoInteractions();
+    }
+
+    /**
+     * 작성 이유 : 응답을 받지 못한 클라이언트가 같은 Idempotency-Key 로 재시도해도 한 번만 충전되는지 확인
+     */
+    @Test
+    @DisplayName("Green: 같은 Idempotency-Key 로 다시 충전하면 처음 결과를 돌려준다")
+    void chargePoint_sameIdempotencyKey_chargeOnce() {
+        //given
+        long id = 1L;
+        given(userPointRepository.selectById(id)).willReturn(new UserPoint(id, 100L, 0L));
+        given(userPointRepository.useOrChargePointById(id, 110L)).willReturn(new UserPoint(id, 110L, 1L));
+
+        //when
+        UserPoint first = pointService.chargeUserPoint(id, 10L, "key-1");
+        UserPoint retried = pointService.chargeUserPoint(id, 10L, "key-1");
+
+        //then
+        assertThat(retried).isEqualTo(first);
+        then(userPointRepository).should(times(1)).useOrChargePointById(id, 110L);
+        then(pointHistoryRepository).should(times(1)).insertPointHistory(eq(id), eq(10L), eq(TransactionType.CHARGE), anyLong());
+        // 같은 키로 다른 요청을 보내면 거절한다.
+        assertThatThrownBy(() -> pointService.useUserPoint(id, 10L, "key-1"))
+                .isInstanceOf(PointServiceException.class)
+                .hasMessage(PointErrorCode.IDEMPOTENCY_KEY_REUSED.getMessage());
+    }
+
+    /**
+     * 작성 이유 : 충전/사용으로 바뀐 잔액을 구독자에게 알리고, 거절된 요청은 알리지 않는지 확인
+     */
+    @Test
+    @DisplayName("잔액이 바뀌면 바뀐 잔액을 이벤트로 발행한다")
+    void chargeAndUsePoint_publishChangedPoint() {
+        //given
+        long id = 1L;
+        given(userPointRepository.selectById(id)).willReturn(new UserPoint(id, 100L, 0L));
+        given(userPointRepository.useOrChargePointById(id, 110L)).willReturn(new UserPoint(id, 110L, 1L));
+        given(userPointRepository.useOrChargePointById(id, 90L)).willReturn(new UserPoint(id, 90L, 2L));
+
+        //when
+        pointService.chargeUserPoint(id, 10L);
+        pointService.useUserPoint(id, 10L);
+        assertThatThrownBy(() -> pointService.useUserPoint(id, 1_000L))
+                .isInstanceOf(PointServiceException.class);
+
+        //then
+        then(pointEventBus).should().publish(new UserPoint(id, 110L, 1L));
+        then(pointEventBus).should().publish(new UserPoint(id, 90L, 2L));
+        then(pointEventBus).shouldHaveNoMoreInteractions();
+    }
+
+    /**
+     * 작성 이유 : 이체 시 두 유저의 잔액이 함께 바뀌고 양쪽에 내역이 남는지 확인
+     */
+    @Test
+    @DisplayName("Green: 포인트 이체 성공")
+    void transfer_havePoint_moveBalance() {
+        //given
+        given(userPointRepository.selectById(1L)).willReturn(new UserPoint(1L, 100L, 0L));
+        given(userPointRepository.selectById(2L)).willReturn(new UserPoint(2L, 10L, 0L));
+        given(userPointRepository.useOrChargePointById(1L, 70L)).willReturn(new UserPoint(1L, 70L, 1L));
+        given(userPointRepository.useOrChargePointById(2L, 40L)).willReturn(new UserPoint(2L, 40L, 1L));
+
+        //when
+        PointTransferResult result = pointService.transfer(1L, 2L, 30L);
+
+        //then
+        assertThat(result.from().point()).isEqualTo(70L);
+        assertThat(result.to().point()).isEqualTo(40L);
+        then(pointHistoryRepository).should(times(1)).insertPointHistory(eq(1L), eq(30L), eq(TransactionType.TRANSFER_OUT), anyLong());
+        then(pointHistoryRepository).should(times(1)).insertPointHistory(eq(2L), eq(30L), eq(TransactionType.TRANSFER_IN), anyLong());
+    }
+
+    /**
+     * 작성 이유 : 보유 포인트보다 많이 이체하거나 자기 자신에게 이체하면 어느 잔액도 바뀌지 않는지 확인
+     */
+    @Test
+    @DisplayName("Red: 보유 포인트 초과 또는 자기 자신에게 이체")
+    void transfer_invalidRequest_returnFail() {
+        //given
+        given(userPointRepository.selectById(1L)).willReturn(new UserPoint(1L, 100L, 0L));
+        given(userPointRepository.selectById(2L)).willReturn(new UserPoint(2L, 10L, 0L));
+
+        //when
+        //then
+        assertThatThrownBy(() -> pointService.transfer(1L, 2L, 101L))
+                .isInstanceOf(PointServiceException.class)
+                .hasMessage(PointErrorCode.INSUFFICIENT_POINT.getMessage());
+        assertThatThrownBy(() -> pointService.transfer(1L, 1L, 10L))
+                .isInstanceOf(PointServiceException.class)
+                .hasMessage(PointErrorCode.INVALID_TRANSFER_TARGET.getMessage());
+        then(userPointRepository).should(never()).useOrChargePointById(anyLong(), anyLong());
+        then(pointHistoryRepository).shouldHaveNoInteractions();
+    }
+
+    /**
+     * 작성 이유 : 거절할 때마다 예외를 새로 만들지 않고, 거절 사유별로 미리 만든 stack trace 없는 예외를 던지는지 확인
+     */
+    @Test
+    @DisplayName("같은 사유의 거절은 stack trace 없는 같은 예외 객체를 던진다")
+    void use_rejected_throwPreallocatedException() {
+        //given
+        given(userPointRepository.selectById(1L)).willReturn(new UserPoint(1L, 100L, 0L));
+        PointServiceException[] thrown = new PointServiceException[2];
+
+        //when
+        for (int i = 0; i < thrown.length; i++) {
+            try {
+                pointService.useUserPoint(1L, 101L);
+            } catch (PointServiceException e) {
+                thrown[i] = e;
+            }
+        }
+
+        //then
+        assertThat(thrown[0]).isSameAs(PointServiceException.of(PointErrorCode.INSUFFICIENT_POINT));
+        assertThat(thrown[1]).isSameAs(thrown[0]);
+        assertThat(thrown[0].getStackTrace()).isEmpty();
+        assertThat(thrown[0].getErrorCode()).isEqualTo(PointErrorCode.INSUFFICIENT_POINT);
+    }
+
+    /**
+     * 작성 이유 : 받는 유저의 잔액 저장이 실패하면 이미 저장한 보낸 유저의 잔액을 되돌리는지 확인
+     */
+    @Test
+    @DisplayName("Red: 받는 유저 잔액 저장 실패 시 보낸 유저 잔액을 되돌린다")
+    void transfer_writeFails_rollbackSender() {
+        //given
+        given(userPointRepository.selectById(1L)).willReturn(new UserPoint(1L, 100L, 0L));
+        given(userPointRepository.selectById(2L)).willReturn(new UserPoint(2L, 10L, 0L));
+        given(userPointRepository.useOrChargePointById(1L, 70L)).willReturn(new UserPoint(1L, 70L, 1L));
+        given(userPointRepository.useOrChargePointById(2L, 40L)).willThrow(new IllegalStateException("write failed"));
+
+        //when
+        //then
+        assertThatThrownBy(() -> pointService.transfer(1L, 2L, 30L))
+                .isInstanceOf(IllegalStateException.class);
+        then(userPointRepository).should(times(1)).useOrChargePointById(1L, 100L);
+        then(pointHistoryRepository).shouldHaveNoInteractions();
+    }
+
+    /**
+     * 작성 이유 : 두 잔액을 저장한 뒤 받는 유저의 내역을 남기지 못하면, 두 잔액을 되돌리고 이미 남긴 TRANSFER_OUT 내역을 상쇄하는지 확인
+     */
+    @Test
+    @DisplayName("Red: 받는 유저 내역 저장 실패 시 두 잔액을 되돌리고 보낸 유저 내역을 상쇄한다")
+    void transfer_historyFails_rollbackBothAndCompensate() {
+        //given
+        given(userPointRepository.selectById(1L)).willReturn(new UserPoint(1L, 100L, 0L));
+        given(userPointRepository.selectById(2L)).willReturn(new UserPoint(2L, 10L, 0L));
+        given(userPointRepository.useOrChargePointById(1L, 70L)).willReturn(new UserPoint(1L, 70L, 1L));
+        given(userPointRepository.useOrChargePointById(2L, 40L)).willReturn(new UserPoint(2L, 40L, 1L));
+        given(pointHistoryRepository.insertPointHistory(eq(2L), eq(30L), eq(TransactionType.TRANSFER_IN), anyLong()))
+                .willThrow(new IllegalStateException("history failed"));
+
+        //when
+        //then
+        assertThatThrownBy(() -> pointService.transfer(1L, 2L, 30L))
+                .isInstanceOf(IllegalStateException.class);
+        then(userPointRepository).should(times(1)).useOrChargePointById(2L, 10L);
+        then(userPointRepository).should(times(1)).useOrChargePointById(1L, 100L);
+        then(pointHistoryRepository).should(times(1)).insertPointHistory(eq(1L), eq(30L), eq(TransactionType.TRANSFER_OUT), anyLong());
+        then(pointHistoryRepository).should(times(1)).insertPointHistory(eq(1L), eq(30L), eq(TransactionType.TRANSFER_IN), anyLong());
+        then(pointEventBus).shouldHaveNoInteractions();
+    }
 }
@@ -0,0 +1,324 @@
+package io.hhplus.tdd.pointTest;
+
+import io.hhplus.tdd.cluster.PointHandoff;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+import io.hhplus.tdd.pointTest.support.PointFixture;
+import io.hhplus.tdd.pointTest.support.SnapshotCrashApp;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PointSnapshotTest {
+
+    private static final int SEED_USERS = 300_000;
+    private static final Pattern ACK = Pattern.compile("ack (\\d+) (\\d+)");
+
+    @TempDir
+    Path journalDir;
+
+    /**
+     * 작성 이유 : 스냅샷을 만든 뒤에는 반영된 세그먼트가 지워지고, 재시작 시 스냅샷 + 남은 저널만으로 복구되는지 확인
+     */
+    @Test
+    @DisplayName("스냅샷 이후 저널이 잘려도 재시작 시 잔액과 내역이 복구된다")
+    void recover_fromSnapshotAndJournalTail() throws IOException {
+        //given
+        List<PointHistory> histories;
+        try (PointFixture before = PointFixture.journaled(0, journalDir.toString())) {
+            for (long id = 1; id <= 10; id++) {
+                before.pointService.chargeUserPoint(id, 1_000L);
+            }
+            assertThat(before.pointSnapshotter.snapshot()).isTrue();
+            // 반영할 새 세그먼트가 없으면 스냅샷을 만들지 않는다.
+            assertThat(before.pointSnapshotter.snapshot()).isFalse();
+            for (long id = 1; id <= 10; id++) {
+                before.pointService.useUserPoint(id, id * 10);
+            }
+            histories = before.pointService.getPointHistory(3L);
+
+            assertThat(before.meterRegistry.get("point.journal.snapshot").timer().count()).isEqualTo(1L);
+            assertThat(before.meterRegistry.get("point.journal.snapshot.size").summary().totalAmount()).isGreaterThan(0.0);
+        }
+
+        //when
+        try (PointFixture after = PointFixture.journaled(0, journalDir.toString())) {
+
+            //then
+            assertThat(files("snapshot-", ".snap")).hasSize(1);
+            // 스냅샷이 손상되면 바탕 스냅샷(처음이면 빈 이미지)부터 다시 재생하도록, 그 뒤의 세그먼트는 남긴다.
+            assertThat(files("journal-", ".log")).hasSize(2);
+            for (long id = 1; id <= 10; id++) {
+                assertThat(after.pointService.getUserPoint(id).point()).isEqualTo(1_000L - id * 10);
+            }
+            assertThat(after.pointService.getPointHistory(3L)).isEqualTo(histories);
+
+            // 두 번째 스냅샷은 이전 스냅샷 이후의 변경만 증분 스냅샷으로 쓰고, 이전 스냅샷은 바탕으로 남긴다.
+            after.pointService.chargeUserPoint(3L, 1L);
+            assertThat(after.pointSnapshotter.snapshot()).isTrue();
+            assertThat(files("snapshot-", ".snap")).hasSize(1);
+            assertThat(files("snapshot-", ".delta")).hasSize(1);
+        }
+        try (PointFixture again = PointFixture.journaled(0, journalDir.toString())) {
+            assertThat(again.pointService.getUserPoint(3L).point()).isEqualTo(1_000L - 30 + 1);
+            List<PointHistory> resumed = again.pointService.getPointHistory(3L);
+            assertThat(resumed).hasSize(3);
+            assertThat(resumed.get(2).id()).isEqualTo(21L);
+        }
+    }
+
+    /**
+     * 작성 이유 : 최신 스냅샷이 손상되어도 이전 스냅샷과 그 뒤의 저널을 재생해서 잔액과 내역을 모두 복구하는지 확인
+     */
+    @Test
+    @DisplayName("최신 증분 스냅샷이 손상되면 이전 스냅샷과 더 긴 저널로 복구한다")
+    void recover_latestSnapshotCorrupted_fallBackToPrevious() throws IOException {
+        //given
+        List<PointHistory> histories;
+        try (PointFixture before = PointFixture.journaled(0, journalDir.toString())) {
+            for (long id = 1; id <= 10; id++) {
+                before.pointService.chargeUserPoint(id, 1_000L);
+            }
+            assertThat(before.pointSnapshotter.snapshot()).isTrue();
+            for (long id = 1; id <= 10; id++) {
+                before.pointService.useUserPoint(id, id * 10);
+            }
+            assertThat(before.pointSnapshotter.snapshot()).isTrue();
+            before.pointService.chargeUserPoint(3L, 1L);
+            histories = before.pointService.getPointHistory(3L);
+        }
+        assertThat(files("snapshot-", ".snap")).hasSize(1);
+        List<Path> deltas = files("snapshot-", ".delta");
+        assertThat(deltas).hasSize(1);
+        Path newest = deltas.get(0);
+        byte[] bytes = Files.readAllBytes(newest);
+        bytes[bytes.length / 2] ^= (byte) 0xFF;
+        Files.write(newest, bytes);
+
+        //when
+        try (PointFixture after = PointFixture.journaled(0, journalDir.toString())) {
+
+            //then
+            for (long id = 1; id <= 10; id++) {
+                assertThat(after.pointService.getUserPoint(id).point()).isEqualTo(1_000L - id * 10 + (id == 3L ? 1 : 0));
+            }
+            assertThat(after.pointService.getPointHistory(3L)).isEqualTo(histories);
+
+            // 다음 스냅샷은 읽은 스냅샷을 바탕으로 만들고, 손상된 스냅샷은 지운다.
+            assertThat(after.pointSnapshotter.snapshot()).isTrue();
+            assertThat(files("snapshot-", ".snap")).hasSize(1);
+            assertThat(files("snapshot-", ".delta")).doesNotContain(newest).hasSize(1);
+        }
+    }
+
+    /**
+     * 작성 이유 : 스냅샷에도 유저 삭제가 반영되어, 넘긴 유저의 이전 내역은 빠지고 삭제 뒤에 다시 넘겨받은 내역은 남는지 확인
+     */
+    @Test
+    @DisplayName("스냅샷은 넘긴 유저를 빼고, 다시 넘겨받은 유저는 넘겨받은 내역만 남긴다")
+    void recover_snapshotAfterHandoff_dropRemovedHistories() throws IOException {
+        //given
+        List<PointHistory> handedOver = List.of(new PointHistory(50L, 2L, 5_000L, TransactionType.CHARGE, 1L));
+        try (PointFixture before = PointFixture.journaled(0, journalDir.toString())) {
+            for (long id = 1; id <= 3; id++) {
+                before.pointService.chargeUserPoint(id, 1_000L);
+            }
+            before.pointHistoryRepository.deleteAllByUserId(1L);
+            before.userPointRepository.evict(1L);
+            // 유저 2 는 넘긴 뒤 다시 넘겨받는다.
+            before.pointHistoryRepository.deleteAllByUserId(2L);
+            before.userPointRepository.evict(2L);
+            before.pointClusterRouter.accept(List.of(new PointHandoff(2L, 5_000L, handedOver)));
+
+            //when
+            assertThat(before.pointSnapshotter.snapshot()).isTrue();
+        }
+
+        //then
+        try (PointFixture after = PointFixture.journaled(0, journalDir.toString())) {
+            assertThat(after.pointHistoryIndex.countByUserId(1L)).isZero();
+            assertThat(after.pointService.getUserPoint(1L).point()).isZero();
+            assertThat(after.pointService.getPointHistory(2L)).isEqualTo(handedOver);
+            assertThat(after.pointService.getUserPoint(2L).point()).isEqualTo(5_000L);
+            assertThat(after.pointService.getPointHistory(3L)).extracting(PointHistory::amount).containsExactly(1_000L);
+            // 스냅샷에서 뺀 내역의 id 도 다시 발급하지 않는다.
+            after.pointService.chargeUserPoint(3L, 1L);
+            List<PointHistory> resumed = after.pointService.getPointHistory(3L);
+            assertThat(resumed.get(resumed.size() - 1).id()).isEqualTo(51L);
+        }
+    }
+
+    /**
+     * 작성 이유 : 증분 스냅샷은 이전 스냅샷 이후 바뀐 유저와 새 내역만 쓰고, 증분이 전체 스냅샷만큼 쌓이면 전체 스냅샷으로 합치는지 확인
+     * 매번 전체를 다시 쓰면 스냅샷 비용이 전체 내역 수에 비례해서 커진다.
+     */
+    @Test
+    @DisplayName("증분 스냅샷은 바뀐 만큼만 쓰고, 쌓이면 전체 스냅샷으로 합친다")
+    void snapshot_deltaUntilLargeAsFull_thenMerge() throws IOException {
+        //given
+        try (PointFixture before = PointFixture.journaled(0, journalDir.toString())) {
+            for (long id = 1; id <= 1_000; id++) {
+                before.pointService.chargeUserPoint(id, 1_000L);
+            }
+            assertThat(before.pointSnapshotter.snapshot()).isTrue();
+            long fullBytes = Files.size(files("snapshot-", ".snap").get(0));
+
+            //when
+            before.pointService.useUserPoint(7L, 100L);
+            assertThat(before.pointSnapshotter.snapshot()).isTrue();
+            long deltaBytes = Files.size(files("snapshot-", ".delta").get(0));
+            for (long id = 1; id <= 1_000; id++) {
+                before.pointService.chargeUserPoint(id, 1L);
+            }
+            assertThat(before.pointSnapshotter.snapshot()).isTrue();
+            assertThat(files("snapshot-", ".delta")).hasSize(2);
+            before.pointService.chargeUserPoint(7L, 1L);
+            assertThat(before.pointSnapshotter.snapshot()).isTrue();
+            List<Path> merged = files("snapshot-", ".snap");
+            before.pointService.chargeUserPoint(7L, 1L);
+            assertThat(before.pointSnapshotter.snapshot()).isTrue();
+
+            //then
+            assertThat(deltaBytes).isLessThan(fullBytes / 100);
+            // 합친 직후에는 이전 전체 스냅샷과 증분 스냅샷을 바탕으로 남기고, 그 다음 스냅샷에서 지운다.
+            assertThat(merged).hasSize(2);
+            assertThat(files("snapshot-", ".snap")).hasSize(1);
+            assertThat(files("snapshot-", ".delta")).hasSize(1);
+        }
+        try (PointFixture after = PointFixture.journaled(0, journalDir.toString())) {
+            assertThat(after.pointService.getUserPoint(7L).point()).isEqualTo(1_000L - 100 + 3);
+            assertThat(after.pointService.getUserPoint(1_000L).point()).isEqualTo(1_001L);
+            assertThat(after.pointService.getPointHistory(7L)).hasSize(5);
+        }
+    }
+
+    /**
+     * 작성 이유 : 유저를 넘긴 기록이 증분 스냅샷에 들어가도, 복구 시 이전 스냅샷에 있던 그 유저의 잔액과 내역이 지워지는지 확인
+     */
+    @Test
+    @DisplayName("증분 스냅샷에 담긴 유저 삭제는 이전 스냅샷의 잔액과 내역도 지운다")
+    void recover_removalInDelta_dropEarlierSnapshot() throws IOException {
+        //given
+        List<PointHistory> handedOver = List.of(new PointHistory(50L, 2L, 5_000L, TransactionType.CHARGE, 1L));
+        try (PointFixture before = PointFixture.journaled(0, journalDir.toString())) {
+            for (long id = 1; id <= 3; id++) {
+                before.pointService.chargeUserPoint(id, 1_000L);
+            }
+            assertThat(before.pointSnapshotter.snapshot()).isTrue();
+            before.pointHistoryRepository.deleteAllByUserId(1L);
+            before.userPointRepository.evict(1L);
+            before.pointHistoryRepository.deleteAllByUserId(2L);
+            before.userPointRepository.evict(2L);
+            before.pointClusterRouter.accept(List.of(new PointHandoff(2L, 5_000L, handedOver)));
+
+            //when
+            assertThat(before.pointSnapshotter.snapshot()).isTrue();
+            assertThat(files("snapshot-", ".delta")).hasSize(1);
+        }
+
+        //then
+        try (PointFixture after = PointFixture.journaled(0, journalDir.toString())) {
+            assertThat(after.pointHistoryIndex.countByUserId(1L)).isZero();
+            assertThat(after.pointService.getUserPoint(1L).point()).isZero();
+            assertThat(after.pointService.getPointHistory(2L)).isEqualTo(handedOver);
+            assertThat(after.pointService.getUserPoint(2L).point()).isEqualTo(5_000L);
+            assertThat(after.pointService.getPointHistory(3L)).extracting(PointHistory::amount).containsExactly(1_000L);
+        }
+    }
+
+    /**
+     * 작성 이유 : 스냅샷을 쓰는 도중 프로세스가 죽어도(kill -9) 응답까지 받은 충전은 유실되지 않는지 확인
+     * 별도 JVM 에서 충전과 스냅샷을 쉬지 않고 돌리다가, 스냅샷 임시 파일이 보이는 순간 강제 종료한다.
+     * 출력을 끝까지 읽어야 하므로 스트림을 닫는 Process.destroyForcibly 대신 ProcessHandle 로 종료 신호만 보낸다.
+     */
+    @Test
+    @DisplayName("스냅샷 생성 도중 프로세스가 강제 종료되어도 응답한 충전은 모두 복구된다")
+    void recover_processKilledDuringSnapshot_keepAcknowledgedCharges() throws Exception {
+        //given
+        String java = ProcessHandle.current().info().command().orElse("java");
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                SnapshotCrashApp.class.getName(), journalDir.toString(), String.valueOf(SEED_USERS))
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        long[] acknowledged = new long[SnapshotCrashApp.USERS + 1];
+        AtomicLong total = new AtomicLong();
+        AtomicBoolean killedDuringSnapshot = new AtomicBoolean();
+
+        //when
+        Thread killer = Thread.ofPlatform().start(() -> killDuringSnapshot(process, total, killedDuringSnapshot));
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Matcher ack = ACK.matcher(line);
+                if (ack.matches()) {
+                    acknowledged[Integer.parseInt(ack.group(1))] = Long.parseLong(ack.group(2));
+                    total.incrementAndGet();
+                }
+            }
+        } finally {
+            killer.join();
+            assertThat(process.waitFor(30, TimeUnit.SECONDS)).isTrue();
+        }
+        System.out.printf("acknowledged %d charges before kill%n", total.get());
+
+        //then
+        assertThat(killedDuringSnapshot.get()).isTrue();
+        try (PointFixture after = PointFixture.journaled(0, journalDir.toString())) {
+            for (int id = 1; id <= SnapshotCrashApp.USERS; id++) {
+                long point = after.pointService.getUserPoint(id).point();
+                // 마지막 충전은 저널에 남았지만 응답하기 전에 죽었을 수 있다.
+                assertThat(point).isBetween(acknowledged[id], acknowledged[id] + 1);
+                // 잔액을 기록한 뒤 내역을 기록하므로 내역이 하나 모자랄 수 있다.
+                assertThat((long) after.pointService.getPointHistory(id).size()).isBetween(point - 1, point);
+            }
+            assertThat(after.pointService.getUserPoint(SnapshotCrashApp.SEED_USER_ID + SEED_USERS - 1).point())
+                    .isEqualTo(SnapshotCrashApp.SEED_POINT);
+            assertThat(files("snapshot-", ".tmp")).isEmpty();
+        }
+    }
+
+    /**
+     * 충전이 충분히 쌓인 뒤 스냅샷 임시 파일이 생기면 프로세스를 죽인다. 1분 안에 보이지 않으면 그냥 죽인다.
+     */
+    private void killDuringSnapshot(Process process, AtomicLong total, AtomicBoolean killedDuringSnapshot) {
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+        try {
+            while (process.isAlive() && System.nanoTime() < deadline) {
+                if (total.get() >= 5_000 && !files("snapshot-", ".tmp").isEmpty()) {
+                    killedDuringSnapshot.set(true);
+                    break;
+                }
+                TimeUnit.MILLISECONDS.sleep(1);
+            }
+        } catch (IOException | InterruptedException e) {
+            // 확인하지 못하면 바로 종료한다.
+        } finally {
+            process.toHandle().destroyForcibly();
+        }
+    }
+
+    private List<Path> files(String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(journalDir)) {
+            return files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(prefix) && name.endsWith(suffix);
+            }).toList();
+        }
+    }
+}
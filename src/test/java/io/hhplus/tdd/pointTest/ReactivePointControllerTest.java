@@ -0,0 +1,86 @@
+package io.hhplus.tdd.pointTest;
+
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.hhplus.tdd.exception.PointServiceException;
+import io.hhplus.tdd.point.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(ReactivePointController.class)
+@ActiveProfiles("reactive")
+public class ReactivePointControllerTest {
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    @MockBean
+    ReactivePointService reactivePointService;
+
+    @Test
+    @DisplayName("GET point/{id} 특정 유저의 포인트를 조회한다")
+    void getUserPoint_returnUserPoint() {
+        //given
+        //when
+        when(reactivePointService.getUserPoint(1L)).thenReturn(Mono.just(new UserPoint(1L, 100L, 0L)));
+        //then
+        webTestClient.get().uri("/point/{id}", 1L)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1)
+                .jsonPath("$.point").isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("PATCH /point/{id}/charge 거절되면 400 과 사유를 응답한다")
+    void chargeUserPoint_returnFail() {
+        //given
+        //when
+        when(reactivePointService.chargeUserPoint(1L, 0L, null))
+                .thenReturn(Mono.error(new PointServiceException(PointErrorCode.INVALID_CHARGE_AMOUNT)));
+        //then
+        webTestClient.patch().uri("/point/{id}/charge", 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("0")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.code").isEqualTo(PointErrorCode.INVALID_CHARGE_AMOUNT.name())
+                .jsonPath("$.message").isEqualTo(PointErrorCode.INVALID_CHARGE_AMOUNT.getMessage());
+    }
+
+    @Test
+    @DisplayName("GET /point/{id}/histories/stream 내역을 한 줄에 하나씩 NDJSON 으로 응답한다")
+    void historyStream_returnNdjson() {
+        //given
+        //when
+        when(reactivePointService.streamPointHistory(eq(1L), any())).thenReturn(Flux.just(
+                new PointHistory(1L, 1L, 100L, TransactionType.CHARGE, 0L),
+                new PointHistory(2L, 1L, 30L, TransactionType.USE, 0L)
+        ));
+        //then
+        String body = webTestClient.get().uri("/point/{id}/histories/stream", 1L)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+        assertThat(body.lines().toList()).hasSize(2);
+        assertThat(body.lines().findFirst().orElseThrow()).contains("\"amount\":100");
+    }
+}
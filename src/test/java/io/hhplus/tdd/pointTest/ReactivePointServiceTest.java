@@ -0,0 +1,184 @@
+package io.hhplus.tdd.pointTest;
+
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.hhplus.tdd.exception.PointServiceException;
+import io.hhplus.tdd.point.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+public class ReactivePointServiceTest {
+
+    private static final int THREAD_CAP = 16;
+
+    @Mock
+    PointService pointService;
+
+    private ReactivePointService reactivePointService;
+
+    @BeforeEach
+    void setUp() {
+        reactivePointService = new ReactivePointService(pointService, THREAD_CAP, 100_000, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reactivePointService.stop();
+    }
+
+    /**
+     * 작성 이유 : 블로킹되는 PointService 호출이 이벤트 루프가 아니라 전용 스케줄러 스레드에서 실행되는지 확인
+     */
+    @Test
+    @DisplayName("포인트 조회는 전용 스케줄러 스레드에서 실행된다")
+    void getUserPoint_runOnScheduler() {
+        //given
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        given(pointService.getUserPoint(1L)).willAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            return new UserPoint(1L, 100L, 0L);
+        });
+
+        //when
+        Mono<UserPoint> point = reactivePointService.getUserPoint(1L);
+
+        //then
+        StepVerifier.create(point)
+                .expectNext(new UserPoint(1L, 100L, 0L))
+                .verifyComplete();
+        assertThat(threads).allMatch(name -> name.startsWith("point-reactive"));
+    }
+
+    /**
+     * 작성 이유 : 거절 예외가 Mono 의 에러로 전달되는지 확인
+     */
+    @Test
+    @DisplayName("충전이 거절되면 PointServiceException 으로 끝난다")
+    void chargeUserPoint_invalidAmount_error() {
+        //given
+        given(pointService.chargeUserPoint(1L, 0L)).willThrow(new PointServiceException(PointErrorCode.INVALID_CHARGE_AMOUNT));
+
+        //when
+        Mono<UserPoint> point = reactivePointService.chargeUserPoint(1L, 0L, null);
+
+        //then
+        StepVerifier.create(point)
+                .expectErrorMatches(e -> e instanceof PointServiceException exception
+                        && exception.getErrorCode() == PointErrorCode.INVALID_CHARGE_AMOUNT)
+                .verify(Duration.ofSeconds(10));
+    }
+
+    /**
+     * 작성 이유 : 받는 쪽이 요청한 만큼만 내역을 읽고, 구독을 취소하면 스트림을 닫는지 확인 (backpressure)
+     */
+    @Test
+    @DisplayName("내역 스트림은 요청한 만큼만 읽고 취소하면 닫힌다")
+    void streamPointHistory_readOnDemand() {
+        //given
+        AtomicInteger produced = new AtomicInteger();
+        AtomicBoolean closed = new AtomicBoolean();
+        given(pointService.streamPointHistory(eq(1L), any())).willAnswer(invocation -> LongStream.rangeClosed(1, 100_000)
+                .mapToObj(id -> {
+                    produced.incrementAndGet();
+                    return new PointHistory(id, 1L, 10L, TransactionType.CHARGE, id);
+                })
+                .onClose(() -> closed.set(true)));
+        PointHistoryQuery query = new PointHistoryQuery(null, 1000, PointHistoryOrder.ASC, null, null, null);
+
+        //when
+        Flux<PointHistory> histories = reactivePointService.streamPointHistory(1L, query);
+
+        //then
+        StepVerifier.create(histories, 0)
+                .thenRequest(10)
+                .expectNextCount(10)
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+        assertThat(produced.get()).isLessThanOrEqualTo(11);
+        assertThat(closed.get()).isTrue();
+    }
+
+    /**
+     * 작성 이유 : 동시에 들어온 요청이 스케줄러 스레드 수보다 훨씬 많아도, 스레드는 thread-cap 까지만 쓰고 모두 처리되는지 확인
+     */
+    @Test
+    @DisplayName("요청 1만 건을 동시에 보내도 스레드 16개로 모두 처리한다")
+    void getUserPoint_manyInFlight_boundedThreads() {
+        //given
+        int requestCount = 10_000;
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        given(pointService.getUserPoint(anyLong())).willAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            TimeUnit.MICROSECONDS.sleep(200);
+            long id = invocation.getArgument(0);
+            return new UserPoint(id, id, 0L);
+        });
+
+        //when
+        List<UserPoint> points = Flux.range(0, requestCount)
+                .flatMap(id -> reactivePointService.getUserPoint(id), requestCount)
+                .collectList()
+                .block(Duration.ofMinutes(1));
+
+        //then
+        assertThat(points).hasSize(requestCount);
+        assertThat(threads).hasSizeLessThanOrEqualTo(THREAD_CAP);
+    }
+
+    /**
+     * 작성 이유 : 이체 요청도 스케줄러에서 실행되어 결과가 그대로 전달되는지 확인
+     */
+    @Test
+    @DisplayName("이체 결과를 그대로 전달한다")
+    void transfer_returnResult() {
+        //given
+        PointTransferResult result = new PointTransferResult(new UserPoint(1L, 70L, 0L), new UserPoint(2L, 30L, 0L));
+        given(pointService.transfer(1L, 2L, 30L)).willReturn(result);
+
+        //when
+        //then
+        StepVerifier.create(reactivePointService.transfer(1L, 2L, 30L))
+                .expectNext(result)
+                .verifyComplete();
+    }
+
+    /**
+     * 작성 이유 : servlet interceptor 로만 구현된 admission control 이나 클러스터 라우팅을 켜고 reactive 로 띄우면 시작하지 않는지 확인
+     * 그대로 띄우면 설정은 켜져 있는데 과부하 거절이나 담당 노드 전달 없이 요청을 받는다.
+     */
+    @Test
+    @DisplayName("admission control 이나 클러스터를 켜면 reactive 로 시작하지 않는다")
+    void create_servletOnlyFeatureEnabled_failFast() {
+        //given
+        //when
+        //then
+        assertThatThrownBy(() -> new ReactivePointService(pointService, THREAD_CAP, 100_000, false, true, false))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new ReactivePointService(pointService, THREAD_CAP, 100_000, false, false, true))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
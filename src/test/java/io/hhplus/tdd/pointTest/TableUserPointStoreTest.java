@@ -0,0 +1,91 @@
+package io.hhplus.tdd.pointTest;
+
+import io.hhplus.tdd.point.UserPoint;
+import io.hhplus.tdd.pointTest.support.InMemoryUserPointTable;
+import io.hhplus.tdd.store.TableUserPointStore;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TableUserPointStoreTest {
+
+    /**
+     * 작성 이유 : 한 유저의 잔액을 테이블에 쓰는 중에도 다른 유저의 저장과 조회가 그 쓰기를 기다리지 않고 끝나는지 확인
+     * 테이블 접근을 락 하나로 막으면 유저 2 의 저장은 유저 1 의 테이블 쓰기가 풀릴 때까지 멈춘다.
+     */
+    @Test
+    @DisplayName("한 유저의 테이블 쓰기가 멈춰 있어도 다른 유저의 저장은 바로 끝난다")
+    void insertOrUpdate_tableWriteBlocked_otherUserProceeds() throws Exception {
+        //given
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        InMemoryUserPointTable userPointTable = new InMemoryUserPointTable(0) {
+            @Override
+            public UserPoint insertOrUpdate(long id, long amount) {
+                if (id == 1L) {
+                    writing.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.insertOrUpdate(id, amount);
+            }
+        };
+        TableUserPointStore store = new TableUserPointStore(userPointTable);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        //when
+        store.insertOrUpdate(1L, 100L);
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<UserPoint> other = executor.submit(() -> store.insertOrUpdate(2L, 200L));
+        UserPoint saved = other.get(1, TimeUnit.SECONDS);
+
+        //then
+        assertThat(saved.point()).isEqualTo(200L);
+        assertThat(store.selectById(1L).point()).isEqualTo(100L);
+        assertThat(store.selectById(2L).point()).isEqualTo(200L);
+        assertThat(store.awaitWritten(100)).isFalse();
+
+        release.countDown();
+        assertThat(store.awaitWritten(5_000)).isTrue();
+        assertThat(userPointTable.selectById(1L).point()).isEqualTo(100L);
+        assertThat(userPointTable.selectById(2L).point()).isEqualTo(200L);
+        executor.shutdown();
+        store.stop();
+    }
+
+    /**
+     * 작성 이유 : 테이블에 이미 있는 유저는 테이블에서 읽고, 여러 번 저장한 유저는 마지막 값이 테이블에 남는지 확인
+     */
+    @Test
+    @DisplayName("테이블에만 있는 유저를 읽고, 테이블에는 마지막으로 저장한 값이 남는다")
+    void insertOrUpdate_manyTimes_tableHasLast() throws Exception {
+        //given
+        InMemoryUserPointTable userPointTable = new InMemoryUserPointTable(0);
+        userPointTable.insertOrUpdate(1L, 300L);
+        TableUserPointStore store = new TableUserPointStore(userPointTable);
+
+        //when
+        UserPoint loaded = store.selectById(1L);
+        for (long point = 1; point <= 100; point++) {
+            store.insertOrUpdate(2L, point);
+        }
+
+        //then
+        assertThat(loaded.point()).isEqualTo(300L);
+        assertThat(store.selectById(3L).point()).isZero();
+        assertThat(store.awaitWritten(5_000)).isTrue();
+        assertThat(userPointTable.selectById(2L).point()).isEqualTo(100L);
+        assertThat(store.selectById(2L).point()).isEqualTo(100L);
+        store.stop();
+    }
+}
@@ -0,0 +1,193 @@
+package io.hhplus.tdd.pointTest;
+
+import io.hhplus.tdd.cache.UserPointCache;
+import io.hhplus.tdd.point.UserPoint;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UserPointCacheTest {
+
+    /**
+     * 작성 이유 : 가장 오래 조회/갱신되지 않은 유저부터 제거하고, 조회와 putIfAbsent 도 최근 사용으로 치는지 확인
+     */
+    @Test
+    @DisplayName("capacity 를 넘으면 가장 오래 사용하지 않은 유저 순서로 제거한다")
+    void put_overCapacity_evictInLruOrder() {
+        //given
+        UserPointCache cache = new UserPointCache(3);
+        cache.put(new UserPoint(1L, 1L, 0L));
+        cache.put(new UserPoint(2L, 2L, 0L));
+        cache.put(new UserPoint(3L, 3L, 0L));
+        cache.get(1L);
+        cache.putIfAbsent(new UserPoint(2L, 20L, 0L));
+
+        //when
+        cache.put(new UserPoint(4L, 4L, 0L));
+        cache.put(new UserPoint(5L, 5L, 0L));
+
+        //then
+        // 1, 2 를 사용했으므로 3 → 1 순서로 제거된다.
+        assertThat(cache.get(3L)).isNull();
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.get(2L)).isEqualTo(new UserPoint(2L, 2L, 0L));
+        assertThat(cache.get(4L)).isNotNull();
+        assertThat(cache.get(5L)).isNotNull();
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(cache.evictionCount()).isEqualTo(2L);
+    }
+
+    /**
+     * 작성 이유 : 해시 슬롯이 겹치는 유저들이 테이블 끝에서 처음으로 이어지는 탐색 구간에 있을 때,
+     * 앞쪽 유저를 지워도(backward shift) 뒤쪽 유저를 계속 찾을 수 있는지 확인
+     */
+    @Test
+    @DisplayName("테이블 끝을 넘어 이어진 충돌 구간에서 지워도 남은 유저를 찾는다")
+    void evict_collidingAroundWrap_keepOthersReachable() {
+        //given
+        // capacity 8 이면 슬롯은 16 개이고, 마지막 슬롯(15)이 home 인 유저 넷은 15, 0, 1, 2 슬롯을 차지한다.
+        // 슬롯 0 이 home 인 유저는 그 뒤인 3 으로 밀린다.
+        UserPointCache cache = new UserPointCache(8);
+        List<Long> lastSlotIds = idsWithHomeSlot(15, 16, 4);
+        long firstSlotId = idsWithHomeSlot(0, 16, 1).get(0);
+        for (long id : lastSlotIds) {
+            cache.put(new UserPoint(id, id, 0L));
+        }
+        cache.put(new UserPoint(firstSlotId, firstSlotId, 0L));
+
+        //when
+        cache.evict(lastSlotIds.get(0));
+        cache.evict(lastSlotIds.get(2));
+
+        //then
+        assertThat(cache.get(lastSlotIds.get(0))).isNull();
+        assertThat(cache.get(lastSlotIds.get(2))).isNull();
+        assertThat(cache.get(lastSlotIds.get(1))).isEqualTo(new UserPoint(lastSlotIds.get(1), lastSlotIds.get(1), 0L));
+        assertThat(cache.get(lastSlotIds.get(3))).isEqualTo(new UserPoint(lastSlotIds.get(3), lastSlotIds.get(3), 0L));
+        assertThat(cache.get(firstSlotId)).isEqualTo(new UserPoint(firstSlotId, firstSlotId, 0L));
+        assertThat(cache.size()).isEqualTo(3);
+
+        // 지운 자리를 다시 채워도 모두 찾는다.
+        cache.put(new UserPoint(lastSlotIds.get(0), 100L, 0L));
+        assertThat(cache.get(lastSlotIds.get(0)).point()).isEqualTo(100L);
+        assertThat(cache.get(lastSlotIds.get(3))).isNotNull();
+        assertThat(cache.get(firstSlotId)).isNotNull();
+    }
+
+    /**
+     * 작성 이유 : 충돌이 잦은 작은 캐시에서 조회/갱신/제거를 섞어도, 접근 순서 LinkedHashMap 과 같은 결과를 내는지 확인
+     */
+    @Test
+    @DisplayName("무작위 조회/갱신/제거 결과가 접근 순서 LinkedHashMap 과 같다")
+    void randomOperations_matchLinkedHashMap() {
+        //given
+        int capacity = 8;
+        UserPointCache cache = new UserPointCache(capacity);
+        Map<Long, UserPoint> expected = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, UserPoint> eldest) {
+                return size() > capacity;
+            }
+        };
+        Random random = new Random(42);
+
+        //when
+        //then
+        for (int i = 0; i < 200_000; i++) {
+            long id = random.nextInt(40);
+            switch (random.nextInt(4)) {
+                case 0 -> assertThat(cache.get(id)).isEqualTo(expected.get(id));
+                case 1 -> {
+                    UserPoint userPoint = new UserPoint(id, i, i);
+                    cache.put(userPoint);
+                    expected.put(id, userPoint);
+                }
+                case 2 -> {
+                    UserPoint userPoint = new UserPoint(id, i, i);
+                    UserPoint existing = expected.putIfAbsent(id, userPoint);
+                    assertThat(cache.putIfAbsent(userPoint)).isEqualTo(existing != null ? existing : userPoint);
+                }
+                default -> {
+                    cache.evict(id);
+                    expected.remove(id);
+                }
+            }
+            assertThat(cache.size()).isEqualTo(expected.size());
+        }
+    }
+
+    /**
+     * 작성 이유 : 여러 스레드가 서로 다른 유저를 동시에 조회/갱신해도 다른 유저의 값을 돌려주거나 capacity 를 넘지 않는지 확인
+     */
+    @Test
+    @DisplayName("동시에 조회/갱신해도 유저마다 자기 값만 돌려주고 capacity 를 넘지 않는다")
+    void getAndPutConcurrently_keepEntriesConsistent() throws Exception {
+        //given
+        int capacity = 1_024;
+        UserPointCache cache = new UserPointCache(capacity);
+        int threadCount = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        List<Future<Integer>> futures = new ArrayList<>();
+
+        //when
+        for (int t = 0; t < threadCount; t++) {
+            int seed = t;
+            futures.add(executor.submit(() -> {
+                Random random = new Random(seed);
+                int mismatches = 0;
+                for (int i = 0; i < 200_000; i++) {
+                    long id = random.nextInt(4_096);
+                    if (random.nextInt(4) == 0) {
+                        cache.put(new UserPoint(id, id * 10, i));
+                    } else {
+                        UserPoint cached = cache.get(id);
+                        if (cached != null && (cached.id() != id || cached.point() != id * 10)) {
+                            mismatches++;
+                        }
+                    }
+                }
+                return mismatches;
+            }));
+        }
+        int mismatches = 0;
+        for (Future<Integer> future : futures) {
+            mismatches += future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        //then
+        assertThat(mismatches).isZero();
+        assertThat(cache.size()).isLessThanOrEqualTo(capacity);
+        for (long id = 0; id < 4_096; id++) {
+            UserPoint cached = cache.get(id);
+            if (cached != null) {
+                assertThat(cached.point()).isEqualTo(id * 10);
+            }
+        }
+    }
+
+    /**
+     * UserPointCache 와 같은 방식으로 home 슬롯을 계산해서, home 이 slot 인 유저 id 를 count 개 찾는다.
+     */
+    private static List<Long> idsWithHomeSlot(int slot, int slotCount, int count) {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; ids.size() < count; id++) {
+            long hash = id * 0x9e3779b97f4a7c15L;
+            if (((int) (hash ^ (hash >>> 32)) & (slotCount - 1)) == slot) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,301 @@
+package io.hhplus.tdd.pointTest;
+
+import io.hhplus.tdd.cache.UserPointCache;
+import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.journal.PointJournal;
+import io.hhplus.tdd.metrics.PointMetrics;
+import io.hhplus.tdd.point.UserPoint;
+import io.hhplus.tdd.point.UserPointRepository;
+import io.hhplus.tdd.pointTest.support.InMemoryUserPointTable;
+import io.hhplus.tdd.store.TableUserPointStore;
+import io.hhplus.tdd.store.UserPointStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+
+public class UserPointRepositoryTest {
+
+    private final PointMetrics pointMetrics = new PointMetrics(new SimpleMeterRegistry());
+    private final PointJournal pointJournal = new PointJournal(false, "", 0, 0);
+
+    /**
+     * 작성 이유 : 한 번 조회한 유저는 테이블을 다시 거치지 않는지 확인
+     */
+    @Test
+    @DisplayName("캐시된 유저 포인트는 테이블을 조회하지 않는다")
+    void selectById_cached_skipTable() {
+        //given
+        UserPointTable userPointTable = mock(UserPointTable.class);
+        UserPointCache userPointCache = new UserPointCache(10);
+        UserPointRepository userPointRepository = new UserPointRepository(new TableUserPointStore(userPointTable), userPointCache, pointMetrics, pointJournal);
+        UserPoint userPoint = new UserPoint(1L, 100L, 0L);
+        given(userPointTable.selectById(1L)).willReturn(userPoint);
+
+        //when
+        userPointRepository.selectById(1L);
+        UserPoint result = userPointRepository.selectById(1L);
+
+        //then
+        assertThat(result).isEqualTo(userPoint);
+        then(userPointTable).should(times(1)).selectById(1L);
+        assertThat(userPointCache.hitCount()).isEqualTo(1L);
+        assertThat(userPointCache.missCount()).isEqualTo(1L);
+    }
+
+    /**
+     * 작성 이유 : 충전/사용으로 갱신된 값이 바로 조회에 반영되는지 확인 (write-through)
+     */
+    @Test
+    @DisplayName("갱신한 포인트는 테이블 조회 없이 캐시에서 반환된다")
+    void useOrChargePointById_writeThrough_readFromCache() {
+        //given
+        UserPointTable userPointTable = mock(UserPointTable.class);
+        UserPointRepository userPointRepository = new UserPointRepository(new TableUserPointStore(userPointTable), new UserPointCache(10), pointMetrics, pointJournal);
+
+        //when
+        UserPoint updated = userPointRepository.useOrChargePointById(1L, 500L);
+        UserPoint result = userPointRepository.selectById(1L);
+
+        //then
+        assertThat(result).isEqualTo(updated);
+        assertThat(result.point()).isEqualTo(500L);
+        then(userPointTable).should(never()).selectById(1L);
+    }
+
+    /**
+     * 작성 이유 : capacity 를 넘으면 가장 오래 조회되지 않은 유저가 제거되는지 확인
+     */
+    @Test
+    @DisplayName("capacity 초과 시 LRU 유저가 제거된다")
+    void put_overCapacity_evictLeastRecentlyUsed() {
+        //given
+        UserPointCache userPointCache = new UserPointCache(2);
+        userPointCache.put(new UserPoint(1L, 1L, 0L));
+        userPointCache.put(new UserPoint(2L, 2L, 0L));
+        userPointCache.get(1L);
+
+        //when
+        userPointCache.put(new UserPoint(3L, 3L, 0L));
+
+        //then
+        assertThat(userPointCache.size()).isEqualTo(2);
+        assertThat(userPointCache.evictionCount()).isEqualTo(1L);
+        assertThat(userPointCache.get(2L)).isNull();
+        assertThat(userPointCache.get(1L)).isNotNull();
+    }
+
+    /**
+     * 작성 이유 : 읽기 위주 트래픽에서 캐시가 조회 지연을 줄이는지 확인
+     * 실제 시간을 비교하므로 ./gradlew test -DloadTest=true 로 실행한다.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "loadTest", matches = "true")
+    @DisplayName("읽기 위주 트래픽에서 캐시 조회의 p99 가 테이블 조회의 p50 보다 작다")
+    void selectById_readHeavy_latencyDrop() {
+        //given
+        int userCount = 10;
+        int readCount = 300;
+        UserPointTable userPointTable = new InMemoryUserPointTable(2);
+        UserPointRepository userPointRepository = new UserPointRepository(new TableUserPointStore(userPointTable), new UserPointCache(userCount), pointMetrics, pointJournal);
+
+        //when
+        long[] tableNanos = new long[readCount];
+        long[] cachedNanos = new long[readCount];
+        for (int i = 0; i < readCount; i++) {
+            long id = i % userCount;
+            long start = System.nanoTime();
+            userPointTable.selectById(id);
+            tableNanos[i] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            userPointRepository.selectById(id);
+            cachedNanos[i] = System.nanoTime() - start;
+        }
+
+        //then
+        assertThat(percentile(cachedNanos, 99)).isLessThan(percentile(tableNanos, 50));
+    }
+
+    /**
+     * 작성 이유 : 캐시에 없는 유저를 동시에 많이 조회해도 테이블은 한 번만 읽고 모두 같은 결과를 받는지 확인 (single-flight)
+     */
+    @Test
+    @DisplayName("같은 유저를 동시에 1000 번 조회해도 테이블은 한 번만 조회한다")
+    void selectById_concurrentBurst_readTableOnce() throws Exception {
+        //given
+        int readerCount = 1000;
+        UserPointTable userPointTable = spy(new InMemoryUserPointTable(100));
+        userPointTable.insertOrUpdate(1L, 300L);
+        UserPointRepository userPointRepository = new UserPointRepository(new TableUserPointStore(userPointTable), new UserPointCache(10), pointMetrics, pointJournal);
+        ExecutorService executor = Executors.newFixedThreadPool(readerCount);
+        CountDownLatch ready = new CountDownLatch(readerCount);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<UserPoint>> futures = new ArrayList<>();
+        for (int i = 0; i < readerCount; i++) {
+            futures.add(executor.submit(() -> {
+                ready.countDown();
+                start.await();
+                return userPointRepository.selectById(1L);
+            }));
+        }
+
+        //when
+        ready.await();
+        start.countDown();
+        List<UserPoint> results = new ArrayList<>();
+        for (Future<UserPoint> future : futures) {
+            results.add(future.get());
+        }
+        executor.shutdown();
+
+        //then
+        then(userPointTable).should(times(1)).selectById(1L);
+        assertThat(results).hasSize(readerCount).allMatch(userPoint -> userPoint.point() == 300L);
+    }
+
+    /**
+     * 작성 이유 : 테이블 조회가 진행 중일 때 충전/사용이 끝나면, 그 조회를 기다리던 요청과 이후 조회가 갱신 전 값을 받지 않는지 확인
+     */
+    @Test
+    @DisplayName("조회 중에 갱신이 끝나면 조회 결과와 캐시는 갱신한 값이다")
+    void selectById_writeCompletesDuringRead_returnWrittenValue() throws Exception {
+        //given
+        // 조회만 느린 저장소. 갱신은 진행 중인 조회보다 먼저 끝난다.
+        // TableUserPointStore 는 테이블을 읽는 동안 저장을 맵에 먼저 반영하므로, 조회와 갱신이 겹치는 상황을 조회만 느린 저장소로 재현한다.
+        InMemoryUserPointTable userPointTable = new InMemoryUserPointTable(0);
+        UserPointStore userPointStore = new UserPointStore() {
+            @Override
+            public UserPoint selectById(long id) {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return userPointTable.selectById(id);
+            }
+
+            @Override
+            public UserPoint insertOrUpdate(long id, long point) {
+                return userPointTable.insertOrUpdate(id, point);
+            }
+
+            @Override
+            public void forEachUserId(LongConsumer action) {
+                action.accept(1L);
+            }
+        };
+        userPointTable.insertOrUpdate(1L, 100L);
+        UserPointRepository userPointRepository = new UserPointRepository(userPointStore, new UserPointCache(10), pointMetrics, pointJournal);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<UserPoint> reading = executor.submit(() -> userPointRepository.selectById(1L));
+        Thread.sleep(50);
+
+        //when
+        UserPoint written = userPointRepository.useOrChargePointById(1L, 500L);
+        UserPoint read = reading.get();
+        executor.shutdown();
+
+        //then
+        assertThat(read).isEqualTo(written);
+        assertThat(userPointRepository.selectById(1L)).isEqualTo(written);
+    }
+
+    /**
+     * 작성 이유 : 갱신이 캐시에 쓴 뒤 진행 중인 조회를 떼어내기 전에 조회가 끝나고, 그사이 갱신한 값이 캐시에서 밀려나도
+     * 조회가 읽은 갱신 전 값을 캐시에 채우지 않는지 확인
+     */
+    @Test
+    @DisplayName("조회 중에 갱신한 값이 캐시에서 밀려나도 갱신 전 값을 캐시에 채우지 않는다")
+    void selectById_writtenValueEvictedDuringRead_notCacheStale() throws Exception {
+        //given
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch readRelease = new CountDownLatch(1);
+        CountDownLatch cached = new CountDownLatch(1);
+        CountDownLatch writeRelease = new CountDownLatch(1);
+        InMemoryUserPointTable userPointTable = new InMemoryUserPointTable(0);
+        // 유저 1 의 조회는 갱신 전 값을 읽은 채로 멈춘다.
+        UserPointStore userPointStore = new UserPointStore() {
+            @Override
+            public UserPoint selectById(long id) {
+                UserPoint userPoint = userPointTable.selectById(id);
+                if (id == 1L) {
+                    reading.countDown();
+                    await(readRelease);
+                }
+                return userPoint;
+            }
+
+            @Override
+            public UserPoint insertOrUpdate(long id, long point) {
+                return userPointTable.insertOrUpdate(id, point);
+            }
+
+            @Override
+            public void forEachUserId(LongConsumer action) {
+                action.accept(1L);
+            }
+        };
+        // 유저 1 의 갱신은 캐시에 쓴 뒤 멈춘다.
+        UserPointCache userPointCache = new UserPointCache(1) {
+            @Override
+            public void put(UserPoint userPoint) {
+                super.put(userPoint);
+                if (userPoint.id() == 1L) {
+                    cached.countDown();
+                    await(writeRelease);
+                }
+            }
+        };
+        userPointTable.insertOrUpdate(1L, 100L);
+        UserPointRepository userPointRepository = new UserPointRepository(userPointStore, userPointCache, pointMetrics, pointJournal);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<UserPoint> read = executor.submit(() -> userPointRepository.selectById(1L));
+        reading.await();
+        Future<UserPoint> written = executor.submit(() -> userPointRepository.useOrChargePointById(1L, 500L));
+        cached.await();
+
+        //when
+        // capacity 가 1 이므로 유저 2 를 채우면 갱신한 유저 1 이 밀려난다.
+        userPointRepository.selectById(2L);
+        readRelease.countDown();
+        read.get();
+        writeRelease.countDown();
+        written.get();
+        executor.shutdown();
+
+        //then
+        assertThat(userPointRepository.selectById(1L).point()).isEqualTo(500L);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long percentile(long[] nanos, int percentile) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, sorted.length * percentile / 100)];
+    }
+}
@@ -0,0 +1,56 @@
+package io.hhplus.tdd.pointTest.support;
+
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 랜덤 throttle 대신 고정 지연을 갖는 스레드 안전한 PointHistoryTable 대역
+ * - latencyMillis 가 0 이면 지연 없이 동작한다.
+ */
+public class InMemoryPointHistoryTable extends PointHistoryTable {
+
+    private final List<PointHistory> table = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicLong cursor = new AtomicLong(1);
+    private final long latencyMillis;
+
+    public InMemoryPointHistoryTable(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    @Override
+    public PointHistory insert(long userId, long amount, TransactionType type, long updateMillis) {
+        sleep();
+        PointHistory pointHistory = new PointHistory(cursor.getAndIncrement(), userId, amount, type, updateMillis);
+        table.add(pointHistory);
+        return pointHistory;
+    }
+
+    @Override
+    public List<PointHistory> selectAllByUserId(long userId) {
+        synchronized (table) {
+            return table.stream().filter(pointHistory -> pointHistory.userId() == userId).toList();
+        }
+    }
+
+    public int size() {
+        return table.size();
+    }
+
+    private void sleep() {
+        if (latencyMillis <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
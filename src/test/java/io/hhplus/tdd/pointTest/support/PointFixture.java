@@ -0,0 +1,175 @@
+package io.hhplus.tdd.pointTest.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hhplus.tdd.cache.UserPointCache;
+import io.hhplus.tdd.cluster.PointClusterRouter;
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.event.PointEventBus;
+import io.hhplus.tdd.idempotency.IdempotencyStore;
+import io.hhplus.tdd.index.PointHistoryIndex;
+import io.hhplus.tdd.ledger.PointLedger;
+import io.hhplus.tdd.journal.JournalRecovery;
+import io.hhplus.tdd.journal.PointJournal;
+import io.hhplus.tdd.journal.PointSnapshotter;
+import io.hhplus.tdd.lock.UserLockManager;
+import io.hhplus.tdd.metrics.PointMetrics;
+import io.hhplus.tdd.point.PointCombiner;
+import io.hhplus.tdd.point.PointHistoryRepository;
+import io.hhplus.tdd.point.PointService;
+import io.hhplus.tdd.point.UserPointRepository;
+import io.hhplus.tdd.shard.PointShardEngine;
+import io.hhplus.tdd.store.TableUserPointStore;
+import io.hhplus.tdd.writer.PointHistoryWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.List;
+
+/**
+ * 스프링 컨텍스트 없이 PointService 와 하위 컴포넌트를 실제 구현으로 조립한다.
+ * - 테이블은 생성자로 받으므로 대역(InMemory*Table)과 실제 테이블 모두 쓸 수 있다.
+ * - 사용 후 close() 로 포인트 내역 writer 와 잔액 테이블 writer 를 멈춘다.
+ */
+public class PointFixture implements AutoCloseable {
+
+    public final UserPointTable userPointTable;
+    public final PointHistoryTable pointHistoryTable;
+    public final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    public final PointMetrics pointMetrics = new PointMetrics(meterRegistry);
+    public final UserPointCache userPointCache;
+    public final PointJournal pointJournal;
+    public final PointSnapshotter pointSnapshotter;
+    public final PointHistoryIndex pointHistoryIndex = new PointHistoryIndex();
+    public final UserLockManager userLockManager = new UserLockManager(pointMetrics);
+    public final PointCombiner pointCombiner;
+    public final PointEventBus pointEventBus = new PointEventBus(16, 15_000, 600_000, 4, false);
+    public final PointShardEngine pointShardEngine;
+    public final IdempotencyStore idempotencyStore = new IdempotencyStore(60_000, 100_000, System::currentTimeMillis, pointMetrics);
+    public final PointHistoryWriter pointHistoryWriter;
+    public final TableUserPointStore userPointStore;
+    public final UserPointRepository userPointRepository;
+    public final PointHistoryRepository pointHistoryRepository;
+    public final PointLedger pointLedger;
+    public final PointService pointService;
+    /**
+     * 이 노드 혼자 모든 유저를 담당하는 클러스터 라우터. 넘겨받기(accept)를 HTTP 없이 호출할 수 있다.
+     */
+    public final PointClusterRouter pointClusterRouter;
+
+    public PointFixture(UserPointTable userPointTable, PointHistoryTable pointHistoryTable, int cacheCapacity) {
+        this(userPointTable, pointHistoryTable, cacheCapacity, new PointJournal(false, "", 0, 0));
+    }
+
+    /**
+     * 저널을 사용하는 경우. 저널이 켜져 있으면 열고 재생까지 마친 상태로 만든다.
+     * 스냅샷은 주기적으로 만들지 않으므로 필요하면 pointSnapshotter.snapshot() 을 직접 호출한다.
+     */
+    public PointFixture(UserPointTable userPointTable, PointHistoryTable pointHistoryTable, int cacheCapacity, PointJournal pointJournal) {
+        this(userPointTable, pointHistoryTable, cacheCapacity, pointJournal, false);
+    }
+
+    /**
+     * combining 이 true 면 같은 유저의 충전/사용을 모아서 저장하는 모드로 조립한다.
+     */
+    public PointFixture(UserPointTable userPointTable, PointHistoryTable pointHistoryTable, int cacheCapacity, PointJournal pointJournal,
+                        boolean combining) {
+        this(userPointTable, pointHistoryTable, cacheCapacity, pointJournal, combining, 0);
+    }
+
+    /**
+     * shards 가 0 보다 크면 유저 락 대신 shard 스레드로 같은 유저의 변경을 직렬화하는 모드로 조립한다.
+     */
+    public PointFixture(UserPointTable userPointTable, PointHistoryTable pointHistoryTable, int cacheCapacity, PointJournal pointJournal,
+                        boolean combining, int shards) {
+        this(userPointTable, pointHistoryTable, cacheCapacity, pointJournal, combining, shards, false);
+    }
+
+    /**
+     * ledger 가 true 면 내역을 잔액의 원본으로 쓰고 잔액은 projection 에서 읽는 모드로 조립한다.
+     */
+    public PointFixture(UserPointTable userPointTable, PointHistoryTable pointHistoryTable, int cacheCapacity, PointJournal pointJournal,
+                        boolean combining, int shards, boolean ledger) {
+        this.pointShardEngine = new PointShardEngine(shards > 0, shards);
+        this.userPointTable = userPointTable;
+        this.pointHistoryTable = pointHistoryTable;
+        this.userPointCache = new UserPointCache(cacheCapacity);
+        this.pointJournal = pointJournal;
+        this.pointJournal.open();
+        this.pointSnapshotter = new PointSnapshotter(pointJournal, pointMetrics, 0);
+        this.pointCombiner = new PointCombiner(userLockManager, combining);
+        this.pointHistoryWriter = new PointHistoryWriter(pointHistoryTable, pointMetrics, 100_000, 10_000, false);
+        this.pointHistoryWriter.start();
+        this.userPointStore = new TableUserPointStore(userPointTable);
+        this.userPointRepository = new UserPointRepository(userPointStore, userPointCache, pointMetrics, pointJournal);
+        this.pointHistoryRepository = new PointHistoryRepository(pointHistoryIndex, pointHistoryWriter, pointJournal);
+        this.pointLedger = new PointLedger(pointHistoryRepository, pointHistoryIndex, userLockManager, pointShardEngine, ledger, 4);
+        this.pointService = new PointService(userPointRepository, pointHistoryRepository, userLockManager, pointMetrics, idempotencyStore, pointCombiner,
+                pointEventBus, pointShardEngine, pointLedger);
+        this.pointClusterRouter = new PointClusterRouter(userPointRepository, pointHistoryRepository, pointHistoryIndex, pointLedger,
+                new ObjectMapper(), true, "http://localhost:0", List.of(), 128, 5_000, "fixture-secret");
+        new JournalRecovery(pointJournal, pointSnapshotter, userPointRepository, pointHistoryRepository).recover();
+    }
+
+    /**
+     * 저널 디렉토리를 지정해서 고정 지연 테이블 대역으로 조립한다. 같은 디렉토리로 다시 만들면 재시작을 흉내낼 수 있다.
+     * @param latencyMillis
+     * @param journalDir
+     * @return
+     */
+    public static PointFixture journaled(long latencyMillis, String journalDir) {
+        return new PointFixture(new InMemoryUserPointTable(latencyMillis), new InMemoryPointHistoryTable(latencyMillis), 100_000,
+                new PointJournal(true, journalDir, 1 << 20, 2));
+    }
+
+    /**
+     * 고정 지연(latencyMillis)을 갖는 테이블 대역으로 조립한다.
+     * @param latencyMillis
+     * @return
+     */
+    public static PointFixture inMemory(long latencyMillis) {
+        return new PointFixture(new InMemoryUserPointTable(latencyMillis), new InMemoryPointHistoryTable(latencyMillis), 100_000);
+    }
+
+    /**
+     * 고정 지연 테이블 대역에 combining 모드로 조립한다.
+     * @param latencyMillis
+     * @return
+     */
+    public static PointFixture combining(long latencyMillis) {
+        return new PointFixture(new InMemoryUserPointTable(latencyMillis), new InMemoryPointHistoryTable(latencyMillis), 100_000,
+                new PointJournal(false, "", 0, 0), true);
+    }
+
+    /**
+     * 고정 지연 테이블 대역에 sharding 모드로 조립한다.
+     * @param latencyMillis
+     * @param shards
+     * @return
+     */
+    public static PointFixture sharded(long latencyMillis, int shards) {
+        return new PointFixture(new InMemoryUserPointTable(latencyMillis), new InMemoryPointHistoryTable(latencyMillis), 100_000,
+                new PointJournal(false, "", 0, 0), false, shards);
+    }
+
+    /**
+     * 고정 지연 테이블 대역에 ledger 모드로 조립한다. shards 가 0 보다 크면 sharding 모드도 함께 켠다.
+     * @param latencyMillis
+     * @param shards
+     * @return
+     */
+    public static PointFixture ledger(long latencyMillis, int shards) {
+        return new PointFixture(new InMemoryUserPointTable(latencyMillis), new InMemoryPointHistoryTable(latencyMillis), 100_000,
+                new PointJournal(false, "", 0, 0), false, shards, true);
+    }
+
+    @Override
+    public void close() {
+        pointSnapshotter.stop();
+        pointHistoryWriter.stop();
+        userPointStore.stop();
+        pointJournal.close();
+        pointEventBus.stop();
+        pointLedger.stop();
+        pointShardEngine.stop();
+    }
+}
@@ -0,0 +1,50 @@
+package io.hhplus.tdd.pointTest.support;
+
+import io.hhplus.tdd.journal.PointJournal;
+import io.hhplus.tdd.point.UserPoint;
+
+/**
+ * 스냅샷 도중 강제 종료 테스트에서 별도 프로세스로 실행하는 앱
+ * - 유저마다 스레드 하나가 1포인트씩 계속 충전하고, 충전이 반환될 때마다 "ack {userId} {충전 횟수}" 를 출력한다.
+ * - 스냅샷 스레드는 쉬지 않고 스냅샷을 만들고, 시작할 때마다 "snapshot" 을 출력한다.
+ * - 스냅샷 한 번에 시간이 걸리도록 시작 전에 SEED_USER_ID 부터 args[1] 명의 잔액을 저널에 미리 기록해둔다.
+ * - 부모 프로세스가 강제 종료할 때까지 멈추지 않는다.
+ */
+public class SnapshotCrashApp {
+
+    public static final int USERS = 16;
+    public static final long SEED_USER_ID = 1_000_000L;
+    public static final long SEED_POINT = 1_000L;
+
+    public static void main(String[] args) {
+        int seedUsers = Integer.parseInt(args[1]);
+        PointJournal seed = new PointJournal(true, args[0], 1 << 20, 0);
+        seed.open();
+        for (long id = SEED_USER_ID; id < SEED_USER_ID + seedUsers; id++) {
+            seed.appendBalance(new UserPoint(id, SEED_POINT, 0L));
+        }
+        seed.close();
+
+        PointFixture fixture = PointFixture.journaled(0, args[0]);
+        for (long userId = 1; userId <= USERS; userId++) {
+            long id = userId;
+            Thread.ofPlatform().start(() -> {
+                for (long count = 1; ; count++) {
+                    fixture.pointService.chargeUserPoint(id, 1L);
+                    print("ack " + id + " " + count);
+                }
+            });
+        }
+        Thread.ofPlatform().start(() -> {
+            while (true) {
+                print("snapshot");
+                fixture.pointSnapshotter.snapshot();
+            }
+        });
+    }
+
+    private static synchronized void print(String line) {
+        System.out.println(line);
+        System.out.flush();
+    }
+}